@@ -82,6 +82,9 @@ dependencies {
 
     //Glide
     implementation("com.github.bumptech.glide:glide:4.16.0")
+    implementation("com.github.bumptech.glide:recyclerview-integration:4.16.0") {
+        isTransitive = false
+    }
     annotationProcessor("com.github.bumptech.glide:compiler:4.16.0")
 
     testImplementation("org.robolectric:robolectric:4.11.1")
@@ -6,6 +6,7 @@ import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.platform.app.InstrumentationRegistry;
 
 import com.example.myapplication.data.firebase.FirebaseEventRepository;
+import com.example.myapplication.features.user.UserEvent;
 import com.google.android.gms.tasks.TaskCompletionSource;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.DocumentSnapshot;
@@ -14,7 +15,6 @@ import com.google.firebase.firestore.FirebaseFirestore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
-import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
@@ -44,15 +44,9 @@ public class ExampleInstrumentedTest {
         FirebaseFirestore db = FirebaseFirestore.getInstance();
         FirebaseEventRepository repo = new FirebaseEventRepository();
 
-        DocumentSnapshot beforeSnap = Tasks.await(
-                db.collection("events").document(eventId).get(),
-                15,
-                TimeUnit.SECONDS
-        );
-
-        List<String> beforeList = (List<String>) beforeSnap.get("waitlist");
-        int beforeSize = beforeList == null ? 0 : beforeList.size();
-        boolean userAlreadyInList = beforeList != null && beforeList.contains(userId);
+        // Migrates a legacy waitlist array first, so the count below is accurate.
+        long beforeSize = waitlistCount(eventId);
+        boolean userAlreadyInList = isEntrant(db, eventId, userId);
 
         final TaskCompletionSource<Void> waiter = new TaskCompletionSource<>();
 
@@ -68,21 +62,13 @@ public class ExampleInstrumentedTest {
 
         Tasks.await(waiter.getTask(), 15, TimeUnit.SECONDS);
 
-        DocumentSnapshot afterSnap = Tasks.await(
-                db.collection("events").document(eventId).get(),
-                15,
-                TimeUnit.SECONDS
-        );
+        assertTrue("entrants should contain the userId after joinWaitlist", isEntrant(db, eventId, userId));
 
-        List<String> afterList = (List<String>) afterSnap.get("waitlist");
-        assertNotNull("waitlist field should not be null after joinWaitlist", afterList);
-        assertTrue("waitlist should contain the userId after joinWaitlist", afterList.contains(userId));
-
-        int expectedSize = beforeSize + (userAlreadyInList ? 0 : 1);
+        long expectedSize = beforeSize + (userAlreadyInList ? 0 : 1);
         assertEquals(
-                "waitlist size should increment by 1 only if user was not already present",
+                "waitlistCount should increment by 1 only if user was not already present",
                 expectedSize,
-                afterList.size()
+                waitlistCount(eventId)
         );
     }
 
@@ -97,6 +83,9 @@ public class ExampleInstrumentedTest {
         FirebaseFirestore db = FirebaseFirestore.getInstance();
         FirebaseEventRepository repo = new FirebaseEventRepository();
 
+        long beforeSize = waitlistCount(eventId);
+        boolean userAlreadyInList = isEntrant(db, eventId, userId);
+
         TaskCompletionSource<Void> waiter1 = new TaskCompletionSource<>();
         repo.joinWaitlist(
                 eventId,
@@ -119,24 +108,12 @@ public class ExampleInstrumentedTest {
         );
         Tasks.await(waiter2.getTask(), 15, TimeUnit.SECONDS);
 
-        DocumentSnapshot snap = Tasks.await(
-                db.collection("events").document(eventId).get(),
-                15,
-                TimeUnit.SECONDS
+        assertTrue("entrants should contain the userId", isEntrant(db, eventId, userId));
+        assertEquals(
+                "joining twice should count the user once",
+                beforeSize + (userAlreadyInList ? 0 : 1),
+                waitlistCount(eventId)
         );
-
-        List<String> list = (List<String>) snap.get("waitlist");
-        assertNotNull("waitlist should not be null", list);
-
-        // Count occurrences without streams (for max compatibility)
-        int occurrences = 0;
-        for (String id : list) {
-            if (userId.equals(id)) {
-                occurrences++;
-            }
-        }
-
-        assertEquals("userId should appear exactly once in waitlist", 1, occurrences);
     }
 
     /**
@@ -162,15 +139,8 @@ public class ExampleInstrumentedTest {
         );
         Tasks.await(joinWaiter.getTask(), 15, TimeUnit.SECONDS);
 
-        DocumentSnapshot beforeSnap = Tasks.await(
-                db.collection("events").document(eventId).get(),
-                15,
-                TimeUnit.SECONDS
-        );
-
-        List<String> beforeList = (List<String>) beforeSnap.get("waitlist");
-        int beforeSize = beforeList == null ? 0 : beforeList.size();
-        boolean userWasPresent = beforeList != null && beforeList.contains(userId);
+        long beforeSize = waitlistCount(eventId);
+        boolean userWasPresent = isEntrant(db, eventId, userId);
 
         TaskCompletionSource<Void> leaveWaiter = new TaskCompletionSource<>();
         repo.leaveWaitlist(
@@ -182,24 +152,45 @@ public class ExampleInstrumentedTest {
 
         Tasks.await(leaveWaiter.getTask(), 15, TimeUnit.SECONDS);
 
-        DocumentSnapshot afterSnap = Tasks.await(
-                db.collection("events").document(eventId).get(),
+        assertFalse("entrants should not contain userId after leaveWaitlist", isEntrant(db, eventId, userId));
+        long expectedSize = beforeSize - (userWasPresent ? 1 : 0);
+        assertEquals(
+                "waitlistCount should decrease by 1 only if user was present",
+                expectedSize,
+                waitlistCount(eventId)
+        );
+    }
+
+    /**
+     * Reads the event through the repository, which migrates any legacy waitlist array,
+     * and returns its maintained waitlist count.
+     */
+    private long waitlistCount(String eventId) throws Exception {
+        TaskCompletionSource<Integer> count = new TaskCompletionSource<>();
+        new FirebaseEventRepository().fetchEventById(eventId, new FirebaseEventRepository.SingleEventCallback() {
+            @Override
+            public void onEventFetched(UserEvent event) {
+                count.setResult(event.getWaitlistCount());
+            }
+
+            @Override
+            public void onError(Exception e) {
+                count.setException(e);
+            }
+        });
+        return Tasks.await(count.getTask(), 15, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Checks whether the user has an entrant document under the event.
+     */
+    private boolean isEntrant(FirebaseFirestore db, String eventId, String userId) throws Exception {
+        DocumentSnapshot snap = Tasks.await(
+                db.collection("events").document(eventId)
+                        .collection(FirebaseEventRepository.ENTRANTS).document(userId).get(),
                 15,
                 TimeUnit.SECONDS
         );
-        List<String> afterList = (List<String>) afterSnap.get("waitlist");
-
-        if (afterList == null) {
-            // If the field was removed, the user is definitely not present
-            assertFalse("waitlist should no longer contain userId", userWasPresent);
-        } else {
-            assertFalse("waitlist should not contain userId after leaveWaitlist", afterList.contains(userId));
-            int expectedSize = beforeSize - (userWasPresent ? 1 : 0);
-            assertEquals(
-                    "waitlist size should decrease by 1 only if user was present",
-                    expectedSize,
-                    afterList.size()
-            );
-        }
+        return snap.exists();
     }
 }
@@ -4,6 +4,7 @@ import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import com.example.myapplication.data.firebase.FirebaseEventRepository;
 import com.example.myapplication.features.user.UserEvent;
+import com.google.android.gms.tasks.TaskCompletionSource;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.AuthResult;
 import com.google.firebase.auth.FirebaseAuth;
@@ -422,16 +423,17 @@ public class UserHomeTest {
         eventWithWaitlist.setEntrantsToDraw(25);
         eventWithWaitlist.setGeoRequired(false);
 
-        // Create waitlist with some user IDs
-        List<String> waitlist = new ArrayList<>();
-        waitlist.add("user1");
-        waitlist.add("user2");
-        waitlist.add("user3");
-        eventWithWaitlist.setWaitlist(waitlist);
-
         String eventId = createEventInFirestore(eventWithWaitlist);
 
-        // Fetch and verify waitlist
+        // Join the waitlist with some user IDs
+        for (String uid : new String[]{"user1", "user2", "user3"}) {
+            TaskCompletionSource<Void> joined = new TaskCompletionSource<>();
+            eventRepository.joinWaitlist(eventId, uid, null, null,
+                    v -> joined.setResult(null), joined::setException);
+            Tasks.await(joined.getTask(), 10, TimeUnit.SECONDS);
+        }
+
+        // Fetch and verify the maintained count
         DocumentSnapshot snapshot = Tasks.await(
             db.collection("events").document(eventId).get(),
             10,
@@ -440,11 +442,24 @@ public class UserHomeTest {
 
         UserEvent fetched = snapshot.toObject(UserEvent.class);
         assertNotNull("Event should be fetched", fetched);
-        assertNotNull("Waitlist should not be null", fetched.getWaitlist());
-        assertEquals("Waitlist should have 3 users", 3, fetched.getWaitlist().size());
-        assertTrue("Waitlist should contain user1", fetched.getWaitlist().contains("user1"));
-        assertTrue("Waitlist should contain user2", fetched.getWaitlist().contains("user2"));
-        assertTrue("Waitlist should contain user3", fetched.getWaitlist().contains("user3"));
+        assertEquals("Waitlist should have 3 users", 3, fetched.getWaitlistCount());
+        assertNull("Waitlist should not be stored on the event", snapshot.get("waitlist"));
+
+        // Verify the entrant documents
+        QuerySnapshot entrants = Tasks.await(
+            db.collection("events").document(eventId)
+                .collection(FirebaseEventRepository.ENTRANTS).get(),
+            10,
+            TimeUnit.SECONDS
+        );
+        List<String> ids = new ArrayList<>();
+        for (DocumentSnapshot doc : entrants.getDocuments()) {
+            ids.add(doc.getId());
+        }
+        assertEquals("Waitlist should have 3 entrant documents", 3, ids.size());
+        assertTrue("Waitlist should contain user1", ids.contains("user1"));
+        assertTrue("Waitlist should contain user2", ids.contains("user2"));
+        assertTrue("Waitlist should contain user3", ids.contains("user3"));
 
         System.out.println("Fetch event with waitlist test passed");
     }
@@ -0,0 +1,97 @@
+package com.example.myapplication.core;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.module.AppGlideModule;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.request.target.Target;
+
+/**
+ * Configures the app's Glide instance.
+ * <p>
+ * The memory cache holds {@link #MEMORY_CACHE_SCREENS} screens of images, so the event grid
+ * keeps the visible rows plus the rows preloaded ahead of them. Recycled bitmaps go to a
+ * pool of {@link #BITMAP_POOL_SCREENS} screens, and downloads to a disk cache of
+ * {@link #DISK_CACHE_BYTES}. Images decode as RGB_565 unless they have transparency, which
+ * halves the memory of opaque posters. Every finished load is counted in
+ * {@link ImageCacheStats}.
+ */
+@GlideModule
+public final class AppImageModule extends AppGlideModule {
+
+    static final float MEMORY_CACHE_SCREENS = 3;
+    static final float BITMAP_POOL_SCREENS = 2;
+    static final long DISK_CACHE_BYTES = 100L * 1024 * 1024;
+    static final String DISK_CACHE_NAME = "images";
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        MemorySizeCalculator sizes = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(MEMORY_CACHE_SCREENS)
+                .setBitmapPoolScreens(BITMAP_POOL_SCREENS)
+                .build();
+        builder.setMemoryCache(new LruResourceCache(sizes.getMemoryCacheSize()));
+        builder.setBitmapPool(new LruBitmapPool(sizes.getBitmapPoolSize()));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_NAME, DISK_CACHE_BYTES));
+        builder.setDefaultRequestOptions(new RequestOptions().format(DecodeFormat.PREFER_RGB_565));
+        builder.addGlobalRequestListener(new StatsListener(ImageCacheStats.get()));
+    }
+
+    /**
+     * The app has no Glide modules in its manifest, so skip looking for them.
+     */
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+
+    /**
+     * Records where each load was served from. Returns false so targets still get the result.
+     */
+    private static final class StatsListener implements RequestListener<Object> {
+
+        private final ImageCacheStats stats;
+
+        StatsListener(ImageCacheStats stats) {
+            this.stats = stats;
+        }
+
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, Object model,
+                                    Target<Object> target, boolean isFirstResource) {
+            stats.recordFailure();
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(Object resource, Object model, Target<Object> target,
+                                       DataSource dataSource, boolean isFirstResource) {
+            switch (dataSource) {
+                case MEMORY_CACHE:
+                    stats.recordMemoryHit();
+                    break;
+                case RESOURCE_DISK_CACHE:
+                case DATA_DISK_CACHE:
+                    stats.recordDiskHit();
+                    break;
+                default:
+                    stats.recordRemoteLoad();
+                    break;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.myapplication.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The background threads shared by the whole app for work that must stay off the main thread:
+ * searches, geocoding, image preparation, QR encoding and map indexing.
+ *
+ * The pool is created on first use and has a few daemon threads, so a slow geocode does not
+ * hold up a search and the threads never keep the process alive. Results must be posted back
+ * to the main thread by the caller.
+ */
+public final class BackgroundExecutor {
+
+    /** Enough threads that one blocking network call does not stall the others. */
+    private static final int THREADS =
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private static ExecutorService executor;
+
+    private BackgroundExecutor() {}
+
+    /**
+     * @return the shared background executor
+     */
+    @NonNull
+    public static synchronized Executor get() {
+        if (executor == null) {
+            AtomicInteger count = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(THREADS, task -> {
+                Thread thread = new Thread(task, "background-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+}
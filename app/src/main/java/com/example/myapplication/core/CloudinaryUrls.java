@@ -0,0 +1,106 @@
+package com.example.myapplication.core;
+
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Rewrites Cloudinary image URLs into variants sized for the view that shows them.
+ * <p>
+ * Uploaded images are stored once at up to {@link ImagePreparer#MAX_DIMENSION} pixels.
+ * A variant URL asks Cloudinary for a copy no wider than the view in device pixels
+ * ({@code c_limit} never upscales), in the best format the device accepts ({@code f_auto})
+ * and at an automatic quality ({@code q_auto}). Widths are rounded up to
+ * {@link #WIDTH_STEP_PX} so views of similar size share one cached variant, both on the CDN
+ * and in Glide's disk cache.
+ * <p>
+ * URLs that are not Cloudinary uploads, or that already carry a transformation, are
+ * returned unchanged.
+ */
+public final class CloudinaryUrls {
+
+    /** Requested widths are rounded up to a multiple of this many pixels. */
+    static final int WIDTH_STEP_PX = 160;
+
+    /** Width of the placeholder shown while a grid image loads. */
+    static final int THUMBNAIL_WIDTH_PX = 48;
+
+    private static final String HOST = "res.cloudinary.com/";
+    private static final String UPLOAD = "/image/upload/";
+
+    private CloudinaryUrls() {}
+
+    /**
+     * @param url     the stored image URL
+     * @param widthPx the width the image is shown at, in pixels
+     * @return a URL for a copy at most {@code widthPx} wide, or {@code url} if it cannot be rewritten
+     */
+    @Nullable
+    public static String sized(@Nullable String url, int widthPx) {
+        return transform(url, "w_" + bucket(widthPx) + ",c_limit,f_auto,q_auto");
+    }
+
+    /**
+     * @param url the stored image URL
+     * @return a URL for a tiny, low quality copy to show while the sized image loads,
+     * or {@code url} if it cannot be rewritten
+     */
+    @Nullable
+    public static String thumbnail(@Nullable String url) {
+        return transform(url, "w_" + THUMBNAIL_WIDTH_PX + ",c_limit,f_auto,q_auto:low");
+    }
+
+    /**
+     * Returns the width a view shows images at. Views that are not laid out yet, such as a
+     * freshly inflated list cell, use their expected width instead.
+     *
+     * @param view       the view the image is loaded into
+     * @param fallbackDp the expected width in dp, used when the view has no width yet
+     * @return the width in pixels
+     */
+    public static int widthPx(@NonNull View view, int fallbackDp) {
+        int width = view.getWidth();
+        if (width > 0) {
+            return width;
+        }
+        return Math.round(fallbackDp * view.getResources().getDisplayMetrics().density);
+    }
+
+    /**
+     * @return the width rounded up to a multiple of {@link #WIDTH_STEP_PX}, at most
+     * {@link ImagePreparer#MAX_DIMENSION}
+     */
+    static int bucket(int widthPx) {
+        int steps = Math.max(1, (widthPx + WIDTH_STEP_PX - 1) / WIDTH_STEP_PX);
+        return Math.min(steps * WIDTH_STEP_PX, ImagePreparer.MAX_DIMENSION);
+    }
+
+    private static String transform(String url, String transformation) {
+        if (url == null || !url.contains(HOST)) {
+            return url;
+        }
+        int upload = url.indexOf(UPLOAD);
+        if (upload < 0) {
+            return url;
+        }
+        int rest = upload + UPLOAD.length();
+        if (isTransformed(url, rest)) {
+            return url;
+        }
+        return url.substring(0, rest) + transformation + "/" + url.substring(rest);
+    }
+
+    /**
+     * The segment after {@code /upload/} is a version ({@code v123}), the public id, or an
+     * existing transformation such as {@code w_300,c_fill}.
+     */
+    private static boolean isTransformed(String url, int segmentStart) {
+        int end = url.indexOf('/', segmentStart);
+        if (end < 0) {
+            return false;
+        }
+        String segment = url.substring(segmentStart, end);
+        return segment.contains(",") || segment.matches("[a-z]{1,3}_[^/]*");
+    }
+}
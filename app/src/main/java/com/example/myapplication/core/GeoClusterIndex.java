@@ -0,0 +1,251 @@
+package com.example.myapplication.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable multi-zoom cluster index for map points.
+ * <p>
+ * Points are projected to Web Mercator world coordinates in [0, 1]. At each zoom level the
+ * world is split into square cells of {@link #CELL_PX} screen pixels, and a cell's points
+ * are merged into one {@link Cluster} at their centroid. A cell at zoom {@code z} covers
+ * exactly four cells at {@code z + 1}, so levels are built bottom-up from the level below,
+ * like a quadtree: building costs one pass over the points plus one pass per level over
+ * the clusters of the level below.
+ * <p>
+ * {@link #clusters} only looks at cells inside the viewport, so rendering cost depends on
+ * the screen size and not on the number of points. Build the index off the main thread; it
+ * is safe to query from any thread once built.
+ */
+public final class GeoClusterIndex {
+
+    /** Cluster cell size in screen pixels. */
+    public static final int CELL_PX = 64;
+
+    /** Deepest zoom level with its own clusters; deeper zooms reuse it. */
+    public static final int MAX_ZOOM = 18;
+
+    private static final double MAX_LATITUDE = 85.05112878;
+    private static final int TILE_PX = 256;
+
+    /**
+     * Points merged into one cell at one zoom level.
+     */
+    public static final class Cluster {
+        private final long cell;
+        private final int count;
+        private final double sumX;
+        private final double sumY;
+
+        Cluster(long cell, int count, double sumX, double sumY) {
+            this.cell = cell;
+            this.count = count;
+            this.sumX = sumX;
+            this.sumY = sumY;
+        }
+
+        /** @return an id unique among the clusters of one zoom level */
+        public long getCell() { return cell; }
+
+        /** @return the number of points in the cluster */
+        public int getCount() { return count; }
+
+        /** @return the centroid's world x, from 0 at 180 degrees west to 1 at 180 degrees east */
+        public double getX() { return sumX / count; }
+
+        /** @return the centroid's world y, from 0 at the north edge to 1 at the south edge */
+        public double getY() { return sumY / count; }
+
+        public double getLatitude() { return latitude(getY()); }
+
+        public double getLongitude() { return longitude(getX()); }
+    }
+
+    private final List<Map<Long, Cluster>> levels;
+    private final int size;
+
+    private GeoClusterIndex(List<Map<Long, Cluster>> levels, int size) {
+        this.levels = levels;
+        this.size = size;
+    }
+
+    /**
+     * Builds the index.
+     *
+     * @param latitudes  point latitudes in degrees
+     * @param longitudes point longitudes in degrees, the same length as {@code latitudes}
+     * @return the index
+     */
+    @NonNull
+    public static GeoClusterIndex build(@NonNull double[] latitudes, @NonNull double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("latitudes and longitudes differ in length");
+        }
+        List<Map<Long, Cluster>> levels = new ArrayList<>(Collections.nCopies(MAX_ZOOM + 1, null));
+
+        Map<Long, Cluster> deepest = new HashMap<>();
+        long cells = cellsPerSide(MAX_ZOOM);
+        for (int i = 0; i < latitudes.length; i++) {
+            double x = worldX(longitudes[i]);
+            double y = worldY(latitudes[i]);
+            long cell = key(cellOf(x, cells), cellOf(y, cells));
+            deepest.put(cell, merge(deepest.get(cell), cell, 1, x, y));
+        }
+        levels.set(MAX_ZOOM, deepest);
+
+        for (int zoom = MAX_ZOOM - 1; zoom >= 0; zoom--) {
+            Map<Long, Cluster> level = new HashMap<>();
+            for (Cluster child : levels.get(zoom + 1).values()) {
+                long cell = key(cellX(child.cell) >> 1, cellY(child.cell) >> 1);
+                level.put(cell, merge(level.get(cell), cell, child.count, child.sumX, child.sumY));
+            }
+            levels.set(zoom, level);
+        }
+        return new GeoClusterIndex(levels, latitudes.length);
+    }
+
+    /**
+     * @return the number of points indexed
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the clusters for a zoom level whose cells overlap a viewport. A viewport whose
+     * west edge is east of its east edge crosses the antimeridian.
+     *
+     * @param zoom  the map zoom; fractions are dropped and deep zooms use {@link #MAX_ZOOM}
+     * @param south south edge in degrees
+     * @param west  west edge in degrees
+     * @param north north edge in degrees
+     * @param east  east edge in degrees
+     * @return the clusters, in no particular order
+     */
+    @NonNull
+    public List<Cluster> clusters(float zoom, double south, double west, double north, double east) {
+        int level = level(zoom);
+        double minY = worldY(north);
+        double maxY = worldY(south);
+        List<Cluster> out = new ArrayList<>();
+        if (west > east) {
+            collect(level, worldX(west), minY, 1, maxY, out);
+            collect(level, 0, minY, worldX(east), maxY, out);
+        } else {
+            collect(level, worldX(west), minY, worldX(east), maxY, out);
+        }
+        return out;
+    }
+
+    /**
+     * Returns the clusters of one level whose cells overlap a rectangle in world
+     * coordinates.
+     *
+     * @param level the zoom level, from 0 to {@link #MAX_ZOOM}
+     * @return the clusters, in no particular order
+     */
+    @NonNull
+    public List<Cluster> clustersInWorld(int level, double minX, double minY, double maxX, double maxY) {
+        List<Cluster> out = new ArrayList<>();
+        collect(level, minX, minY, maxX, maxY, out);
+        return out;
+    }
+
+    /**
+     * Visits the cells in the rectangle when there are fewer of them than clusters in the
+     * level, otherwise filters the level's clusters.
+     */
+    private void collect(int level, double minX, double minY, double maxX, double maxY, List<Cluster> out) {
+        Map<Long, Cluster> clusters = levels.get(level);
+        long cells = cellsPerSide(level);
+        long x0 = cellOf(minX, cells);
+        long x1 = cellOf(maxX, cells);
+        long y0 = cellOf(minY, cells);
+        long y1 = cellOf(maxY, cells);
+        if (x1 < x0 || y1 < y0) {
+            return;
+        }
+        if ((x1 - x0 + 1) * (y1 - y0 + 1) <= clusters.size()) {
+            for (long x = x0; x <= x1; x++) {
+                for (long y = y0; y <= y1; y++) {
+                    Cluster c = clusters.get(key(x, y));
+                    if (c != null) {
+                        out.add(c);
+                    }
+                }
+            }
+        } else {
+            for (Cluster c : clusters.values()) {
+                long x = cellX(c.cell);
+                long y = cellY(c.cell);
+                if (x >= x0 && x <= x1 && y >= y0 && y <= y1) {
+                    out.add(c);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the index level used for a map zoom
+     */
+    public static int level(float zoom) {
+        return Math.max(0, Math.min(MAX_ZOOM, (int) Math.floor(zoom)));
+    }
+
+    /**
+     * @return the Web Mercator x of a longitude, from 0 to 1
+     */
+    public static double worldX(double longitude) {
+        return Math.max(0, Math.min(1, (longitude + 180) / 360));
+    }
+
+    /**
+     * @return the Web Mercator y of a latitude, from 0 at the north edge to 1 at the south
+     */
+    public static double worldY(double latitude) {
+        double lat = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude));
+        double sin = Math.sin(Math.toRadians(lat));
+        double y = 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+        return Math.max(0, Math.min(1, y));
+    }
+
+    static double longitude(double worldX) {
+        return worldX * 360 - 180;
+    }
+
+    static double latitude(double worldY) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * worldY))));
+    }
+
+    private static long cellsPerSide(int level) {
+        return (1L << level) * TILE_PX / CELL_PX;
+    }
+
+    private static long cellOf(double world, long cells) {
+        return Math.min(cells - 1, (long) Math.floor(world * cells));
+    }
+
+    private static long key(long x, long y) {
+        return (x << 32) | y;
+    }
+
+    private static long cellX(long key) {
+        return key >>> 32;
+    }
+
+    private static long cellY(long key) {
+        return key & 0xFFFFFFFFL;
+    }
+
+    private static Cluster merge(Cluster existing, long cell, int count, double sumX, double sumY) {
+        if (existing == null) {
+            return new Cluster(cell, count, sumX, sumY);
+        }
+        return new Cluster(cell, existing.count + count, existing.sumX + sumX, existing.sumY + sumY);
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.myapplication.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Geohash encoding and the cell coverings used for location range queries.
+ * <p>
+ * A geohash interleaves longitude and latitude bits into base-32 characters, so points that
+ * share a prefix lie in the same cell, and every point in a cell sorts between the cell's
+ * prefix and that prefix followed by {@code '~'}. A bounding box is answered by range scans
+ * over the few cells in {@link #cover}; cells overhang the box, so results are filtered
+ * exactly afterwards with {@link #contains} or {@link #distanceMeters}.
+ */
+public final class GeoHash {
+
+    /** Characters stored for each location, a cell of about 5 m. */
+    public static final int PRECISION = 9;
+
+    /** Longest prefix stored alongside each location, a cell of about 1.2 km by 0.6 km. */
+    public static final int PREFIX_PRECISION = 6;
+
+    /** Most cells {@link #cover} returns for a box on one side of the antimeridian. */
+    public static final int MAX_CELLS = 9;
+
+    /**
+     * The cell that contains every point. {@link #cover} returns it alone for boxes too large
+     * for {@link #MAX_CELLS} one-character cells; its range scan reads every location.
+     */
+    public static final String WHOLE_WORLD = "";
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final double EARTH_RADIUS_M = 6_371_008.8;
+    private static final double METERS_PER_DEGREE_LAT = EARTH_RADIUS_M * Math.PI / 180;
+
+    private GeoHash() {}
+
+    /**
+     * @return the geohash of a point with {@code precision} characters
+     */
+    @NonNull
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean lngBit = true;
+        int bits = 0;
+        int ch = 0;
+        while (hash.length() < precision) {
+            if (lngBit) {
+                double mid = (minLng + maxLng) / 2;
+                if (longitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLng = mid;
+                } else {
+                    ch <<= 1;
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch <<= 1;
+                    maxLat = mid;
+                }
+            }
+            lngBit = !lngBit;
+            if (++bits == 5) {
+                hash.append(BASE32.charAt(ch));
+                bits = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * @return the centre of a cell, as {latitude, longitude}
+     */
+    @NonNull
+    public static double[] center(@NonNull String cell) {
+        double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+        boolean lngBit = true;
+        for (int i = 0; i < cell.length(); i++) {
+            int ch = BASE32.indexOf(cell.charAt(i));
+            for (int bit = 4; bit >= 0; bit--) {
+                boolean set = ((ch >> bit) & 1) == 1;
+                if (lngBit) {
+                    double mid = (minLng + maxLng) / 2;
+                    if (set) minLng = mid; else maxLng = mid;
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) minLat = mid; else maxLat = mid;
+                }
+                lngBit = !lngBit;
+            }
+        }
+        return new double[]{(minLat + maxLat) / 2, (minLng + maxLng) / 2};
+    }
+
+    /**
+     * @return the 32 cells one character longer than {@code cell}; for {@link #WHOLE_WORLD},
+     * the one-character cells
+     */
+    @NonNull
+    public static List<String> children(@NonNull String cell) {
+        List<String> children = new ArrayList<>(BASE32.length());
+        for (int i = 0; i < BASE32.length(); i++) {
+            children.add(cell + BASE32.charAt(i));
+        }
+        return children;
+    }
+
+    /**
+     * @return the prefixes of {@code hash} from one character up to {@link #PREFIX_PRECISION}
+     */
+    @NonNull
+    public static List<String> prefixes(@NonNull String hash) {
+        int longest = Math.min(hash.length(), PREFIX_PRECISION);
+        List<String> prefixes = new ArrayList<>(longest);
+        for (int i = 1; i <= longest; i++) {
+            prefixes.add(hash.substring(0, i));
+        }
+        return prefixes;
+    }
+
+    /**
+     * Returns cells that together contain the box, at the finest precision that needs no more
+     * than {@link #MAX_CELLS} cells. A box so large that even one-character cells would exceed
+     * that is covered by {@link #WHOLE_WORLD} alone. A box whose west edge is east of its east
+     * edge crosses the antimeridian and is covered as two boxes, so it can get up to twice
+     * {@link #MAX_CELLS} cells.
+     *
+     * @return distinct cell prefixes; every point in the box has one of them as a prefix
+     */
+    @NonNull
+    public static List<String> cover(double south, double west, double north, double east) {
+        if (west > east) {
+            Set<String> cells = new LinkedHashSet<>(cover(south, west, north, 180));
+            cells.addAll(cover(south, -180, north, east));
+            return cells.contains(WHOLE_WORLD)
+                    ? Collections.singletonList(WHOLE_WORLD)
+                    : new ArrayList<>(cells);
+        }
+        int precision = PRECISION;
+        while (cellCount(south, west, north, east, precision) > MAX_CELLS) {
+            if (precision == 1) {
+                return Collections.singletonList(WHOLE_WORLD);
+            }
+            precision--;
+        }
+        double cellLat = cellHeight(precision);
+        double cellLng = cellWidth(precision);
+
+        Set<String> cells = new LinkedHashSet<>();
+        for (double lat = south; ; lat = Math.min(north, lat + cellLat)) {
+            for (double lng = west; ; lng = Math.min(east, lng + cellLng)) {
+                cells.add(encode(lat, lng, precision));
+                if (lng >= east) break;
+            }
+            if (lat >= north) break;
+        }
+        return new ArrayList<>(cells);
+    }
+
+    /**
+     * @return a box, as {south, west, north, east}, holding every point within
+     * {@code radiusMeters} of the centre; near a pole it spans every longitude
+     */
+    @NonNull
+    public static double[] boundsAround(double latitude, double longitude, double radiusMeters) {
+        double dLat = radiusMeters / METERS_PER_DEGREE_LAT;
+        double south = Math.max(-90, latitude - dLat);
+        double north = Math.min(90, latitude + dLat);
+        double cos = Math.cos(Math.toRadians(Math.max(Math.abs(south), Math.abs(north))));
+        if (north >= 90 || south <= -90 || cos <= 0 || dLat / cos >= 180) {
+            return new double[]{south, -180, north, 180};
+        }
+        double dLng = dLat / cos;
+        return new double[]{south, wrap(longitude - dLng), north, wrap(longitude + dLng)};
+    }
+
+    /**
+     * @return whether a point is in the box, which may cross the antimeridian
+     */
+    public static boolean contains(double south, double west, double north, double east,
+                                   double latitude, double longitude) {
+        if (latitude < south || latitude > north) {
+            return false;
+        }
+        return west <= east
+                ? longitude >= west && longitude <= east
+                : longitude >= west || longitude <= east;
+    }
+
+    /**
+     * @return the great-circle distance between two points in metres
+     */
+    public static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_M * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    static double cellWidth(int precision) {
+        return 360 / Math.pow(2, (5 * precision + 1) / 2);
+    }
+
+    static double cellHeight(int precision) {
+        return 180 / Math.pow(2, 5 * precision / 2);
+    }
+
+    private static long cellCount(double south, double west, double north, double east, int precision) {
+        long rows = (long) Math.floor((north - south) / cellHeight(precision)) + 2;
+        long cols = (long) Math.floor((east - west) / cellWidth(precision)) + 2;
+        return rows * cols;
+    }
+
+    private static double wrap(double longitude) {
+        if (longitude > 180) return longitude - 360;
+        if (longitude < -180) return longitude + 360;
+        return longitude;
+    }
+}
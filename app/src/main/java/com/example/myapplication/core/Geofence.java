@@ -0,0 +1,84 @@
+package com.example.myapplication.core;
+
+/**
+ * This class decides whether a location fix is close enough to an event's venue for a
+ * geo-verified join, and is the result shown to the entrant.
+ *
+ * The distance is computed on the device with {@link GeoHash#distanceMeters}. A fix is inside
+ * when its distance from the venue, less its reported accuracy, is within the admission
+ * radius, so an entrant at the venue is not turned away by GPS error. The accuracy credit is
+ * capped at {@link #MAX_ACCURACY_CREDIT_METERS} so a coarse network fix cannot admit someone
+ * far away. Events without venue coordinates or with a radius of zero or less are not fenced.
+ */
+public final class Geofence {
+
+    /** Admission radius given to a located venue that has none. */
+    public static final int DEFAULT_RADIUS_METERS = 500;
+
+    /** Most of a fix's reported accuracy that is credited towards the radius. */
+    public static final float MAX_ACCURACY_CREDIT_METERS = 100;
+
+    public enum Outcome {
+        /** The event has no venue coordinates or no radius; any location may join. */
+        NOT_FENCED,
+        /** The fix is within the admission radius. */
+        INSIDE,
+        /** The fix is outside the admission radius; the join must not be written. */
+        OUTSIDE
+    }
+
+    private final Outcome outcome;
+    private final double distanceMeters;
+    private final int radiusMeters;
+
+    private Geofence(Outcome outcome, double distanceMeters, int radiusMeters) {
+        this.outcome = outcome;
+        this.distanceMeters = distanceMeters;
+        this.radiusMeters = radiusMeters;
+    }
+
+    /**
+     * @param venueLat the venue latitude, or null if it is unknown
+     * @param venueLng the venue longitude, or null if it is unknown
+     * @param radiusMeters the admission radius, zero or less for no limit
+     * @param lat the fix latitude
+     * @param lng the fix longitude
+     * @param accuracyMeters the fix's reported accuracy, zero or less if unknown
+     * @return the decision
+     */
+    public static Geofence evaluate(Double venueLat, Double venueLng, int radiusMeters,
+                                    double lat, double lng, float accuracyMeters) {
+        if (venueLat == null || venueLng == null || radiusMeters <= 0) {
+            return new Geofence(Outcome.NOT_FENCED, 0, radiusMeters);
+        }
+        double distance = GeoHash.distanceMeters(venueLat, venueLng, lat, lng);
+        float credit = Math.max(0, Math.min(accuracyMeters, MAX_ACCURACY_CREDIT_METERS));
+        Outcome outcome = distance - credit <= radiusMeters ? Outcome.INSIDE : Outcome.OUTSIDE;
+        return new Geofence(outcome, distance, radiusMeters);
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return true if the join may be written
+     */
+    public boolean isAllowed() {
+        return outcome != Outcome.OUTSIDE;
+    }
+
+    /**
+     * @return the distance from the fix to the venue in metres, or 0 if the event is not fenced
+     */
+    public double getDistanceMeters() {
+        return distanceMeters;
+    }
+
+    /**
+     * @return the radius the decision was made against
+     */
+    public int getRadiusMeters() {
+        return radiusMeters;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.myapplication.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts where finished Glide loads were served from, so cache budgets and preloading can be
+ * judged by their hit rate. {@link AppImageModule} records every load; the counters are
+ * process wide and thread safe.
+ */
+public final class ImageCacheStats {
+
+    private static final ImageCacheStats INSTANCE = new ImageCacheStats();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong remoteLoads = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    ImageCacheStats() {}
+
+    /**
+     * @return the counters shared by the app's Glide instance
+     */
+    @NonNull
+    public static ImageCacheStats get() {
+        return INSTANCE;
+    }
+
+    /** Records a load served from the memory cache or an active resource. */
+    void recordMemoryHit() {
+        memoryHits.incrementAndGet();
+    }
+
+    /** Records a load served from the disk cache. */
+    void recordDiskHit() {
+        diskHits.incrementAndGet();
+    }
+
+    /** Records a load that had to fetch or decode the source. */
+    void recordRemoteLoad() {
+        remoteLoads.incrementAndGet();
+    }
+
+    /** Records a load that failed. */
+    void recordFailure() {
+        failures.incrementAndGet();
+    }
+
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getRemoteLoads() {
+        return remoteLoads.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * @return the share of successful loads served from memory, from 0 to 1
+     */
+    public double getMemoryHitRate() {
+        long total = successes();
+        return total == 0 ? 0 : (double) getMemoryHits() / total;
+    }
+
+    /**
+     * @return the share of successful loads served from memory or disk, from 0 to 1
+     */
+    public double getHitRate() {
+        long total = successes();
+        return total == 0 ? 0 : (double) (getMemoryHits() + getDiskHits()) / total;
+    }
+
+    /** Clears every counter. */
+    public void reset() {
+        memoryHits.set(0);
+        diskHits.set(0);
+        remoteLoads.set(0);
+        failures.set(0);
+    }
+
+    private long successes() {
+        return getMemoryHits() + getDiskHits() + getRemoteLoads();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "memory=%d disk=%d remote=%d failed=%d hitRate=%.0f%%",
+                getMemoryHits(), getDiskHits(), getRemoteLoads(), getFailures(), getHitRate() * 100);
+    }
+}
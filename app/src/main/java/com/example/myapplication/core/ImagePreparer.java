@@ -0,0 +1,199 @@
+package com.example.myapplication.core;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Shrinks a picked image before it is uploaded.
+ * <p>
+ * Camera originals are often 12 MP or more, while posters are never shown larger than a
+ * screen. The image is decoded with a power-of-two {@code inSampleSize} so the full-size
+ * pixels are never held in memory, then rotated upright from its EXIF orientation, scaled so
+ * its longer side is at most {@link #MAX_DIMENSION}, and re-encoded at {@link #QUALITY}.
+ * Re-encoding writes no EXIF, so location and camera metadata are stripped.
+ * <p>
+ * {@link #prepare(Context, Uri)} does file and bitmap work and must run off the main thread.
+ */
+public final class ImagePreparer {
+
+    /** Longest side of a prepared image, in pixels. */
+    public static final int MAX_DIMENSION = 1600;
+
+    /** Compression quality of a prepared image. */
+    public static final int QUALITY = 82;
+
+    private ImagePreparer() {}
+
+    /**
+     * Decodes, orients, scales and re-encodes an image into a new file in the cache directory.
+     * Images with transparency keep it: they are written as WebP on Android 11 and newer and
+     * as PNG before that; other images are written as WebP or JPEG.
+     *
+     * @param context a context for the content resolver and cache directory
+     * @param source  the picked image
+     * @return the prepared file, which the caller deletes when done
+     * @throws IOException if the image cannot be read, decoded or written
+     */
+    @NonNull
+    public static File prepare(@NonNull Context context, @NonNull Uri source) throws IOException {
+        ContentResolver resolver = context.getContentResolver();
+
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(resolver, source)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Not an image: " + source);
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize(bounds.outWidth, bounds.outHeight, MAX_DIMENSION);
+        Bitmap decoded;
+        try (InputStream in = open(resolver, source)) {
+            decoded = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (decoded == null) {
+            throw new IOException("Could not decode " + source);
+        }
+
+        int orientation = ExifInterface.ORIENTATION_NORMAL;
+        try (InputStream in = open(resolver, source)) {
+            orientation = new ExifInterface(in).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        } catch (IOException ignored) {
+            // No readable EXIF; keep the image as decoded.
+        }
+
+        Bitmap prepared = transform(decoded, orientation);
+        try {
+            boolean alpha = prepared.hasAlpha();
+            Bitmap.CompressFormat format = format(alpha);
+            File out = File.createTempFile("upload_", extension(format), context.getCacheDir());
+            try (OutputStream os = new FileOutputStream(out)) {
+                if (!prepared.compress(format, QUALITY, os)) {
+                    throw new IOException("Could not encode " + source);
+                }
+            } catch (IOException e) {
+                out.delete();
+                throw e;
+            }
+            return out;
+        } finally {
+            prepared.recycle();
+        }
+    }
+
+    /**
+     * @return the largest power of two that keeps the longer side at least {@code maxDimension}
+     * after sampling, so the final resize only ever scales down
+     */
+    static int sampleSize(int width, int height, int maxDimension) {
+        int longer = Math.max(width, height);
+        int sample = 1;
+        while (longer / (sample * 2) >= maxDimension) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    /**
+     * @return the width and height that fit the longer side into {@code maxDimension} while
+     * keeping the aspect ratio; images that already fit keep their size
+     */
+    static int[] targetSize(int width, int height, int maxDimension) {
+        int longer = Math.max(width, height);
+        if (longer <= maxDimension) {
+            return new int[]{width, height};
+        }
+        double scale = (double) maxDimension / longer;
+        return new int[]{
+                Math.max(1, (int) Math.round(width * scale)),
+                Math.max(1, (int) Math.round(height * scale))};
+    }
+
+    /**
+     * Scales the bitmap to {@link #MAX_DIMENSION} and applies the EXIF orientation in one pass,
+     * recycling the input if a new bitmap was made.
+     */
+    private static Bitmap transform(Bitmap bitmap, int orientation) {
+        int[] size = targetSize(bitmap.getWidth(), bitmap.getHeight(), MAX_DIMENSION);
+        Matrix matrix = new Matrix();
+        matrix.setScale((float) size[0] / bitmap.getWidth(), (float) size[1] / bitmap.getHeight());
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.postRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.postScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.postRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.postRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.postRotate(-90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.postRotate(-90);
+                break;
+            default:
+                break;
+        }
+        if (matrix.isIdentity()) {
+            return bitmap;
+        }
+        Bitmap transformed = Bitmap.createBitmap(
+                bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+        if (transformed != bitmap) {
+            bitmap.recycle();
+        }
+        return transformed;
+    }
+
+    private static Bitmap.CompressFormat format(boolean alpha) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            return Bitmap.CompressFormat.WEBP_LOSSY;
+        }
+        return alpha ? Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG;
+    }
+
+    private static String extension(Bitmap.CompressFormat format) {
+        if (format == Bitmap.CompressFormat.JPEG) {
+            return ".jpg";
+        }
+        if (format == Bitmap.CompressFormat.PNG) {
+            return ".png";
+        }
+        return ".webp";
+    }
+
+    private static InputStream open(ContentResolver resolver, Uri source) throws IOException {
+        InputStream in = resolver.openInputStream(source);
+        if (in == null) {
+            throw new IOException("Cannot open " + source);
+        }
+        return in;
+    }
+}
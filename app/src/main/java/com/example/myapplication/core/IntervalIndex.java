@@ -0,0 +1,239 @@
+package com.example.myapplication.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An immutable index over items that span a time interval, such as events with a start and
+ * an end time.
+ * <p>
+ * Items are kept sorted by start time with the largest end time of every subtree of the
+ * implicit balanced tree over that order, which makes it an interval tree: the items
+ * overlapping a range are found in O(log n + k). A second order by end time splits the items
+ * that have ended at a given time from those that have not with one binary search.
+ * <p>
+ * Results are returned in the order the items were given, so an index can stand in for the
+ * list it was built from. Build a new index when the items change; instances are never
+ * modified, so they can be shared with a background thread.
+ *
+ * @param <T> the item type
+ */
+public final class IntervalIndex<T> {
+
+    /**
+     * Reads the interval of an item.
+     */
+    public interface Bounds<T> {
+        long start(@NonNull T item);
+
+        /**
+         * @return the inclusive end; items without an end should return their start
+         */
+        long end(@NonNull T item);
+    }
+
+    private final List<T> items;
+
+    /** Positions in {@link #items}, sorted by start time. */
+    private final int[] byStart;
+    private final long[] starts;
+    private final long[] ends;
+    /** Largest end time in the subtree rooted at each position of {@link #byStart}. */
+    private final long[] maxEnd;
+
+    /** Positions in {@link #items}, sorted by end time. */
+    private final int[] byEnd;
+    private final long[] sortedEnds;
+
+    private IntervalIndex(List<T> items, Bounds<T> bounds) {
+        this.items = Collections.unmodifiableList(items);
+        int n = items.size();
+
+        long[] itemStarts = new long[n];
+        long[] itemEnds = new long[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            itemStarts[i] = bounds.start(items.get(i));
+            itemEnds[i] = bounds.end(items.get(i));
+            order[i] = i;
+        }
+
+        Arrays.sort(order, Comparator.comparingLong(i -> itemStarts[i]));
+        byStart = new int[n];
+        starts = new long[n];
+        ends = new long[n];
+        for (int i = 0; i < n; i++) {
+            byStart[i] = order[i];
+            starts[i] = itemStarts[order[i]];
+            ends[i] = itemEnds[order[i]];
+        }
+        maxEnd = new long[n];
+        buildMaxEnd(0, n);
+
+        Arrays.sort(order, Comparator.comparingLong(i -> itemEnds[i]));
+        byEnd = new int[n];
+        sortedEnds = new long[n];
+        for (int i = 0; i < n; i++) {
+            byEnd[i] = order[i];
+            sortedEnds[i] = itemEnds[order[i]];
+        }
+    }
+
+    /**
+     * @param items  the items to index, in the order results should keep; nulls are skipped
+     * @param bounds reads each item's interval
+     * @return a new index
+     */
+    @NonNull
+    public static <T> IntervalIndex<T> of(@Nullable List<T> items, @NonNull Bounds<T> bounds) {
+        List<T> copy = new ArrayList<>();
+        if (items != null) {
+            for (T item : items) {
+                if (item != null) {
+                    copy.add(item);
+                }
+            }
+        }
+        return new IntervalIndex<>(copy, bounds);
+    }
+
+    /**
+     * @return a new index with the given items appended
+     */
+    @NonNull
+    public IntervalIndex<T> plus(@Nullable List<T> more, @NonNull Bounds<T> bounds) {
+        List<T> all = new ArrayList<>(items);
+        if (more != null) {
+            all.addAll(more);
+        }
+        return of(all, bounds);
+    }
+
+    /**
+     * @return every item, in the order given
+     */
+    @NonNull
+    public List<T> items() {
+        return items;
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * @return the items whose interval shares at least one instant with [from, to]
+     */
+    @NonNull
+    public List<T> overlapping(long from, long to) {
+        int limit = upperBound(starts, to);
+        List<Integer> positions = new ArrayList<>();
+        collectOverlapping(0, starts.length, limit, from, positions);
+        return inGivenOrder(positions);
+    }
+
+    /**
+     * @return the items that have not ended at the given time
+     */
+    @NonNull
+    public List<T> endingAtOrAfter(long time) {
+        int first = lowerBound(sortedEnds, time);
+        return inGivenOrder(byEnd, first, byEnd.length);
+    }
+
+    /**
+     * @return the items that ended before the given time
+     */
+    @NonNull
+    public List<T> endingBefore(long time) {
+        int first = lowerBound(sortedEnds, time);
+        return inGivenOrder(byEnd, 0, first);
+    }
+
+    private long buildMaxEnd(int lo, int hi) {
+        if (lo >= hi) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        long max = Math.max(ends[mid], Math.max(buildMaxEnd(lo, mid), buildMaxEnd(mid + 1, hi)));
+        maxEnd[mid] = max;
+        return max;
+    }
+
+    /**
+     * Collects the positions of the subtree over [lo, hi) of the start order that lie below
+     * {@code limit}, so they start no later than the range ends, and end at or after
+     * {@code from}. Subtrees that all end too early, or all start too late, are skipped.
+     */
+    private void collectOverlapping(int lo, int hi, int limit, long from, List<Integer> out) {
+        if (lo >= hi || lo >= limit) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (maxEnd[mid] < from) {
+            return;
+        }
+        collectOverlapping(lo, mid, limit, from, out);
+        if (mid < limit && ends[mid] >= from) {
+            out.add(byStart[mid]);
+        }
+        collectOverlapping(mid + 1, hi, limit, from, out);
+    }
+
+    private List<T> inGivenOrder(int[] positions, int from, int to) {
+        List<Integer> selected = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            selected.add(positions[i]);
+        }
+        return inGivenOrder(selected);
+    }
+
+    private List<T> inGivenOrder(List<Integer> positions) {
+        Collections.sort(positions);
+        List<T> out = new ArrayList<>(positions.size());
+        for (int position : positions) {
+            out.add(items.get(position));
+        }
+        return out;
+    }
+
+    /**
+     * @return the first index whose value is at least {@code key}
+     */
+    private static int lowerBound(long[] sorted, long key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @return the first index whose value is greater than {@code key}
+     */
+    private static int upperBound(long[] sorted, long key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.myapplication.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * This class describes one positional change to a displayed list: a row inserted, removed or
+ * changed in place.
+ *
+ * Controllers that keep a list up to date from a snapshot listener hand a sequence of these to
+ * their view instead of the whole list, so an adapter can apply them with notifyItemInserted,
+ * notifyItemRemoved and notifyItemChanged. Changes must be applied in order; each position
+ * refers to the list as left by the changes before it.
+ *
+ * @param <T> the row type
+ */
+public final class ListChange<T> {
+
+    public enum Type { INSERTED, REMOVED, CHANGED }
+
+    private final Type type;
+    private final int position;
+    @Nullable
+    private final T item;
+
+    private ListChange(Type type, int position, @Nullable T item) {
+        this.type = type;
+        this.position = position;
+        this.item = item;
+    }
+
+    public static <T> ListChange<T> inserted(int position, @NonNull T item) {
+        return new ListChange<>(Type.INSERTED, position, item);
+    }
+
+    public static <T> ListChange<T> removed(int position) {
+        return new ListChange<>(Type.REMOVED, position, null);
+    }
+
+    public static <T> ListChange<T> changed(int position, @NonNull T item) {
+        return new ListChange<>(Type.CHANGED, position, item);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * @return the inserted or changed row, null for removals
+     */
+    @Nullable
+    public T getItem() {
+        return item;
+    }
+
+    /**
+     * @param mapper converts the row
+     * @return the same change for a list of converted rows
+     */
+    public <R> ListChange<R> map(@NonNull Function<? super T, ? extends R> mapper) {
+        return new ListChange<>(type, position, item == null ? null : mapper.apply(item));
+    }
+
+    /**
+     * Applies this change to a list that mirrors the producer's list.
+     *
+     * @param list the list to update in place
+     */
+    public void applyTo(@NonNull List<T> list) {
+        switch (type) {
+            case INSERTED:
+                list.add(position, item);
+                break;
+            case REMOVED:
+                list.remove(position);
+                break;
+            case CHANGED:
+                list.set(position, item);
+                break;
+        }
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return type + "@" + position;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.myapplication.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Keeps the most recent location fix so joins made shortly after one another do not wait on
+ * the location provider again. A fix is only handed out while it is younger than
+ * {@link #FRESHNESS_MILLIS}. Times are {@code SystemClock.elapsedRealtime()} values, which keep
+ * counting while the device sleeps and are not changed by clock adjustments.
+ */
+public final class LocationFixCache {
+
+    /** How long a fix may be reused. */
+    public static final long FRESHNESS_MILLIS = 2 * 60 * 1000;
+
+    /**
+     * A location and when it was measured.
+     */
+    public static final class Fix {
+        private final double lat;
+        private final double lng;
+        private final float accuracyMeters;
+        private final long elapsedMillis;
+
+        public Fix(double lat, double lng, float accuracyMeters, long elapsedMillis) {
+            this.lat = lat;
+            this.lng = lng;
+            this.accuracyMeters = accuracyMeters;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public double getLat() { return lat; }
+
+        public double getLng() { return lng; }
+
+        /** @return the reported accuracy in metres, zero or less if unknown */
+        public float getAccuracyMeters() { return accuracyMeters; }
+
+        /** @return when the fix was measured, in elapsed realtime milliseconds */
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        /**
+         * @return true if the fix is younger than {@link #FRESHNESS_MILLIS} at {@code nowElapsedMillis}
+         */
+        public boolean isFresh(long nowElapsedMillis) {
+            long age = nowElapsedMillis - elapsedMillis;
+            return age >= 0 && age < FRESHNESS_MILLIS;
+        }
+    }
+
+    private static final LocationFixCache INSTANCE = new LocationFixCache();
+
+    private Fix latest;
+
+    LocationFixCache() {}
+
+    /**
+     * @return the cache shared by every screen
+     */
+    @NonNull
+    public static LocationFixCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Stores a fix unless a newer one is already cached.
+     */
+    public synchronized void put(@NonNull Fix fix) {
+        if (latest == null || fix.elapsedMillis >= latest.elapsedMillis) {
+            latest = fix;
+        }
+    }
+
+    /**
+     * @param nowElapsedMillis the current elapsed realtime in milliseconds
+     * @return the latest fix if it is still fresh, otherwise null
+     */
+    @Nullable
+    public synchronized Fix getFresh(long nowElapsedMillis) {
+        return latest != null && latest.isFresh(nowElapsedMillis) ? latest : null;
+    }
+}
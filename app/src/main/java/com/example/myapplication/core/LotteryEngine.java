@@ -0,0 +1,137 @@
+package com.example.myapplication.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Draws lottery winners from an event waitlist.
+ * <p>
+ * Winners are picked with a partial Fisher–Yates shuffle, so only the first {@code k} slots of
+ * the working array are shuffled instead of the whole waitlist. Losers are then collected with a
+ * single pass over the waitlist using hash membership, keeping the waitlist order. A draw over
+ * {@code n} entrants therefore costs O(n) time in total, however many winners are drawn.
+ * <p>
+ * Pass a seed to get the same draw for the same waitlist, e.g. to reproduce a disputed result.
+ */
+public class LotteryEngine {
+
+    private final Random random;
+
+    /**
+     * Creates an engine backed by an unseeded random source.
+     */
+    public LotteryEngine() {
+        this(new Random());
+    }
+
+    /**
+     * Creates an engine whose draws are reproducible for the given seed.
+     * @param seed the seed for the random source
+     */
+    public LotteryEngine(long seed) {
+        this(new Random(seed));
+    }
+
+    /**
+     * Creates an engine backed by the given random source.
+     * @param random the random source used for every draw
+     */
+    public LotteryEngine(@NonNull Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Draws up to {@code numToSelect} distinct winners uniformly at random.
+     * <p>
+     * Null and duplicate entries in the waitlist are ignored. If fewer entrants than
+     * {@code numToSelect} are available, all of them win.
+     *
+     * @param waitlist    the user ids in the waitlist
+     * @param numToSelect the number of winners to draw
+     * @return the winners in draw order and the losers in waitlist order
+     */
+    @NonNull
+    public Result draw(@Nullable List<String> waitlist, int numToSelect) {
+        if (waitlist == null || waitlist.isEmpty() || numToSelect <= 0) {
+            List<String> losers = waitlist == null ? new ArrayList<>() : unique(waitlist);
+            return new Result(new ArrayList<>(), losers);
+        }
+
+        List<String> entrants = unique(waitlist);
+        int n = entrants.size();
+        int k = Math.min(numToSelect, n);
+
+        String[] pool = entrants.toArray(new String[0]);
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(n - i);
+            String tmp = pool[i];
+            pool[i] = pool[j];
+            pool[j] = tmp;
+        }
+
+        List<String> winners = new ArrayList<>(k);
+        Set<String> winnerSet = new HashSet<>(k * 2);
+        for (int i = 0; i < k; i++) {
+            winners.add(pool[i]);
+            winnerSet.add(pool[i]);
+        }
+
+        List<String> losers = new ArrayList<>(n - k);
+        for (String uid : entrants) {
+            if (!winnerSet.contains(uid)) {
+                losers.add(uid);
+            }
+        }
+        return new Result(winners, losers);
+    }
+
+    /**
+     * Copies the list in order, dropping nulls and repeated ids.
+     */
+    private static List<String> unique(List<String> waitlist) {
+        Set<String> seen = new HashSet<>(waitlist.size() * 2);
+        List<String> out = new ArrayList<>(waitlist.size());
+        for (String uid : waitlist) {
+            if (uid != null && seen.add(uid)) {
+                out.add(uid);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * The outcome of a single draw.
+     */
+    public static class Result {
+        private final List<String> winners;
+        private final List<String> losers;
+
+        Result(List<String> winners, List<String> losers) {
+            this.winners = Collections.unmodifiableList(winners);
+            this.losers = Collections.unmodifiableList(losers);
+        }
+
+        /**
+         * @return the selected user ids, in draw order
+         */
+        @NonNull
+        public List<String> getWinners() {
+            return winners;
+        }
+
+        /**
+         * @return the user ids that were not selected, in waitlist order
+         */
+        @NonNull
+        public List<String> getLosers() {
+            return losers;
+        }
+    }
+}
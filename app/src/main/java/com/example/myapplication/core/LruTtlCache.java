@@ -0,0 +1,126 @@
+package com.example.myapplication.core;
+
+import androidx.annotation.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A small in-memory cache that keeps at most {@code maxEntries} values and forgets
+ * each value {@code ttlMillis} after it was stored.
+ * <p>
+ * When the cache is full, the least recently used entry is evicted. Null values may be stored,
+ * which lets callers remember that a lookup found nothing. Not thread safe.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class LruTtlCache<K, V> {
+
+    /**
+     * Source of the current time, replaceable in tests.
+     */
+    public interface Clock {
+        long now();
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long storedAt;
+
+        Entry(V value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+
+    private final long ttlMillis;
+    private final Clock clock;
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    /**
+     * @param maxEntries the most entries kept before the least recently used is evicted
+     * @param ttlMillis  how long an entry stays valid after it is stored
+     */
+    public LruTtlCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * @param maxEntries the most entries kept before the least recently used is evicted
+     * @param ttlMillis  how long an entry stays valid after it is stored
+     * @param clock      the time source used to expire entries
+     */
+    public LruTtlCache(int maxEntries, long ttlMillis, Clock clock) {
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.map = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Checks whether a fresh entry exists for the key. Expired entries are removed.
+     * @param key the key to look up
+     * @return true if a value (possibly null) is cached and has not expired
+     */
+    public boolean contains(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            return false;
+        }
+        if (clock.now() - entry.storedAt >= ttlMillis) {
+            map.remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the cached value for the key, or null if it is missing, expired or cached as null.
+     * Use {@link #contains(Object)} to tell these cases apart.
+     * @param key the key to look up
+     * @return the cached value or null
+     */
+    @Nullable
+    public V get(K key) {
+        if (!contains(key)) {
+            return null;
+        }
+        return map.get(key).value;
+    }
+
+    /**
+     * Stores a value, replacing any previous entry and restarting its time to live.
+     * @param key   the key
+     * @param value the value, may be null
+     */
+    public void put(K key, @Nullable V value) {
+        map.put(key, new Entry<>(value, clock.now()));
+    }
+
+    /**
+     * Removes the entry for the key, if any.
+     * @param key the key to remove
+     */
+    public void remove(K key) {
+        map.remove(key);
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        map.clear();
+    }
+
+    /**
+     * @return the number of stored entries, including ones that have expired but not been read
+     */
+    public int size() {
+        return map.size();
+    }
+}
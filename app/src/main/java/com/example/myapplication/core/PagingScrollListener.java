@@ -0,0 +1,47 @@
+package com.example.myapplication.core;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Scroll listener that asks for the next page once the user scrolls close to the end of a list.
+ * Works with {@link LinearLayoutManager} and its subclasses such as the event grids.
+ */
+public class PagingScrollListener extends RecyclerView.OnScrollListener {
+
+    /**
+     * Called when more items should be loaded.
+     */
+    public interface OnLoadMoreListener {
+        void onLoadMore();
+    }
+
+    private final int threshold;
+    private final OnLoadMoreListener listener;
+
+    /**
+     * @param threshold how many items before the end of the list the next page is requested
+     * @param listener  called when the next page should be loaded
+     */
+    public PagingScrollListener(int threshold, OnLoadMoreListener listener) {
+        this.threshold = threshold;
+        this.listener = listener;
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (dy <= 0) {
+            return;
+        }
+        RecyclerView.LayoutManager lm = recyclerView.getLayoutManager();
+        if (!(lm instanceof LinearLayoutManager)) {
+            return;
+        }
+        int lastVisible = ((LinearLayoutManager) lm).findLastVisibleItemPosition();
+        int total = lm.getItemCount();
+        if (lastVisible != RecyclerView.NO_POSITION && lastVisible >= total - 1 - threshold) {
+            listener.onLoadMore();
+        }
+    }
+}
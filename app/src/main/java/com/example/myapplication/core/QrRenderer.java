@@ -0,0 +1,124 @@
+package com.example.myapplication.core;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.journeyapps.barcodescanner.BarcodeEncoder;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Renders event QR codes on the device instead of downloading uploaded images.
+ * <p>
+ * A QR code only encodes the event id, so it is encoded locally at exactly the pixel size
+ * of the view showing it. Rendered codes are kept in an LRU cache bounded by bytes, so
+ * returning to an event shows its code without encoding it again. Encoding runs on a
+ * background thread and results are delivered on the main thread.
+ */
+public final class QrRenderer {
+
+    /** Pixel size used when a QR code is saved for printing. */
+    public static final int PRINT_SIZE_PX = 1200;
+
+    /**
+     * Receives a rendered QR code on the main thread.
+     */
+    public interface Callback {
+        void onRendered(@NonNull Bitmap bitmap);
+
+        void onError(@NonNull Exception e);
+    }
+
+    private static QrRenderer instance;
+
+    private final LruCache<String, Bitmap> cache;
+    private final Executor background = BackgroundExecutor.get();
+    private final Handler main = new Handler(Looper.getMainLooper());
+
+    private QrRenderer(int maxKilobytes) {
+        cache = new LruCache<String, Bitmap>(maxKilobytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount() / 1024;
+            }
+        };
+    }
+
+    /**
+     * @return the shared renderer, whose cache may use a 32nd of the heap, at most 8 MB
+     */
+    @NonNull
+    public static synchronized QrRenderer get() {
+        if (instance == null) {
+            long heapKilobytes = Runtime.getRuntime().maxMemory() / 1024;
+            instance = new QrRenderer((int) Math.min(heapKilobytes / 32, 8 * 1024));
+        }
+        return instance;
+    }
+
+    /**
+     * @return the cached code for the content and size, or null if it was not rendered yet
+     */
+    @Nullable
+    public Bitmap getCached(@NonNull String content, int sizePx) {
+        return cache.get(key(content, sizePx));
+    }
+
+    /**
+     * Renders a code off the main thread, or delivers it at once if it is cached.
+     *
+     * @param content  the text to encode, usually the event id
+     * @param sizePx   the width and height of the bitmap
+     * @param callback receives the bitmap on the main thread
+     */
+    public void render(@NonNull String content, int sizePx, @NonNull Callback callback) {
+        Bitmap cached = getCached(content, sizePx);
+        if (cached != null) {
+            callback.onRendered(cached);
+            return;
+        }
+        background.execute(() -> {
+            try {
+                Bitmap bitmap = encode(content, sizePx);
+                cache.put(key(content, sizePx), bitmap);
+                main.post(() -> callback.onRendered(bitmap));
+            } catch (WriterException | RuntimeException e) {
+                main.post(() -> callback.onError(e));
+            }
+        });
+    }
+
+    /**
+     * Runs work that needs a code rendered outside the cache, such as a print resolution
+     * copy for the gallery, on the shared background executor.
+     *
+     * @param task the work to run
+     */
+    public void runInBackground(@NonNull Runnable task) {
+        background.execute(task);
+    }
+
+    /**
+     * Encodes a code on the calling thread without caching it. Call from a background thread.
+     *
+     * @param content the text to encode
+     * @param sizePx  the width and height of the bitmap
+     * @return a new bitmap the caller owns
+     * @throws WriterException if the content cannot be encoded
+     */
+    @NonNull
+    public static Bitmap encode(@NonNull String content, int sizePx) throws WriterException {
+        return new BarcodeEncoder().encodeBitmap(content, BarcodeFormat.QR_CODE, sizePx, sizePx);
+    }
+
+    private static String key(String content, int sizePx) {
+        return sizePx + ":" + content;
+    }
+}
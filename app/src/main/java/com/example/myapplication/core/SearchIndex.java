@@ -0,0 +1,284 @@
+package com.example.myapplication.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An in-memory inverted index for search boxes over lists loaded from Firestore.
+ * <p>
+ * Each entry is added once with the text of its searchable fields, which is split into
+ * lowercase tokens with accents removed. Every prefix of every token, up to
+ * {@link #MAX_PREFIX} characters, maps to a sorted array of entry ordinals, so a query
+ * token is a single lookup and a query with several tokens intersects the postings of
+ * each, starting from the shortest. A query therefore costs about the size of its
+ * result rather than the size of the data set, and nothing is lowercased per keystroke
+ * except the query itself.
+ * <p>
+ * A query matches an entry when every query token is a prefix of one of the entry's
+ * tokens, so "yo cal" finds "Yoga in Calgary". Entries are updated one at a time with
+ * {@link #put(Object, String...)} and {@link #remove(Object)} as snapshot changes
+ * arrive. All public methods are synchronized, so a query can run on a background thread
+ * while changes are applied on the main thread.
+ *
+ * @param <K> key type, for example a document id
+ */
+public final class SearchIndex<K> {
+
+    /** Longest prefix kept in the postings; longer query tokens are verified per entry. */
+    static final int MAX_PREFIX = 12;
+
+    /**
+     * Sorted, duplicate-free ordinals of the entries that contain a prefix.
+     */
+    private static final class Postings {
+        int[] ordinals = new int[4];
+        int size;
+
+        void add(int ordinal) {
+            int at = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            System.arraycopy(ordinals, at, ordinals, at + 1, size - at);
+            ordinals[at] = ordinal;
+            size++;
+        }
+
+        void remove(int ordinal) {
+            int at = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (at < 0) {
+                return;
+            }
+            System.arraycopy(ordinals, at + 1, ordinals, at, size - at - 1);
+            size--;
+        }
+
+        boolean contains(int ordinal) {
+            return Arrays.binarySearch(ordinals, 0, size, ordinal) >= 0;
+        }
+    }
+
+    private final Map<K, Integer> ordinalByKey = new HashMap<>();
+    private final List<K> keys = new ArrayList<>();
+    private final List<String[]> tokens = new ArrayList<>();
+    private final List<Integer> freeOrdinals = new ArrayList<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    /**
+     * Adds an entry, replacing any earlier text indexed for the key.
+     *
+     * @param key    the entry's key
+     * @param fields the searchable text; null fields are skipped
+     */
+    public synchronized void put(@NonNull K key, @Nullable String... fields) {
+        remove(key);
+
+        Set<String> entryTokens = new LinkedHashSet<>();
+        if (fields != null) {
+            for (String field : fields) {
+                entryTokens.addAll(tokenize(field));
+            }
+        }
+
+        int ordinal;
+        if (freeOrdinals.isEmpty()) {
+            ordinal = keys.size();
+            keys.add(key);
+            tokens.add(null);
+        } else {
+            ordinal = freeOrdinals.remove(freeOrdinals.size() - 1);
+            keys.set(ordinal, key);
+        }
+        String[] stored = entryTokens.toArray(new String[0]);
+        tokens.set(ordinal, stored);
+        ordinalByKey.put(key, ordinal);
+
+        for (String token : stored) {
+            for (int len = 1; len <= Math.min(token.length(), MAX_PREFIX); len++) {
+                String prefix = token.substring(0, len);
+                Postings list = postings.get(prefix);
+                if (list == null) {
+                    list = new Postings();
+                    postings.put(prefix, list);
+                }
+                list.add(ordinal);
+            }
+        }
+    }
+
+    /**
+     * Removes an entry; unknown keys are ignored.
+     */
+    public synchronized void remove(@NonNull K key) {
+        Integer ordinal = ordinalByKey.remove(key);
+        if (ordinal == null) {
+            return;
+        }
+        for (String token : tokens.get(ordinal)) {
+            for (int len = 1; len <= Math.min(token.length(), MAX_PREFIX); len++) {
+                String prefix = token.substring(0, len);
+                Postings list = postings.get(prefix);
+                if (list == null) {
+                    continue;
+                }
+                list.remove(ordinal);
+                if (list.size == 0) {
+                    postings.remove(prefix);
+                }
+            }
+        }
+        keys.set(ordinal, null);
+        tokens.set(ordinal, null);
+        freeOrdinals.add(ordinal);
+    }
+
+    public synchronized void clear() {
+        ordinalByKey.clear();
+        keys.clear();
+        tokens.clear();
+        freeOrdinals.clear();
+        postings.clear();
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return ordinalByKey.size();
+    }
+
+    /**
+     * @param query the search text
+     * @return a new set with the keys of the entries matching every token of the query, or
+     * every key if the query has no tokens
+     */
+    @NonNull
+    public synchronized Set<K> query(@Nullable String query) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return new LinkedHashSet<>(ordinalByKey.keySet());
+        }
+
+        List<Postings> lists = new ArrayList<>(queryTokens.size());
+        for (String token : queryTokens) {
+            Postings list = postings.get(prefixKey(token));
+            if (list == null) {
+                return new LinkedHashSet<>();
+            }
+            lists.add(list);
+        }
+        Postings smallest = lists.get(0);
+        for (Postings list : lists) {
+            if (list.size < smallest.size) {
+                smallest = list;
+            }
+        }
+
+        Set<K> result = new LinkedHashSet<>();
+        for (int i = 0; i < smallest.size; i++) {
+            int ordinal = smallest.ordinals[i];
+            if (inAll(lists, ordinal) && verifyLong(queryTokens, ordinal)) {
+                result.add(keys.get(ordinal));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks a single entry against a query, for example after it was updated from a
+     * snapshot change, without running the whole query again.
+     *
+     * @return true if the entry exists and matches every token of the query
+     */
+    public synchronized boolean matches(@NonNull K key, @Nullable String query) {
+        Integer ordinal = ordinalByKey.get(key);
+        if (ordinal == null) {
+            return false;
+        }
+        String[] entryTokens = tokens.get(ordinal);
+        for (String queryToken : tokenize(query)) {
+            if (!hasTokenStartingWith(entryTokens, queryToken)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Splits text into lowercase tokens of letters and digits with accents removed.
+     *
+     * @param text the text to split, may be null
+     * @return the tokens in order of appearance
+     */
+    @NonNull
+    public static List<String> tokenize(@Nullable String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return out;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean word = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                out.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    private static String prefixKey(String token) {
+        return token.length() > MAX_PREFIX ? token.substring(0, MAX_PREFIX) : token;
+    }
+
+    private static boolean inAll(List<Postings> lists, int ordinal) {
+        for (Postings list : lists) {
+            if (!list.contains(ordinal)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Query tokens longer than {@link #MAX_PREFIX} only matched on their first characters,
+     * so they are checked against the entry's tokens.
+     */
+    private boolean verifyLong(List<String> queryTokens, int ordinal) {
+        String[] entryTokens = tokens.get(ordinal);
+        for (String queryToken : queryTokens) {
+            if (queryToken.length() > MAX_PREFIX && !hasTokenStartingWith(entryTokens, queryToken)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasTokenStartingWith(String[] entryTokens, String prefix) {
+        for (String token : entryTokens) {
+            if (token.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
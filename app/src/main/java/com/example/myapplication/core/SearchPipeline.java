@@ -0,0 +1,278 @@
+package com.example.myapplication.core;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Locale;
+import java.util.concurrent.Executor;
+
+/**
+ * This class runs the searches behind a screen's search box off the main thread.
+ *
+ * Queries typed into the box are debounced, so a burst of keystrokes runs one search for the
+ * last text. Searches run on a background executor and their results are posted back to the
+ * main thread. Every new query supersedes the ones before it: a superseded search that has not
+ * started is skipped, and a superseded result is dropped, so only the latest result reaches the
+ * view. Each delivered result is timed and reported to the {@link Config}'s timing listener.
+ *
+ * The search itself must only read state that is safe to read from another thread, for
+ * example a {@link SearchIndex} or an immutable copy taken by the caller.
+ * {@link #submit(String)}, {@link #submitNow(String)} and {@link #cancel()} must be called on
+ * the main thread.
+ *
+ * @param <T> the result type
+ */
+public final class SearchPipeline<T> {
+
+    private static final String TAG = "SearchPipeline";
+
+    /** Delay after the last keystroke before a typed query is searched. */
+    static final long DEBOUNCE_MILLIS = 250;
+
+    /**
+     * Computes the result for a query; runs on the background executor.
+     */
+    public interface Search<T> {
+        @NonNull
+        T run(@NonNull String query);
+    }
+
+    /**
+     * Receives the result of the latest query on the main thread.
+     */
+    public interface Sink<T> {
+        void onResult(@NonNull String query, @NonNull T result);
+    }
+
+    /**
+     * Receives the timing of every delivered query.
+     */
+    public interface TimingListener {
+        void onTiming(@NonNull Timing timing);
+    }
+
+    /**
+     * Posts tasks to the thread that delivers results.
+     */
+    interface Scheduler {
+        void postDelayed(@NonNull Runnable task, long delayMillis);
+
+        void remove(@NonNull Runnable task);
+    }
+
+    /**
+     * How long one delivered query took.
+     */
+    public static final class Timing {
+        private final String query;
+        private final long waitMillis;
+        private final long searchMillis;
+        private final long totalMillis;
+
+        Timing(String query, long waitMillis, long searchMillis, long totalMillis) {
+            this.query = query;
+            this.waitMillis = waitMillis;
+            this.searchMillis = searchMillis;
+            this.totalMillis = totalMillis;
+        }
+
+        @NonNull
+        public String getQuery() {
+            return query;
+        }
+
+        /**
+         * @return the time from the query being submitted to its search starting, including
+         * the debounce delay
+         */
+        public long getWaitMillis() {
+            return waitMillis;
+        }
+
+        /**
+         * @return the time the search itself took on the background executor
+         */
+        public long getSearchMillis() {
+            return searchMillis;
+        }
+
+        /**
+         * @return the time from the query being submitted to its result being delivered
+         */
+        public long getTotalMillis() {
+            return totalMillis;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "\"%s\": waited %d ms, searched %d ms, total %d ms",
+                    query, waitMillis, searchMillis, totalMillis);
+        }
+    }
+
+    /**
+     * The threads, debounce delay and timing listener a pipeline runs with.
+     */
+    public static final class Config {
+
+        final Executor background;
+        final Scheduler main;
+        final long debounceMillis;
+        @Nullable
+        final TimingListener timings;
+
+        Config(@NonNull Executor background, @NonNull Scheduler main, long debounceMillis,
+               @Nullable TimingListener timings) {
+            this.background = background;
+            this.main = main;
+            this.debounceMillis = debounceMillis;
+            this.timings = timings;
+        }
+
+        /**
+         * Debounces typed queries, searches on a background thread shared by every screen,
+         * delivers on the main thread and logs the timing of each query.
+         */
+        @NonNull
+        public static Config background() {
+            Handler handler = new Handler(Looper.getMainLooper());
+            return new Config(BackgroundExecutor.get(), new Scheduler() {
+                @Override
+                public void postDelayed(@NonNull Runnable task, long delayMillis) {
+                    handler.postDelayed(task, delayMillis);
+                }
+
+                @Override
+                public void remove(@NonNull Runnable task) {
+                    handler.removeCallbacks(task);
+                }
+            }, DEBOUNCE_MILLIS, timing -> Log.d(TAG, timing.toString()));
+        }
+
+        /**
+         * Runs every search immediately on the calling thread, for tests and callers that
+         * are already off the main thread.
+         */
+        @NonNull
+        public static Config inline() {
+            return new Config(Runnable::run, new Scheduler() {
+                @Override
+                public void postDelayed(@NonNull Runnable task, long delayMillis) {
+                    task.run();
+                }
+
+                @Override
+                public void remove(@NonNull Runnable task) {
+                    // nothing is ever pending
+                }
+            }, 0, null);
+        }
+
+    }
+
+    private final Config config;
+    private final Search<T> search;
+    private final Sink<T> sink;
+
+    private volatile long generation;
+    @Nullable
+    private Runnable pending;
+    @Nullable
+    private Timing lastTiming;
+
+    public SearchPipeline(@NonNull Config config, @NonNull Search<T> search, @NonNull Sink<T> sink) {
+        this.config = config;
+        this.search = search;
+        this.sink = sink;
+    }
+
+    /**
+     * Searches for a typed query once no newer query has arrived for the debounce delay.
+     *
+     * @param query the query text, null for none
+     */
+    public void submit(@Nullable String query) {
+        schedule(query, config.debounceMillis);
+    }
+
+    /**
+     * Searches for a query without waiting, for example after a filter or the data changed.
+     *
+     * @param query the query text, null for none
+     */
+    public void submitNow(@Nullable String query) {
+        schedule(query, 0);
+    }
+
+    /**
+     * Drops any pending or running query; nothing is delivered until the next submit.
+     */
+    public void cancel() {
+        generation++;
+        if (pending != null) {
+            config.main.remove(pending);
+            pending = null;
+        }
+    }
+
+    /**
+     * @return the timing of the last delivered query, or null if none was delivered
+     */
+    @Nullable
+    public Timing getLastTiming() {
+        return lastTiming;
+    }
+
+    private void schedule(@Nullable String query, long delayMillis) {
+        cancel();
+        final long id = generation;
+        final String text = query == null ? "" : query;
+        final long submittedAt = System.nanoTime();
+        Runnable launch = new Runnable() {
+            @Override
+            public void run() {
+                if (pending == this) {
+                    pending = null;
+                }
+                config.background.execute(() -> runSearch(id, text, submittedAt));
+            }
+        };
+        pending = launch;
+        config.main.postDelayed(launch, delayMillis);
+    }
+
+    private void runSearch(long id, String query, long submittedAt) {
+        if (id != generation) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        T result = search.run(query);
+        long searchedAt = System.nanoTime();
+        if (id != generation) {
+            return;
+        }
+        config.main.postDelayed(() -> {
+            if (id != generation) {
+                return;
+            }
+            long deliveredAt = System.nanoTime();
+            sink.onResult(query, result);
+            lastTiming = new Timing(query,
+                    millis(startedAt - submittedAt),
+                    millis(searchedAt - startedAt),
+                    millis(deliveredAt - submittedAt));
+            if (config.timings != null) {
+                config.timings.onTiming(lastTiming);
+            }
+        }, 0);
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1_000_000L;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.myapplication.core;
 
 import com.example.myapplication.data.firebase.FirebaseEventRepository;
+import com.example.myapplication.data.firebase.UserDirectory;
 import com.example.myapplication.data.repo.EventRepository;
 
 /**
@@ -8,6 +9,7 @@ import com.example.myapplication.data.repo.EventRepository;
  */
 public class ServiceLocator {
     private static EventRepository eventRepository;
+    private static UserDirectory userDirectory;
 
     /**
      * This method returns a single instance of the EventRepository.
@@ -19,4 +21,16 @@ public class ServiceLocator {
         }
         return eventRepository;
     }
+
+    /**
+     * This method returns a single instance of the UserDirectory, so every screen
+     * shares the same cache of user names.
+     * @return the UserDirectory instance.
+     */
+    public static UserDirectory getUserDirectory() {
+        if (userDirectory == null) {
+            userDirectory = new UserDirectory();
+        }
+        return userDirectory;
+    }
 }
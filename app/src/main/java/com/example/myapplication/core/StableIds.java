@@ -0,0 +1,45 @@
+package com.example.myapplication.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class hands out stable RecyclerView item ids for rows identified by a key, usually a
+ * Firestore document id.
+ *
+ * A key keeps the id it was first given while it stays in the list, so RecyclerView can
+ * match rows across list updates, keep their view holders and skip restarting image loads.
+ * Unlike a hash of the key, two different keys never share an id, and an id is never handed
+ * out again once its key has been dropped.
+ */
+public final class StableIds {
+
+    private final Map<Object, Long> ids = new HashMap<>();
+    private long next;
+
+    /**
+     * @param key the row's identity
+     * @return the id assigned to the key
+     */
+    public long idFor(@NonNull Object key) {
+        Long id = ids.get(key);
+        if (id == null) {
+            id = next++;
+            ids.put(key, id);
+        }
+        return id;
+    }
+
+    /**
+     * Drops the ids of the keys that are no longer displayed, so the map stays the size of the
+     * list.
+     *
+     * @param keys the keys of the rows currently in the list
+     */
+    public void retain(@NonNull Collection<?> keys) {
+        ids.keySet().retainAll(keys);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.myapplication.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records how long each named stage of a multi-step operation took, such as the uploads
+ * and writes of creating an event. Stages may run concurrently and finish on any thread.
+ */
+public final class StageTimer {
+
+    private final long originNanos = System.nanoTime();
+    private final Map<String, Long> stageMillis = new LinkedHashMap<>();
+
+    /**
+     * @return a start mark to pass to {@link #record(String, long)}
+     */
+    public long mark() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a stage as lasting from the given mark until now.
+     *
+     * @param stage     the stage's name
+     * @param markNanos the value returned by {@link #mark()} when the stage started
+     */
+    public synchronized void record(@NonNull String stage, long markNanos) {
+        stageMillis.put(stage, (System.nanoTime() - markNanos) / 1_000_000L);
+    }
+
+    /**
+     * @return a copy of the recorded stages in the order they finished, in milliseconds
+     */
+    @NonNull
+    public synchronized Map<String, Long> getStageMillis() {
+        return new LinkedHashMap<>(stageMillis);
+    }
+
+    /**
+     * @return milliseconds since the timer was created
+     */
+    public long getTotalMillis() {
+        return (System.nanoTime() - originNanos) / 1_000_000L;
+    }
+
+    /**
+     * @return the stages and total, for logging, e.g.
+     * "geocode=140ms posterUpload=820ms write=60ms total=890ms"
+     */
+    @NonNull
+    @Override
+    public synchronized String toString() {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Long> stage : stageMillis.entrySet()) {
+            out.append(stage.getKey()).append('=').append(stage.getValue()).append("ms ");
+        }
+        return out.append("total=").append(getTotalMillis()).append("ms").toString();
+    }
+}
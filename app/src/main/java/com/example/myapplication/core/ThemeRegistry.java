@@ -0,0 +1,161 @@
+package com.example.myapplication.core;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The catalogue of event themes, each with a small integer id.
+ * <p>
+ * Events are stored with the id of their theme in a "themeId" field, so the repository can
+ * filter themes with a {@code whereIn} on numbers and the home screen can match a whole set of
+ * interests against an event with a single bit test. The names follow
+ * {@code R.array.event_theme_options}, and the ids are persisted: new themes must be appended,
+ * never inserted or reordered.
+ * <p>
+ * Themes outside the catalogue, for example typed by hand or stored before the catalogue
+ * existed, get {@link #UNKNOWN} and are matched by name instead.
+ */
+public final class ThemeRegistry {
+
+    /** Id of a theme that is not in the catalogue. */
+    public static final int UNKNOWN = -1;
+
+    private static final List<String> NAMES = Collections.unmodifiableList(Arrays.asList(
+            "Music & Entertainment",
+            "Art & Culture",
+            "Food & Drink",
+            "Sports & Fitness",
+            "Wellness & Mindfulness",
+            "Tech & Innovation",
+            "Outdoors & Adventure"));
+
+    private static final Map<String, Integer> IDS = new HashMap<>();
+
+    static {
+        for (int id = 0; id < NAMES.size(); id++) {
+            IDS.put(normalize(NAMES.get(id)), id);
+        }
+    }
+
+    private ThemeRegistry() {}
+
+    /**
+     * @return the catalogue's theme names, indexed by id
+     */
+    @NonNull
+    public static List<String> names() {
+        return NAMES;
+    }
+
+    /**
+     * @param theme a theme name in any case, may be null
+     * @return the theme's id, or {@link #UNKNOWN} if it is not in the catalogue
+     */
+    public static int idOf(@Nullable String theme) {
+        if (theme == null) {
+            return UNKNOWN;
+        }
+        Integer id = IDS.get(normalize(theme));
+        return id == null ? UNKNOWN : id;
+    }
+
+    /**
+     * @return the theme's name, or null if the id is not in the catalogue
+     */
+    @Nullable
+    public static String nameOf(int id) {
+        return id >= 0 && id < NAMES.size() ? NAMES.get(id) : null;
+    }
+
+    private static String normalize(String theme) {
+        return theme.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A set of selected themes compiled for matching. Catalogue themes are kept as a bitset
+     * of their ids; any other names are kept lowercased.
+     */
+    public static final class Selection {
+        private final long mask;
+        private final Set<String> otherNames;
+        private final List<Integer> ids;
+
+        private Selection(long mask, Set<String> otherNames, List<Integer> ids) {
+            this.mask = mask;
+            this.otherNames = otherNames;
+            this.ids = ids;
+        }
+
+        /**
+         * @param themes the selected theme names; nulls and blanks are skipped
+         * @return the compiled selection
+         */
+        @NonNull
+        public static Selection of(@Nullable Collection<String> themes) {
+            long mask = 0;
+            Set<String> otherNames = new HashSet<>();
+            List<Integer> ids = new ArrayList<>();
+            if (themes != null) {
+                for (String theme : themes) {
+                    if (theme == null || theme.trim().isEmpty()) {
+                        continue;
+                    }
+                    int id = idOf(theme);
+                    if (id == UNKNOWN) {
+                        otherNames.add(normalize(theme));
+                    } else if ((mask & (1L << id)) == 0) {
+                        mask |= 1L << id;
+                        ids.add(id);
+                    }
+                }
+            }
+            return new Selection(mask, otherNames, Collections.unmodifiableList(ids));
+        }
+
+        /**
+         * @return true if nothing is selected
+         */
+        public boolean isEmpty() {
+            return mask == 0 && otherNames.isEmpty();
+        }
+
+        /**
+         * @return true if every selected theme is in the catalogue, so the selection can be
+         * queried by {@link #ids()} alone
+         */
+        public boolean isCatalogued() {
+            return otherNames.isEmpty();
+        }
+
+        /**
+         * @return the ids of the selected catalogue themes
+         */
+        @NonNull
+        public List<Integer> ids() {
+            return ids;
+        }
+
+        /**
+         * @param themeId the event's theme id
+         * @param theme   the event's theme name, only read when the id is {@link #UNKNOWN}
+         * @return true if the event's theme is selected
+         */
+        public boolean matches(int themeId, @Nullable String theme) {
+            if (themeId >= 0 && themeId < Long.SIZE) {
+                return (mask & (1L << themeId)) != 0;
+            }
+            return theme != null && !otherNames.isEmpty() && otherNames.contains(normalize(theme));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.myapplication.core;
+
+import android.content.Context;
+import android.location.Address;
+import android.location.Geocoder;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.myapplication.features.user.UserEvent;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.List;
+
+/**
+ * Looks up the coordinates of an event's address so geo-verified joins can be checked by
+ * {@link Geofence}. Geocoding is a blocking network call, so it runs on a background thread.
+ */
+public final class VenueLocator {
+
+    private static final String TAG = "VenueLocator";
+
+    private VenueLocator() {}
+
+    /**
+     * Sets the event's venue coordinates from its address, and the default admission radius
+     * if it has none. The task never fails: an address that cannot be found leaves the venue
+     * unset, and the event is not fenced.
+     *
+     * @param context a context for the geocoder
+     * @param event   the event to locate
+     * @return a task that completes once the event has been updated
+     */
+    @NonNull
+    public static Task<Void> locate(@NonNull Context context, @NonNull UserEvent event) {
+        Context app = context.getApplicationContext();
+        String address = event.getLocation();
+        return Tasks.call(BackgroundExecutor.get(), () -> {
+            if (address == null || address.trim().isEmpty() || !Geocoder.isPresent()) {
+                return null;
+            }
+            List<Address> found = new Geocoder(app).getFromLocationName(address, 1);
+            return found == null || found.isEmpty() ? null : found.get(0);
+        }).continueWith(task -> {
+            if (!task.isSuccessful()) {
+                Log.w(TAG, "Could not locate " + address, task.getException());
+                return null;
+            }
+            Address venue = task.getResult();
+            if (venue != null) {
+                event.setVenueLat(venue.getLatitude());
+                event.setVenueLng(venue.getLongitude());
+                if (event.getAdmissionRadiusMeters() <= 0) {
+                    event.setAdmissionRadiusMeters(Geofence.DEFAULT_RADIUS_METERS);
+                }
+            }
+            return null;
+        });
+    }
+
+}
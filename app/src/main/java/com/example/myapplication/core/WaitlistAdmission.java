@@ -0,0 +1,90 @@
+package com.example.myapplication.core;
+
+/**
+ * This class decides whether a join request is admitted to an event's waitlist, and is the
+ * result handed back to the entrant.
+ *
+ * The decision only looks at the event's capacity, its current waitlist count, the next
+ * position it hands out and whether the user already holds a place, so it can run inside a
+ * Firestore transaction that read those values and will be retried if any of them changed
+ * before the commit. A capacity of zero or less means the waitlist is unlimited.
+ *
+ * Positions are 1-based and give the order in which entrants joined. They come from a counter
+ * that only ever grows, kept apart from the live count, so a join after someone left does not
+ * reuse a position that is still held.
+ */
+public final class WaitlistAdmission {
+
+    public enum Outcome {
+        /** The user was added to the waitlist. */
+        ADMITTED,
+        /** The user was already on the waitlist; nothing is written. */
+        ALREADY_JOINED,
+        /** The waitlist is at capacity; nothing is written. */
+        FULL
+    }
+
+    private final Outcome outcome;
+    private final int position;
+    private final int capacity;
+
+    private WaitlistAdmission(Outcome outcome, int position, int capacity) {
+        this.outcome = outcome;
+        this.position = position;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param capacity the event's waitlist capacity, zero or less for unlimited
+     * @param waitlistCount the number of entrants currently on the waitlist
+     * @param nextPosition the event's position counter, zero if it has none yet
+     * @param existingPosition the position stored for the user if they are already on the
+     *                         waitlist, zero if it is unknown, or null if they are not on it
+     * @return the admission decision
+     */
+    public static WaitlistAdmission decide(int capacity, long waitlistCount, long nextPosition,
+                                           Integer existingPosition) {
+        if (existingPosition != null) {
+            return new WaitlistAdmission(Outcome.ALREADY_JOINED, existingPosition, capacity);
+        }
+        if (capacity > 0 && waitlistCount >= capacity) {
+            return new WaitlistAdmission(Outcome.FULL, 0, capacity);
+        }
+        // Events created before the counter existed start it after the current count.
+        long position = Math.max(nextPosition, waitlistCount + 1);
+        return new WaitlistAdmission(Outcome.ADMITTED, (int) position, capacity);
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return true if the user is on the waitlist after the request
+     */
+    public boolean isOnWaitlist() {
+        return outcome != Outcome.FULL;
+    }
+
+    /**
+     * @return true if the request added the user, so the count has to be incremented
+     */
+    public boolean isAdmitted() {
+        return outcome == Outcome.ADMITTED;
+    }
+
+    /**
+     * @return the user's 1-based position, or 0 if the waitlist was full or the position of an
+     * earlier join is unknown
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * @return the capacity the decision was made against, zero or less for unlimited
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
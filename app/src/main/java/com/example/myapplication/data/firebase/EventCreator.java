@@ -0,0 +1,104 @@
+package com.example.myapplication.data.firebase;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.myapplication.core.StageTimer;
+import com.example.myapplication.core.VenueLocator;
+import com.example.myapplication.data.model.NotificationList;
+import com.example.myapplication.data.repo.ImageRepository;
+import com.example.myapplication.features.user.UserEvent;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+/**
+ * This class creates an event for {@link FirebaseEventRepository#createEvent}.
+ *
+ * The poster is uploaded first, while the venue of a geo-verified event is located by
+ * {@link VenueLocator}. Once both are done, the event and its notificationList
+ * document are written in one batch, so an event never exists without its list. The QR code
+ * only encodes the event id, so it is not uploaded: the event stores the id as its qrData and
+ * screens render the code on the device with {@link com.example.myapplication.core.QrRenderer}.
+ * Every stage is timed and the timings are logged when the event is created.
+ */
+class EventCreator {
+
+    private static final String TAG = "EventCreator";
+
+    private final FirebaseFirestore db;
+    private final NotificationListStore notificationLists;
+
+    EventCreator(FirebaseFirestore db, NotificationListStore notificationLists) {
+        this.db = db;
+        this.notificationLists = notificationLists;
+    }
+
+    /**
+     * Uploads the poster and writes the event.
+     *
+     * @param context   a context for preparing the poster before upload
+     * @param event     the event to create; its id, imageUrl and qrData are filled in
+     * @param posterUri the poster to upload, or null to keep the event's imageUrl
+     * @return a task that completes when the event and its notificationList are written
+     */
+    Task<Void> create(Context context, UserEvent event, @Nullable Uri posterUri) {
+        StageTimer timer = new StageTimer();
+        DocumentReference eventRef = db.collection("events").document();
+        String id = eventRef.getId();
+        event.setId(id);
+        event.setQrData(id);
+
+        Task<String> poster = posterUri == null
+                ? Tasks.forResult(null)
+                : timed(timer, "posterUpload", upload(new ImageRepository(context), posterUri, "Poster"));
+        Task<Void> venue = event.isGeoRequired() && event.getVenueLat() == null
+                ? timed(timer, "geocode", VenueLocator.locate(context, event))
+                : Tasks.forResult(null);
+
+        return Tasks.whenAll(poster, venue).onSuccessTask(v -> {
+            String imageUrl = poster.getResult();
+            if (imageUrl != null) {
+                event.setImageUrl(imageUrl);
+            }
+
+            WriteBatch batch = db.batch();
+            batch.set(eventRef, event);
+            // Every location of a new event is stored with its geohash
+            batch.update(eventRef, FirebaseEventRepository.GEOHASHES_BACKFILLED, true);
+            batch.set(notificationLists.ref(id), new NotificationList(id));
+            return timed(timer, "write", batch.commit());
+        }).addOnCompleteListener(t -> Log.d(TAG, "Create event " + id
+                + (t.isSuccessful() ? " done: " : " failed: ") + timer));
+    }
+
+    /**
+     * Wraps an {@link ImageRepository} upload in a task.
+     */
+    private static Task<String> upload(ImageRepository images, Uri uri, String what) {
+        TaskCompletionSource<String> source = new TaskCompletionSource<>();
+        images.uploadImage(uri, new ImageRepository.UploadCallback() {
+            @Override
+            public void onSuccess(String secureUrl) {
+                source.trySetResult(secureUrl);
+            }
+
+            @Override
+            public void onError(String e) {
+                source.trySetException(new Exception(what + " upload failed: " + e));
+            }
+        });
+        return source.getTask();
+    }
+
+    private static <T> Task<T> timed(StageTimer timer, String stage, Task<T> task) {
+        long start = timer.mark();
+        return task.addOnCompleteListener(t -> timer.record(stage, start));
+    }
+}
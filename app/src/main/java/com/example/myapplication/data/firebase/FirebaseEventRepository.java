@@ -1,33 +1,51 @@
 package com.example.myapplication.data.firebase;
 
 import android.content.Context;
-import android.graphics.Bitmap;
 import android.net.Uri;
 
 import androidx.annotation.Nullable;
 
+import com.example.myapplication.core.GeoHash;
+import com.example.myapplication.core.LotteryEngine;
+import com.example.myapplication.core.ThemeRegistry;
+import com.example.myapplication.core.WaitlistAdmission;
 import com.example.myapplication.data.model.EntrantLocation;
 import com.example.myapplication.data.model.Event;
-import com.example.myapplication.data.model.NotificationList;
+import com.example.myapplication.data.model.Membership;
+import com.example.myapplication.data.repo.EventPage;
+import com.example.myapplication.data.repo.EventQuery;
 import com.example.myapplication.data.repo.EventRepository;
-import com.example.myapplication.data.repo.ImageRepository;
 import com.example.myapplication.features.user.UserEvent;
 import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.TransactionOptions;
+import com.google.firebase.firestore.WriteBatch;
 import com.google.firebase.storage.FirebaseStorage;
 import com.google.firebase.storage.StorageReference;
-import com.google.zxing.BarcodeFormat;
-import com.journeyapps.barcodescanner.BarcodeEncoder;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
+import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 
 /**
@@ -35,75 +53,177 @@ import java.util.List;
  *
  * Methods in this class:
  * joinWaitlist(...) - Allows users to join the waitlist of an event
+ *
+ * Waitlists are stored as one document per entrant under events/{id}/entrants, with the
+ * event keeping only a "waitlistCount" field, so loading an event costs the same no matter
+ * how many people have joined.
  */
 public class FirebaseEventRepository implements EventRepository {
 
     private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final MembershipIndex memberships = new MembershipIndex(db);
+    private final NotificationDispatcher dispatcher = new NotificationDispatcher(db);
+    private final NotificationListStore notificationLists = new NotificationListStore(db);
+    private final EventCreator eventCreator = new EventCreator(db, notificationLists);
+
+    /**
+     * Name of the subcollection under each event that holds one document per waitlisted entrant.
+     */
+    public static final String ENTRANTS = "entrants";
+
+    /**
+     * Event field holding the number of documents in {@link #ENTRANTS}.
+     */
+    public static final String WAITLIST_COUNT = "waitlistCount";
+
+    /**
+     * Legacy event field that stored the whole waitlist as an array of user ids.
+     */
+    static final String LEGACY_WAITLIST = "waitlist";
+
+    /** Entrant documents read per request when loading a whole waitlist. */
+    static final int ENTRANT_PAGE_SIZE = 1000;
+
+    /** Firestore allows at most 500 writes in a single batch. */
+    static final int MAX_BATCH_WRITES = 500;
+
+    /** Field of an entrant document holding the position they were admitted at. */
+    static final String POSITION = "position";
+
+    /**
+     * Event field holding the position the next admitted entrant gets. Unlike
+     * {@link #WAITLIST_COUNT} it never goes down, so positions stay distinct after a leave.
+     */
+    static final String NEXT_POSITION = "nextPosition";
+
+    /** Subcollection under each event holding one location document per geo-verified entrant. */
+    static final String WAITLIST_LOCATIONS = "waitlistLocations";
+
+    /** Location field holding the {@link GeoHash#PRECISION} character geohash, for range scans. */
+    static final String GEOHASH = "geohash";
+
+    /** Location field holding the geohash's {@link GeoHash#prefixes}, for cell counts. */
+    static final String GEOHASH_PREFIXES = "geohashPrefixes";
 
     /**
-     * This method adds the specified users id into the waitlist of a given event.
+     * Event field set once every waitlistLocations document of the event has a geohash, see
+     * {@link #backfillGeohashes}.
+     */
+    static final String GEOHASHES_BACKFILLED = "geohashesBackfilled";
+
+    /**
+     * Attempts for a join transaction. Every join of an event contends on the event document,
+     * so a burst of QR scans needs more retries than Firestore's default of five.
+     */
+    static final int JOIN_MAX_ATTEMPTS = 25;
+
+    /**
+     * This method adds the specified user to the waitlist of a given event.
+     *
+     * The user is stored as their own document under events/{eventId}/entrants/{uid}, so the
+     * event document does not grow with the waitlist. Everything a join touches is written in
+     * one atomic commit: the entrant document, the event's "waitlistCount" field, the user's
+     * {@link MembershipIndex} entry and, if given, the user's waitlistLocations document with its
+     * geohash. Either all of them are written or none are, and the callbacks report on that
+     * single commit. The join adds nothing to notificationList/{eventId}: who is waiting is known
+     * from the entrants subcollection alone, see {@link #getWaitingEntrants}, so no per-event
+     * document grows with the waitlist.
      *
-     * The method will update the "events" collection in the application FireStore by adding
-     * the user id (uid) into an array named "waitlist". "waitlist" is an array of user ids that
-     * are a part of the specified events waitlist. It also updates the notificationList document
-     * for the linked event with the user id.
+     * Admission is decided by {@link WaitlistAdmission} from the event's "capacity",
+     * "waitlistCount" and "nextPosition" and the user's entrant document, all read inside the
+     * same transaction; an admitted join advances "nextPosition" past the position it got.
+     * Those two documents are the only reads, and nothing is read before the transaction. The
+     * membership entry is only written when the user is admitted, so a user already on the
+     * waitlist, or already drawn from it, keeps the status they have.
+     * Firestore retries the transaction whenever a concurrent join changed the count first, so
+     * a burst of joins can never push the waitlist past capacity and every admitted entrant is
+     * told a distinct position. A join to a full waitlist, or by a user who is already on it,
+     * writes nothing and still succeeds with the decision.
      *
      * @param eventId The id of event the user wants to join
      * @param uid The id of the user themselves
-     * @param successListener Callback on success
+     * @param lat The user's latitude, may be null
+     * @param lng The user's longitude, may be null
+     * @param successListener Receives the admission decision
      * @param failureListener Callback on failure
      */
     public void joinWaitlist(String eventId,
                              String uid,
                              @Nullable Double lat,
                              @Nullable Double lng,
-                             OnSuccessListener<Void> successListener,
+                             OnSuccessListener<WaitlistAdmission> successListener,
                              OnFailureListener failureListener) {
 
-        db.collection("events")
-                .document(eventId)
-                .update("waitlist", FieldValue.arrayUnion(uid))
-                .addOnSuccessListener(successListener)
-                .addOnFailureListener(failureListener);
-
-        db.collection("notificationList")
-                .whereEqualTo("eventId", eventId)
-                .limit(1)
-                .get()
-                .addOnSuccessListener(x -> {
-                    if (!x.isEmpty()) {
-                        var doc = x.getDocuments().get(0);
-                        doc.getReference().update(
-                                "waiting", FieldValue.arrayUnion(uid),
-                                "all", FieldValue.arrayUnion(uid)
-                        );
-                    }
-                });
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        DocumentReference entrantRef = eventRef.collection(ENTRANTS).document(uid);
 
-        // store location if present
+        var location = new java.util.HashMap<String, Object>();
         if (lat != null && lng != null) {
-            var payload = new java.util.HashMap<String, Object>();
-            payload.put("uid", uid);
-            payload.put("lat", lat);
-            payload.put("lng", lng);
-            payload.put("joinedAt", FieldValue.serverTimestamp());
-
-            db.collection("events")
-                    .document(eventId)
-                    .collection("waitlistLocations")
-                    .document(uid)
-                    .set(payload);
+            location.put("uid", uid);
+            location.put("lat", lat);
+            location.put("lng", lng);
+            location.putAll(geohashFields(lat, lng));
+            location.put("joinedAt", FieldValue.serverTimestamp());
         }
+
+        TransactionOptions options = new TransactionOptions.Builder()
+                .setMaxAttempts(JOIN_MAX_ATTEMPTS)
+                .build();
+
+        db.runTransaction(options, tx -> {
+            DocumentSnapshot eventDoc = tx.get(eventRef);
+            DocumentSnapshot entrantDoc = tx.get(entrantRef);
+
+            Long capacity = eventDoc.getLong("capacity");
+            Long count = eventDoc.getLong(WAITLIST_COUNT);
+            Long nextPosition = eventDoc.getLong(NEXT_POSITION);
+            Long position = entrantDoc.getLong(POSITION);
+            Integer existing = entrantDoc.exists()
+                    ? Integer.valueOf(position == null ? 0 : position.intValue())
+                    // Someone in an unmigrated legacy array is already on the waitlist
+                    : inLegacyWaitlist(eventDoc.getData(), uid) ? Integer.valueOf(0) : null;
+            WaitlistAdmission admission = WaitlistAdmission.decide(
+                    capacity == null ? 0 : capacity.intValue(),
+                    count == null ? 0 : count,
+                    nextPosition == null ? 0 : nextPosition,
+                    existing);
+            if (!admission.isOnWaitlist()) {
+                return admission;
+            }
+
+            if (admission.isAdmitted()) {
+                var entrant = new java.util.HashMap<String, Object>();
+                entrant.put("uid", uid);
+                entrant.put("joinedAt", FieldValue.serverTimestamp());
+                entrant.put(POSITION, admission.getPosition());
+                tx.set(entrantRef, entrant);
+                tx.update(eventRef,
+                        WAITLIST_COUNT, FieldValue.increment(1),
+                        NEXT_POSITION, admission.getPosition() + 1);
+                tx.set(memberships.ref(uid, eventId), MembershipIndex.entry(
+                        eventId, Membership.STATUS_WAITING, MembershipIndex.summaryOf(eventDoc)));
+            }
+            if (!location.isEmpty()) {
+                tx.set(eventRef.collection(WAITLIST_LOCATIONS).document(uid), location);
+            }
+            return admission;
+        })
+                .addOnSuccessListener(successListener)
+                .addOnFailureListener(failureListener);
     }
 
 
     /**
-     * This method removes the specified users id from the waitlist of a given event.
+     * This method removes the specified user from the waitlist of a given event.
+     *
+     * The user's entrant document, membership entry and waitlistLocations document are deleted,
+     * and the event's "waitlistCount" is decremented, all in one WriteBatch commit with no reads
+     * before it.
      *
-     * The method will update the "events" collection in the application FireStore by removing
-     * the user id (uid) from an array named "waitlist". "waitlist" is an array of user ids
-     * that are a part of the specified event waitlist. Also updated the notificationList to remove
-     * the user id from the waitlist array.
+     * The batch first updates the entrant document, which Firestore rejects with NOT_FOUND when
+     * the user is not on the waitlist. In that case nothing was written, so the count is never
+     * decremented twice; the remaining documents are then cleaned up without touching the count,
+     * and the user is removed from the event's legacy "waitlist" array if it still holds them.
      *
      * @param eventId The id of event the user wants to leave
      * @param uid The id of the user themselves
@@ -111,24 +231,285 @@ public class FirebaseEventRepository implements EventRepository {
      * @param failureListener Callback on failure
      */
     public void leaveWaitlist(String eventId, String uid, OnSuccessListener<Void> successListener, OnFailureListener failureListener){
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        DocumentReference entrantRef = eventRef.collection(ENTRANTS).document(uid);
+
+        WriteBatch batch = db.batch();
+        batch.update(entrantRef, "leaving", true);
+        batch.delete(entrantRef);
+        batch.update(eventRef, WAITLIST_COUNT, FieldValue.increment(-1));
+        removeFromWaitlist(batch, eventRef, uid);
+
+        batch.commit()
+                .addOnSuccessListener(v -> successListener.onSuccess(null))
+                .addOnFailureListener(e -> {
+                    if (!(e instanceof FirebaseFirestoreException)
+                            || ((FirebaseFirestoreException) e).getCode() != FirebaseFirestoreException.Code.NOT_FOUND) {
+                        failureListener.onFailure(e);
+                        return;
+                    }
+                    eventRef.get()
+                            .onSuccessTask(eventDoc -> {
+                                WriteBatch cleanup = db.batch();
+                                removeFromWaitlist(cleanup, eventRef, uid);
+                                if (inLegacyWaitlist(eventDoc.getData(), uid)) {
+                                    cleanup.update(eventRef, LEGACY_WAITLIST, FieldValue.arrayRemove(uid));
+                                }
+                                return cleanup.commit();
+                            })
+                            .addOnSuccessListener(v -> successListener.onSuccess(null))
+                            .addOnFailureListener(failureListener);
+                });
+    }
+
+    /**
+     * Adds the writes that remove a user from everything a join created, except the entrant
+     * document and the count.
+     */
+    private void removeFromWaitlist(WriteBatch batch, DocumentReference eventRef, String uid) {
+        batch.delete(memberships.ref(uid, eventRef.getId()));
+        batch.delete(eventRef.collection(WAITLIST_LOCATIONS).document(uid));
+    }
+
+    /**
+     * Checks whether a user is on the waitlist of an event by reading their entrant document.
+     *
+     * Only when there is none is the event document read as well, since an event that has not
+     * been migrated yet may still hold the user in its legacy "waitlist" array.
+     *
+     * @param eventId the event id
+     * @param uid the user id
+     * @param onSuccess receives true if the user is on the waitlist
+     * @param onFailure callback triggered when the read fails
+     */
+    public void isOnWaitlist(String eventId, String uid,
+                             OnSuccessListener<Boolean> onSuccess, OnFailureListener onFailure) {
         db.collection("events")
                 .document(eventId)
-                .update("waitlist", FieldValue.arrayRemove(uid))
-                .addOnSuccessListener(successListener)
-                .addOnFailureListener(failureListener);
-
-        db.collection("notificationList")
-                .whereEqualTo("eventId", eventId)
-                .limit(1)
+                .collection(ENTRANTS)
+                .document(uid)
                 .get()
-                .addOnSuccessListener(x -> {
-                    if (!x.isEmpty()) {
-                        var doc = x.getDocuments().get(0);
-                        doc.getReference().update(
-                                "waiting", FieldValue.arrayRemove(uid)
-                        );
+                .onSuccessTask(doc -> doc.exists()
+                        ? Tasks.forResult(true)
+                        : db.collection("events").document(eventId).get()
+                                .onSuccessTask(eventDoc -> Tasks.forResult(
+                                        inLegacyWaitlist(eventDoc.getData(), uid))))
+                .addOnSuccessListener(onSuccess)
+                .addOnFailureListener(onFailure);
+    }
+
+    /**
+     * Reads the user ids of every entrant on the waitlist of an event.
+     *
+     * Entrant documents are read in pages of {@link #ENTRANT_PAGE_SIZE} ordered by document id,
+     * so this should only be used when the full list is actually needed, such as for a draw.
+     *
+     * @param eventId the event id
+     * @param onSuccess receives the entrant ids
+     * @param onFailure callback triggered when a read fails
+     */
+    public void getWaitlistEntrants(String eventId,
+                                    OnSuccessListener<List<String>> onSuccess, OnFailureListener onFailure) {
+        readEntrantPage(db.collection("events").document(eventId).collection(ENTRANTS),
+                null, new ArrayList<>(), onSuccess, onFailure);
+    }
+
+    private void readEntrantPage(CollectionReference entrants, @Nullable DocumentSnapshot cursor,
+                                 List<String> collected,
+                                 OnSuccessListener<List<String>> onSuccess, OnFailureListener onFailure) {
+        Query q = entrants.orderBy(FieldPath.documentId()).limit(ENTRANT_PAGE_SIZE);
+        if (cursor != null) {
+            q = q.startAfter(cursor);
+        }
+        q.get()
+                .addOnSuccessListener(qs -> {
+                    List<DocumentSnapshot> docs = qs.getDocuments();
+                    for (DocumentSnapshot doc : docs) {
+                        collected.add(doc.getId());
                     }
-                });
+                    if (docs.size() < ENTRANT_PAGE_SIZE) {
+                        onSuccess.onSuccess(collected);
+                    } else {
+                        readEntrantPage(entrants, docs.get(docs.size() - 1), collected, onSuccess, onFailure);
+                    }
+                })
+                .addOnFailureListener(onFailure);
+    }
+
+    /**
+     * Reads the user ids of the entrants still waiting for a draw: everyone on the waitlist,
+     * including a legacy "waitlist" array not yet migrated, who is not in the event's invited,
+     * final or cancelled lists.
+     *
+     * Only those three lists are kept in notificationList/{eventId}, since they are bounded by
+     * the number drawn; the waitlist itself lives in the entrants subcollection alone.
+     *
+     * @param eventId the event id
+     * @param onSuccess receives the waiting entrant ids
+     * @param onFailure callback triggered when a read fails
+     */
+    public void getWaitingEntrants(String eventId,
+                                   OnSuccessListener<List<String>> onSuccess, OnFailureListener onFailure) {
+        readParticipants(eventId, false, onSuccess, onFailure);
+    }
+
+    /**
+     * Reads the user ids of everyone who has taken part in an event: the entrants on its
+     * waitlist, including a legacy "waitlist" array not yet migrated, and everyone in its
+     * invited, final or cancelled lists.
+     *
+     * @param eventId the event id
+     * @param onSuccess receives the participant ids
+     * @param onFailure callback triggered when a read fails
+     */
+    public void getAllParticipants(String eventId,
+                                   OnSuccessListener<List<String>> onSuccess, OnFailureListener onFailure) {
+        readParticipants(eventId, true, onSuccess, onFailure);
+    }
+
+    private void readParticipants(String eventId, boolean includeOutcomes,
+                                  OnSuccessListener<List<String>> onSuccess, OnFailureListener onFailure) {
+        TaskCompletionSource<List<String>> entrants = new TaskCompletionSource<>();
+        getWaitlistEntrants(eventId, entrants::setResult, entrants::setException);
+        Task<DocumentSnapshot> event = db.collection("events").document(eventId).get();
+        Task<DocumentSnapshot> lists = notificationLists.get(eventId);
+
+        Tasks.whenAllSuccess(entrants.getTask(), event, lists)
+                .addOnSuccessListener(results -> onSuccess.onSuccess(participants(
+                        entrants.getTask().getResult(),
+                        event.getResult().getData(),
+                        lists.getResult().getData(),
+                        includeOutcomes)))
+                .addOnFailureListener(onFailure);
+    }
+
+    /**
+     * Combines the entrants subcollection, an event's legacy "waitlist" array and its
+     * notificationList into one list of user ids, in that order and without duplicates.
+     *
+     * @param entrants the ids of the entrant documents
+     * @param event the fields of the event document, may be null
+     * @param lists the fields of the notificationList document, may be null
+     * @param includeOutcomes true to add everyone in the invited, final and cancelled lists,
+     *                        false to leave them out so only those still waiting remain
+     * @return the user ids
+     */
+    static List<String> participants(List<String> entrants, @Nullable Map<String, Object> event,
+                                     @Nullable Map<String, Object> lists, boolean includeOutcomes) {
+        java.util.Set<String> ids = new java.util.LinkedHashSet<>(entrants);
+        addIds(ids, event == null ? null : event.get(LEGACY_WAITLIST));
+
+        java.util.Set<String> outcomes = new java.util.LinkedHashSet<>();
+        if (lists != null) {
+            addIds(outcomes, lists.get(NotificationListStore.FIELD_INVITED));
+            addIds(outcomes, lists.get(NotificationListStore.FIELD_FINAL));
+            addIds(outcomes, lists.get(NotificationListStore.FIELD_CANCELLED));
+        }
+        if (includeOutcomes) {
+            ids.addAll(outcomes);
+        } else {
+            ids.removeAll(outcomes);
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private static void addIds(java.util.Set<String> into, @Nullable Object ids) {
+        if (!(ids instanceof List)) return;
+        for (Object id : (List<?>) ids) {
+            if (id instanceof String) into.add((String) id);
+        }
+    }
+
+    /** What an event document still holds in its legacy "waitlist" field. */
+    enum LegacyWaitlist {
+        /** The field is gone; the event has been migrated. */
+        NONE,
+        /** The field is an array of uids that must be moved to the entrants subcollection. */
+        ARRAY,
+        /**
+         * The field is present but holds no array, as older clients wrote {@code "waitlist": null}
+         * when saving an event. It only has to be deleted.
+         */
+        STALE
+    }
+
+    /**
+     * @param data the fields of an event document
+     * @return what the event's legacy "waitlist" field holds
+     */
+    static LegacyWaitlist legacyWaitlist(@Nullable Map<String, Object> data) {
+        if (data == null || !data.containsKey(LEGACY_WAITLIST)) {
+            return LegacyWaitlist.NONE;
+        }
+        return data.get(LEGACY_WAITLIST) instanceof List ? LegacyWaitlist.ARRAY : LegacyWaitlist.STALE;
+    }
+
+    /**
+     * @param data the fields of an event document, may be null
+     * @param uid the user id
+     * @return true if the event's legacy "waitlist" array holds the user
+     */
+    static boolean inLegacyWaitlist(@Nullable Map<String, Object> data, String uid) {
+        return legacyWaitlist(data) == LegacyWaitlist.ARRAY
+                && ((List<?>) data.get(LEGACY_WAITLIST)).contains(uid);
+    }
+
+    /**
+     * Moves a legacy "waitlist" array out of the event document into the entrants subcollection.
+     *
+     * Every uid in the array gets an entrant document, the array is deleted, and
+     * "waitlistCount" is set from a server-side count of the subcollection so entrants who
+     * already joined through the subcollection are not counted twice. A notificationList the
+     * event still keeps under a random id is re-keyed at the same time. A field that holds no
+     * array is deleted in the same single write that sets the count. Does nothing for events
+     * that have no legacy field.
+     *
+     * The migration writes other users' entrant documents, so it is only run for the event's
+     * organizer; see {@link #fetchEventById}.
+     *
+     * @param eventDoc the current snapshot of the event
+     * @return a task that completes once the event has been migrated
+     */
+    Task<Void> migrateLegacyWaitlist(DocumentSnapshot eventDoc) {
+        LegacyWaitlist legacyState = legacyWaitlist(eventDoc.getData());
+        if (legacyState == LegacyWaitlist.NONE) {
+            return Tasks.forResult(null);
+        }
+
+        DocumentReference eventRef = eventDoc.getReference();
+        if (legacyState == LegacyWaitlist.STALE) {
+            return eventRef.collection(ENTRANTS).count().get(AggregateSource.SERVER)
+                    .onSuccessTask(count -> eventRef.update(
+                            WAITLIST_COUNT, count.getCount(),
+                            LEGACY_WAITLIST, FieldValue.delete()));
+        }
+
+        Object legacy = eventDoc.get(LEGACY_WAITLIST);
+        List<Task<Void>> commits = new ArrayList<>();
+        WriteBatch batch = db.batch();
+        int writes = 0;
+        for (Object item : (List<?>) legacy) {
+            if (!(item instanceof String)) continue;
+            var entrant = new java.util.HashMap<String, Object>();
+            entrant.put("uid", item);
+            batch.set(eventRef.collection(ENTRANTS).document((String) item), entrant, SetOptions.merge());
+            if (++writes == MAX_BATCH_WRITES) {
+                commits.add(batch.commit());
+                batch = db.batch();
+                writes = 0;
+            }
+        }
+        if (writes > 0) {
+            commits.add(batch.commit());
+        }
+        // Events this old may also keep their notificationList under a random id
+        commits.add(notificationLists.migrateLegacy(eventRef.getId()));
+
+        return Tasks.whenAll(commits)
+                .onSuccessTask(v -> eventRef.collection(ENTRANTS).count().get(AggregateSource.SERVER))
+                .onSuccessTask(count -> eventRef.update(
+                        WAITLIST_COUNT, count.getCount(),
+                        LEGACY_WAITLIST, FieldValue.delete()));
     }
 
 
@@ -145,7 +526,10 @@ public class FirebaseEventRepository implements EventRepository {
      * through the callback.
      *
      * @param callback gets the list of events or receives an error.
+     * @deprecated downloads the whole collection; use {@link #queryEvents} and read only
+     * the page that is shown.
      */
+    @Deprecated
     public void getAllEvents(EventListCallback callback){
         db.collection("events")
                 .get()
@@ -161,6 +545,97 @@ public class FirebaseEventRepository implements EventRepository {
                 .addOnFailureListener(callback::onError);
     }
 
+    /**
+     * Reads one page of events from the "events" collection that match the given query.
+     *
+     * Organizer, theme and time window filters are all sent to Firestore, so at most
+     * {@link EventQuery#getPageSize()} documents are read. Disabled events are dropped after the
+     * read because legacy documents have no "disabled" field to query on, which means a page can
+     * hold fewer events than the page size while more pages still follow.
+     *
+     * Themes from the {@link ThemeRegistry} catalogue are matched on "themeId", so spelling and
+     * case do not matter; a selection with any other theme falls back to the "theme" names.
+     * Documents written before "themeId" existed only match once their organizer has read
+     * them, on their home screen or by opening the event, which stores the id; see
+     * {@link #needsThemeId}.
+     *
+     * Combining an equality filter with a time window needs a composite index on
+     * (organizerID, endTimeMillis) in the Firebase console, and the home screen's interest
+     * filter one on (themeId, selectionDateMillis).
+     *
+     * @param query the filters and page size to apply
+     * @param cursor the last document of the previous page, or null for the first page
+     * @param callback receives the page or an error
+     */
+    @Override
+    public void queryEvents(EventQuery query, @Nullable DocumentSnapshot cursor, EventPageCallback callback) {
+        Query q = db.collection("events");
+
+        if (query.getOrganizerId() != null) {
+            q = q.whereEqualTo("organizerID", query.getOrganizerId());
+        }
+        ThemeRegistry.Selection themes = ThemeRegistry.Selection.of(query.getThemes());
+        if (!themes.isEmpty() && themes.isCatalogued()) {
+            q = q.whereIn("themeId", themes.ids());
+        } else if (!themes.isEmpty()) {
+            q = q.whereIn("theme", query.getThemes());
+        }
+
+        long now = System.currentTimeMillis();
+        switch (query.getWindow()) {
+            case UPCOMING:
+                q = q.whereGreaterThanOrEqualTo("endTimeMillis", now)
+                        .orderBy("endTimeMillis", Query.Direction.ASCENDING);
+                break;
+            case PAST:
+                q = q.whereLessThan("endTimeMillis", now)
+                        .orderBy("endTimeMillis", Query.Direction.DESCENDING);
+                break;
+            case REGISTRATION_OPEN:
+                q = q.whereGreaterThanOrEqualTo("selectionDateMillis", now)
+                        .orderBy("selectionDateMillis", Query.Direction.ASCENDING);
+                break;
+            case ANY:
+            default:
+                q = q.orderBy("startTimeMillis", Query.Direction.DESCENDING);
+                break;
+        }
+
+        if (cursor != null) {
+            q = q.startAfter(cursor);
+        }
+
+        int pageSize = query.getPageSize();
+        q.limit(pageSize)
+                .get()
+                .addOnSuccessListener(qs -> {
+                    List<DocumentSnapshot> docs = qs.getDocuments();
+                    List<UserEvent> events = new ArrayList<>();
+                    WriteBatch themeIds = db.batch();
+                    boolean backfill = false;
+                    for (DocumentSnapshot doc : docs) {
+                        if (needsThemeId(doc.getData()) && isOrganizer(doc)) {
+                            themeIds.update(doc.getReference(), "themeId", ThemeRegistry.idOf(doc.getString("theme")));
+                            backfill = true;
+                        }
+                        if (query.isExcludeDisabled() && Boolean.TRUE.equals(doc.getBoolean("disabled"))) {
+                            continue;
+                        }
+                        UserEvent event = doc.toObject(UserEvent.class);
+                        if (event != null) {
+                            event.setId(doc.getId());
+                            events.add(event);
+                        }
+                    }
+                    if (backfill) {
+                        themeIds.commit();
+                    }
+                    DocumentSnapshot last = docs.isEmpty() ? cursor : docs.get(docs.size() - 1);
+                    callback.onPageFetched(new EventPage(events, last, docs.size() == pageSize));
+                })
+                .addOnFailureListener(callback::onError);
+    }
+
     public interface SingleEventCallback {
         void onEventFetched(UserEvent event);
         void onError(Exception e);
@@ -171,6 +646,10 @@ public class FirebaseEventRepository implements EventRepository {
      * id in the "events" collection on Firestore.
      *
      * documents is converted into a UserEvent object and returned through the callback.
+     * Events that still carry a legacy "waitlist" field are migrated first when the signed-in
+     * user is their organizer, and events stored before "themeId" existed are given it, see
+     * {@link #needsThemeId}. Anyone else gets the event as stored, with the count taken from
+     * the legacy array if that is larger, and writes nothing.
      *
      * @param eventId the eventId is a Firestore document ID of the specified event
      * @param callback receives an event or an error
@@ -180,103 +659,98 @@ public class FirebaseEventRepository implements EventRepository {
                 .document(eventId)
                 .get()
                 .addOnSuccessListener(doc -> {
-                    if (doc.exists()) {
-                        UserEvent event = doc.toObject(UserEvent.class);
-                        if (event != null) {
-                            event.setId(doc.getId());
-                        }
-                        callback.onEventFetched(event);
-                    } else {
+                    if (!doc.exists()) {
                         callback.onError(new Exception("Event not found"));
+                        return;
+                    }
+                    LegacyWaitlist legacy = legacyWaitlist(doc.getData());
+                    boolean organizer = (legacy != LegacyWaitlist.NONE || needsThemeId(doc.getData()))
+                            && isOrganizer(doc);
+                    if (organizer && legacy != LegacyWaitlist.NONE) {
+                        // Migrate once, then deliver the event with its new count. The
+                        // migration deletes the field, so the second read cannot loop.
+                        migrateLegacyWaitlist(doc)
+                                .addOnSuccessListener(v -> fetchEventById(eventId, callback))
+                                .addOnFailureListener(callback::onError);
+                        return;
                     }
+                    if (organizer) {
+                        // Stored before the event is delivered, so the edit screen's baseline
+                        // of unchanged fields matches the document.
+                        doc.getReference()
+                                .update("themeId", ThemeRegistry.idOf(doc.getString("theme")))
+                                .addOnSuccessListener(v -> fetchEventById(eventId, callback))
+                                .addOnFailureListener(e -> deliverEvent(doc, legacy, callback));
+                        return;
+                    }
+                    deliverEvent(doc, legacy, callback);
                 })
                 .addOnFailureListener(callback::onError);
     }
 
+    private static void deliverEvent(DocumentSnapshot doc, LegacyWaitlist legacy, SingleEventCallback callback) {
+        UserEvent event = doc.toObject(UserEvent.class);
+        if (event != null) {
+            event.setId(doc.getId());
+            if (legacy == LegacyWaitlist.ARRAY) {
+                int legacySize = ((List<?>) doc.get(LEGACY_WAITLIST)).size();
+                event.setWaitlistCount(Math.max(event.getWaitlistCount(), legacySize));
+            }
+        }
+        callback.onEventFetched(event);
+    }
+
+    /**
+     * Events written before "themeId" existed only carry their "theme" name. A {@link UserEvent}
+     * derives the id from the name when it is read, so an edit would never see the id change
+     * and the document would never be matched by a theme query. Such events are given the id
+     * when their organizer reads them.
+     *
+     * @param data the fields of an event document
+     * @return true if the event has no "themeId" field yet
+     */
+    static boolean needsThemeId(@Nullable Map<String, Object> data) {
+        return data != null && !data.containsKey("themeId");
+    }
+
+    /**
+     * @return true if the signed-in user organizes the event
+     */
+    private static boolean isOrganizer(DocumentSnapshot eventDoc) {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        return user != null && user.getUid().equals(eventDoc.getString("organizerID"));
+    }
+
     /**
-     * Creates a new event in the Firestore "events" collection as well as the QR code image.
+     * Creates a new event in the Firestore "events" collection.
      *
-     * The following operations are performed by this method:
-     * - A Firestore document Id gets generated.
-     * - A QR code gets generated and saved to cloudinary database
-     * - The event objects itself gets saved to Firestore
-     * - A corresponding notificationList document is created in Firestore.
+     * The following operations are performed by {@link EventCreator}:
+     * - A Firestore document Id gets generated and stored as the event's QR data.
+     * - The poster gets uploaded to cloudinary.
+     * - The event and its notificationList document get written to Firestore in one batch.
      *
      * @param context application context
      * @param event UserEvent object that is to be created on Firestore
+     * @param posterUri poster image to upload as the event's imageUrl, or null
      * @param onSuccess callback triggered when successful
      * @param onFailure callback triggered when uncsuccessful
      */
     @Override
-    public void createEvent(Context context, UserEvent event, OnSuccessListener<Void> onSuccess, OnFailureListener onFailure) {
-
-        // create a new doc id
-        String id = db.collection("events").document().getId();
-        event.setId(id);
-
-        String qrData = id;
-
-        Bitmap qrBitmap;
-
-        try {
-            BarcodeEncoder barcodeEncoder = new BarcodeEncoder();
-            qrBitmap = barcodeEncoder.encodeBitmap(
-                    id,
-                    BarcodeFormat.QR_CODE,
-                    600,  // width
-                    600   // height
-            );
-        } catch (Exception e) {
-            e.printStackTrace();
-            onFailure.onFailure(e);
-            return;
-        }
-
-        File qrFile;
-        try {
-            qrFile = new File(context.getCacheDir(), "qr_" + id + ".png");
-            FileOutputStream fos = new FileOutputStream(qrFile);
-            qrBitmap.compress(Bitmap.CompressFormat.PNG, 100, fos);
-            fos.flush();
-            fos.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-            onFailure.onFailure(e);
-            return;
-        }
-
-        Uri qrUri = Uri.fromFile(qrFile);
-
-        ImageRepository imageRepository = new ImageRepository();
-        imageRepository.uploadImage(qrUri, new ImageRepository.UploadCallback() {
-            @Override
-            public void onSuccess(String secureUrl) {
-                event.setQrData(secureUrl);
-
-                db.collection("events")
-                        .document(id)
-                        .set(event)
-                        .addOnSuccessListener(onSuccess)
-                        .addOnFailureListener(onFailure);
-            }
-
-            @Override
-            public void onError(String e) {
-                onFailure.onFailure(new Exception("QR upload failed: " + e));
-            }
-        });
-
-        db.collection("notificationList")
-                .document(id)
-                .set(new NotificationList(id));
-
-
+    public void createEvent(Context context, UserEvent event, @Nullable Uri posterUri,
+                            OnSuccessListener<Void> onSuccess, OnFailureListener onFailure) {
+        eventCreator.create(context, event, posterUri)
+                .addOnSuccessListener(onSuccess)
+                .addOnFailureListener(onFailure);
     }
 
     /**
      * This method Updated an existing event in firestore.
      *
-     * Other data is ovverwritten by the newly provided UserEvent object.
+     * Only the fields reported by {@link UserEvent#changedFields()} are sent, with update(), so
+     * an edit is as small as the change and never touches the waitlist count or lottery
+     * results, which may have changed after the organizer loaded the event. Nothing is written
+     * when no field changed, and the membership summaries are only refreshed when a field they
+     * copy changed. Success is reported once the summaries are written too.
      *
      * @param eventId Firestore ID of the event
      * @param event event with updated data
@@ -287,9 +761,21 @@ public class FirebaseEventRepository implements EventRepository {
     public void updateEvent(String eventId, UserEvent event, OnSuccessListener<Void> onSuccess, OnFailureListener onFailure) {
         event.setId(eventId); // Ensure the event has the correct ID
 
+        Map<String, Object> changes = event.changedFields();
+        if (changes.isEmpty()) {
+            onSuccess.onSuccess(null);
+            return;
+        }
         db.collection("events")
                 .document(eventId)
-                .set(event)
+                .update(changes)
+                .onSuccessTask(v -> {
+                    event.markUnchanged();
+                    // Keep the copies in entrants' membership indexes in sync.
+                    return MembershipIndex.affectsSummary(changes.keySet())
+                            ? memberships.refreshSummaries(event)
+                            : Tasks.<Void>forResult(null);
+                })
                 .addOnSuccessListener(onSuccess)
                 .addOnFailureListener(onFailure);
     }
@@ -297,8 +783,8 @@ public class FirebaseEventRepository implements EventRepository {
     /**
      * This method sends a notification to all users who have won the lottery for a specified event.
      *
-     * A document gets created in the "notifications" collection containing event details, message type,
-     * and the list of userIds that won.
+     * One document per winner gets created in the "notifications" collection by the
+     * {@link NotificationDispatcher}, containing event details, message type and that user's id.
      *
      * @param eventId Firestore ID of the event
      * @param eventName the name of the event
@@ -308,6 +794,18 @@ public class FirebaseEventRepository implements EventRepository {
      */
     public void sendLotteryWinNotifications(String eventId, String eventName, List<String> winnerIds,
                                             OnSuccessListener<Void> onSuccess, OnFailureListener onFailure) {
+        sendLotteryWinNotifications(eventId, eventName, winnerIds, null, onSuccess, onFailure);
+    }
+
+    /**
+     * Same as {@link #sendLotteryWinNotifications(String, String, List, OnSuccessListener, OnFailureListener)},
+     * reporting how many winners have been notified so far.
+     *
+     * @param progress receives progress after each written chunk, may be null
+     */
+    public void sendLotteryWinNotifications(String eventId, String eventName, List<String> winnerIds,
+                                            @Nullable NotificationDispatcher.ProgressListener progress,
+                                            OnSuccessListener<Void> onSuccess, OnFailureListener onFailure) {
 
         var payload = new java.util.HashMap<String, Object>();
         payload.put("dateMade", com.google.firebase.Timestamp.now());
@@ -317,19 +815,17 @@ public class FirebaseEventRepository implements EventRepository {
         payload.put("message", "Congratulations! You've been selected to participate in this event.");
         payload.put("type", "lottery_win");
         payload.put("status", "pending");
-        payload.put("uID", winnerIds);
 
-        db.collection("notifications")
-                .add(payload)
-                .addOnSuccessListener(ref -> onSuccess.onSuccess(null))
-                .addOnFailureListener(onFailure);
+        dispatcher.dispatch(payload, winnerIds, progress,
+                sent -> onSuccess.onSuccess(null),
+                onFailure);
     }
 
     /**
      * This method sends a notification to all users who have lost the lottery for a specified event.
      *
-     * A document gets created in the "notifications" collection containing event details, message type,
-     * and the list of userIds that lost.
+     * One document per loser gets created in the "notifications" collection by the
+     * {@link NotificationDispatcher}, containing event details, message type and that user's id.
      *
      * @param eventId Firestore id of the event
      * @param eventName the name of the event
@@ -339,6 +835,18 @@ public class FirebaseEventRepository implements EventRepository {
      */
     public void sendLotteryLostNotifications(String eventId, String eventName, List<String> loserIds,
                                              OnSuccessListener<Void> onSuccess, OnFailureListener onFailure) {
+        sendLotteryLostNotifications(eventId, eventName, loserIds, null, onSuccess, onFailure);
+    }
+
+    /**
+     * Same as {@link #sendLotteryLostNotifications(String, String, List, OnSuccessListener, OnFailureListener)},
+     * reporting how many losers have been notified so far.
+     *
+     * @param progress receives progress after each written chunk, may be null
+     */
+    public void sendLotteryLostNotifications(String eventId, String eventName, List<String> loserIds,
+                                             @Nullable NotificationDispatcher.ProgressListener progress,
+                                             OnSuccessListener<Void> onSuccess, OnFailureListener onFailure) {
 
         if (loserIds == null || loserIds.isEmpty()) {
             onSuccess.onSuccess(null); // No losers to notify
@@ -352,20 +860,19 @@ public class FirebaseEventRepository implements EventRepository {
         payload.put("from", "System");
         payload.put("message", "Unfortunately, you were not selected for this event. Better luck next time!");
         payload.put("type", "lottery_lost");
-        payload.put("uID", loserIds);
 
-        db.collection("notifications")
-                .add(payload)
-                .addOnSuccessListener(ref -> onSuccess.onSuccess(null))
-                .addOnFailureListener(onFailure);
+        dispatcher.dispatch(payload, loserIds, progress,
+                sent -> onSuccess.onSuccess(null),
+                onFailure);
     }
 
     /**
      * This method runs the randomized lottery among the users in the events waitlist.
      *
-     * Up to {numToSelect} users get selected as winners, which then leads to both
+     * Up to {numToSelect} users get selected as winners by the {@link LotteryEngine}, which then leads to both
      * winners and losers getting notified. As well as updates to the "notificationList" collections
-     * to record the invited participants.
+     * to record the invited participants, and to every entrant's {@link MembershipIndex} entry.
+     * The draw's random seed is stored with the invited list, see {@link #draw(List, int, long)}.
      *
      * @param eventId Firestore Id of the event
      * @param eventName the name of teh event
@@ -376,79 +883,77 @@ public class FirebaseEventRepository implements EventRepository {
      */
     public void runLottery(String eventId, String eventName, List<String> waitlist, int numToSelect,
                            OnSuccessListener<Integer> onSuccess, OnFailureListener onFailure) {
+        runLottery(eventId, eventName, waitlist, numToSelect, null, onSuccess, onFailure);
+    }
+
+    /**
+     * Same as {@link #runLottery(String, String, List, int, OnSuccessListener, OnFailureListener)},
+     * reporting how many of the drawn entrants (winners first, then losers) have been notified.
+     *
+     * @param progress receives the number of entrants notified out of the whole waitlist, may be null
+     */
+    public void runLottery(String eventId, String eventName, List<String> waitlist, int numToSelect,
+                           @Nullable NotificationDispatcher.ProgressListener progress,
+                           OnSuccessListener<Integer> onSuccess, OnFailureListener onFailure) {
 
         if (waitlist == null || waitlist.isEmpty()) {
             onFailure.onFailure(new Exception("Waitlist is empty"));
             return;
         }
 
-        int actualSelection = Math.min(numToSelect, waitlist.size());
-        List<String> shuffled = new ArrayList<>(waitlist);
-        java.util.Collections.shuffle(shuffled);
-        List<String> winners = shuffled.subList(0, actualSelection);
-
-        // Get the losers (those not selected)
-        List<String> losers = new ArrayList<>(waitlist);
-        losers.removeAll(winners);
-
-        db.collection("notificationList")
-                .whereEqualTo("eventId", eventId)
-                .limit(1)
-                .get()
-                .addOnSuccessListener(qs -> {
-                    if (!qs.isEmpty()) {
-                        var doc = qs.getDocuments().get(0);
-                        doc.getReference()
-                                .update(
-                                        "invited", FieldValue.arrayUnion(winners.toArray()),
-                                        "waiting", FieldValue.arrayRemove(winners.toArray()),
-                                        "all", FieldValue.arrayUnion(winners.toArray()))
-                                .addOnSuccessListener(aVoid -> {
-                                    // Notify winners
-                                    sendLotteryWinNotifications(eventId, eventName, winners,
-                                            v -> {
-                                                // After winners are notified, notify losers
-                                                sendLotteryLostNotifications(eventId, eventName, losers,
-                                                        v2 -> onSuccess.onSuccess(winners.size()),
-                                                        onFailure);
-                                            },
-                                            onFailure);
-                                })
-                                .addOnFailureListener(onFailure);
-                    } else {
-                        var payload = new java.util.HashMap<String, Object>();
-                        payload.put("eventId", eventId);
-                        payload.put("invited", winners);
-                        payload.put("waiting", new ArrayList<>());
-                        payload.put("cancelled", new ArrayList<>());
-                        payload.put("all", winners);
-
-                        db.collection("notificationList")
-                                .add(payload)
-                                .addOnSuccessListener(ref -> {
-                                    // Notify winners
-                                    sendLotteryWinNotifications(eventId, eventName, winners,
-                                            v -> {
-                                                // After winners are notified, notify losers
-                                                sendLotteryLostNotifications(eventId, eventName, losers,
-                                                        v2 -> onSuccess.onSuccess(winners.size()),
-                                                        onFailure);
-                                            },
-                                            onFailure);
-                                })
-                                .addOnFailureListener(onFailure);
-                    }
-                })
+        long seed = new SecureRandom().nextLong();
+        LotteryEngine.Result draw = draw(waitlist, numToSelect, seed);
+        List<String> winners = draw.getWinners();
+        List<String> losers = draw.getLosers();
+
+        Task<Void> indexed = memberships.recordDraw(eventId, winners, losers);
+
+        int total = winners.size() + losers.size();
+        NotificationDispatcher.ProgressListener winnerProgress = progress == null ? null
+                : (sent, count) -> progress.onProgress(sent, total);
+        NotificationDispatcher.ProgressListener loserProgress = progress == null ? null
+                : (sent, count) -> progress.onProgress(winners.size() + sent, total);
+
+        // Notify winners, then losers, then report once the membership indexes are written too
+        Runnable notifyEntrants = () -> sendLotteryWinNotifications(eventId, eventName, winners, winnerProgress,
+                v -> sendLotteryLostNotifications(eventId, eventName, losers, loserProgress,
+                        v2 -> indexed
+                                .addOnSuccessListener(v3 -> onSuccess.onSuccess(winners.size()))
+                                .addOnFailureListener(onFailure),
+                        onFailure),
+                onFailure);
+
+        var lists = new java.util.HashMap<String, Object>();
+        lists.put(NotificationListStore.FIELD_INVITED, FieldValue.arrayUnion(winners.toArray()));
+        lists.put(NotificationListStore.FIELD_LOTTERY_SEED, seed);
+
+        notificationLists.update(eventId, lists)
+                .addOnSuccessListener(aVoid -> notifyEntrants.run())
                 .addOnFailureListener(onFailure);
     }
 
+    /**
+     * Draws the winners with a seeded {@link LotteryEngine}. The waitlist is sorted first, so
+     * the same entrants and seed give the same winners whatever order the waitlist was read in.
+     *
+     * @param waitlist    the user ids in the waitlist
+     * @param numToSelect the number of winners to draw
+     * @param seed        the seed stored with the draw
+     * @return the winners and losers
+     */
+    static LotteryEngine.Result draw(List<String> waitlist, int numToSelect, long seed) {
+        List<String> sorted = new ArrayList<>(waitlist);
+        sorted.sort(Comparator.nullsLast(Comparator.naturalOrder()));
+        return new LotteryEngine(seed).draw(sorted, numToSelect);
+    }
+
     /**
      * Accepts the event invitation that a user receives.
      *
      * This method is in charge of the following:
      * - Updates status to "accepted"
      * - Moves the user from the invited list ot the final list
-     * - The user gets removed from the waiting list.
+     * - The user's membership index entry is marked accepted once the lists are updated.
      *
      * @param notificationId Firestore id of the notificationList
      * @param eventId the event that the invitation is connected to
@@ -464,42 +969,16 @@ public class FirebaseEventRepository implements EventRepository {
                 .document(notificationId)
                 .update("status", "accepted")
                 .addOnSuccessListener(aVoid -> {
-                    db.collection("notificationList")
-                            .whereEqualTo("eventId", eventId)
-                            .limit(1)
-                            .get()
-                            .addOnSuccessListener(qs -> {
-                                if (!qs.isEmpty()) {
-                                    var doc = qs.getDocuments().get(0);
-                                    doc.getReference()
-                                            .update(
-                                                    "waiting", FieldValue.arrayRemove(userId),
-                                                    "final", FieldValue.arrayUnion(userId)
-                                            )
-                                            .addOnSuccessListener(v -> onSuccess.onSuccess(null))
-                                            .addOnFailureListener(onFailure);
-                                } else {
-                                    onSuccess.onSuccess(null);
-                                }
-                            })
+                    var lists = new java.util.HashMap<String, Object>();
+                    lists.put(NotificationListStore.FIELD_INVITED, FieldValue.arrayRemove(userId));
+                    lists.put(NotificationListStore.FIELD_FINAL, FieldValue.arrayUnion(userId));
+
+                    notificationLists.update(eventId, lists)
+                            .onSuccessTask(v -> memberships.setStatus(userId, eventId, Membership.STATUS_ACCEPTED))
+                            .addOnSuccessListener(v -> onSuccess.onSuccess(null))
                             .addOnFailureListener(onFailure);
                 })
                 .addOnFailureListener(onFailure);
-
-        db.collection("notificationList")
-                .whereEqualTo("eventId", eventId)
-                .limit(1)
-                .get()
-                .addOnSuccessListener(x -> {
-                    if (!x.isEmpty()) {
-                        var doc = x.getDocuments().get(0);
-                        doc.getReference().update(
-                                "invited", FieldValue.arrayRemove(userId),
-                                "waiting", FieldValue.arrayRemove(userId),
-                                "final", FieldValue.arrayUnion(userId)
-                        );
-                    }
-                });
     }
 
     /**
@@ -508,7 +987,7 @@ public class FirebaseEventRepository implements EventRepository {
      * This method is in charge of the following:
      * - The notification status gets updated to declined
      * - The user gets moved from the invited list to the cancelled list
-     * - The user is removed from the waiting list
+     * - The user's membership index entry is marked declined once the lists are updated
      *
      * @param notificationId Firestore id of the notification list
      * @param eventId the event that the invitation is connected to
@@ -524,25 +1003,13 @@ public class FirebaseEventRepository implements EventRepository {
                 .update("status", "declined")
                 .addOnSuccessListener(aVoid -> {
                     // Move user from "invited" to "cancelled" list
-                    db.collection("notificationList")
-                            .whereEqualTo("eventId", eventId)
-                            .limit(1)
-                            .get()
-                            .addOnSuccessListener(qs -> {
-                                if (!qs.isEmpty()) {
-                                    var doc = qs.getDocuments().get(0);
-                                    doc.getReference()
-                                            .update(
-                                                    "invited", FieldValue.arrayRemove(userId),
-                                                    "cancelled", FieldValue.arrayUnion(userId),
-                                                    "waiting", FieldValue.arrayRemove(userId)
-                                            )
-                                            .addOnSuccessListener(v -> onSuccess.onSuccess(null))
-                                            .addOnFailureListener(onFailure);
-                                } else {
-                                    onSuccess.onSuccess(null);
-                                }
-                            })
+                    var lists = new java.util.HashMap<String, Object>();
+                    lists.put(NotificationListStore.FIELD_INVITED, FieldValue.arrayRemove(userId));
+                    lists.put(NotificationListStore.FIELD_CANCELLED, FieldValue.arrayUnion(userId));
+
+                    notificationLists.update(eventId, lists)
+                            .onSuccessTask(v -> memberships.setStatus(userId, eventId, Membership.STATUS_DECLINED))
+                            .addOnSuccessListener(v -> onSuccess.onSuccess(null))
                             .addOnFailureListener(onFailure);
                 })
                 .addOnFailureListener(onFailure);
@@ -598,41 +1065,32 @@ public class FirebaseEventRepository implements EventRepository {
                 final String finalOrganizerName = organizerName;
 
                 // 2. Fetch the notificationList to get the "final" entrants
-                db.collection("notificationList").whereEqualTo("eventId", eventId).limit(1).get()
-                        .addOnSuccessListener(notiListQS -> {
-                            if (notiListQS.isEmpty()) {
+                notificationLists.get(eventId)
+                        .addOnSuccessListener(notiDoc -> {
+                            if (!notiDoc.exists()) {
                                  onSuccess.onSuccess(null); 
                                  return;
                             }
-                            DocumentSnapshot notiDoc = notiListQS.getDocuments().get(0);
-                            List<String> finalists = (List<String>) notiDoc.get("final");
+                            List<String> finalists = (List<String>) notiDoc.get(NotificationListStore.FIELD_FINAL);
                             
                             if (finalists == null || finalists.isEmpty()) {
                                 onSuccess.onSuccess(null);
                                 return;
                             }
                             
-                            com.google.firebase.firestore.WriteBatch batch = db.batch();
-                            
-                            for (String userId : finalists) {
-                                String newNotiId = db.collection("notifications").document().getId();
-                                java.util.Map<String, Object> payload = new java.util.HashMap<>();
-                                payload.put("dateMade", com.google.firebase.Timestamp.now());
-                                payload.put("event", finalEventName);
-                                payload.put("eventId", eventId);
-                                payload.put("from", finalOrganizerName); 
-                                payload.put("fromId", finalOrganizerId); 
-                                payload.put("message", "Please rate your experience with " + finalOrganizerName + " for " + finalEventName);
-                                payload.put("type", "rating_request");
-                                payload.put("status", "pending");
-                                payload.put("uID", java.util.Collections.singletonList(userId));
-                                
-                                batch.set(db.collection("notifications").document(newNotiId), payload);
-                            }
-                            
-                            batch.commit()
-                                    .addOnSuccessListener(v -> onSuccess.onSuccess(null))
-                                    .addOnFailureListener(onFailure);
+                            java.util.Map<String, Object> payload = new java.util.HashMap<>();
+                            payload.put("dateMade", com.google.firebase.Timestamp.now());
+                            payload.put("event", finalEventName);
+                            payload.put("eventId", eventId);
+                            payload.put("from", finalOrganizerName);
+                            payload.put("fromId", finalOrganizerId);
+                            payload.put("message", "Please rate your experience with " + finalOrganizerName + " for " + finalEventName);
+                            payload.put("type", "rating_request");
+                            payload.put("status", "pending");
+
+                            dispatcher.dispatch(payload, finalists, null,
+                                    sent -> onSuccess.onSuccess(null),
+                                    onFailure);
 
                         })
                         .addOnFailureListener(onFailure);
@@ -647,18 +1105,13 @@ public class FirebaseEventRepository implements EventRepository {
     }
 
     public void getWaitlistLocations(String eventId, WaitlistLocationCallback callback) {
-        db.collection("events")
-                .document(eventId)
-                .collection("waitlistLocations")
+        locations(eventId)
                 .get()
                 .addOnSuccessListener(qs -> {
                     java.util.List<EntrantLocation> result = new java.util.ArrayList<>();
                     for (var doc : qs.getDocuments()) {
-                        EntrantLocation loc = doc.toObject(EntrantLocation.class);
+                        EntrantLocation loc = toLocation(doc);
                         if (loc != null) {
-                            if (loc.getUid() == null) {
-                                loc.setUid(doc.getId());
-                            }
                             result.add(loc);
                         }
                     }
@@ -667,12 +1120,194 @@ public class FirebaseEventRepository implements EventRepository {
                 .addOnFailureListener(callback::onError);
     }
 
+    /**
+     * Fetches the entrant locations inside a bounding box.
+     *
+     * The box is covered by the geohash cells of {@link GeoHash#cover}: at most
+     * {@link GeoHash#MAX_CELLS} per side of the antimeridian, or a single scan of every location
+     * for a box spanning a large part of the globe. Each cell is read with one range scan over
+     * the "geohash" field, and the cells' overhang is filtered out exactly. Locations written
+     * before geohashes were stored are only found once {@link #backfillGeohashes} has run.
+     *
+     * @param eventId the event whose entrants to search
+     * @param south south edge in degrees
+     * @param west west edge in degrees; a box whose west edge is east of its east edge crosses the antimeridian
+     * @param north north edge in degrees
+     * @param east east edge in degrees
+     * @param callback receives the locations inside the box
+     */
+    public void getWaitlistLocationsInBox(String eventId, double south, double west, double north,
+                                          double east, WaitlistLocationCallback callback) {
+        queryCells(eventId, GeoHash.cover(south, west, north, east),
+                loc -> GeoHash.contains(south, west, north, east, loc.getLat(), loc.getLng()),
+                callback);
+    }
+
+    /**
+     * Fetches the entrant locations within a distance of a point, such as everyone within
+     * 10 km of the venue. The circle's bounding box is scanned as in
+     * {@link #getWaitlistLocationsInBox} and each result is kept only if its great-circle
+     * distance is within the radius.
+     *
+     * @param eventId the event whose entrants to search
+     * @param lat latitude of the centre
+     * @param lng longitude of the centre
+     * @param radiusMeters the radius in metres
+     * @param callback receives the locations within the radius
+     */
+    public void getWaitlistLocationsWithin(String eventId, double lat, double lng,
+                                           double radiusMeters, WaitlistLocationCallback callback) {
+        double[] box = GeoHash.boundsAround(lat, lng, radiusMeters);
+        queryCells(eventId, GeoHash.cover(box[0], box[1], box[2], box[3]),
+                loc -> GeoHash.distanceMeters(lat, lng, loc.getLat(), loc.getLng()) <= radiusMeters,
+                callback);
+    }
+
+    /**
+     * Counts the entrant locations in one geohash cell on the server, without downloading them.
+     *
+     * @param eventId the event whose entrants to count
+     * @param cell a geohash of at most {@link GeoHash#PREFIX_PRECISION} characters
+     * @return a task with the number of entrants in the cell
+     */
+    public Task<Long> countWaitlistLocationsInCell(String eventId, String cell) {
+        if (cell.isEmpty() || cell.length() > GeoHash.PREFIX_PRECISION) {
+            return Tasks.forException(new IllegalArgumentException(
+                    "Cell must have 1 to " + GeoHash.PREFIX_PRECISION + " characters: " + cell));
+        }
+        return locations(eventId)
+                .whereArrayContains(GEOHASH_PREFIXES, cell)
+                .count()
+                .get(AggregateSource.SERVER)
+                .onSuccessTask(count -> Tasks.forResult(count.getCount()));
+    }
+
+    /**
+     * Gives every waitlistLocations document of an event that was written before geohashes were
+     * stored its "geohash" and "geohashPrefixes" fields, so the box, radius and cell queries
+     * find it.
+     *
+     * The event is marked with {@link #GEOHASHES_BACKFILLED} afterwards, and events created
+     * since geohashes exist carry the mark from the start, so this costs one event read once
+     * done. Until then, the located documents and those with a geohash are counted on the
+     * server, and the locations are only downloaded when the two counts differ. The backfill
+     * writes other users' documents, so it is only run for the event's organizer, such as when
+     * they open the entrant map.
+     *
+     * @param eventId the event whose locations to backfill
+     * @return a task completing when every location of the event has a geohash
+     */
+    public Task<Void> backfillGeohashes(String eventId) {
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        return eventRef.get().onSuccessTask(eventDoc -> {
+            if (Boolean.TRUE.equals(eventDoc.getBoolean(GEOHASHES_BACKFILLED))) {
+                return Tasks.forResult(null);
+            }
+            Task<com.google.firebase.firestore.AggregateQuerySnapshot> all =
+                    locations(eventId).count().get(AggregateSource.SERVER);
+            Task<com.google.firebase.firestore.AggregateQuerySnapshot> hashed =
+                    locations(eventId).whereGreaterThanOrEqualTo(GEOHASH, "").count().get(AggregateSource.SERVER);
+            return Tasks.whenAllSuccess(all, hashed)
+                    .onSuccessTask(counts -> all.getResult().getCount() == hashed.getResult().getCount()
+                            ? Tasks.<Void>forResult(null)
+                            : writeMissingGeohashes(eventId))
+                    .onSuccessTask(v -> eventRef.update(GEOHASHES_BACKFILLED, true));
+        });
+    }
+
+    private Task<Void> writeMissingGeohashes(String eventId) {
+        return locations(eventId).get().onSuccessTask(qs -> {
+            List<Task<Void>> commits = new ArrayList<>();
+            WriteBatch batch = db.batch();
+            int writes = 0;
+            for (DocumentSnapshot doc : qs.getDocuments()) {
+                if (doc.contains(GEOHASH)) continue;
+                Map<String, Object> fields = geohashFields(doc.get("lat"), doc.get("lng"));
+                if (fields == null) continue;
+                batch.update(doc.getReference(), fields);
+                if (++writes == MAX_BATCH_WRITES) {
+                    commits.add(batch.commit());
+                    batch = db.batch();
+                    writes = 0;
+                }
+            }
+            if (writes > 0) {
+                commits.add(batch.commit());
+            }
+            return Tasks.whenAll(commits);
+        });
+    }
+
+    /**
+     * @param lat the stored latitude
+     * @param lng the stored longitude
+     * @return the geohash fields for a location, or null if it holds no coordinates
+     */
+    @Nullable
+    static Map<String, Object> geohashFields(@Nullable Object lat, @Nullable Object lng) {
+        if (!(lat instanceof Number) || !(lng instanceof Number)) {
+            return null;
+        }
+        String geohash = GeoHash.encode(((Number) lat).doubleValue(), ((Number) lng).doubleValue(),
+                GeoHash.PRECISION);
+        Map<String, Object> fields = new java.util.HashMap<>();
+        fields.put(GEOHASH, geohash);
+        fields.put(GEOHASH_PREFIXES, GeoHash.prefixes(geohash));
+        return fields;
+    }
+
+    /**
+     * Runs one range scan per cell and keeps the locations that pass {@code keep}.
+     */
+    private void queryCells(String eventId, List<String> cells,
+                            Predicate<EntrantLocation> keep,
+                            WaitlistLocationCallback callback) {
+        List<Task<QuerySnapshot>> scans = new ArrayList<>();
+        for (String cell : cells) {
+            scans.add(locations(eventId)
+                    .orderBy(GEOHASH)
+                    .startAt(cell)
+                    .endAt(cell + "~")
+                    .get());
+        }
+        Tasks.<QuerySnapshot>whenAllSuccess(scans)
+                .addOnSuccessListener(results -> {
+                    // Cells do not overlap, but a document must never be reported twice.
+                    Map<String, EntrantLocation> found = new LinkedHashMap<>();
+                    for (QuerySnapshot result : results) {
+                        for (DocumentSnapshot doc : result.getDocuments()) {
+                            EntrantLocation loc = toLocation(doc);
+                            if (loc != null && keep.test(loc)) {
+                                found.put(doc.getId(), loc);
+                            }
+                        }
+                    }
+                    callback.onLocationsFetched(new ArrayList<>(found.values()));
+                })
+                .addOnFailureListener(callback::onError);
+    }
+
+    private CollectionReference locations(String eventId) {
+        return db.collection("events").document(eventId).collection(WAITLIST_LOCATIONS);
+    }
+
+    @Nullable
+    private static EntrantLocation toLocation(DocumentSnapshot doc) {
+        EntrantLocation loc = doc.toObject(EntrantLocation.class);
+        if (loc != null && loc.getUid() == null) {
+            loc.setUid(doc.getId());
+        }
+        return loc;
+    }
+
     /**
      * This method removes users from the invited list for a given event
      *
      * The Method performs the following:
      * - The specified notificationList document is updated to remove the user from
-     * the "invited" and "all" lists.
+     * the "invited" list.
+     * - The user leaves the waitlist as well, see {@link #leaveWaitlist}, so they are not
+     * counted as waiting again.
      * - Finds any "lottery_win" and "lottery_lost" notifications linked to the specified event
      * and the user, then removes those notifications.
      *
@@ -683,41 +1318,29 @@ public class FirebaseEventRepository implements EventRepository {
      */
     public void leaveInvitedList(String eventId, String userId, OnSuccessListener<Void> onSuccess, OnFailureListener onFailure){
 
-        db.collection("notificationList")
+        var lists = new java.util.HashMap<String, Object>();
+        lists.put(NotificationListStore.FIELD_INVITED, FieldValue.arrayRemove(userId));
+
+        Runnable removeNotification = () -> db.collection("notifications")
                 .whereEqualTo("eventId", eventId)
-                .limit(1)
+                .whereIn("type", java.util.Arrays.asList("lottery_win", "lottery_lost"))
+                .whereArrayContains("uID", userId)
                 .get()
-                .addOnSuccessListener(x ->{
-                    Runnable removeNotification = () -> db.collection("notifications")
-                            .whereEqualTo("eventId", eventId)
-                            .whereIn("type", java.util.Arrays.asList("lottery_win", "lottery_lost"))
-                            .whereArrayContains("uID", userId)
-                            .get()
-                            .addOnSuccessListener(y -> {
-                                if(!y.isEmpty()){
-                                    for(var notifications : y.getDocuments()) {
-                                        notifications.getReference()
-                                                .update("uID", FieldValue.arrayRemove(userId));
-                                    }
-                                }
-                                onSuccess.onSuccess(null);
-                            })
-                            .addOnFailureListener(onFailure);
-
-                    if(!x.isEmpty()){
-                        var doc = x.getDocuments().get(0);
-                        doc.getReference()
-                                .update(
-                                        "invited", FieldValue.arrayRemove(userId),
-                                        "all", FieldValue.arrayRemove(userId)
-                                )
-                                .addOnSuccessListener(v -> removeNotification.run())
-                                .addOnFailureListener(onFailure);
-                    } else {
-                        removeNotification.run();
+                .addOnSuccessListener(y -> {
+                    if(!y.isEmpty()){
+                        for(var notifications : y.getDocuments()) {
+                            notifications.getReference()
+                                    .update("uID", FieldValue.arrayRemove(userId));
+                        }
                     }
+                    onSuccess.onSuccess(null);
                 })
                 .addOnFailureListener(onFailure);
+
+        notificationLists.update(eventId, lists)
+                .addOnSuccessListener(v -> leaveWaitlist(eventId, userId,
+                        left -> removeNotification.run(), onFailure))
+                .addOnFailureListener(onFailure);
     }
 
 
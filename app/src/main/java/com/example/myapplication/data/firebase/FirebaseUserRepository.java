@@ -1,5 +1,6 @@
 package com.example.myapplication.data.firebase;
 
+import com.example.myapplication.core.ServiceLocator;
 import com.example.myapplication.data.repo.UserRepository;
 import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.gms.tasks.Task;
@@ -16,9 +17,11 @@ import java.util.List;
 public class FirebaseUserRepository implements UserRepository {
 
     private final FirebaseFirestore firestore;
+    private final UserDirectory directory;
 
     public FirebaseUserRepository() {
         this.firestore = FirebaseFirestore.getInstance();
+        this.directory = ServiceLocator.getUserDirectory();
     }
 
     @Override
@@ -72,7 +75,11 @@ public class FirebaseUserRepository implements UserRepository {
         firestore.collection("users")
                 .document(uid)
                 .delete()
-                .addOnSuccessListener(aVoid -> onSuccess.run())
+                .addOnSuccessListener(aVoid -> {
+                    // Screens must not keep showing the deleted user's cached name
+                    directory.invalidate(uid);
+                    onSuccess.run();
+                })
                 .addOnFailureListener(onFailure);
     }
 
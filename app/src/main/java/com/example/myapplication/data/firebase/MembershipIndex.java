@@ -0,0 +1,425 @@
+package com.example.myapplication.data.firebase;
+
+import androidx.annotation.Nullable;
+
+import com.example.myapplication.data.model.Membership;
+import com.example.myapplication.features.user.UserEvent;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class maintains the per-user reverse index of event memberships at
+ * users/{uid}/memberships/{eventId}.
+ *
+ * Every place that changes where a user stands for an event (joining or leaving the waitlist,
+ * the lottery, accepting, declining, being removed from the invited list) also writes the
+ * user's entry here. The waitlist and past events screens then read only the current user's
+ * entries instead of scanning events or notification lists, so their cost grows with the
+ * user's own history rather than with the number of events.
+ *
+ * Users who joined events before the index existed may be missing entries; {@link #backfill}
+ * builds them once from the notificationList and entrants data, and the user document is then
+ * marked with {@link #BACKFILLED} so it is never run again for that user.
+ */
+public class MembershipIndex {
+
+    /** Name of the subcollection under each user. */
+    public static final String MEMBERSHIPS = "memberships";
+
+    /** User document field set once the user's entries have been backfilled. */
+    static final String BACKFILLED = "membershipsBackfilled";
+
+    /** Firestore allows at most 500 writes in a single batch. */
+    static final int MAX_BATCH_WRITES = 500;
+
+    /** Firestore allows at most 30 values in a whereIn clause. */
+    private static final int WHERE_IN_LIMIT = 30;
+
+    /** Event fields that {@link #summaryOf(UserEvent)} is computed from. */
+    private static final List<String> SUMMARY_SOURCE_FIELDS = Arrays.asList(
+            "name", "location", "price", "priceDisplay", "imageUrl",
+            "startTimeMillis", "endTimeMillis", "selectionDateMillis");
+
+    public interface MembershipsCallback {
+        void onMembershipsFetched(List<Membership> memberships);
+        void onError(Exception e);
+    }
+
+    private final FirebaseFirestore db;
+
+    /** Users whose backfill marker has already been seen by this index. */
+    private final Set<String> backfilled = ConcurrentHashMap.newKeySet();
+
+    public MembershipIndex() {
+        this(FirebaseFirestore.getInstance());
+    }
+
+    public MembershipIndex(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /**
+     * @param uid the user id
+     * @param eventId the event id
+     * @return the user's index entry for the event
+     */
+    public DocumentReference ref(String uid, String eventId) {
+        return db.collection("users").document(uid).collection(MEMBERSHIPS).document(eventId);
+    }
+
+    /**
+     * @param eventFields names of changed event fields
+     * @return true if any of them is copied into the summaries by {@link #summaryOf(UserEvent)}
+     */
+    static boolean affectsSummary(Collection<String> eventFields) {
+        for (String field : eventFields) {
+            if (SUMMARY_SOURCE_FIELDS.contains(field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies the event fields shown by the membership screens.
+     *
+     * @param event the event, or null if it is not known
+     * @return the summary fields, empty if the event is null
+     */
+    static Map<String, Object> summaryOf(@Nullable UserEvent event) {
+        Map<String, Object> summary = new HashMap<>();
+        if (event == null) {
+            return summary;
+        }
+        summary.put("eventName", event.getName());
+        summary.put("location", event.getLocation());
+        summary.put("priceDisplay", event.getPriceDisplay());
+        summary.put("imageUrl", event.getImageUrl());
+        summary.put("startTimeMillis", event.getStartTimeMillis());
+        summary.put("endTimeMillis", event.getEndTimeMillis());
+        summary.put("selectionDateMillis", event.getSelectionDateMillis());
+        return summary;
+    }
+
+    /**
+     * Copies the event fields shown by the membership screens from an event snapshot.
+     *
+     * @param eventDoc the event snapshot
+     * @return the summary fields, empty if the event does not exist
+     */
+    static Map<String, Object> summaryOf(DocumentSnapshot eventDoc) {
+        return summaryOf(eventDoc.exists() ? eventDoc.toObject(UserEvent.class) : null);
+    }
+
+    /**
+     * Builds a full index entry.
+     *
+     * @param eventId the event id
+     * @param status one of the {@link Membership} STATUS_ constants
+     * @param summary the event summary fields, may be empty
+     * @return the fields to merge into the entry
+     */
+    static Map<String, Object> entry(String eventId, String status, Map<String, Object> summary) {
+        Map<String, Object> entry = new HashMap<>(summary);
+        entry.put("eventId", eventId);
+        entry.put("status", status);
+        entry.put("updatedAt", System.currentTimeMillis());
+        return entry;
+    }
+
+    /**
+     * Sets the status of one user's entry, keeping the summary fields already stored.
+     *
+     * The status is written with update(), so an existing entry keeps its summary. Only when
+     * the user has no entry is the event read and a full entry created, so an entry never
+     * lacks the fields the membership screens show.
+     *
+     * @param uid the user id
+     * @param eventId the event id
+     * @param status one of the {@link Membership} STATUS_ constants
+     * @return the write task
+     */
+    public Task<Void> setStatus(String uid, String eventId, String status) {
+        DocumentReference ref = ref(uid, eventId);
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("status", status);
+        fields.put("updatedAt", System.currentTimeMillis());
+        return ref.update(fields).continueWithTask(write -> {
+            if (write.isSuccessful() || !isNotFound(write.getException())) {
+                return write;
+            }
+            return db.collection("events").document(eventId).get()
+                    .onSuccessTask(eventDoc -> ref.set(entry(eventId, status, summaryOf(eventDoc))));
+        });
+    }
+
+    /**
+     * Sets the status of many users' entries for one event, in batches of
+     * {@link #MAX_BATCH_WRITES}.
+     *
+     * @param eventId the event id
+     * @param uids the users to update
+     * @param status one of the {@link Membership} STATUS_ constants
+     * @param summary the event summary fields to store with each entry, may be empty
+     * @return a task that completes once every batch is committed
+     */
+    public Task<Void> setStatus(String eventId, Collection<String> uids, String status,
+                                Map<String, Object> summary) {
+        Map<String, Object> entry = entry(eventId, status, summary);
+        List<Task<Void>> commits = new ArrayList<>();
+        WriteBatch batch = db.batch();
+        int writes = 0;
+        for (String uid : uids) {
+            batch.set(ref(uid, eventId), entry, SetOptions.merge());
+            if (++writes == MAX_BATCH_WRITES) {
+                commits.add(batch.commit());
+                batch = db.batch();
+                writes = 0;
+            }
+        }
+        if (writes > 0) {
+            commits.add(batch.commit());
+        }
+        return Tasks.whenAll(commits);
+    }
+
+    /**
+     * Records the result of a lottery: winners become invited and everyone else not selected.
+     * The event is read once so both groups get its current summary.
+     *
+     * @param eventId the event id
+     * @param winners the drawn users
+     * @param losers the users who were not drawn
+     * @return a task that completes once every entry is written
+     */
+    public Task<Void> recordDraw(String eventId, Collection<String> winners, Collection<String> losers) {
+        return db.collection("events").document(eventId).get()
+                .onSuccessTask(eventDoc -> {
+                    Map<String, Object> summary = summaryOf(eventDoc);
+                    return Tasks.whenAll(
+                            setStatus(eventId, winners, Membership.STATUS_INVITED, summary),
+                            setStatus(eventId, losers, Membership.STATUS_NOT_SELECTED, summary));
+                });
+    }
+
+    /**
+     * Removes a user's entry for an event.
+     *
+     * @param uid the user id
+     * @param eventId the event id
+     * @return the delete task
+     */
+    public Task<Void> remove(String uid, String eventId) {
+        return ref(uid, eventId).delete();
+    }
+
+    /**
+     * Rewrites the summary fields of every entry for an event after it was edited.
+     * Uses a collection group query on memberships.eventId, which needs a collection group
+     * index in the Firebase console.
+     *
+     * @param event the edited event, with its id set
+     * @return a task that completes once every entry is updated
+     */
+    public Task<Void> refreshSummaries(UserEvent event) {
+        Map<String, Object> summary = summaryOf(event);
+        return db.collectionGroup(MEMBERSHIPS)
+                .whereEqualTo("eventId", event.getId())
+                .get()
+                .onSuccessTask(qs -> {
+                    List<Task<Void>> commits = new ArrayList<>();
+                    WriteBatch batch = db.batch();
+                    int writes = 0;
+                    for (DocumentSnapshot doc : qs.getDocuments()) {
+                        batch.update(doc.getReference(), summary);
+                        if (++writes == MAX_BATCH_WRITES) {
+                            commits.add(batch.commit());
+                            batch = db.batch();
+                            writes = 0;
+                        }
+                    }
+                    if (writes > 0) {
+                        commits.add(batch.commit());
+                    }
+                    return Tasks.whenAll(commits);
+                });
+    }
+
+    /**
+     * Gets the events the user is currently waiting on.
+     *
+     * @param uid the user id
+     * @param callback receives the entries or an error
+     */
+    public void getWaiting(String uid, MembershipsCallback callback) {
+        load(db.collection("users").document(uid).collection(MEMBERSHIPS)
+                .whereEqualTo("status", Membership.STATUS_WAITING), uid, callback);
+    }
+
+    /**
+     * Gets the user's entries for events that have already ended, most recent first.
+     *
+     * @param uid the user id
+     * @param callback receives the entries or an error
+     */
+    public void getPast(String uid, MembershipsCallback callback) {
+        load(db.collection("users").document(uid).collection(MEMBERSHIPS)
+                .whereLessThanOrEqualTo("endTimeMillis", System.currentTimeMillis())
+                .orderBy("endTimeMillis", Query.Direction.DESCENDING), uid, callback);
+    }
+
+    /**
+     * Runs an index query once the user's entries are known to be backfilled.
+     */
+    private void load(Query query, String uid, MembershipsCallback callback) {
+        ensureBackfilled(uid)
+                .onSuccessTask(v -> query.get())
+                .addOnSuccessListener(qs -> callback.onMembershipsFetched(toMemberships(qs)))
+                .addOnFailureListener(callback::onError);
+    }
+
+    /**
+     * Backfills the user's entries unless their user document carries the {@link #BACKFILLED}
+     * marker, then sets the marker. A user who already has some entries, for example from a
+     * join made after the index existed, is still backfilled once. After the first check the
+     * marker is remembered, so later loads read nothing extra.
+     *
+     * @param uid the user id
+     * @return a task that completes once the user's entries are backfilled
+     */
+    Task<Void> ensureBackfilled(String uid) {
+        if (backfilled.contains(uid)) {
+            return Tasks.forResult(null);
+        }
+        DocumentReference user = db.collection("users").document(uid);
+        return user.get()
+                .onSuccessTask(userDoc -> Boolean.TRUE.equals(userDoc.getBoolean(BACKFILLED))
+                        ? Tasks.<Void>forResult(null)
+                        : backfill(uid).onSuccessTask(v ->
+                                user.set(Collections.singletonMap(BACKFILLED, true), SetOptions.merge())))
+                .onSuccessTask(v -> {
+                    backfilled.add(uid);
+                    return Tasks.forResult(null);
+                });
+    }
+
+    private static List<Membership> toMemberships(QuerySnapshot qs) {
+        List<Membership> result = new ArrayList<>();
+        for (DocumentSnapshot doc : qs.getDocuments()) {
+            Membership membership = doc.toObject(Membership.class);
+            if (membership != null) {
+                if (membership.getEventId() == null) {
+                    membership.setEventId(doc.getId());
+                }
+                result.add(membership);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds the index for a user who joined events before it existed.
+     *
+     * Statuses come from the notificationList documents that list the user, plus any entrant
+     * documents for events the user is still waiting on. The events are then read in batches
+     * of up to 30 ids for their summaries.
+     *
+     * @param uid the user id
+     * @return a task that completes once the entries are written
+     */
+    public Task<Void> backfill(String uid) {
+        Task<QuerySnapshot> lists = db.collection("notificationList").whereArrayContains("all", uid).get();
+        Task<QuerySnapshot> entrants = db.collectionGroup(FirebaseEventRepository.ENTRANTS)
+                .whereEqualTo("uid", uid).get();
+
+        return Tasks.whenAll(lists, entrants).onSuccessTask(v -> {
+            Map<String, String> statuses = new LinkedHashMap<>();
+            for (DocumentSnapshot doc : entrants.getResult().getDocuments()) {
+                DocumentReference event = doc.getReference().getParent().getParent();
+                if (event != null) {
+                    statuses.put(event.getId(), Membership.STATUS_WAITING);
+                }
+            }
+            for (DocumentSnapshot doc : lists.getResult().getDocuments()) {
+                String eventId = doc.getString("eventId");
+                if (eventId != null) {
+                    statuses.put(eventId, statusIn(doc, uid));
+                }
+            }
+            if (statuses.isEmpty()) {
+                return Tasks.forResult(null);
+            }
+
+            List<String> eventIds = new ArrayList<>(statuses.keySet());
+            List<Task<QuerySnapshot>> reads = new ArrayList<>();
+            for (int i = 0; i < eventIds.size(); i += WHERE_IN_LIMIT) {
+                reads.add(db.collection("events")
+                        .whereIn(FieldPath.documentId(), eventIds.subList(i, Math.min(i + WHERE_IN_LIMIT, eventIds.size())))
+                        .get());
+            }
+            return Tasks.whenAllSuccess(reads).onSuccessTask(results -> {
+                List<Task<Void>> commits = new ArrayList<>();
+                WriteBatch batch = db.batch();
+                int writes = 0;
+                for (Object result : results) {
+                    for (DocumentSnapshot eventDoc : ((QuerySnapshot) result).getDocuments()) {
+                        String eventId = eventDoc.getId();
+                        batch.set(ref(uid, eventId),
+                                entry(eventId, statuses.get(eventId), summaryOf(eventDoc)),
+                                SetOptions.merge());
+                        if (++writes == MAX_BATCH_WRITES) {
+                            commits.add(batch.commit());
+                            batch = db.batch();
+                            writes = 0;
+                        }
+                    }
+                }
+                if (writes > 0) {
+                    commits.add(batch.commit());
+                }
+                return Tasks.whenAll(commits);
+            });
+        });
+    }
+
+    /**
+     * Works out a user's status from the lists of a notificationList document.
+     */
+    @SuppressWarnings("unchecked")
+    private static String statusIn(DocumentSnapshot listDoc, String uid) {
+        if (contains((List<String>) listDoc.get("final"), uid)) return Membership.STATUS_ACCEPTED;
+        if (contains((List<String>) listDoc.get("invited"), uid)) return Membership.STATUS_INVITED;
+        if (contains((List<String>) listDoc.get("cancelled"), uid)) return Membership.STATUS_DECLINED;
+        if (contains((List<String>) listDoc.get("waiting"), uid)) return Membership.STATUS_WAITING;
+        return Membership.STATUS_NOT_SELECTED;
+    }
+
+    private static boolean contains(@Nullable List<String> list, String uid) {
+        return list != null && list.contains(uid);
+    }
+
+    private static boolean isNotFound(Exception e) {
+        return e instanceof FirebaseFirestoreException
+                && ((FirebaseFirestoreException) e).getCode() == FirebaseFirestoreException.Code.NOT_FOUND;
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.myapplication.data.firebase;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class fans a notification out to many users, writing one "notifications" document per
+ * recipient instead of one document whose "uID" array holds everyone.
+ *
+ * Each recipient document carries the shared payload and a single-element "uID" array, so the
+ * existing whereArrayContains("uID", uid) inbox query keeps working and every document stays
+ * small no matter how many people are notified. Recipients are written in WriteBatch chunks of
+ * at most {@link #MAX_BATCH_WRITES}, with at most {@link #MAX_PARALLEL_BATCHES} chunks in flight.
+ * A failed chunk is retried up to {@link #MAX_ATTEMPTS} times with exponential backoff; document
+ * ids are derived from the dispatch and the recipient, so a retry overwrites rather than
+ * duplicates anything the failed attempt may have written.
+ *
+ * All methods and callbacks run on the main thread.
+ */
+public class NotificationDispatcher {
+
+    /** Firestore allows at most 500 writes in a single batch. */
+    static final int MAX_BATCH_WRITES = 500;
+
+    /** Number of batches committed at the same time. */
+    static final int MAX_PARALLEL_BATCHES = 4;
+
+    /** Attempts per batch before the whole dispatch fails. */
+    static final int MAX_ATTEMPTS = 3;
+
+    /** Delay before the first retry; doubled for every further attempt. */
+    static final long RETRY_DELAY_MILLIS = 500;
+
+    /**
+     * Receives the number of recipients written so far after each committed chunk.
+     */
+    public interface ProgressListener {
+        void onProgress(int delivered, int total);
+    }
+
+    /**
+     * Writes one chunk of recipient documents.
+     */
+    interface ChunkWriter {
+        void write(String dispatchId, Map<String, Object> payload, List<String> recipients,
+                   OnSuccessListener<Void> onSuccess, OnFailureListener onFailure);
+    }
+
+    /**
+     * Runs a task after a delay.
+     */
+    interface Scheduler {
+        void schedule(Runnable task, long delayMillis);
+    }
+
+    /**
+     * Creates the id shared by every document of one dispatch.
+     */
+    interface IdSource {
+        String newId();
+    }
+
+    private final ChunkWriter writer;
+    private final Scheduler scheduler;
+    private final IdSource ids;
+
+    public NotificationDispatcher() {
+        this(FirebaseFirestore.getInstance());
+    }
+
+    public NotificationDispatcher(FirebaseFirestore db) {
+        this(firestoreWriter(db),
+                new Handler(Looper.getMainLooper())::postDelayed,
+                () -> db.collection("notifications").document().getId());
+    }
+
+    NotificationDispatcher(ChunkWriter writer, Scheduler scheduler, IdSource ids) {
+        this.writer = writer;
+        this.scheduler = scheduler;
+        this.ids = ids;
+    }
+
+    private static ChunkWriter firestoreWriter(FirebaseFirestore db) {
+        return (dispatchId, payload, recipients, onSuccess, onFailure) -> {
+            WriteBatch batch = db.batch();
+            for (String uid : recipients) {
+                Map<String, Object> doc = new HashMap<>(payload);
+                doc.put("uID", Collections.singletonList(uid));
+                batch.set(db.collection("notifications").document(dispatchId + "_" + uid), doc);
+            }
+            batch.commit()
+                    .addOnSuccessListener(onSuccess)
+                    .addOnFailureListener(onFailure);
+        };
+    }
+
+    /**
+     * Writes one notification document per recipient.
+     *
+     * @param payload the fields shared by every document; "uID" is set per recipient
+     * @param recipients the user ids to notify; nulls and duplicates are ignored
+     * @param progress receives progress after each chunk, may be null
+     * @param onSuccess receives the number of recipients notified
+     * @param onFailure called once if a chunk still fails after {@link #MAX_ATTEMPTS} attempts
+     */
+    public void dispatch(Map<String, Object> payload, List<String> recipients,
+                         @Nullable ProgressListener progress,
+                         OnSuccessListener<Integer> onSuccess, OnFailureListener onFailure) {
+        List<String> unique = new ArrayList<>();
+        for (String uid : new LinkedHashSet<>(recipients)) {
+            if (uid != null && !uid.isEmpty()) {
+                unique.add(uid);
+            }
+        }
+        if (unique.isEmpty()) {
+            onSuccess.onSuccess(0);
+            return;
+        }
+
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < unique.size(); i += MAX_BATCH_WRITES) {
+            chunks.add(unique.subList(i, Math.min(i + MAX_BATCH_WRITES, unique.size())));
+        }
+        new Run(ids.newId(), new HashMap<>(payload), chunks, unique.size(), progress, onSuccess, onFailure)
+                .start();
+    }
+
+    /**
+     * The state of one dispatch.
+     */
+    private final class Run {
+        final String dispatchId;
+        final Map<String, Object> payload;
+        final List<List<String>> chunks;
+        final int total;
+        @Nullable final ProgressListener progress;
+        final OnSuccessListener<Integer> onSuccess;
+        final OnFailureListener onFailure;
+
+        int next;
+        int inFlight;
+        int delivered;
+        boolean failed;
+
+        Run(String dispatchId, Map<String, Object> payload, List<List<String>> chunks, int total,
+            @Nullable ProgressListener progress,
+            OnSuccessListener<Integer> onSuccess, OnFailureListener onFailure) {
+            this.dispatchId = dispatchId;
+            this.payload = payload;
+            this.chunks = chunks;
+            this.total = total;
+            this.progress = progress;
+            this.onSuccess = onSuccess;
+            this.onFailure = onFailure;
+        }
+
+        void start() {
+            while (inFlight < MAX_PARALLEL_BATCHES && next < chunks.size()) {
+                inFlight++;
+                write(chunks.get(next++), 1);
+            }
+        }
+
+        void write(List<String> chunk, int attempt) {
+            writer.write(dispatchId, payload, chunk,
+                    v -> {
+                        if (failed) return;
+                        inFlight--;
+                        delivered += chunk.size();
+                        if (progress != null) {
+                            progress.onProgress(delivered, total);
+                        }
+                        if (delivered == total) {
+                            onSuccess.onSuccess(total);
+                        } else {
+                            start();
+                        }
+                    },
+                    e -> {
+                        if (failed) return;
+                        if (attempt < MAX_ATTEMPTS) {
+                            long delay = RETRY_DELAY_MILLIS << (attempt - 1);
+                            scheduler.schedule(() -> write(chunk, attempt + 1), delay);
+                        } else {
+                            failed = true;
+                            onFailure.onFailure(e);
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.myapplication.data.firebase;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class reads and writes the notificationList document of an event, which holds the
+ * "invited", "cancelled" and "final" user id arrays. Older documents also hold "all" and
+ * "waiting" arrays, which are no longer written: they grew with every join, and the waitlist is
+ * read from the entrants subcollection instead, see
+ * {@link FirebaseEventRepository#getWaitingEntrants}.
+ *
+ * The document is addressed directly as notificationList/{eventId}, which is how createEvent
+ * stores it, so reads and updates need no query. Older data may still have the document under
+ * a random id with only an "eventId" field pointing at the event. When the keyed document is
+ * missing, the legacy document is looked up with a query once and re-keyed by
+ * {@link #migrateLegacy(String)}; every later access takes the direct path again.
+ */
+public class NotificationListStore {
+
+    /** Name of the collection holding one list document per event. */
+    public static final String COLLECTION = "notificationList";
+
+    public static final String FIELD_ALL = "all";
+    public static final String FIELD_WAITING = "waiting";
+    public static final String FIELD_INVITED = "invited";
+    public static final String FIELD_CANCELLED = "cancelled";
+    public static final String FIELD_FINAL = "final";
+    /** Seed of the latest lottery draw, so the draw can be reproduced from the entrant ids. */
+    public static final String FIELD_LOTTERY_SEED = "lotterySeed";
+
+    /** The array fields merged together when legacy documents are re-keyed. */
+    private static final String[] LIST_FIELDS = {
+            FIELD_ALL, FIELD_WAITING, FIELD_INVITED, FIELD_CANCELLED, FIELD_FINAL
+    };
+
+    private final FirebaseFirestore db;
+
+    public NotificationListStore() {
+        this(FirebaseFirestore.getInstance());
+    }
+
+    public NotificationListStore(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /**
+     * @param eventId the event id
+     * @return the notificationList document of the event
+     */
+    public DocumentReference ref(String eventId) {
+        return db.collection(COLLECTION).document(eventId);
+    }
+
+    /**
+     * Reads the notificationList document of an event.
+     *
+     * If the document is not stored under the event id, a legacy document is re-keyed first and
+     * the keyed document is read again.
+     *
+     * @param eventId the event id
+     * @return the document, which does not exist if the event has no list at all
+     */
+    public Task<DocumentSnapshot> get(String eventId) {
+        return ref(eventId).get().continueWithTask(read -> {
+            if (!read.isSuccessful() || read.getResult().exists()) {
+                return read;
+            }
+            return migrateLegacy(eventId).onSuccessTask(v -> ref(eventId).get());
+        });
+    }
+
+    /**
+     * Applies field updates, such as FieldValue.arrayUnion or arrayRemove values, to the
+     * notificationList document of an event.
+     *
+     * The update goes straight to the keyed document. Only when that document does not exist is
+     * a legacy document re-keyed, after which the fields are merged into the keyed document,
+     * creating it if the event had no list before.
+     *
+     * @param eventId the event id
+     * @param fields the fields to update
+     * @return a task completing when the update is written
+     */
+    public Task<Void> update(String eventId, Map<String, Object> fields) {
+        return ref(eventId).update(fields).continueWithTask(write -> {
+            if (write.isSuccessful() || !isNotFound(write.getException())) {
+                return write;
+            }
+            return migrateLegacy(eventId).onSuccessTask(v -> {
+                Map<String, Object> doc = new HashMap<>(fields);
+                doc.put("eventId", eventId);
+                return ref(eventId).set(doc, SetOptions.merge());
+            });
+        });
+    }
+
+    /**
+     * Moves every notificationList document of an event that is not stored under the event id
+     * into notificationList/{eventId}.
+     *
+     * The user id arrays are merged with arrayUnion, so nothing already in the keyed document is
+     * lost, and the legacy documents are deleted in the same batch.
+     *
+     * @param eventId the event id
+     * @return a task completing when the legacy documents, if any, are re-keyed
+     */
+    public Task<Void> migrateLegacy(String eventId) {
+        return db.collection(COLLECTION)
+                .whereEqualTo("eventId", eventId)
+                .get()
+                .onSuccessTask(qs -> {
+                    WriteBatch batch = db.batch();
+                    boolean found = false;
+                    for (DocumentSnapshot legacy : qs.getDocuments()) {
+                        if (legacy.getId().equals(eventId)) continue;
+
+                        Map<String, Object> merged = new HashMap<>();
+                        merged.put("eventId", eventId);
+                        for (String field : LIST_FIELDS) {
+                            Object ids = legacy.get(field);
+                            if (ids instanceof List && !((List<?>) ids).isEmpty()) {
+                                merged.put(field, FieldValue.arrayUnion(((List<?>) ids).toArray()));
+                            }
+                        }
+                        batch.set(ref(eventId), merged, SetOptions.merge());
+                        batch.delete(legacy.getReference());
+                        found = true;
+                    }
+                    return found ? batch.commit() : Tasks.forResult(null);
+                });
+    }
+
+    private static boolean isNotFound(Exception e) {
+        return e instanceof FirebaseFirestoreException
+                && ((FirebaseFirestoreException) e).getCode() == FirebaseFirestoreException.Code.NOT_FOUND;
+    }
+}
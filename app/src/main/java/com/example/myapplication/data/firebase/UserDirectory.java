@@ -0,0 +1,262 @@
+package com.example.myapplication.data.firebase;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.myapplication.core.LruTtlCache;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class resolves user display names from the "users" collection and caches them.
+ *
+ * Instead of one document read per user, missing users are fetched in batches of up to
+ * {@link #BATCH_SIZE} with a single whereIn(documentId) query each. If a user is already being
+ * fetched for another caller, the new caller waits for that read instead of starting another
+ * one. Results are kept in an LRU cache for {@link #TTL_MILLIS}, so switching tabs or reopening
+ * a screen does not read the same users again.
+ *
+ * Get the shared instance through {@code ServiceLocator.getUserDirectory()}.
+ * All methods must be called on the main thread, which is also where Firestore delivers results.
+ */
+public class UserDirectory {
+
+    /** Firestore allows at most 30 values in a whereIn clause. */
+    static final int BATCH_SIZE = 30;
+
+    /** Number of users kept in memory. */
+    static final int MAX_ENTRIES = 2000;
+
+    /** How long a cached user stays valid. */
+    static final long TTL_MILLIS = 10 * 60 * 1000L;
+
+    /**
+     * The name fields of a user document.
+     */
+    public static class Profile {
+        private final String uid;
+        @Nullable private final String firstName;
+        @Nullable private final String lastName;
+        @Nullable private final String name;
+        @Nullable private final String username;
+
+        Profile(String uid, @Nullable String firstName, @Nullable String lastName,
+                @Nullable String name, @Nullable String username) {
+            this.uid = uid;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.name = name;
+            this.username = username;
+        }
+
+        static Profile from(DocumentSnapshot doc) {
+            return new Profile(doc.getId(),
+                    doc.getString("firstName"),
+                    doc.getString("lastName"),
+                    doc.getString("name"),
+                    doc.getString("username"));
+        }
+
+        public String getUid() { return uid; }
+        @Nullable public String getFirstName() { return firstName; }
+        @Nullable public String getLastName() { return lastName; }
+        @Nullable public String getName() { return name; }
+        @Nullable public String getUsername() { return username; }
+
+        /**
+         * Returns "first last", falling back to the single "name" field.
+         * @return the full name, or an empty string if the user has no name fields
+         */
+        @NonNull
+        public String getFullName() {
+            String first = firstName != null ? firstName.trim() : "";
+            String last = lastName != null ? lastName.trim() : "";
+            String full = (first + " " + last).trim();
+            if (full.isEmpty() && name != null) {
+                full = name.trim();
+            }
+            return full;
+        }
+    }
+
+    /**
+     * Receives the resolved profiles. Users that do not exist or could not be read are
+     * missing from the map.
+     */
+    public interface ProfilesCallback {
+        void onProfilesResolved(Map<String, Profile> profiles);
+    }
+
+    /**
+     * Receives a single resolved profile, or null if the user does not exist or could not be read.
+     */
+    public interface ProfileCallback {
+        void onProfileResolved(@Nullable Profile profile);
+    }
+
+    /**
+     * One caller's request, completed once every uid it asked for has been resolved.
+     */
+    private static final class Request {
+        final Map<String, Profile> results = new HashMap<>();
+        final ProfilesCallback callback;
+        int remaining;
+
+        Request(int remaining, ProfilesCallback callback) {
+            this.remaining = remaining;
+            this.callback = callback;
+        }
+
+        void deliver(String uid, @Nullable Profile profile) {
+            if (profile != null) {
+                results.put(uid, profile);
+            }
+            if (--remaining == 0) {
+                callback.onProfilesResolved(results);
+            }
+        }
+    }
+
+    private final FirebaseFirestore db;
+    private final LruTtlCache<String, Profile> cache = new LruTtlCache<>(MAX_ENTRIES, TTL_MILLIS);
+    private final Map<String, List<Request>> waiting = new HashMap<>();
+
+    public UserDirectory() {
+        this(FirebaseFirestore.getInstance());
+    }
+
+    public UserDirectory(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /**
+     * Resolves the profiles of the given users, reading only the ones that are not cached.
+     *
+     * @param uids the user ids to resolve; nulls and duplicates are ignored
+     * @param callback receives every profile that could be resolved
+     */
+    public void resolve(Collection<String> uids, ProfilesCallback callback) {
+        Set<String> unique = new LinkedHashSet<>();
+        for (String uid : uids) {
+            if (uid != null && !uid.isEmpty()) {
+                unique.add(uid);
+            }
+        }
+        if (unique.isEmpty()) {
+            callback.onProfilesResolved(new HashMap<>());
+            return;
+        }
+
+        Request request = new Request(unique.size(), callback);
+        List<String> toFetch = new ArrayList<>();
+        List<String> cached = new ArrayList<>();
+
+        for (String uid : unique) {
+            if (cache.contains(uid)) {
+                cached.add(uid);
+                continue;
+            }
+            List<Request> waiters = waiting.get(uid);
+            if (waiters == null) {
+                waiters = new ArrayList<>();
+                waiting.put(uid, waiters);
+                toFetch.add(uid);
+            }
+            waiters.add(request);
+        }
+
+        for (int i = 0; i < toFetch.size(); i += BATCH_SIZE) {
+            fetchBatch(new ArrayList<>(toFetch.subList(i, Math.min(i + BATCH_SIZE, toFetch.size()))));
+        }
+
+        // Deliver cached users last so the callback cannot run before every uid is registered.
+        for (String uid : cached) {
+            request.deliver(uid, cache.get(uid));
+        }
+    }
+
+    /**
+     * Resolves a single user's profile.
+     *
+     * @param uid the user id
+     * @param callback receives the profile, or null if it could not be resolved
+     */
+    public void resolve(@Nullable String uid, ProfileCallback callback) {
+        if (uid == null || uid.isEmpty()) {
+            callback.onProfileResolved(null);
+            return;
+        }
+        resolve(Collections.singletonList(uid), profiles -> callback.onProfileResolved(profiles.get(uid)));
+    }
+
+    /**
+     * Returns a cached profile without reading Firestore.
+     *
+     * @param uid the user id
+     * @return the cached profile, or null if it is not cached
+     */
+    @Nullable
+    public Profile peek(String uid) {
+        return cache.get(uid);
+    }
+
+    /**
+     * Drops a cached user, e.g. after their profile was edited or deleted.
+     *
+     * @param uid the user id
+     */
+    public void invalidate(String uid) {
+        cache.remove(uid);
+    }
+
+    /**
+     * Reads one batch of users and completes every request waiting on them.
+     */
+    private void fetchBatch(List<String> batch) {
+        db.collection("users")
+                .whereIn(FieldPath.documentId(), batch)
+                .get()
+                .addOnSuccessListener(qs -> {
+                    Set<String> found = new HashSet<>();
+                    for (DocumentSnapshot doc : qs.getDocuments()) {
+                        Profile profile = Profile.from(doc);
+                        cache.put(doc.getId(), profile);
+                        found.add(doc.getId());
+                        complete(doc.getId(), profile);
+                    }
+                    for (String uid : batch) {
+                        if (!found.contains(uid)) {
+                            // Remember missing users too so they are not read again.
+                            cache.put(uid, null);
+                            complete(uid, null);
+                        }
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    for (String uid : batch) {
+                        complete(uid, null);
+                    }
+                });
+    }
+
+    private void complete(String uid, @Nullable Profile profile) {
+        List<Request> waiters = waiting.remove(uid);
+        if (waiters == null) {
+            return;
+        }
+        for (Request request : waiters) {
+            request.deliver(uid, profile);
+        }
+    }
+}
@@ -4,6 +4,7 @@ public class EntrantLocation {
     private String uid;
     private double lat;
     private double lng;
+    private String geohash;
 
     public EntrantLocation() {}
 
@@ -26,4 +27,8 @@ public class EntrantLocation {
 
     public double getLng() { return lng; }
     public void setLng(double lng) { this.lng = lng; }
+
+    /** @return the location's geohash, or null if it was written before geohashes were stored */
+    public String getGeohash() { return geohash; }
+    public void setGeohash(String geohash) { this.geohash = geohash; }
 }
@@ -0,0 +1,75 @@
+package com.example.myapplication.data.model;
+
+/**
+ * This is a model for one entry of a user's membership index in Firestore,
+ * stored at users/{uid}/memberships/{eventId}.
+ *
+ * Each entry records where the user stands for one event, together with a copy of the event
+ * fields that the waitlist and past events screens show, so those screens can be rendered
+ * without reading the events themselves.
+ *
+ * Fields of a membership document:
+ * - eventId: String
+ * - status: String One of the STATUS_ constants below
+ * - eventName, location, priceDisplay, imageUrl: String copies of the event fields
+ * - startTimeMillis, endTimeMillis, selectionDateMillis: long copies of the event fields
+ * - updatedAt: long time of the last status change
+ */
+public class Membership {
+
+    /** The user is on the waitlist and the lottery has not included them yet. */
+    public static final String STATUS_WAITING = "waiting";
+    /** The user won the lottery and has not answered yet. */
+    public static final String STATUS_INVITED = "invited";
+    /** The user accepted their invitation. */
+    public static final String STATUS_ACCEPTED = "accepted";
+    /** The user declined their invitation. */
+    public static final String STATUS_DECLINED = "declined";
+    /** The user was on the waitlist but was not drawn. */
+    public static final String STATUS_NOT_SELECTED = "not_selected";
+
+    private String eventId;
+    private String status;
+    private String eventName;
+    private String location;
+    private String priceDisplay;
+    private String imageUrl;
+    private long startTimeMillis;
+    private long endTimeMillis;
+    private long selectionDateMillis;
+    private long updatedAt;
+
+    /** Default constructor required for calls to DocumentSnapshot.toObject(Membership.class)
+     * */
+    public Membership() {}
+
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getEventName() { return eventName; }
+    public void setEventName(String eventName) { this.eventName = eventName; }
+
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+
+    public String getPriceDisplay() { return priceDisplay; }
+    public void setPriceDisplay(String priceDisplay) { this.priceDisplay = priceDisplay; }
+
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+
+    public long getStartTimeMillis() { return startTimeMillis; }
+    public void setStartTimeMillis(long startTimeMillis) { this.startTimeMillis = startTimeMillis; }
+
+    public long getEndTimeMillis() { return endTimeMillis; }
+    public void setEndTimeMillis(long endTimeMillis) { this.endTimeMillis = endTimeMillis; }
+
+    public long getSelectionDateMillis() { return selectionDateMillis; }
+    public void setSelectionDateMillis(long selectionDateMillis) { this.selectionDateMillis = selectionDateMillis; }
+
+    public long getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(long updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,57 @@
+package com.example.myapplication.data.repo;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.myapplication.features.user.UserEvent;
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of results returned by {@link EventRepository#queryEvents}.
+ * <p>
+ * The {@link #getCursor() cursor} is the last document read for this page. Passing it back to
+ * {@code queryEvents} resumes the same query right after this page.
+ */
+public class EventPage {
+    private final List<UserEvent> events;
+    @Nullable
+    private final DocumentSnapshot cursor;
+    private final boolean hasMore;
+
+    /**
+     * @param events  the events on this page
+     * @param cursor  the last document read, or null if nothing was read
+     * @param hasMore whether another page may follow this one
+     */
+    public EventPage(@Nullable List<UserEvent> events, @Nullable DocumentSnapshot cursor, boolean hasMore) {
+        this.events = events == null ? new ArrayList<>() : events;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * @return the events on this page
+     */
+    @NonNull
+    public List<UserEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     * @return the cursor to resume from, or null if nothing was read
+     */
+    @Nullable
+    public DocumentSnapshot getCursor() {
+        return cursor;
+    }
+
+    /**
+     * @return true if a full page was read, so another page may exist
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.myapplication.data.repo;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@code EventQuery} describes a filtered, paged read of the "events" collection.
+ * <p>
+ * Screens build one of these instead of downloading every event and filtering on the device.
+ * Each filter is translated into a server-side Firestore clause by the repository, so only the
+ * page that is actually shown is read and billed.
+ * <p>
+ * Example:
+ * <pre>
+ *     EventQuery query = EventQuery.create()
+ *             .organizer(uid)
+ *             .window(EventQuery.Window.UPCOMING)
+ *             .pageSize(20);
+ * </pre>
+ */
+public class EventQuery {
+
+    /**
+     * Firestore allows at most 30 values in a single {@code whereIn} clause.
+     */
+    public static final int MAX_THEMES = 30;
+
+    /**
+     * Page size used when a caller does not set one explicitly.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /**
+     * The time window an event must fall into.
+     */
+    public enum Window {
+        /** No time restriction, newest events first. */
+        ANY,
+        /** Events whose end time has not passed yet, soonest first. */
+        UPCOMING,
+        /** Events whose end time has passed, most recent first. */
+        PAST,
+        /**
+         * Events whose lottery draw date has not passed yet, so entrants can still join, soonest
+         * draw first. Events without a draw date (0) never match.
+         */
+        REGISTRATION_OPEN
+    }
+
+    @Nullable
+    private String organizerId;
+    private final List<String> themes = new ArrayList<>();
+    private Window window = Window.ANY;
+    private boolean excludeDisabled = true;
+    private int pageSize = DEFAULT_PAGE_SIZE;
+
+    private EventQuery() {}
+
+    /**
+     * Creates an empty query that matches every enabled event.
+     * @return a new query with default settings
+     */
+    public static EventQuery create() {
+        return new EventQuery();
+    }
+
+    /**
+     * Restricts results to events created by the given organizer.
+     * @param organizerId the organizer's user id, or null to match any organizer
+     * @return this query
+     */
+    public EventQuery organizer(@Nullable String organizerId) {
+        this.organizerId = organizerId;
+        return this;
+    }
+
+    /**
+     * Restricts results to events with one of the given themes.
+     * Only the first {@link #MAX_THEMES} non-empty themes are kept.
+     * @param themes the accepted themes, or null/empty to match any theme
+     * @return this query
+     */
+    public EventQuery themes(@Nullable List<String> themes) {
+        this.themes.clear();
+        if (themes != null) {
+            for (String theme : themes) {
+                if (theme != null && !theme.isEmpty() && this.themes.size() < MAX_THEMES) {
+                    this.themes.add(theme);
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Sets the time window that events must fall into.
+     * @param window the window, or null for {@link Window#ANY}
+     * @return this query
+     */
+    public EventQuery window(@Nullable Window window) {
+        this.window = window == null ? Window.ANY : window;
+        return this;
+    }
+
+    /**
+     * Sets whether events disabled by an admin should be dropped from results.
+     * Enabled by default.
+     * @param excludeDisabled true to hide disabled events
+     * @return this query
+     */
+    public EventQuery excludeDisabled(boolean excludeDisabled) {
+        this.excludeDisabled = excludeDisabled;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of documents read per page.
+     * @param pageSize the page size; values below 1 are raised to 1
+     * @return this query
+     */
+    public EventQuery pageSize(int pageSize) {
+        this.pageSize = Math.max(1, pageSize);
+        return this;
+    }
+
+    @Nullable
+    public String getOrganizerId() {
+        return organizerId;
+    }
+
+    @NonNull
+    public List<String> getThemes() {
+        return Collections.unmodifiableList(themes);
+    }
+
+    @NonNull
+    public Window getWindow() {
+        return window;
+    }
+
+    public boolean isExcludeDisabled() {
+        return excludeDisabled;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+}
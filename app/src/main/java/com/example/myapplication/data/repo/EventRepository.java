@@ -3,10 +3,13 @@ package com.example.myapplication.data.repo;
 import android.content.Context;
 import android.net.Uri;
 
+import androidx.annotation.Nullable;
+
 import com.example.myapplication.data.model.Event;
 import com.example.myapplication.features.user.UserEvent;
 import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.firebase.firestore.DocumentSnapshot;
 
 /**
  * {@code EventRepository} defines the contract for managing event-related operations
@@ -28,13 +31,16 @@ public interface EventRepository {
      *     <li>Upload associated poster images or files if provided.</li>
      *     <li>Store the {@link UserEvent} object in Firestore or another data source.</li>
      * </ul>
+     * Independent uploads should run concurrently, and no work should block the calling thread.
      *
      * @param context   the current {@link Context}, used for Firebase or repository access
      * @param event     the {@link UserEvent} object containing event details
+     * @param posterUri the poster image to upload, or null if the event has none
      * @param onSuccess callback triggered when the event is successfully created
      * @param onFailure callback triggered when the event creation fails
      */
-    void createEvent(Context context, UserEvent event, OnSuccessListener<Void> onSuccess, OnFailureListener onFailure);
+    void createEvent(Context context, UserEvent event, @Nullable Uri posterUri,
+                     OnSuccessListener<Void> onSuccess, OnFailureListener onFailure);
 
     /**
      * Updates an existing event’s data in the backend.
@@ -48,4 +54,25 @@ public interface EventRepository {
      * @param onFailure callback triggered if the update operation fails
      */
     void updateEvent(String eventId, UserEvent event, OnSuccessListener<Void> onSuccess, OnFailureListener onFailure);
+
+    /**
+     * Callback for a single page of query results.
+     */
+    interface EventPageCallback {
+        void onPageFetched(EventPage page);
+        void onError(Exception e);
+    }
+
+    /**
+     * Reads one page of events matching the given query.
+     * <p>
+     * Filters are evaluated on the backend wherever the data source supports it, so only
+     * {@link EventQuery#getPageSize()} documents are read per call. To read the next page,
+     * call this method again with {@link EventPage#getCursor()} from the previous page.
+     *
+     * @param query    the filters and page size to apply
+     * @param cursor   the cursor of the previous page, or null to start from the beginning
+     * @param callback receives the page or an error
+     */
+    void queryEvents(EventQuery query, @Nullable DocumentSnapshot cursor, EventPageCallback callback);
 }
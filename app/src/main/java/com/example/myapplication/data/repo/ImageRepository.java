@@ -2,14 +2,16 @@ package com.example.myapplication.data.repo;
 
 import android.content.Context;
 import android.net.Uri;
-import android.telecom.Call;
-import android.widget.Toast;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 
-
 import com.cloudinary.android.MediaManager;
 import com.cloudinary.android.callback.ErrorInfo;
+import com.example.myapplication.core.BackgroundExecutor;
+import com.example.myapplication.core.ImagePreparer;
 
 import java.io.File;
 import java.io.IOException;
@@ -17,26 +19,65 @@ import java.util.Map;
 
 /**
  * This class holds methods that upload images to Cloudinary storage.
+ *
+ * Every image is first shrunk and re-encoded by {@link ImagePreparer} on a background thread,
+ * so camera originals are never uploaded.
  */
 public class ImageRepository {
 
+    private static final String TAG = "ImageRepository";
+
     public interface UploadCallback{
         void onSuccess(String secureUrl);
         void onError(String e);
+
+        /**
+         * Called as the prepared image is uploaded.
+         * @param bytes the number of bytes uploaded so far
+         * @param totalBytes the size of the prepared image
+         */
+        default void onProgress(long bytes, long totalBytes) {}
+    }
+
+    private final Context context;
+    private final Handler main = new Handler(Looper.getMainLooper());
+
+    /**
+     * @param context a context for reading picked images; only its application context is kept
+     */
+    public ImageRepository(@NonNull Context context) {
+        this.context = context.getApplicationContext();
     }
 
     /**
      * This method is in charge of uploading images to Cloudinary.
      *
-     * The image that gets added by the user is saved to Cloudinary storage, on success
-     * the callback returns a secure URL which in another file gets saved to the specified events
-     * imageUrl field.
+     * The image that gets added by the user is prepared on a background thread and the smaller
+     * copy is saved to Cloudinary storage. If the image cannot be prepared the original is
+     * uploaded instead. On success the callback returns a secure URL which in another file gets
+     * saved to the specified events imageUrl field.
      *
      * @param imageUri The image Uri that the user uploads
      * @param callback callback on success returns the securUrl of the image, on failure returns an error.
      */
     public void uploadImage( Uri imageUri, UploadCallback callback){
-        MediaManager.get().upload(imageUri)
+        BackgroundExecutor.get().execute(() -> {
+            File prepared = null;
+            try {
+                prepared = ImagePreparer.prepare(context, imageUri);
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "Uploading original, could not prepare " + imageUri, e);
+            }
+            File upload = prepared;
+            main.post(() -> dispatch(upload != null ? Uri.fromFile(upload) : imageUri, upload, callback));
+        });
+    }
+
+    /**
+     * Starts the Cloudinary upload and deletes the prepared file once it finishes.
+     */
+    private void dispatch(Uri uri, File prepared, UploadCallback callback) {
+        MediaManager.get().upload(uri)
                 .callback(new com.cloudinary.android.callback.UploadCallback(){
 
                     /** Empty overridden methods
@@ -47,14 +88,14 @@ public class ImageRepository {
 
                     }
 
-                    /** Empty overridden methods
+                    /** Reports upload progress to the caller
                         @params requestId - the unique ID of the upload request
                         @params bytes - the number of bytes uploaded so far
                         @params totalBytes - the total number of bytes to be uploaded
                      */
                     @Override
                     public void onProgress(String requestId, long bytes, long totalBytes) {
-
+                        callback.onProgress(bytes, totalBytes);
                     }
 
                     /** Handles successful image upload
@@ -63,6 +104,7 @@ public class ImageRepository {
                      */
                     @Override
                     public void onSuccess(String requestId, Map resultData) {
+                        deletePrepared(prepared);
                         String secureUrl = resultData.get("secure_url").toString();
                         callback.onSuccess((secureUrl));
                     }
@@ -73,6 +115,7 @@ public class ImageRepository {
                      */
                     @Override
                     public void onError(String requestId, ErrorInfo error) {
+                        deletePrepared(prepared);
                         callback.onError(error.getDescription());
                     }
 
@@ -87,4 +130,11 @@ public class ImageRepository {
                 })
                 .dispatch();
     }
+
+    private static void deletePrepared(File prepared) {
+        if (prepared != null && !prepared.delete()) {
+            prepared.deleteOnExit();
+        }
+    }
+
 }
@@ -17,6 +17,8 @@ import androidx.navigation.fragment.NavHostFragment;
 
 import com.bumptech.glide.Glide;
 import com.example.myapplication.R;
+import com.example.myapplication.core.CloudinaryUrls;
+import com.example.myapplication.data.firebase.FirebaseEventRepository;
 import com.google.android.material.button.MaterialButton;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
@@ -126,7 +128,11 @@ public class AEventDetailFrag extends Fragment {
         String imageUrl   = d.getString("imageUrl");
         Number price      = d.get("price") instanceof Number ? (Number) d.get("price") : null;
         Number endMillis  = d.get("endTimeMillis") instanceof Number ? (Number) d.get("endTimeMillis") : null;
-        List<?> waitlist  = (List<?>) d.get("waitlist");
+        Long waitlistCount = d.getLong(FirebaseEventRepository.WAITLIST_COUNT);
+        if (waitlistCount == null && d.get("waitlist") instanceof List) {
+            // Not migrated to the entrants subcollection yet.
+            waitlistCount = (long) ((List<?>) d.get("waitlist")).size();
+        }
 
         tvTitle.setText(name != null ? name : "");
         tvDescr.setText(descr != null ? descr : "");
@@ -143,10 +149,12 @@ public class AEventDetailFrag extends Fragment {
             tvEndTime.setText("Days Left: " + Math.max(0, daysLeft));
         }
 
-        tvWaiting.setText("Currently in Waiting list: " + (waitlist != null ? waitlist.size() : 0));
+        tvWaiting.setText("Currently in Waiting list: " + (waitlistCount != null ? waitlistCount : 0));
 
         if (imageUrl != null && !imageUrl.isEmpty()) {
-            Glide.with(ivHeader).load(imageUrl).into(ivHeader);
+            int widthPx = CloudinaryUrls.widthPx(ivHeader,
+                    getResources().getConfiguration().screenWidthDp);
+            Glide.with(ivHeader).load(CloudinaryUrls.sized(imageUrl, widthPx)).into(ivHeader);
         }
     }
 }
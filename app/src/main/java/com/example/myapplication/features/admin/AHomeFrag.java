@@ -23,6 +23,7 @@ import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.myapplication.R;
+import com.example.myapplication.core.ListChange;
 import com.example.myapplication.features.user.UserEvent;
 import com.example.myapplication.features.user.UserEventAdapter;
 
@@ -160,6 +161,13 @@ public class AHomeFrag extends Fragment implements AdminHomeView {
         }
     }
 
+    @Override
+    public void applyEventChanges(@NonNull List<ListChange<UserEvent>> changes) {
+        if (adapter != null) {
+            adapter.applyChanges(changes);
+        }
+    }
+
     @Override
     public void showMode(@NonNull AdminHomeMode mode) {
         if (etSearchEvents != null) {
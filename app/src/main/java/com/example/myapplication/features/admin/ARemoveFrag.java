@@ -31,6 +31,7 @@ import com.google.firebase.firestore.WriteBatch;
 import com.google.firebase.storage.FirebaseStorage;
 
 import com.example.myapplication.core.ImageUtils;
+import com.example.myapplication.core.ServiceLocator;
 import com.example.myapplication.data.repo.ImageRepository;
 import com.example.myapplication.data.firebase.FirebaseUserRepository;
 import com.example.myapplication.features.profile.DeleteProfileController;
@@ -119,14 +120,11 @@ public class ARemoveFrag extends Fragment implements DeleteProfileView {
                     }
 
                     if (!organizerId.isEmpty()) {
-                        FirebaseFirestore.getInstance().collection("users").document(organizerId).get()
-                                .addOnSuccessListener(u -> {
-                                    String first = safe(u.getString("firstName"));
-                                    String last  = safe(u.getString("lastName"));
-                                    String full  = (first + " " + last).trim();
-                                    if (full.isEmpty()) full = safe(u.getString("name"));
-                                    if (!full.isEmpty()) btnOrg.setText("Remove Organizer: " + full);
-                                });
+                        ServiceLocator.getUserDirectory().resolve(organizerId, u -> {
+                            if (u == null || !isAdded()) return;
+                            String full = u.getFullName();
+                            if (!full.isEmpty()) btnOrg.setText("Remove Organizer: " + full);
+                        });
                     }
 
                     hasPreview = url != null && !url.isEmpty();
@@ -316,7 +314,7 @@ public class ARemoveFrag extends Fragment implements DeleteProfileView {
             btnDelete.setOnClickListener(v -> {
                 Uri defaultPosterUri = ImageUtils.createDefaultPosterUri(requireContext());
                 if (defaultPosterUri != null) {
-                    ImageRepository imageRepository = new ImageRepository();
+                    ImageRepository imageRepository = new ImageRepository(requireContext());
                     imageRepository.uploadImage(defaultPosterUri, new ImageRepository.UploadCallback() {
                         @Override
                         public void onSuccess(String secureUrl) {
@@ -21,6 +21,7 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.myapplication.R;
+import com.example.myapplication.core.ListChange;
 
 import java.util.List;
 
@@ -157,6 +158,13 @@ public class AUsersFrag extends Fragment implements AdminUsersView {
         }
     }
 
+    @Override
+    public void applyUserChanges(@NonNull List<ListChange<AdminUserAdapter.UserRow>> changes) {
+        if (adapter != null) {
+            adapter.applyChanges(changes);
+        }
+    }
+
     @Override
     public void showEmptyState(boolean showEmpty) {
         if (emptyView != null) {
@@ -3,19 +3,23 @@ package com.example.myapplication.features.admin;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.example.myapplication.core.ListChange;
+import com.example.myapplication.core.SearchIndex;
+import com.example.myapplication.core.SearchPipeline;
 import com.example.myapplication.features.user.UserEvent;
 import com.google.android.gms.tasks.OnFailureListener;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
-import java.util.Map;
+import java.util.Set;
 
 /**
  * Controller for the admin home screen.
@@ -27,6 +31,18 @@ import java.util.Map;
  * and text search) before forwarding the resulting list of {@link UserEvent}
  * instances to an {@link AdminHomeView}.
  * <p>
+ * The first snapshot is loaded in full. Later snapshots are applied one
+ * {@link DocumentChange} at a time, so an edit to one event only converts
+ * and filters that event, and the view receives just the rows that changed
+ * through {@link AdminHomeView#applyEventChanges(List)}.
+ * <p>
+ * Searchable fields are indexed in a {@link SearchIndex} as documents
+ * arrive, so a change of query is answered from the index instead of
+ * reading and lowercasing every document again. Typed queries go through a
+ * {@link SearchPipeline}, which debounces them and queries the index off
+ * the main thread; documents that change while a query is running are
+ * checked again when its result arrives.
+ * <p>
  */
 public class AdminHomeController {
 
@@ -35,9 +51,29 @@ public class AdminHomeController {
 
     private ListenerRegistration registration;
 
-    private final List<UserEvent> allEvents = new ArrayList<>();
-    private final List<UserEvent> allImageEvents = new ArrayList<>();
-    private final Map<String, DocumentSnapshot> eventDocsById = new HashMap<>();
+    /**
+     * An event together with the id of its document.
+     */
+    private static final class Row {
+        final String id;
+        final UserEvent event;
+
+        Row(String id, UserEvent event) {
+            this.id = id;
+            this.event = event;
+        }
+    }
+
+    private final IncrementalRows<Row> rows = new IncrementalRows<>();
+    private final Set<String> imageEventIds = new HashSet<>();
+    private final SearchIndex<String> search = new SearchIndex<>();
+    /** Ids of the events matching the current query, or null when there is no query. */
+    @Nullable
+    private Set<String> queryHits;
+    private final SearchPipeline<Set<String>> pipeline;
+    private boolean searching;
+    private final Set<String> changedWhileSearching = new HashSet<>();
+    private boolean loaded;
 
     private AdminHomeMode currentMode = AdminHomeMode.EVENTS;
     private String currentQuery = "";
@@ -48,22 +84,37 @@ public class AdminHomeController {
      * @param view the admin home view to be updated by this controller
      */
     public AdminHomeController(@NonNull AdminHomeView view) {
-        this(view, FirebaseFirestore.getInstance());
+        this(view, FirebaseFirestore.getInstance(), SearchPipeline.Config.background());
     }
 
     /**
      * Creates a new controller instance.
      * <p>
      * This constructor is primarily intended for testing where a mocked or
-     * emulator-backed {@link FirebaseFirestore} can be supplied.
+     * emulator-backed {@link FirebaseFirestore} can be supplied. Searches run
+     * inline on the calling thread.
      *
      * @param view the admin home view to be updated
      * @param db   Firestore instance used to load events
      */
     public AdminHomeController(@NonNull AdminHomeView view,
                                @NonNull FirebaseFirestore db) {
+        this(view, db, SearchPipeline.Config.inline());
+    }
+
+    /**
+     * Creates a new controller instance.
+     *
+     * @param view   the admin home view to be updated
+     * @param db     Firestore instance used to load events
+     * @param searchConfig threads and debounce used for text searches
+     */
+    public AdminHomeController(@NonNull AdminHomeView view,
+                               @NonNull FirebaseFirestore db,
+                               @NonNull SearchPipeline.Config searchConfig) {
         this.view = view;
         this.db = db;
+        this.pipeline = new SearchPipeline<>(searchConfig, search::query, this::onSearchResult);
     }
 
     /**
@@ -71,7 +122,8 @@ public class AdminHomeController {
      * immediately requests an initial snapshot.
      * <p>
      * The view will be notified through {@link AdminHomeView#showLoading(boolean)}
-     * and {@link AdminHomeView#showEvents(List)} as data becomes available.
+     * and {@link AdminHomeView#showEvents(List)} as data becomes available, and
+     * through {@link AdminHomeView#applyEventChanges(List)} for later edits.
      */
     public void start() {
         if (registration != null) {
@@ -89,33 +141,117 @@ public class AdminHomeController {
                         return;
                     }
 
-                    allEvents.clear();
-                    allImageEvents.clear();
-                    eventDocsById.clear();
-
-                    if (value != null) {
-                        for (DocumentSnapshot doc : value.getDocuments()) {
-                            UserEvent event = doc.toObject(UserEvent.class);
-                            if (event == null) {
-                                continue;
-                            }
-                            event.setId(doc.getId());
-                            allEvents.add(event);
-                            eventDocsById.put(event.getId(), doc);
-
-                            String imageUrl = safe(doc.getString("imageUrl"));
-                            String posterUrl = safe(doc.getString("posterUrl"));
-                            if (!imageUrl.isEmpty() || !posterUrl.isEmpty()) {
-                                allImageEvents.add(event);
-                            }
-                        }
+                    if (value == null) {
+                        view.showLoading(false);
+                        return;
+                    }
+                    if (!loaded) {
+                        loadAll(value);
+                        loaded = true;
+                        view.showLoading(false);
+                        refresh(false);
+                    } else {
+                        applyChanges(value);
                     }
-
-                    view.showLoading(false);
-                    applyFilterAndNotify();
                 });
     }
 
+    /**
+     * Converts every document of the first snapshot.
+     */
+    private void loadAll(@NonNull QuerySnapshot value) {
+        List<Row> loadedRows = new ArrayList<>();
+        for (DocumentSnapshot doc : value.getDocuments()) {
+            loadedRows.add(index(doc));
+        }
+        rows.reset(loadedRows);
+    }
+
+    /**
+     * Applies only the documents that changed since the previous snapshot and
+     * passes the resulting row changes to the view.
+     */
+    private void applyChanges(@NonNull QuerySnapshot value) {
+        List<ListChange<Row>> changes = new ArrayList<>();
+        for (DocumentChange change : value.getDocumentChanges()) {
+            DocumentSnapshot doc = change.getDocument();
+            switch (change.getType()) {
+                case ADDED:
+                    rows.add(change.getNewIndex(), index(doc), changes);
+                    break;
+                case MODIFIED:
+                    rows.modify(change.getOldIndex(), change.getNewIndex(), index(doc), changes);
+                    break;
+                case REMOVED:
+                    forget(doc.getId());
+                    rows.remove(change.getOldIndex(), changes);
+                    break;
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<ListChange<UserEvent>> eventChanges = new ArrayList<>(changes.size());
+        for (ListChange<Row> change : changes) {
+            eventChanges.add(change.map(row -> row.event));
+        }
+        view.applyEventChanges(eventChanges);
+    }
+
+    /**
+     * Converts one event document and updates the lookup structures and search
+     * index used for filtering.
+     *
+     * @return the row, or null if the document cannot be converted
+     */
+    @Nullable
+    private Row index(@NonNull DocumentSnapshot doc) {
+        String id = doc.getId();
+        UserEvent event = doc.toObject(UserEvent.class);
+        if (event == null) {
+            forget(id);
+            return null;
+        }
+        event.setId(id);
+
+        String imageUrl = safe(doc.getString("imageUrl"));
+        String posterUrl = safe(doc.getString("posterUrl"));
+        if (!imageUrl.isEmpty() || !posterUrl.isEmpty()) {
+            imageEventIds.add(id);
+        } else {
+            imageEventIds.remove(id);
+        }
+
+        search.put(id,
+                doc.getString("name"),
+                doc.getString("location"),
+                doc.getString("descr"),
+                imageUrl,
+                posterUrl);
+        if (searching) {
+            changedWhileSearching.add(id);
+        }
+        if (queryHits != null) {
+            if (search.matches(id, currentQuery)) {
+                queryHits.add(id);
+            } else {
+                queryHits.remove(id);
+            }
+        }
+        return new Row(id, event);
+    }
+
+    private void forget(@NonNull String id) {
+        imageEventIds.remove(id);
+        search.remove(id);
+        if (searching) {
+            changedWhileSearching.add(id);
+        }
+        if (queryHits != null) {
+            queryHits.remove(id);
+        }
+    }
+
     /**
      * Stops listening to Firestore updates, if currently active.
      * <p>
@@ -127,6 +263,12 @@ public class AdminHomeController {
             registration.remove();
             registration = null;
         }
+        loaded = false;
+        cancelSearch();
+        rows.clear();
+        imageEventIds.clear();
+        search.clear();
+        queryHits = null;
     }
 
     /**
@@ -143,21 +285,73 @@ public class AdminHomeController {
         currentMode = mode;
         // Reset query when mode changes to keep behavior simple and predictable
         currentQuery = "";
-        applyFilterAndNotify();
+        cancelSearch();
+        refresh(false);
         view.showMode(currentMode);
     }
 
     /**
      * Updates the current text query and reapplies filtering for the
-     * active mode. The view is notified of the new filtered list.
+     * active mode. The index is searched once typing pauses, and the view is
+     * notified of the new filtered list when the result arrives; clearing the
+     * query shows every event right away.
      *
      * @param query search query text, may be null or empty
      */
     public void onSearchQueryChanged(@Nullable String query) {
         currentQuery = (query == null) ? "" : query;
+        if (currentQuery.trim().isEmpty()) {
+            cancelSearch();
+        }
+        refresh(true);
+    }
+
+    /**
+     * Shows the loaded events for the current query. Without a query every
+     * event is shown right away; otherwise the index is searched through the
+     * pipeline.
+     *
+     * @param debounce true to wait for typing to pause before searching
+     */
+    private void refresh(boolean debounce) {
+        if (currentQuery.trim().isEmpty()) {
+            queryHits = null;
+            applyFilterAndNotify();
+            return;
+        }
+        searching = true;
+        changedWhileSearching.clear();
+        if (debounce) {
+            pipeline.submit(currentQuery);
+        } else {
+            pipeline.submitNow(currentQuery);
+        }
+    }
+
+    /**
+     * Receives the events matching a query on the main thread, rechecks the
+     * events that changed while it ran, and shows the result.
+     */
+    private void onSearchResult(@NonNull String query, @NonNull Set<String> hits) {
+        searching = false;
+        for (String id : changedWhileSearching) {
+            if (search.matches(id, query)) {
+                hits.add(id);
+            } else {
+                hits.remove(id);
+            }
+        }
+        changedWhileSearching.clear();
+        queryHits = hits;
         applyFilterAndNotify();
     }
 
+    private void cancelSearch() {
+        pipeline.cancel();
+        searching = false;
+        changedWhileSearching.clear();
+    }
+
     /**
      * Returns the current admin home mode.
      *
@@ -181,47 +375,26 @@ public class AdminHomeController {
     // Internal helper: apply current mode + query and notify view
 
     private void applyFilterAndNotify() {
-        List<UserEvent> base =
-                (currentMode == AdminHomeMode.EVENTS) ? allEvents : allImageEvents;
+        final AdminHomeMode mode = currentMode;
 
-        if (base.isEmpty()) {
-            view.showEvents(Collections.emptyList());
-            return;
-        }
+        rows.setMatcher(row -> {
+            String id = row.id;
+            if (mode == AdminHomeMode.PHOTOS && !imageEventIds.contains(id)) {
+                return false;
+            }
+            return queryHits == null || queryHits.contains(id);
+        });
 
-        if (currentQuery.trim().isEmpty()) {
-            view.showEvents(new ArrayList<>(base));
+        List<Row> visible = rows.visible();
+        if (visible.isEmpty()) {
+            view.showEvents(Collections.emptyList());
             return;
         }
-
-        String q = currentQuery.trim().toLowerCase(Locale.getDefault());
-        List<UserEvent> filtered = new ArrayList<>();
-
-        for (UserEvent event : base) {
-            DocumentSnapshot doc = eventDocsById.get(event.getId());
-            if (matchesQuery(doc, q)) {
-                filtered.add(event);
-            }
-        }
-
-        view.showEvents(filtered);
-    }
-
-    private boolean matchesQuery(@Nullable DocumentSnapshot doc,
-                                 @NonNull String query) {
-        if (doc == null) {
-            return false;
+        List<UserEvent> events = new ArrayList<>(visible.size());
+        for (Row row : visible) {
+            events.add(row.event);
         }
-        return contains(doc.getString("name"), query)
-                || contains(doc.getString("location"), query)
-                || contains(doc.getString("descr"), query)
-                || contains(doc.getString("imageUrl"), query)
-                || contains(doc.getString("posterUrl"), query);
-    }
-
-    private boolean contains(@Nullable String value, @NonNull String query) {
-        return value != null
-                && value.toLowerCase(Locale.getDefault()).contains(query);
+        view.showEvents(events);
     }
 
     private String safe(@Nullable String s) {
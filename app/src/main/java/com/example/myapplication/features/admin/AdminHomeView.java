@@ -2,6 +2,7 @@ package com.example.myapplication.features.admin;
 
 import androidx.annotation.NonNull;
 
+import com.example.myapplication.core.ListChange;
 import com.example.myapplication.features.user.UserEvent;
 
 import java.util.List;
@@ -24,6 +25,14 @@ public interface AdminHomeView {
      */
     void showEvents(@NonNull List<UserEvent> events);
 
+    /**
+     * Updates the list last passed to {@link #showEvents(List)} in place,
+     * after individual events were added, edited or removed.
+     *
+     * @param changes positional changes, to be applied in order
+     */
+    void applyEventChanges(@NonNull List<ListChange<UserEvent>> changes);
+
     /**
      * Updates the view to reflect the current mode (events vs photos).
      * Typical implementations will update labels, hints, and/or icons.
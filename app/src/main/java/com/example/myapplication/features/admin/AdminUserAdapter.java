@@ -8,14 +8,23 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.example.myapplication.R;
+import com.example.myapplication.core.CloudinaryUrls;
+import com.example.myapplication.core.ListChange;
+import com.example.myapplication.core.StableIds;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * RecyclerView adapter for the admin "Browse Profiles" list.
@@ -26,6 +35,9 @@ import java.util.Locale;
  * design, while {@link AdminUsersController} provides the underlying
  * data and filtering.
  * <p>
+ * Updates are diffed on a background thread by an {@link AsyncListDiffer} and rows
+ * have stable ids keyed by user id, so only changed rows are rebound. A change that
+ * keeps the avatar is bound with {@link #PAYLOAD_TEXT} and does not reload it.
  */
 public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.VH> {
 
@@ -51,11 +63,45 @@ public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.VH>
      */
     public interface OnRemoveClick { void onRemove(UserRow u); }
 
+    /** Payload for a rebind that leaves the avatar alone. */
+    static final Object PAYLOAD_TEXT = "text";
+
+    /** Width and height of the avatar in item_admin_user. */
+    private static final int AVATAR_SIZE_DP = 48;
+
+    static final DiffUtil.ItemCallback<UserRow> DIFF = new DiffUtil.ItemCallback<UserRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull UserRow a, @NonNull UserRow b) {
+            return a.id != null ? a.id.equals(b.id) : a == b;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull UserRow a, @NonNull UserRow b) {
+            return sameText(a, b) && Objects.equals(a.avatarUrl, b.avatarUrl);
+        }
+
+        @Nullable @Override
+        public Object getChangePayload(@NonNull UserRow a, @NonNull UserRow b) {
+            return Objects.equals(a.avatarUrl, b.avatarUrl) ? PAYLOAD_TEXT : null;
+        }
+    };
+
     private final List<UserRow> original = new ArrayList<>();
-    private final List<UserRow> visible  = new ArrayList<>();
+    private final AsyncListDiffer<UserRow> differ = new AsyncListDiffer<>(this, DIFF);
+    private final StableIds ids = new StableIds();
+    private String query = "";
     private OnUserClick onClick;
     private OnRemoveClick onRemove;
 
+    public AdminUserAdapter() {
+        setHasStableIds(true);
+        differ.addListListener((previous, current) -> {
+            Set<Object> keys = new HashSet<>();
+            for (UserRow u : current) keys.add(key(u));
+            ids.retain(keys);
+        });
+    }
+
     /**
      * Registers a callback to handle user row taps.
      * @param cb callback receiving the tapped {@link UserRow}
@@ -73,9 +119,21 @@ public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.VH>
      * @param rows new rows to display (null or empty clears the list)
      */
     public void submit(List<UserRow> rows){
-        original.clear(); visible.clear();
-        if (rows != null){ original.addAll(rows); visible.addAll(rows); }
-        notifyDataSetChanged();
+        original.clear();
+        if (rows != null) original.addAll(rows);
+        query = "";
+        differ.submitList(new ArrayList<>(original));
+    }
+
+    /**
+     * Applies positional changes to the rows last submitted; the differ rebinds
+     * only the affected rows. While a filter query is active the rows are
+     * filtered again.
+     * @param changes changes to the submitted rows, in order
+     */
+    public void applyChanges(List<ListChange<UserRow>> changes){
+        for (ListChange<UserRow> change : changes) change.applyTo(original);
+        filter(query);
     }
 
     /**
@@ -83,7 +141,8 @@ public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.VH>
      * @param q query text; empty or null shows all rows
      */
     public void filter(String q){
-        visible.clear();
+        query = q == null ? "" : q;
+        List<UserRow> visible = new ArrayList<>();
         if (TextUtils.isEmpty(q)) {
             visible.addAll(original);
         } else {
@@ -96,7 +155,7 @@ public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.VH>
                 }
             }
         }
-        notifyDataSetChanged();
+        differ.submitList(visible);
     }
 
     /**
@@ -108,6 +167,25 @@ public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.VH>
         return s == null ? "" : s.toLowerCase(Locale.getDefault());
     }
 
+    private static boolean sameText(UserRow a, UserRow b){
+        return Objects.equals(a.name, b.name)
+                && Objects.equals(a.email, b.email)
+                && Objects.equals(a.role, b.role);
+    }
+
+    /**
+     * @param position adapter position
+     * @return the stable id of the row's user
+     */
+    @Override
+    public long getItemId(int position) {
+        return ids.idFor(key(differ.getCurrentList().get(position)));
+    }
+
+    private static Object key(UserRow u) {
+        return u.id != null ? u.id : u;
+    }
+
     /**
      * Creates a new {@link VH} for a user row.
      * @param parent parent view group
@@ -128,39 +206,64 @@ public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.VH>
      */
     @Override
     public void onBindViewHolder(@NonNull VH h, int position) {
-        UserRow u = visible.get(position);
+        UserRow u = differ.getCurrentList().get(position);
 
-        h.name.setText(u.name);
-        h.email.setText(u.email);
-        h.role.setText(cap(u.role));
+        bindText(h, u);
 
         if (!TextUtils.isEmpty(u.avatarUrl)) {
-            Glide.with(h.avatar.getContext()).load(u.avatarUrl).into(h.avatar);
+            int widthPx = CloudinaryUrls.widthPx(h.avatar, AVATAR_SIZE_DP);
+            Glide.with(h.avatar.getContext())
+                    .load(CloudinaryUrls.sized(u.avatarUrl, widthPx))
+                    .into(h.avatar);
         } else {
             h.avatar.setImageResource(R.mipmap.ic_launcher_round);
         }
 
         h.itemView.setOnClickListener(v -> {
             int p = h.getBindingAdapterPosition();
+            List<UserRow> visible = differ.getCurrentList();
             if (onClick != null && p != RecyclerView.NO_POSITION && p < visible.size()) {
                 onClick.onUser(visible.get(p));
             }
         });
 
-        boolean isOrganizer = "organizer".equalsIgnoreCase(u.role);
-        h.btnRemove.setVisibility(isOrganizer ? View.VISIBLE : View.GONE);
         h.btnRemove.setOnClickListener(v -> {
             int p = h.getBindingAdapterPosition();
+            List<UserRow> visible = differ.getCurrentList();
             if (onRemove != null && p != RecyclerView.NO_POSITION && p < visible.size()) {
                 onRemove.onRemove(visible.get(p));
             }
         });
     }
 
+    /**
+     * Rebinds only the text and remove control when every payload is
+     * {@link #PAYLOAD_TEXT}, otherwise binds the whole row.
+     * @param h holder to bind
+     * @param position adapter position
+     * @param payloads payloads from the differ
+     */
+    @Override
+    public void onBindViewHolder(@NonNull VH h, int position, @NonNull List<Object> payloads) {
+        boolean textOnly = !payloads.isEmpty();
+        for (Object payload : payloads) textOnly &= payload == PAYLOAD_TEXT;
+        if (textOnly) bindText(h, differ.getCurrentList().get(position));
+        else onBindViewHolder(h, position);
+    }
+
+    private static void bindText(VH h, UserRow u){
+        h.name.setText(u.name);
+        h.email.setText(u.email);
+        h.role.setText(cap(u.role));
+
+        boolean isOrganizer = "organizer".equalsIgnoreCase(u.role);
+        h.btnRemove.setVisibility(isOrganizer ? View.VISIBLE : View.GONE);
+    }
+
     /**
      * @return number of visible rows after filtering
      */
-    @Override public int getItemCount() { return visible.size(); }
+    @Override public int getItemCount() { return differ.getCurrentList().size(); }
 
     /**
      * ViewHolder for a user row (avatar, metadata, and optional inline remove control).
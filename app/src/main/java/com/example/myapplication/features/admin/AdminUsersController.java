@@ -3,14 +3,21 @@ package com.example.myapplication.features.admin;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.example.myapplication.core.ListChange;
+import com.example.myapplication.core.SearchIndex;
+import com.example.myapplication.core.SearchPipeline;
 import com.google.android.gms.tasks.OnFailureListener;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QuerySnapshot;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 /**
  * Controller for the admin "Browse Profiles" screen.
@@ -21,6 +28,13 @@ import java.util.Locale;
  * such as organizer demotion. Results and status updates are forwarded to
  * an {@link AdminUsersView}.
  * <p>
+ * After the first snapshot, only the documents in each snapshot's
+ * {@link DocumentChange}s are mapped again, and the view receives just the
+ * rows that changed through {@link AdminUsersView#applyUserChanges(List)}.
+ * Names, emails and roles are kept in a {@link SearchIndex} so the search
+ * box is answered from the index, which a {@link SearchPipeline} queries
+ * off the main thread once typing pauses.
+ * <p>
  */
 public class AdminUsersController {
 
@@ -28,7 +42,15 @@ public class AdminUsersController {
     private final FirebaseFirestore db;
 
     private ListenerRegistration registration;
-    private final List<AdminUserAdapter.UserRow> allUsers = new ArrayList<>();
+    private final IncrementalRows<AdminUserAdapter.UserRow> rows = new IncrementalRows<>();
+    private final SearchIndex<String> search = new SearchIndex<>();
+    /** Ids of the users matching the current query, or null when there is no query. */
+    @Nullable
+    private Set<String> queryHits;
+    private final SearchPipeline<Set<String>> pipeline;
+    private boolean searching;
+    private final Set<String> changedWhileSearching = new HashSet<>();
+    private boolean loaded;
     private String currentQuery = "";
 
     /**
@@ -37,22 +59,36 @@ public class AdminUsersController {
      * @param view the view instance that will render user rows
      */
     public AdminUsersController(@NonNull AdminUsersView view) {
-        this(view, FirebaseFirestore.getInstance());
+        this(view, FirebaseFirestore.getInstance(), SearchPipeline.Config.background());
     }
 
     /**
      * Creates a new controller instance with a specific Firestore instance.
      * <p>
      * This overload is primarily intended for unit testing with a mocked or
-     * emulator-backed database.
+     * emulator-backed database. Searches run inline on the calling thread.
      *
      * @param view the view instance to notify
      * @param db   Firestore reference used to query the users collection
      */
     public AdminUsersController(@NonNull AdminUsersView view,
                                 @NonNull FirebaseFirestore db) {
+        this(view, db, SearchPipeline.Config.inline());
+    }
+
+    /**
+     * Creates a new controller instance.
+     *
+     * @param view   the view instance to notify
+     * @param db     Firestore reference used to query the users collection
+     * @param searchConfig threads and debounce used for text searches
+     */
+    public AdminUsersController(@NonNull AdminUsersView view,
+                                @NonNull FirebaseFirestore db,
+                                @NonNull SearchPipeline.Config searchConfig) {
         this.view = view;
         this.db = db;
+        this.pipeline = new SearchPipeline<>(searchConfig, search::query, this::onSearchResult);
     }
 
     /**
@@ -77,21 +113,52 @@ public class AdminUsersController {
                         return;
                     }
 
-                    allUsers.clear();
-                    if (snap != null) {
+                    if (snap == null) {
+                        view.showLoading(false);
+                        return;
+                    }
+                    if (!loaded) {
+                        List<AdminUserAdapter.UserRow> loadedRows = new ArrayList<>();
                         for (DocumentSnapshot doc : snap.getDocuments()) {
-                            AdminUserAdapter.UserRow row = toUserRow(doc);
-                            if (row != null) {
-                                allUsers.add(row);
-                            }
+                            loadedRows.add(toUserRow(doc));
                         }
+                        rows.reset(loadedRows);
+                        loaded = true;
+                        view.showLoading(false);
+                        refresh(false);
+                    } else {
+                        applyChanges(snap);
                     }
-
-                    view.showLoading(false);
-                    applyFilterAndNotify();
                 });
     }
 
+    /**
+     * Maps only the documents that changed since the previous snapshot and
+     * passes the resulting row changes to the view.
+     */
+    private void applyChanges(@NonNull QuerySnapshot snap) {
+        List<ListChange<AdminUserAdapter.UserRow>> changes = new ArrayList<>();
+        for (DocumentChange change : snap.getDocumentChanges()) {
+            switch (change.getType()) {
+                case ADDED:
+                    rows.add(change.getNewIndex(), toUserRow(change.getDocument()), changes);
+                    break;
+                case MODIFIED:
+                    rows.modify(change.getOldIndex(), change.getNewIndex(),
+                            toUserRow(change.getDocument()), changes);
+                    break;
+                case REMOVED:
+                    forget(change.getDocument().getId());
+                    rows.remove(change.getOldIndex(), changes);
+                    break;
+            }
+        }
+        if (!changes.isEmpty()) {
+            view.applyUserChanges(changes);
+            view.showEmptyState(rows.visible().isEmpty());
+        }
+    }
+
     /**
      * Stops listening for user updates. Should be called from the view's
      * lifecycle (e.g., {@code onDestroyView}) to avoid leaks.
@@ -101,19 +168,73 @@ public class AdminUsersController {
             registration.remove();
             registration = null;
         }
+        loaded = false;
+        cancelSearch();
+        rows.clear();
+        search.clear();
+        queryHits = null;
     }
 
     /**
      * Updates the current search query for the user list and reapplies
-     * text filtering over names, emails, and roles.
+     * text filtering over names, emails, and roles once typing pauses.
+     * Clearing the query shows every user right away.
      *
      * @param query search query text, may be null or empty
      */
     public void onSearchQueryChanged(@Nullable String query) {
         currentQuery = (query == null) ? "" : query;
+        if (currentQuery.trim().isEmpty()) {
+            cancelSearch();
+        }
+        refresh(true);
+    }
+
+    /**
+     * Shows the loaded users for the current query, searching the index
+     * through the pipeline when there is one.
+     *
+     * @param debounce true to wait for typing to pause before searching
+     */
+    private void refresh(boolean debounce) {
+        if (currentQuery.trim().isEmpty()) {
+            queryHits = null;
+            applyFilterAndNotify();
+            return;
+        }
+        searching = true;
+        changedWhileSearching.clear();
+        if (debounce) {
+            pipeline.submit(currentQuery);
+        } else {
+            pipeline.submitNow(currentQuery);
+        }
+    }
+
+    /**
+     * Receives the users matching a query on the main thread, rechecks the
+     * users that changed while it ran, and shows the result.
+     */
+    private void onSearchResult(@NonNull String query, @NonNull Set<String> hits) {
+        searching = false;
+        for (String id : changedWhileSearching) {
+            if (search.matches(id, query)) {
+                hits.add(id);
+            } else {
+                hits.remove(id);
+            }
+        }
+        changedWhileSearching.clear();
+        queryHits = hits;
         applyFilterAndNotify();
     }
 
+    private void cancelSearch() {
+        pipeline.cancel();
+        searching = false;
+        changedWhileSearching.clear();
+    }
+
     /**
      * Handles an admin request to demote an organizer to a regular user.
      * <p>
@@ -154,15 +275,18 @@ public class AdminUsersController {
     }
 
 
+    /**
+     * Maps a user document to a row and updates the search index.
+     *
+     * @return the row, or null for admins and documents without a role
+     */
     @Nullable
     private AdminUserAdapter.UserRow toUserRow(@NonNull DocumentSnapshot doc) {
         String role = safe(doc.getString("role"));
-        if (role.isEmpty()) {
-            return null;
-        }
         String lowerRole = role.toLowerCase(Locale.getDefault());
 
         if (!"user".equals(lowerRole) && !"organizer".equals(lowerRole)) {
+            forget(doc.getId());
             return null;
         }
 
@@ -190,37 +314,39 @@ public class AdminUsersController {
         row.role = role;
         row.avatarUrl = avatarUrl;
 
+        search.put(id, displayName, email, role);
+        if (searching) {
+            changedWhileSearching.add(id);
+        }
+        if (queryHits != null) {
+            if (search.matches(id, currentQuery)) {
+                queryHits.add(id);
+            } else {
+                queryHits.remove(id);
+            }
+        }
         return row;
     }
 
-    private void applyFilterAndNotify() {
-        List<AdminUserAdapter.UserRow> toShow = new ArrayList<>();
-
-        if (currentQuery.trim().isEmpty()) {
-            toShow.addAll(allUsers);
-        } else {
-            String q = currentQuery.trim().toLowerCase(Locale.getDefault());
-            for (AdminUserAdapter.UserRow row : allUsers) {
-                if (matchesQuery(row, q)) {
-                    toShow.add(row);
-                }
-            }
+    private void forget(@Nullable String id) {
+        if (id == null) {
+            return;
+        }
+        search.remove(id);
+        if (searching) {
+            changedWhileSearching.add(id);
+        }
+        if (queryHits != null) {
+            queryHits.remove(id);
         }
-
-        view.showUsers(toShow);
-        view.showEmptyState(toShow.isEmpty());
     }
 
-    private boolean matchesQuery(@NonNull AdminUserAdapter.UserRow row,
-                                 @NonNull String query) {
-        return contains(row.name, query)
-                || contains(row.email, query)
-                || contains(row.role, query);
-    }
+    private void applyFilterAndNotify() {
+        rows.setMatcher(row -> queryHits == null || queryHits.contains(row.id));
 
-    private boolean contains(@Nullable String value, @NonNull String query) {
-        return value != null
-                && value.toLowerCase(Locale.getDefault()).contains(query);
+        List<AdminUserAdapter.UserRow> toShow = new ArrayList<>(rows.visible());
+        view.showUsers(toShow);
+        view.showEmptyState(toShow.isEmpty());
     }
 
     private String safe(@Nullable String s) {
@@ -2,6 +2,8 @@ package com.example.myapplication.features.admin;
 
 import androidx.annotation.NonNull;
 
+import com.example.myapplication.core.ListChange;
+
 import java.util.List;
 
 /**
@@ -22,6 +24,14 @@ public interface AdminUsersView {
      */
     void showUsers(@NonNull List<AdminUserAdapter.UserRow> users);
 
+    /**
+     * Updates the list last passed to {@link #showUsers(List)} in place,
+     * after individual users were added, edited or removed.
+     *
+     * @param changes positional changes, to be applied in order
+     */
+    void applyUserChanges(@NonNull List<ListChange<AdminUserAdapter.UserRow>> changes);
+
     /**
      * Indicates whether the "empty state" view should be visible.
      *
@@ -0,0 +1,145 @@
+package com.example.myapplication.features.admin;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.myapplication.core.ListChange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps the rows of a Firestore query result in query order, together with the subset that
+ * passes the current filter, and updates both from individual document changes.
+ * <p>
+ * Row i of the full list always corresponds to document i of the query, so the old and new
+ * indexes of a {@code DocumentChange} can be applied directly. Documents that cannot be shown
+ * (for example admins in the users list) are kept as null rows to preserve that alignment.
+ * Every update records the resulting {@link ListChange}s on the visible list, so only the rows
+ * that actually changed have to be pushed to the view.
+ *
+ * @param <T> the row type
+ */
+final class IncrementalRows<T> {
+
+    /**
+     * Decides whether a row is visible.
+     */
+    interface Matcher<T> {
+        boolean matches(@NonNull T row);
+    }
+
+    private final List<T> all = new ArrayList<>();
+    private final List<Boolean> shown = new ArrayList<>();
+    private final List<T> visible = new ArrayList<>();
+    private Matcher<T> matcher = row -> true;
+
+    /**
+     * Replaces every row, for example from the first snapshot of a listener.
+     *
+     * @param rows rows in query order; null rows are never visible
+     */
+    void reset(@NonNull List<T> rows) {
+        all.clear();
+        all.addAll(rows);
+        refilter();
+    }
+
+    /**
+     * Changes the filter and rebuilds the visible rows.
+     */
+    void setMatcher(@NonNull Matcher<T> matcher) {
+        this.matcher = matcher;
+        refilter();
+    }
+
+    /**
+     * Re-evaluates the filter for every row.
+     */
+    void refilter() {
+        shown.clear();
+        visible.clear();
+        for (T row : all) {
+            boolean match = isShown(row);
+            shown.add(match);
+            if (match) {
+                visible.add(row);
+            }
+        }
+    }
+
+    void clear() {
+        all.clear();
+        shown.clear();
+        visible.clear();
+    }
+
+    /**
+     * @return the visible rows in query order, as a read-only view
+     */
+    @NonNull
+    List<T> visible() {
+        return Collections.unmodifiableList(visible);
+    }
+
+    /**
+     * Inserts the row of an added document.
+     */
+    void add(int index, @Nullable T row, @NonNull List<ListChange<T>> out) {
+        boolean match = isShown(row);
+        all.add(index, row);
+        shown.add(index, match);
+        if (match) {
+            int position = visibleIndex(index);
+            visible.add(position, row);
+            out.add(ListChange.inserted(position, row));
+        }
+    }
+
+    /**
+     * Removes the row of a removed document.
+     */
+    void remove(int index, @NonNull List<ListChange<T>> out) {
+        boolean wasShown = shown.get(index);
+        int position = wasShown ? visibleIndex(index) : -1;
+        all.remove(index);
+        shown.remove(index);
+        if (wasShown) {
+            visible.remove(position);
+            out.add(ListChange.removed(position));
+        }
+    }
+
+    /**
+     * Replaces the row of a modified document, which may also have moved.
+     */
+    void modify(int oldIndex, int newIndex, @Nullable T row, @NonNull List<ListChange<T>> out) {
+        if (oldIndex == newIndex && shown.get(oldIndex) && isShown(row)) {
+            int position = visibleIndex(oldIndex);
+            all.set(oldIndex, row);
+            visible.set(position, row);
+            out.add(ListChange.changed(position, row));
+            return;
+        }
+        remove(oldIndex, out);
+        add(newIndex, row, out);
+    }
+
+    private boolean isShown(@Nullable T row) {
+        return row != null && matcher.matches(row);
+    }
+
+    /**
+     * @return the number of visible rows before the given index of the full list
+     */
+    private int visibleIndex(int index) {
+        int count = 0;
+        for (int i = 0; i < index; i++) {
+            if (shown.get(i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
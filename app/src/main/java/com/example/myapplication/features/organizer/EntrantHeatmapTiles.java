@@ -0,0 +1,119 @@
+package com.example.myapplication.features.organizer;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import com.example.myapplication.core.GeoClusterIndex;
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+/**
+ * Draws entrant density as map tiles from a {@link GeoClusterIndex}.
+ *
+ * Each tile reads the clusters two levels deeper than its zoom, so every cluster covers a
+ * few pixels of the tile, and spreads each cluster's count over a gaussian kernel. Intensity
+ * saturates with a fixed curve instead of being scaled to the tile's maximum, so adjacent
+ * tiles share one colour scale. The map calls {@link #getTile} on its own background
+ * threads.
+ */
+class EntrantHeatmapTiles implements TileProvider {
+
+    private static final int TILE_PX = 256;
+    private static final int RADIUS_PX = 20;
+    /** Intensity at which a pixel is about two thirds of the way to full colour. */
+    private static final float SATURATION = 3f;
+
+    private static final float[] KERNEL = kernel(RADIUS_PX);
+    private static final int[] PALETTE = palette();
+
+    private final GeoClusterIndex index;
+
+    EntrantHeatmapTiles(GeoClusterIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public Tile getTile(int x, int y, int zoom) {
+        double tiles = 1L << zoom;
+        double scale = TILE_PX * tiles;
+        double margin = RADIUS_PX / scale;
+        double minX = x / tiles;
+        double minY = y / tiles;
+        int level = Math.min(zoom + 2, GeoClusterIndex.MAX_ZOOM);
+        List<GeoClusterIndex.Cluster> clusters = index.clustersInWorld(level,
+                minX - margin, minY - margin, (x + 1) / tiles + margin, (y + 1) / tiles + margin);
+        if (clusters.isEmpty()) {
+            return NO_TILE;
+        }
+
+        float[] intensity = new float[TILE_PX * TILE_PX];
+        int side = 2 * RADIUS_PX + 1;
+        for (GeoClusterIndex.Cluster c : clusters) {
+            int cx = (int) Math.round((c.getX() - minX) * scale);
+            int cy = (int) Math.round((c.getY() - minY) * scale);
+            for (int ky = 0; ky < side; ky++) {
+                int py = cy + ky - RADIUS_PX;
+                if (py < 0 || py >= TILE_PX) continue;
+                for (int kx = 0; kx < side; kx++) {
+                    int px = cx + kx - RADIUS_PX;
+                    if (px < 0 || px >= TILE_PX) continue;
+                    intensity[py * TILE_PX + px] += c.getCount() * KERNEL[ky * side + kx];
+                }
+            }
+        }
+
+        int[] pixels = new int[intensity.length];
+        for (int i = 0; i < intensity.length; i++) {
+            double level01 = 1 - Math.exp(-intensity[i] / SATURATION);
+            pixels[i] = PALETTE[(int) Math.round(level01 * (PALETTE.length - 1))];
+        }
+
+        Bitmap bitmap = Bitmap.createBitmap(pixels, TILE_PX, TILE_PX, Bitmap.Config.ARGB_8888);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+            return new Tile(TILE_PX, TILE_PX, out.toByteArray());
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    private static float[] kernel(int radius) {
+        int side = 2 * radius + 1;
+        float[] kernel = new float[side * side];
+        double sigma = radius / 3.0;
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                double dx = x - radius;
+                double dy = y - radius;
+                kernel[y * side + x] = (float) Math.exp(-(dx * dx + dy * dy) / (2 * sigma * sigma));
+            }
+        }
+        return kernel;
+    }
+
+    /**
+     * Transparent through green and yellow to red, growing more opaque with intensity.
+     */
+    private static int[] palette() {
+        int[] stops = {Color.GREEN, Color.YELLOW, Color.RED};
+        int[] palette = new int[256];
+        for (int i = 0; i < palette.length; i++) {
+            float t = i / (float) (palette.length - 1);
+            float pos = t * (stops.length - 1);
+            int from = Math.min((int) pos, stops.length - 2);
+            float f = pos - from;
+            int a = stops[from];
+            int b = stops[from + 1];
+            int alpha = t < 0.05f ? 0 : Math.round(80 + 140 * t);
+            palette[i] = Color.argb(alpha,
+                    Math.round(Color.red(a) + (Color.red(b) - Color.red(a)) * f),
+                    Math.round(Color.green(a) + (Color.green(b) - Color.green(a)) * f),
+                    Math.round(Color.blue(a) + (Color.blue(b) - Color.blue(a)) * f));
+        }
+        return palette;
+    }
+}
@@ -29,7 +29,6 @@ import com.example.myapplication.R;
 import com.example.myapplication.core.ServiceLocator;
 import com.example.myapplication.core.UserSession;
 import com.example.myapplication.data.model.User;
-import com.example.myapplication.data.repo.ImageRepository;
 import com.example.myapplication.features.user.UserEvent;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.MaterialAutoCompleteTextView;
@@ -81,7 +80,6 @@ public class OCreateEventFrag extends Fragment {
     private long selectionDateMillis = 0;
     private Uri posterUri = null;
 
-    private ImageRepository imageRepository;
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
 
     /** Default constructor
@@ -112,8 +110,6 @@ public class OCreateEventFrag extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState){
         super.onViewCreated(view, savedInstanceState);
 
-        imageRepository = new ImageRepository();
-
         // Inputs
         titleInput = view.findViewById(R.id.event_title_input);
         addressInput = view.findViewById(R.id.event_address_input);
@@ -235,12 +231,10 @@ public class OCreateEventFrag extends Fragment {
 
     /**
      * This method collects all teh user inputs and validates them. After that a new
-     * event object is created. Before saving the object to Firestore, if there is an
-     * image it gets uploaded. Then the event is saved with the imageUrl that gets
+     * event object is created and handed to the repository together with the poster,
+     * which uploads the poster and then saves the event with the imageUrl that gets
      * returned after upload.
      *
-     * ImageRepository is used to upload the image.
-     *
      */
     private void onCreateClicked() {
         Log.d("OCreateEventFrag", "onCreateClicked Called");
@@ -315,22 +309,7 @@ public class OCreateEventFrag extends Fragment {
             posterUri = ImageUtils.createDefaultPosterUri(requireContext());
         }
 
-        if (posterUri != null) {
-            imageRepository.uploadImage( posterUri, new ImageRepository.UploadCallback() {
-                @Override
-                public void onSuccess(String secureUrl) {
-                    event.setImageUrl((secureUrl));
-                    saveEvent(event);
-                }
-
-                @Override
-                public void onError(String e) {
-                    Toast.makeText(getContext(), "Image Upload failed: " + e, Toast.LENGTH_SHORT).show();
-                }
-            });
-        } else {
-            saveEvent(event);
-        }
+        saveEvent(event, posterUri);
     }
 
     /**
@@ -354,12 +333,16 @@ public class OCreateEventFrag extends Fragment {
      * This method uses EventRepository to save the event to Firestore. Depending
      * whether saving is successful or not, a message gets displayed.
      *
+     * The poster is uploaded by the repository.
+     *
      * @param event event the event object to be saved.
+     * @param posterUri the poster to upload, or null.
      */
-    private void saveEvent(UserEvent event) {
+    private void saveEvent(UserEvent event, @Nullable Uri posterUri) {
         ServiceLocator.getEventRepository().createEvent(
                 requireContext(),
                 event,
+                posterUri,
                 aVoid -> {
                     Toast.makeText(getContext(), "Event created!", Toast.LENGTH_SHORT).show();
 
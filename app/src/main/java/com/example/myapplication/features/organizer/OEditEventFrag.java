@@ -2,6 +2,7 @@ package com.example.myapplication.features.organizer;
 
 import android.app.Activity;
 import android.app.DatePickerDialog;
+import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
@@ -21,6 +22,7 @@ import androidx.navigation.fragment.NavHostFragment;
 import com.example.myapplication.R;
 import com.example.myapplication.core.ServiceLocator;
 import com.example.myapplication.core.UserSession;
+import com.example.myapplication.core.VenueLocator;
 import com.example.myapplication.data.firebase.FirebaseEventRepository;
 import com.example.myapplication.data.repo.EventRepository;
 import com.example.myapplication.data.repo.ImageRepository;
@@ -93,7 +95,7 @@ public class OEditEventFrag extends Fragment {
         super.onViewCreated(view, savedInstanceState);
 
         eventRepository = ServiceLocator.getEventRepository();
-        imageRepository = new ImageRepository();
+        imageRepository = new ImageRepository(requireContext());
 
         bindViews(view);
         setupInteractions();
@@ -226,6 +228,8 @@ public class OEditEventFrag extends Fragment {
                     NavHostFragment.findNavController(OEditEventFrag.this).popBackStack();
                     return;
                 }
+                // Later edits are compared with these values, so only they are saved.
+                currentEvent.markUnchanged();
                 populateForm(currentEvent);
             }
 
@@ -342,6 +346,10 @@ public class OEditEventFrag extends Fragment {
             return;
         }
 
+        if (!address.equals(currentEvent.getLocation())) {
+            currentEvent.setVenueLat(null);
+            currentEvent.setVenueLng(null);
+        }
         currentEvent.setName(title);
         currentEvent.setLocation(address);
         currentEvent.setDescr(description);
@@ -358,13 +366,15 @@ public class OEditEventFrag extends Fragment {
             currentEvent.setOrganizerID(session.getCurrentUser().getUid());
         }
 
+        // The upload may finish after the fragment is gone, so keep a context that outlives it
+        Context appContext = requireContext().getApplicationContext();
         if (posterUri != null) {
             imageRepository.uploadImage(posterUri, new ImageRepository.UploadCallback() {
                 @Override
                 public void onSuccess(String secureUrl) {
                     currentEvent.setImageUrl(secureUrl);
                     currentEvent.setPosterUrl(secureUrl);
-                    persistChanges();
+                    persistChanges(appContext);
                 }
 
                 @Override
@@ -376,14 +386,26 @@ public class OEditEventFrag extends Fragment {
                 }
             });
         } else {
-            persistChanges();
+            persistChanges(appContext);
         }
     }
 
     /**
-     * Persists the in-memory event back to Firestore and navigates away on success.
+     * Persists the in-memory event back to Firestore and navigates away on success. A
+     * geo-verified event whose venue is unknown, or whose address changed, is located first.
+     *
+     * @param appContext the application context, since this may run after the fragment is detached
      */
-    private void persistChanges() {
+    private void persistChanges(Context appContext) {
+        if (currentEvent.isGeoRequired() && currentEvent.getVenueLat() == null) {
+            VenueLocator.locate(appContext, currentEvent)
+                    .addOnCompleteListener(t -> writeChanges());
+        } else {
+            writeChanges();
+        }
+    }
+
+    private void writeChanges() {
         eventRepository.updateEvent(eventId, currentEvent, aVoid -> {
             if (!isAdded()) {
                 return;
@@ -1,6 +1,11 @@
 package com.example.myapplication.features.organizer;
 
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -9,33 +14,91 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 import androidx.navigation.Navigation;
 
 import com.example.myapplication.R;
+import com.example.myapplication.core.BackgroundExecutor;
+import com.example.myapplication.core.GeoClusterIndex;
+import com.example.myapplication.core.GeoHash;
 import com.example.myapplication.data.firebase.FirebaseEventRepository;
 import com.example.myapplication.data.model.EntrantLocation;
+import com.example.myapplication.features.user.UserEvent;
 import com.google.android.gms.maps.CameraUpdateFactory;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.MapView;
 import com.google.android.gms.maps.OnMapReadyCallback;
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.LatLngBounds;
+import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
+import com.google.android.gms.maps.model.TileOverlay;
+import com.google.android.gms.maps.model.TileOverlayOptions;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.android.material.button.MaterialButton;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Entrant Map Screen. Allows an event organizer to view the the locations
  * of entrants if they wish to do so.
+ *
+ * The map opens on the event's venue when it is known. Whenever the camera stops moving, only
+ * the entrants around the visible region are read, with
+ * {@link FirebaseEventRepository#getWaitlistLocationsInBox}, over a box padded by half a screen
+ * on each side so small pans need no new read. They are indexed into a {@link GeoClusterIndex}
+ * on a background thread, and only the clusters inside the visible region at the current zoom
+ * are drawn; markers that are still visible are kept and the rest are removed, so the number
+ * of markers stays bounded by the screen size however many entrants there are. The organizer
+ * can switch to a density heatmap drawn by {@link EntrantHeatmapTiles}.
+ *
+ * When zoomed out so far that the view is covered by geohash cells shorter than
+ * {@link #DETAIL_PRECISION}, no locations are downloaded at all: each cell's entrants are
+ * counted on the server with {@link FirebaseEventRepository#countWaitlistLocationsInCell} and
+ * drawn as one marker, in either mode. The cells of a padded box are counted the same way
+ * before it is read, and a box holding more than {@link #MAX_DETAIL_ENTRANTS} entrants, such as
+ * the venue of a dense event, is drawn from those counts instead of being downloaded.
+ * Locations stored before geohashes existed are given one by
+ * {@link FirebaseEventRepository#backfillGeohashes} before the first load.
  */
 public class OEntrantMapFrag extends Fragment implements OnMapReadyCallback {
 
     private static final String MAPVIEW_BUNDLE_KEY = "MapViewBundleKey";
+    /** Zoom levels added when a cluster is tapped. */
+    private static final int CLUSTER_ZOOM_STEP = 2;
+    /** Zoom the map opens at on a known venue. */
+    private static final float VENUE_ZOOM = 11;
+    /** Geohash length, cells of about 156 km, below which cells are counted instead of read. */
+    private static final int DETAIL_PRECISION = 3;
+    /** Most entrants downloaded for one box; denser boxes are drawn from cell counts. */
+    private static final int MAX_DETAIL_ENTRANTS = 5000;
 
     private MapView mapView;
     private GoogleMap googleMap;
     private String eventId;
+    private MaterialButton modeButton;
+
+    private GeoClusterIndex index;
+    /** The box {south, west, north, east} whose entrants are in {@link #index}. */
+    private double[] indexedBox;
+    /** Incremented for every load; results of older loads are dropped. */
+    private int load;
+    private boolean countMode;
+    private boolean reportedEmpty;
+    private boolean heatmapMode;
+    private TileOverlay heatmap;
+    private GeoClusterIndex heatmapIndex;
+    private Map<Long, Marker> shownMarkers = new HashMap<>();
+    private final List<Marker> countMarkers = new ArrayList<>();
+    private final Map<String, BitmapDescriptor> clusterIcons = new HashMap<>();
+    private final Handler main = new Handler(Looper.getMainLooper());
 
     private final FirebaseEventRepository eventRepo = new FirebaseEventRepository();
 
@@ -87,6 +150,15 @@ public class OEntrantMapFrag extends Fragment implements OnMapReadyCallback {
             Navigation.findNavController(view).navigateUp();
         });
 
+        modeButton = view.findViewById(R.id.btnMapMode);
+        modeButton.setOnClickListener(x -> {
+            heatmapMode = !heatmapMode;
+            modeButton.setText(heatmapMode
+                    ? R.string.entrant_map_show_markers
+                    : R.string.entrant_map_show_heatmap);
+            render();
+        });
+
     }
 
     /**
@@ -96,49 +168,375 @@ public class OEntrantMapFrag extends Fragment implements OnMapReadyCallback {
     @Override
     public void onMapReady(@NonNull GoogleMap gMap) {
         googleMap = gMap;
-        loadEntrantLocations();
+        googleMap.setOnCameraIdleListener(this::onCameraIdle);
+        googleMap.setOnMarkerClickListener(this::onMarkerClick);
+        openOnVenue();
     }
 
     /**
-     * Loads the locations of entrants into the map.
+     * Moves the camera to the event's venue, which loads the entrants around it once the camera
+     * settles. Without a venue the whole map is shown with counts per region. Either way the
+     * first load waits for older locations to be given a geohash, which is read alongside the
+     * event.
      */
-    private void loadEntrantLocations() {
-        eventRepo.getWaitlistLocations(eventId, new FirebaseEventRepository.WaitlistLocationCallback() {
+    private void openOnVenue() {
+        Task<Void> backfilled = eventRepo.backfillGeohashes(eventId);
+        eventRepo.fetchEventById(eventId, new FirebaseEventRepository.SingleEventCallback() {
             @Override
-            public void onLocationsFetched(List<EntrantLocation> locations) {
-                if (!isAdded() || googleMap == null) return;
-
-                if (locations.isEmpty()) {
-                    Toast.makeText(requireContext(),
-                            "No location data for this event yet.",
-                            Toast.LENGTH_SHORT).show();
-                    return;
-                }
+            public void onEventFetched(UserEvent event) {
+                // A failed backfill only hides the older locations, so the map opens regardless
+                backfilled.addOnCompleteListener(t -> {
+                    if (!isAdded() || googleMap == null) return;
+                    if (event != null && event.getVenueLat() != null && event.getVenueLng() != null) {
+                        googleMap.moveCamera(CameraUpdateFactory.newLatLngZoom(
+                                new LatLng(event.getVenueLat(), event.getVenueLng()), VENUE_ZOOM));
+                    } else {
+                        onCameraIdle();
+                    }
+                });
+            }
 
-                LatLngBounds.Builder boundsBuilder = new LatLngBounds.Builder();
+            @Override
+            public void onError(Exception e) {
+                backfilled.addOnCompleteListener(t -> {
+                    if (!isAdded() || googleMap == null) return;
+                    onCameraIdle();
+                });
+            }
+        });
+    }
+
+    /**
+     * Loads what the visible region needs: cell counts when zoomed far out, otherwise the
+     * entrants in a padded box unless the current index already holds the region.
+     */
+    private void onCameraIdle() {
+        if (googleMap == null) return;
+        LatLngBounds visible = googleMap.getProjection().getVisibleRegion().latLngBounds;
+        double south = visible.southwest.latitude;
+        double west = visible.southwest.longitude;
+        double north = visible.northeast.latitude;
+        double east = visible.northeast.longitude;
+
+        List<String> cells = GeoHash.cover(south, west, north, east);
+        boolean wholeWorld = cells.contains(GeoHash.WHOLE_WORLD);
+        if (wholeWorld) {
+            cells = GeoHash.children(GeoHash.WHOLE_WORLD);
+        }
+        int precision = Integer.MAX_VALUE;
+        for (String cell : cells) {
+            precision = Math.min(precision, cell.length());
+        }
+        countMode = precision < DETAIL_PRECISION;
+        if (countMode) {
+            loadCounts(cells, wholeWorld);
+        } else if (indexedBox != null && holds(indexedBox, south, west, north, east)) {
+            render();
+        } else {
+            loadBox(padded(south, west, north, east));
+        }
+    }
+
+    /**
+     * Counts the entrants of each cell on the server and draws one marker per non-empty cell.
+     *
+     * @param wholeWorld true if the cells cover every location, so a zero total means the
+     *                   event has no location data at all
+     */
+    private void loadCounts(List<String> cells, boolean wholeWorld) {
+        int current = ++load;
+        count(cells)
+                .addOnSuccessListener(results -> {
+                    if (!isAdded() || googleMap == null || current != load) return;
+                    long total = showCounts(cells, results);
+                    if (total == 0 && wholeWorld && !reportedEmpty) {
+                        reportedEmpty = true;
+                        Toast.makeText(requireContext(),
+                                "No location data for this event yet.",
+                                Toast.LENGTH_SHORT).show();
+                    }
+                })
+                .addOnFailureListener(this::showLoadError);
+    }
+
+    private Task<List<Long>> count(List<String> cells) {
+        List<Task<Long>> counts = new ArrayList<>(cells.size());
+        for (String cell : cells) {
+            counts.add(eventRepo.countWaitlistLocationsInCell(eventId, cell));
+        }
+        return Tasks.<Long>whenAllSuccess(counts);
+    }
 
-                int idx = 1;
-                for (EntrantLocation loc : locations) {
-                    LatLng point = new LatLng(loc.getLat(), loc.getLng());
-                    googleMap.addMarker(new MarkerOptions()
-                            .position(point)
-                            .title("Entrant " + idx));
-                    boundsBuilder.include(point);
-                    idx++;
+    /**
+     * Replaces the markers with one marker per non-empty cell.
+     *
+     * @return the number of entrants in all cells
+     */
+    private long showCounts(List<String> cells, List<Long> counts) {
+        render();
+        removeCountMarkers();
+        long total = 0;
+        for (int i = 0; i < cells.size(); i++) {
+            long count = counts.get(i);
+            total += count;
+            if (count > 0) {
+                double[] center = GeoHash.center(cells.get(i));
+                Marker marker = addCountMarker(center[0], center[1], (int) count);
+                if (marker != null) {
+                    countMarkers.add(marker);
                 }
+            }
+        }
+        return total;
+    }
 
-                LatLngBounds bounds = boundsBuilder.build();
-                googleMap.moveCamera(CameraUpdateFactory.newLatLngBounds(bounds, 100));
+    /**
+     * Counts the entrants in a box first and only reads them if there are at most
+     * {@link #MAX_DETAIL_ENTRANTS}; otherwise the counted cells are drawn.
+     */
+    private void loadBox(double[] box) {
+        int current = ++load;
+        List<String> cells = countableCells(GeoHash.cover(box[0], box[1], box[2], box[3]));
+        count(cells)
+                .addOnSuccessListener(results -> {
+                    if (!isAdded() || googleMap == null || current != load) return;
+                    long total = 0;
+                    for (long count : results) {
+                        total += count;
+                    }
+                    if (total > MAX_DETAIL_ENTRANTS) {
+                        countMode = true;
+                        showCounts(cells, results);
+                    } else {
+                        readBox(box, current);
+                    }
+                })
+                .addOnFailureListener(this::showLoadError);
+    }
+
+    /**
+     * The cells of a cover in a form {@link FirebaseEventRepository#countWaitlistLocationsInCell}
+     * accepts: the whole world is split into its children, and cells longer than
+     * {@link GeoHash#PREFIX_PRECISION} are cut to their prefix, which may count a little past
+     * the box.
+     */
+    private static List<String> countableCells(List<String> cover) {
+        java.util.Set<String> cells = new java.util.LinkedHashSet<>();
+        for (String cell : cover) {
+            if (cell.equals(GeoHash.WHOLE_WORLD)) {
+                cells.addAll(GeoHash.children(GeoHash.WHOLE_WORLD));
+            } else {
+                cells.add(cell.length() > GeoHash.PREFIX_PRECISION
+                        ? cell.substring(0, GeoHash.PREFIX_PRECISION) : cell);
             }
+        }
+        return new ArrayList<>(cells);
+    }
 
-            @Override
-            public void onError(Exception e) {
-                if (!isAdded()) return;
-                Toast.makeText(requireContext(),
-                        "Failed to load locations: " + e.getMessage(),
-                        Toast.LENGTH_LONG).show();
+    /**
+     * Reads the entrants in a box and indexes them off the main thread. Markers are drawn by
+     * {@link #render()} once the index is in place.
+     */
+    private void readBox(double[] box, int current) {
+        eventRepo.getWaitlistLocationsInBox(eventId, box[0], box[1], box[2], box[3],
+                new FirebaseEventRepository.WaitlistLocationCallback() {
+                    @Override
+                    public void onLocationsFetched(List<EntrantLocation> locations) {
+                        if (!isAdded() || googleMap == null || current != load) return;
+
+                        BackgroundExecutor.get().execute(() -> {
+                            double[] lats = new double[locations.size()];
+                            double[] lngs = new double[locations.size()];
+                            for (int i = 0; i < lats.length; i++) {
+                                EntrantLocation loc = locations.get(i);
+                                lats[i] = loc.getLat();
+                                lngs[i] = loc.getLng();
+                            }
+                            GeoClusterIndex built = GeoClusterIndex.build(lats, lngs);
+
+                            main.post(() -> {
+                                if (!isAdded() || googleMap == null || current != load) return;
+                                index = built;
+                                indexedBox = box;
+                                render();
+                            });
+                        });
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        showLoadError(e);
+                    }
+                });
+    }
+
+    private void showLoadError(Exception e) {
+        if (!isAdded()) return;
+        Toast.makeText(requireContext(),
+                "Failed to load locations: " + e.getMessage(),
+                Toast.LENGTH_LONG).show();
+    }
+
+    /**
+     * @return the box grown by half its height and width on every side, clamped at the poles
+     */
+    private static double[] padded(double south, double west, double north, double east) {
+        double dLat = (north - south) / 2;
+        double width = span(west, east);
+        double s = Math.max(-90, south - dLat);
+        double n = Math.min(90, north + dLat);
+        if (width * 2 >= 360) {
+            return new double[]{s, -180, n, 180};
+        }
+        return new double[]{s, wrap(west - width / 2), n, wrap(east + width / 2)};
+    }
+
+    /**
+     * @return true if the region lies inside {@code box}
+     */
+    private static boolean holds(double[] box, double south, double west, double north, double east) {
+        return GeoHash.contains(box[0], box[1], box[2], box[3], south, west)
+                && GeoHash.contains(box[0], box[1], box[2], box[3], north, east)
+                && span(west, east) <= span(box[1], box[3]);
+    }
+
+    private static double span(double west, double east) {
+        return west <= east ? east - west : east + 360 - west;
+    }
+
+    private static double wrap(double longitude) {
+        if (longitude > 180) return longitude - 360;
+        if (longitude < -180) return longitude + 360;
+        return longitude;
+    }
+
+    /**
+     * Draws the current mode for the visible region.
+     */
+    private void render() {
+        if (googleMap == null) return;
+        if (countMode || index == null) {
+            // Counted cells are drawn by loadCounts
+            removeMarkers();
+            removeHeatmap();
+            return;
+        }
+        removeCountMarkers();
+
+        if (heatmapMode) {
+            removeMarkers();
+            if (heatmap == null || heatmapIndex != index) {
+                removeHeatmap();
+                heatmap = googleMap.addTileOverlay(new TileOverlayOptions()
+                        .tileProvider(new EntrantHeatmapTiles(index)));
+                heatmapIndex = index;
             }
-        });
+            return;
+        }
+        removeHeatmap();
+
+        float zoom = googleMap.getCameraPosition().zoom;
+        LatLngBounds visible = googleMap.getProjection().getVisibleRegion().latLngBounds;
+        List<GeoClusterIndex.Cluster> clusters = index.clusters(zoom,
+                visible.southwest.latitude, visible.southwest.longitude,
+                visible.northeast.latitude, visible.northeast.longitude);
+
+        // Cells are only unique within a level, so the level is part of the key.
+        long level = (long) GeoClusterIndex.level(zoom) << 53;
+        Map<Long, Marker> next = new HashMap<>();
+        for (GeoClusterIndex.Cluster cluster : clusters) {
+            long key = level | cluster.getCell();
+            Marker marker = shownMarkers.remove(key);
+            if (marker == null) {
+                marker = addClusterMarker(cluster);
+            }
+            if (marker != null) {
+                next.put(key, marker);
+            }
+        }
+        removeMarkers();
+        shownMarkers = next;
+    }
+
+    private Marker addClusterMarker(GeoClusterIndex.Cluster cluster) {
+        return addCountMarker(cluster.getLatitude(), cluster.getLongitude(), cluster.getCount());
+    }
+
+    private Marker addCountMarker(double latitude, double longitude, int count) {
+        LatLng position = new LatLng(latitude, longitude);
+        if (count == 1) {
+            return googleMap.addMarker(new MarkerOptions().position(position).title("Entrant"));
+        }
+        Marker marker = googleMap.addMarker(new MarkerOptions()
+                .position(position)
+                .title(count + " entrants")
+                .anchor(0.5f, 0.5f)
+                .icon(clusterIcon(count)));
+        if (marker != null) {
+            marker.setTag(count);
+        }
+        return marker;
+    }
+
+    /**
+     * Zooms in on a tapped cluster; single entrants show their title as usual.
+     */
+    private boolean onMarkerClick(Marker marker) {
+        if (!(marker.getTag() instanceof Integer)) return false;
+        googleMap.animateCamera(CameraUpdateFactory.newLatLngZoom(marker.getPosition(),
+                googleMap.getCameraPosition().zoom + CLUSTER_ZOOM_STEP));
+        return true;
+    }
+
+    /**
+     * Returns a round icon showing the cluster size. Large counts are bucketed so only a
+     * handful of icons are ever drawn.
+     */
+    private BitmapDescriptor clusterIcon(int count) {
+        String label = count < 10 ? String.valueOf(count)
+                : count < 50 ? (count / 10 * 10) + "+"
+                : count < 100 ? "50+"
+                : count < 1000 ? (count / 100 * 100) + "+"
+                : (count / 1000) + "k+";
+        BitmapDescriptor icon = clusterIcons.get(label);
+        if (icon == null) {
+            float density = getResources().getDisplayMetrics().density;
+            int size = Math.round((label.length() > 2 ? 48 : 40) * density);
+            Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(bitmap);
+            Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            paint.setColor(ContextCompat.getColor(requireContext(), R.color.dodo_maroon));
+            canvas.drawCircle(size / 2f, size / 2f, size / 2f, paint);
+            paint.setColor(ContextCompat.getColor(requireContext(), R.color.white));
+            paint.setTextSize(14 * density);
+            paint.setTextAlign(Paint.Align.CENTER);
+            canvas.drawText(label, size / 2f, size / 2f - (paint.descent() + paint.ascent()) / 2, paint);
+            icon = BitmapDescriptorFactory.fromBitmap(bitmap);
+            clusterIcons.put(label, icon);
+        }
+        return icon;
+    }
+
+    private void removeMarkers() {
+        for (Marker marker : shownMarkers.values()) {
+            marker.remove();
+        }
+        shownMarkers.clear();
+    }
+
+    private void removeCountMarkers() {
+        for (Marker marker : countMarkers) {
+            marker.remove();
+        }
+        countMarkers.clear();
+    }
+
+    private void removeHeatmap() {
+        if (heatmap != null) {
+            heatmap.remove();
+            heatmap = null;
+            heatmapIndex = null;
+        }
     }
 
     /**
@@ -183,6 +581,13 @@ public class OEntrantMapFrag extends Fragment implements OnMapReadyCallback {
      */
     @Override
     public void onDestroyView() {
+        main.removeCallbacksAndMessages(null);
+        shownMarkers.clear();
+        countMarkers.clear();
+        clusterIcons.clear();
+        heatmap = null;
+        heatmapIndex = null;
+        googleMap = null;
         if (mapView != null) mapView.onDestroy();
         super.onDestroyView();
     }
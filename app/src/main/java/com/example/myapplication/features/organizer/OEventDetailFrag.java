@@ -3,9 +3,6 @@ package com.example.myapplication.features.organizer;
 import android.content.ContentResolver;
 import android.content.ContentValues;
 import android.graphics.Bitmap;
-import android.graphics.Canvas;
-import android.graphics.drawable.BitmapDrawable;
-import android.graphics.drawable.Drawable;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
@@ -27,9 +24,12 @@ import androidx.navigation.Navigation;
 
 import com.bumptech.glide.Glide;
 import com.example.myapplication.R;
+import com.example.myapplication.core.CloudinaryUrls;
+import com.example.myapplication.core.QrRenderer;
+import com.example.myapplication.core.ServiceLocator;
 import com.example.myapplication.data.firebase.FirebaseEventRepository;
 import com.example.myapplication.features.user.UserEvent;
-import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.zxing.WriterException;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -57,7 +57,6 @@ public class OEventDetailFrag extends Fragment {
     private ImageView qrCodeImage;
     private String eventId;
     private final FirebaseEventRepository eventRepository = new FirebaseEventRepository();
-    private final FirebaseFirestore firestore = FirebaseFirestore.getInstance();
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM d, yyyy", Locale.getDefault());
 
     /**
@@ -115,20 +114,7 @@ public class OEventDetailFrag extends Fragment {
         });
 
         qrCodeImage = view.findViewById(R.id.qrCodeImage);
-        qrCodeImage.setOnClickListener(v -> {
-            Bitmap bmp = getBitmapFromImageView(qrCodeImage);
-            if (bmp == null) {
-                Toast.makeText(requireContext(), "No QR to save", Toast.LENGTH_SHORT).show();
-                return;
-            }
-
-            Uri uri = saveBitmapToGallery(bmp, "event_" + eventId + "_qr");
-            if (uri != null) {
-                Toast.makeText(requireContext(), "QR saved to Photos", Toast.LENGTH_SHORT).show();
-            } else {
-                Toast.makeText(requireContext(), "Failed to save QR", Toast.LENGTH_SHORT).show();
-            }
-        });
+        qrCodeImage.setOnClickListener(v -> saveQrToGallery());
 
         Button editEventButton = view.findViewById(R.id.editEvent);
         editEventButton.setOnClickListener(button -> {
@@ -171,14 +157,7 @@ public class OEventDetailFrag extends Fragment {
 
         // QR Image View
         if (qrCodeImage != null) {
-            String qrUrl = event.getQrData();
-            if (!TextUtils.isEmpty(qrUrl)) {
-                Glide.with(this)
-                        .load(qrUrl)
-                        .into(qrCodeImage);
-            } else {
-                qrCodeImage.setImageDrawable(null);
-            }
+            showQrCode(event.getId());
         }
     }
 
@@ -245,13 +224,12 @@ public class OEventDetailFrag extends Fragment {
     }
 
     /**
-     * Updates waitling list count.
+     * Updates waitling list count from the count maintained on the event document.
      *
-     * @param event the event contianing the waitinglist.
+     * @param event the event contianing the waitinglist count.
      */
     private void updateWaitingListCount(UserEvent event) {
-        int count = event.getWaitlist() != null ? event.getWaitlist().size() : 0;
-        waitingList.setText(getString(R.string.waitinglist_text) + " " + count);
+        waitingList.setText(getString(R.string.waitinglist_text) + " " + event.getWaitlistCount());
     }
 
     /**
@@ -268,24 +246,21 @@ public class OEventDetailFrag extends Fragment {
             return;
         }
 
-        firestore.collection("users")
-                .document(organizerId)
-                .get()
-                .addOnSuccessListener(doc -> {
-                    if (!isAdded()) {
-                        return;
-                    }
-                    String firstName = doc.getString("firstName");
-                    if (TextUtils.isEmpty(firstName)) {
-                        firstName = extractFirstName(doc.getString("name"));
-                    }
-                    if (TextUtils.isEmpty(firstName)) {
-                        firstName = extractFirstName(doc.getString("username"));
-                    }
-                    if (!TextUtils.isEmpty(firstName)) {
-                        setOrganizerLabel(firstName);
-                    }
-                });
+        ServiceLocator.getUserDirectory().resolve(organizerId, profile -> {
+            if (!isAdded() || profile == null) {
+                return;
+            }
+            String firstName = profile.getFirstName();
+            if (TextUtils.isEmpty(firstName)) {
+                firstName = extractFirstName(profile.getName());
+            }
+            if (TextUtils.isEmpty(firstName)) {
+                firstName = extractFirstName(profile.getUsername());
+            }
+            if (!TextUtils.isEmpty(firstName)) {
+                setOrganizerLabel(firstName);
+            }
+        });
         
         // Use Controller for Rating
         com.example.myapplication.features.user.RatingController ratingController = new com.example.myapplication.features.user.RatingController();
@@ -333,8 +308,10 @@ public class OEventDetailFrag extends Fragment {
                 : event.getPosterUrl();
 
         if (!TextUtils.isEmpty(imageUrl)) {
+            int widthPx = CloudinaryUrls.widthPx(eventImage,
+                    getResources().getConfiguration().screenWidthDp);
             Glide.with(this)
-                    .load(imageUrl)
+                    .load(CloudinaryUrls.sized(imageUrl, widthPx))
                     .into(eventImage);
         } else {
             eventImage.setImageDrawable(null);
@@ -373,34 +350,57 @@ public class OEventDetailFrag extends Fragment {
     }
 
     /**
-     * Helper method to extracts a Bitmap from the drawable currently displayed in the specified ImageView.
-     * <p>
-     * If the drawable is already a BitmapDrawable, its bitmap is returned directly.
-     * If the drawable is a vector or another drawable type, it is drawn onto a new
-     * Bitmap using a Canvas.
+     * Renders the event's QR code at the size of its view, off the main thread unless it is
+     * already cached.
      *
-     * @param imageView The ImageView containing the QR code drawable.
-     * @return A Bitmap representation of the ImageView's drawable, or null if no drawable exists.
+     * @param id The event id encoded in the QR code.
      */
-    private Bitmap getBitmapFromImageView(ImageView imageView) {
-        Drawable drawable = imageView.getDrawable();
-        if (drawable == null) {
-            return null;
+    private void showQrCode(@Nullable String id) {
+        if (TextUtils.isEmpty(id)) {
+            qrCodeImage.setImageDrawable(null);
+            return;
         }
+        int sizePx = qrCodeImage.getLayoutParams().width;
+        QrRenderer.get().render(id, sizePx, new QrRenderer.Callback() {
+            @Override
+            public void onRendered(@NonNull Bitmap bitmap) {
+                if (isAdded() && id.equals(eventId)) {
+                    qrCodeImage.setImageBitmap(bitmap);
+                }
+            }
 
-        if (drawable instanceof BitmapDrawable) {
-            return ((BitmapDrawable) drawable).getBitmap();
-        } else {
-            Bitmap bmp = Bitmap.createBitmap(
-                    imageView.getWidth(),
-                    imageView.getHeight(),
-                    Bitmap.Config.ARGB_8888
-            );
-            Canvas canvas = new Canvas(bmp);
-            drawable.setBounds(0, 0, canvas.getWidth(), canvas.getHeight());
-            drawable.draw(canvas);
-            return bmp;
-        }
+            @Override
+            public void onError(@NonNull Exception e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Encodes the QR code at print resolution and saves it to the gallery, both off the main
+     * thread, then reports the result.
+     */
+    private void saveQrToGallery() {
+        String id = eventId;
+        ContentResolver resolver = requireContext().getContentResolver();
+        QrRenderer.get().runInBackground(() -> {
+            Uri uri = null;
+            try {
+                Bitmap bmp = QrRenderer.encode(id, QrRenderer.PRINT_SIZE_PX);
+                uri = saveBitmapToGallery(resolver, bmp, "event_" + id + "_qr");
+                bmp.recycle();
+            } catch (WriterException e) {
+                e.printStackTrace();
+            }
+            boolean saved = uri != null;
+            qrCodeImage.post(() -> {
+                if (!isAdded()) {
+                    return;
+                }
+                Toast.makeText(requireContext(), saved ? "QR saved to Photos" : "Failed to save QR",
+                        Toast.LENGTH_SHORT).show();
+            });
+        });
     }
 
     /**
@@ -413,12 +413,12 @@ public class OEventDetailFrag extends Fragment {
      * <p>
      * The image is saved as a PNG with the provided file name.
      *
+     * @param resolver The ContentResolver to insert the image with.
      * @param bitmap   The Bitmap to save.
      * @param fileName Desired file name (without extension).
      * @return A Uri referencing the saved image, or null if saving failed.
      */
-    private Uri saveBitmapToGallery(Bitmap bitmap, String fileName) {
-        ContentResolver resolver = requireContext().getContentResolver();
+    private static Uri saveBitmapToGallery(ContentResolver resolver, Bitmap bitmap, String fileName) {
 
         Uri imagesUri;
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
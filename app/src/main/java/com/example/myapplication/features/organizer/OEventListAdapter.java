@@ -6,12 +6,17 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.myapplication.R;
+import com.example.myapplication.core.StableIds;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Adapter class for displaying a list of participant names (either from the waiting
@@ -19,6 +24,10 @@ import java.util.List;
  *
  * <p>This adapter binds a list of names to simple text-based list items
  * defined in {@code item_waitlist_name.xml}. Each entry represents a user.</p>
+ *
+ * <p>Rows are keyed by user id with stable ids, and new lists are diffed against the
+ * shown one on a background thread, so reloading a list only rebinds the rows that
+ * were added, removed or renamed.</p>
  */
 public class OEventListAdapter extends RecyclerView.Adapter<OEventListAdapter.NameVH> {
 
@@ -46,19 +55,66 @@ public class OEventListAdapter extends RecyclerView.Adapter<OEventListAdapter.Na
     }
 
 
-    /** The current list of participant names to display. */
-    private final List<String> names = new ArrayList<>();
+    /**
+     * A participant shown in the list.
+     */
+    static final class Entry {
+        final String uid;
+        final String name;
+
+        Entry(String uid, String name) {
+            this.uid = uid;
+            this.name = name;
+        }
+    }
+
+    private static final DiffUtil.ItemCallback<Entry> DIFF = new DiffUtil.ItemCallback<Entry>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Entry oldItem, @NonNull Entry newItem) {
+            return oldItem.uid.equals(newItem.uid);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Entry oldItem, @NonNull Entry newItem) {
+            return oldItem.name.equals(newItem.name);
+        }
+    };
+
+    /** The participants currently displayed. */
+    private final AsyncListDiffer<Entry> differ = new AsyncListDiffer<>(this, DIFF);
+    private final StableIds ids = new StableIds();
+
+    public OEventListAdapter() {
+        setHasStableIds(true);
+        differ.addListListener((previous, current) -> {
+            Set<String> keys = new HashSet<>();
+            for (Entry entry : current) keys.add(entry.uid);
+            ids.retain(keys);
+        });
+    }
 
     /**
-     * Replaces the current list of names and refreshes the adapter.
+     * Replaces the current list of participants; only the rows that differ from the
+     * displayed list are rebound.
      *
-     * @param names the new list of participant names
+     * @param uids  the participants' user ids, without duplicates
+     * @param names the display names, in the same order as {@code uids}
      */
-    public void setNames(List<String> names) {
-        List<String> old = new ArrayList<>(this.names);
-        this.names.clear();
-        this.names.addAll(names);
-        notifyDataSetChanged();
+    public void setNames(List<String> uids, List<String> names) {
+        List<Entry> entries = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            entries.add(new Entry(uids.get(i), names.get(i)));
+        }
+        differ.submitList(entries);
+    }
+
+    /**
+     * @param position the adapter position
+     * @return the stable id of the participant at the position
+     */
+    @Override
+    public long getItemId(int position) {
+        return ids.idFor(differ.getCurrentList().get(position).uid);
     }
 
     /**
@@ -85,7 +141,7 @@ public class OEventListAdapter extends RecyclerView.Adapter<OEventListAdapter.Na
      */
     @Override
     public void onBindViewHolder(@NonNull NameVH holder, int position) {
-        holder.nameText.setText(names.get(position));
+        holder.nameText.setText(differ.getCurrentList().get(position).name);
 
         holder.itemView.setOnLongClickListener(v ->{
             if(longClickListener != null){
@@ -103,7 +159,7 @@ public class OEventListAdapter extends RecyclerView.Adapter<OEventListAdapter.Na
      */
     @Override
     public int getItemCount() {
-        return names.size();
+        return differ.getCurrentList().size();
     }
 
     /**
@@ -131,11 +187,12 @@ public class OEventListAdapter extends RecyclerView.Adapter<OEventListAdapter.Na
      * @param position this is the index of the item to remove.
      */
     public void removeAt(int position){
-        if (position < 0 || position >= names.size()) {
+        List<Entry> entries = new ArrayList<>(differ.getCurrentList());
+        if (position < 0 || position >= entries.size()) {
             return;
         }
 
-        names.remove(position);
-        notifyItemRemoved(position);
+        entries.remove(position);
+        differ.submitList(entries);
     }
 }
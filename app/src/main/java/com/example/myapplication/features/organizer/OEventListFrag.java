@@ -11,6 +11,7 @@ import android.view.ViewGroup;
 import android.view.Window;
 import android.widget.Button;
 import android.widget.ImageButton;
+import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -26,10 +27,12 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.myapplication.R;
 import com.example.myapplication.core.ExportHelper;
+import com.example.myapplication.core.ServiceLocator;
 import com.example.myapplication.data.firebase.FirebaseEventRepository;
+import com.example.myapplication.data.firebase.NotificationListStore;
+import com.example.myapplication.data.firebase.UserDirectory;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.button.MaterialButtonToggleGroup;
-import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.util.ArrayList;
@@ -39,7 +42,6 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Fragment that allows an event organizer to view and manage participants
@@ -52,20 +54,19 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class OEventListFrag extends Fragment {
 
     /** Firestore field name representing the waiting list. */
-    private static final String FIELD_WAITING = "waiting";
 
     /** Firestore field name representing the finalized list. */
-    private static final String FIELD_FINAL = "final";
+    private static final String FIELD_FINAL = NotificationListStore.FIELD_FINAL;
 
     /**
      * Firestore field name representing the invited list
      */
-    private static final String FIELD_INVITED = "invited";
+    private static final String FIELD_INVITED = NotificationListStore.FIELD_INVITED;
 
     /**
      * Firestore field name representing the canceled list
      */
-    private static final String FIELD_CANCELLED = "canceled";
+    private static final String FIELD_CANCELLED = NotificationListStore.FIELD_CANCELLED;
 
     /**
      * Represents the current list being displayed:
@@ -97,6 +98,9 @@ public class OEventListFrag extends Fragment {
     /** Button used to trigger a draw from the waiting list. */
     private MaterialButton drawBtn;
 
+    /** Shows how many entrants have been notified while a draw is being sent out. */
+    private ProgressBar sendProgress;
+
 
     /** Adapter backing the RecyclerView of participant names. */
     private OEventListAdapter adapter;
@@ -167,6 +171,7 @@ public class OEventListFrag extends Fragment {
         waitlistRecycler = view.findViewById(R.id.waitlistRecycler);
         emptyState = view.findViewById(R.id.emptyState);
         drawBtn = view.findViewById(R.id.btnDraw);
+        sendProgress = view.findViewById(R.id.sendProgress);
         MaterialButtonToggleGroup statusToggleGroup = view.findViewById(R.id.statusToggleGroup);
         MaterialButton exportButton = view.findViewById(R.id.btnExport);
 
@@ -263,14 +268,12 @@ public class OEventListFrag extends Fragment {
     private void loadListForCurrentMode() {
         final int myEpoch = ++dataEpoch;
 
-        db.collection("notificationList")
-                .whereEqualTo("eventId", eventId)
-                .limit(1)
-                .get()
-                .addOnSuccessListener(query -> {
+        new NotificationListStore(db)
+                .get(eventId)
+                .addOnSuccessListener(doc -> {
                     if (myEpoch != dataEpoch) return;
 
-                    if (query.isEmpty()) {
+                    if (!doc.exists()) {
                         currentUids.clear();
                         nameByUid.clear();
                         applyNames(myEpoch, new ArrayList<>());
@@ -278,35 +281,29 @@ public class OEventListFrag extends Fragment {
                         return;
                     }
 
-                    DocumentSnapshot doc = query.getDocuments().get(0);
                     notificationDocId = doc.getId();
 
-                    String field = FIELD_WAITING;
-                    if(currentMode == ListMode.WAITING){
-                        field = FIELD_WAITING;
-                    } else if (currentMode == ListMode.INVITED){
-                        field = FIELD_INVITED;
-                    } else if (currentMode == ListMode.CANCELED){
+                    if (currentMode == ListMode.WAITING) {
+                        // The waitlist is not kept in the list document, see getWaitingEntrants
+                        eventRepo.getWaitingEntrants(eventId,
+                                ids -> {
+                                    if (myEpoch == dataEpoch) showUids(myEpoch, ids);
+                                },
+                                e -> {
+                                    if (!isAdded()) return;
+                                    Toast.makeText(requireContext(), "Failed to load list.", Toast.LENGTH_SHORT).show();
+                                });
+                        return;
+                    }
+
+                    String field = FIELD_INVITED;
+                    if (currentMode == ListMode.CANCELED){
                         field = FIELD_CANCELLED;
                     } else if (currentMode == ListMode.FINAL){
                         field = FIELD_FINAL;
                     }
 
-                    List<String> ids = (List<String>) doc.get(field);
-
-                    if (ids == null || ids.isEmpty()) {
-                        currentUids.clear();
-                        nameByUid.clear();
-                        applyNames(myEpoch, new ArrayList<>());
-                        return;
-                    }
-
-                    // Keep order and remove duplicates
-                    Set<String> uniqueOrdered = new LinkedHashSet<>(ids);
-                    currentUids.clear();
-                    currentUids.addAll(uniqueOrdered);
-
-                    fetchUserNames(myEpoch, new ArrayList<>(currentUids));
+                    showUids(myEpoch, (List<String>) doc.get(field));
                 })
                 .addOnFailureListener(e -> {
                     if (!isAdded()) return;
@@ -315,7 +312,30 @@ public class OEventListFrag extends Fragment {
     }
 
     /**
-     * Fetches the display names of users based on their UIDs from Firestore.
+     * Shows the given user ids, in order and without duplicates, and fetches their names.
+     *
+     * @param epoch   Epoch identifier to prevent outdated updates.
+     * @param ids     User IDs of the current list, may be null.
+     */
+    private void showUids(int epoch, List<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            currentUids.clear();
+            nameByUid.clear();
+            applyNames(epoch, new ArrayList<>());
+            return;
+        }
+
+        // Keep order and remove duplicates
+        Set<String> uniqueOrdered = new LinkedHashSet<>(ids);
+        currentUids.clear();
+        currentUids.addAll(uniqueOrdered);
+
+        fetchUserNames(epoch, new ArrayList<>(currentUids));
+    }
+
+    /**
+     * Fetches the display names of users based on their UIDs through the shared
+     * {@link UserDirectory}, which reads uncached users in batches.
      *
      * @param epoch   Epoch identifier to prevent outdated updates.
      * @param userIds List of user IDs to fetch names for.
@@ -328,27 +348,15 @@ public class OEventListFrag extends Fragment {
             return;
         }
 
-        AtomicInteger done = new AtomicInteger(0);
-        int total = userIds.size();
-
-        for (String uid : userIds) {
-            db.collection("users").document(uid).get()
-                    .addOnSuccessListener(userDoc -> {
-                        if (epoch != dataEpoch) return;
-                        String name = resolveName(userDoc, uid);
-                        nameByUid.put(uid, name);
-                        if (done.incrementAndGet() == total && epoch == dataEpoch) {
-                            applyCurrentMapping(epoch);
-                        }
-                    })
-                    .addOnFailureListener(e -> {
-                        if (epoch != dataEpoch) return;
-                        nameByUid.put(uid, uid);
-                        if (done.incrementAndGet() == total && epoch == dataEpoch) {
-                            applyCurrentMapping(epoch);
-                        }
-                    });
-        }
+        ServiceLocator.getUserDirectory().resolve(userIds, profiles -> {
+            if (epoch != dataEpoch) return;
+            for (String uid : userIds) {
+                UserDirectory.Profile profile = profiles.get(uid);
+                String name = profile != null ? profile.getFullName() : "";
+                nameByUid.put(uid, name.isEmpty() ? uid : name);
+            }
+            applyCurrentMapping(epoch);
+        });
     }
 
     /**
@@ -364,23 +372,6 @@ public class OEventListFrag extends Fragment {
         applyNames(epoch, names);
     }
 
-    /**
-     * Resolves a readable display name for a user.
-     *
-     * @param userDoc     Firestore document of the user.
-     * @param fallbackUid UID to use if the name cannot be determined.
-     * @return The user's full name or UID as a fallback.
-     */
-    private String resolveName(DocumentSnapshot userDoc, String fallbackUid) {
-        if (userDoc != null && userDoc.exists()) {
-            String first = userDoc.getString("firstName");
-            String last = userDoc.getString("lastName");
-            String full = (first != null ? first : "") + (last != null ? " " + last : "");
-            if (!full.trim().isEmpty()) return full.trim();
-        }
-        return fallbackUid;
-    }
-
     /**
      * Applies a list of user names to the adapter and updates
      * UI elements such as empty states and draw button visibility.
@@ -394,7 +385,7 @@ public class OEventListFrag extends Fragment {
         displayedNames.clear();
         displayedNames.addAll(names);
 
-        adapter.setNames(names);
+        adapter.setNames(currentUids, names);
         waitlistRecycler.setVisibility(View.VISIBLE);
 
         boolean empty = names.isEmpty();
@@ -487,19 +478,31 @@ public class OEventListFrag extends Fragment {
 
     /**
      * Executes the lottery draw by delegating to {@link FirebaseEventRepository#runLottery}
-     * and displays the result to the organizer. The list is also requeried so that the view
+     * and displays the result to the organizer. While the results are being sent out, a progress
+     * bar shows how many entrants have been notified. The list is also requeried so that the view
      * stays updated.
      */
     private void runLotteryNow() {
         int toSelect = (int) Math.max(1, entrantsToDraw);
 
+        drawBtn.setEnabled(false);
+        sendProgress.setProgress(0);
+        sendProgress.setVisibility(View.VISIBLE);
+
         eventRepo.runLottery(
                 eventId,
                 eventName,
                 new ArrayList<>(currentUids),
                 toSelect,
+                (sent, total) -> {
+                    if (!isAdded()) return;
+                    sendProgress.setMax(total);
+                    sendProgress.setProgress(sent);
+                },
                 selectedCount -> {
                     if (!isAdded()) return;
+                    drawBtn.setEnabled(true);
+                    sendProgress.setVisibility(View.GONE);
 
                     Toast.makeText(
                             requireContext(),
@@ -510,6 +513,8 @@ public class OEventListFrag extends Fragment {
                 },
                 e -> {
                     if (!isAdded()) return;
+                    drawBtn.setEnabled(true);
+                    sendProgress.setVisibility(View.GONE);
 
                     Toast.makeText(
                             requireContext(),
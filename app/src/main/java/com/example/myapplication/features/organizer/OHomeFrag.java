@@ -20,6 +20,7 @@ import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.myapplication.R;
+import com.example.myapplication.core.PagingScrollListener;
 import com.example.myapplication.data.firebase.FirebaseEventRepository;
 import com.example.myapplication.features.organizer.home.OHomeController;
 import com.example.myapplication.features.organizer.home.OHomeModel;
@@ -36,6 +37,8 @@ import java.util.List;
  */
 public class OHomeFrag extends Fragment implements OHomeView {
 
+    private static final int LOAD_MORE_THRESHOLD = 6;
+
     private UserEventAdapter adapter;
     private EditText searchInput;
     private OHomeController controller;
@@ -89,6 +92,7 @@ public class OHomeFrag extends Fragment implements OHomeView {
         });
 
         controller.loadOrganizerEvents();
+        eventsList.addOnScrollListener(new PagingScrollListener(LOAD_MORE_THRESHOLD, controller::loadMoreOrganizerEvents));
 
         if (searchInput != null) {
             searchInput.addTextChangedListener(new TextWatcher() {
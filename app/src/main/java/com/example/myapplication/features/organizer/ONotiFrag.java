@@ -10,6 +10,7 @@ import android.view.ViewGroup;
 import android.view.Window;
 import android.widget.EditText;
 import android.widget.ImageButton;
+import android.widget.ProgressBar;
 import android.widget.RadioGroup;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -23,9 +24,16 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.myapplication.R;
+import com.example.myapplication.core.ServiceLocator;
 import com.example.myapplication.data.firebase.FirebaseEventRepository;
+import com.example.myapplication.data.firebase.NotificationDispatcher;
+import com.example.myapplication.data.firebase.NotificationListStore;
+import com.example.myapplication.data.repo.EventPage;
+import com.example.myapplication.data.repo.EventQuery;
+import com.example.myapplication.data.repo.EventRepository;
 import com.example.myapplication.features.user.UserEvent;
 import com.example.myapplication.features.user.UserEventAdapter;
+import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.firebase.Timestamp;
@@ -42,13 +50,18 @@ import java.util.List;
  */
 public class ONotiFrag extends Fragment {
 
+    private static final int PICKER_PAGE_SIZE = 50;
+
     private MaterialButton btnEvent, btnResendInvites, btnCustomNoti;
+    private ProgressBar sendProgress;
 
     private String selectedEventId = null;
     private String selectedEventName = "Please select an event!";
 
     private final FirebaseEventRepository repo = new FirebaseEventRepository();
     private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final NotificationDispatcher dispatcher = new NotificationDispatcher(db);
+    private final NotificationListStore notificationLists = new NotificationListStore(db);
 
     private String organizerName = "Organizer";
 
@@ -66,6 +79,7 @@ public class ONotiFrag extends Fragment {
         btnResendInvites = view.findViewById(R.id.resendInvites);
         btnCustomNoti = view.findViewById(R.id.customNoti);
         MaterialButton btnRunLottery = view.findViewById(R.id.btnRunLottery);
+        sendProgress = view.findViewById(R.id.sendProgress);
         btnEvent.setText(selectedEventName);
 
         btnEvent.setOnClickListener(v -> openEventPicker());
@@ -97,19 +111,25 @@ public class ONotiFrag extends Fragment {
 
     /**
      * Opens a custom picker with a list of the Users events which they can select.
+     * Only the organizer's own most recent events are read from Firestore.
      */
     private void openEventPicker() {
+        String uid = FirebaseAuth.getInstance().getUid();
+        if (uid == null) {
+            return;
+        }
+        EventQuery query = EventQuery.create()
+                .organizer(uid)
+                .excludeDisabled(false)
+                .pageSize(PICKER_PAGE_SIZE);
 
-        repo.getAllEvents(new FirebaseEventRepository.EventListCallback() {
+        repo.queryEvents(query, null, new EventRepository.EventPageCallback() {
             @Override
-            public void onEventsFetched(List<UserEvent> allEvents) {
-                String uid = FirebaseAuth.getInstance().getUid();
-                List<UserEvent> myEvents = new ArrayList<>();
-                for (UserEvent event : allEvents) {
-                    if (event != null && uid.equals(event.getOrganizerID())) {
-                        myEvents.add(event);
-                    }
+            public void onPageFetched(EventPage page) {
+                if (!isAdded()) {
+                    return;
                 }
+                List<UserEvent> myEvents = page.getEvents();
 
                 if (myEvents.isEmpty()) {
                     Toast.makeText(requireContext(), "No events found.", Toast.LENGTH_SHORT).show();
@@ -229,7 +249,8 @@ public class ONotiFrag extends Fragment {
     /**
      * This method sends the custom message that the user created.
      *
-     * A new document in the "notifications" collection is created
+     * One document per recipient is created in the "notifications" collection by the
+     * {@link NotificationDispatcher}, with progress shown while they are written.
      *
      * @param eventId event ID the notification is for
      * @param message the content of the message
@@ -237,50 +258,83 @@ public class ONotiFrag extends Fragment {
      */
     private void sendCustomPush(String eventId, String message, Audience audience) {
         final String eventName = selectedEventName;
+        OnFailureListener onError = e -> toast("Error: " + e.getMessage());
+
+        switch (audience) {
+            case ALL:
+                repo.getAllParticipants(eventId,
+                        recipients -> dispatchCustom(eventId, eventName, message, recipients), onError);
+                break;
+            case WAITING:
+                // The waitlist lives in the entrants subcollection, not in the list document
+                repo.getWaitingEntrants(eventId,
+                        recipients -> dispatchCustom(eventId, eventName, message, recipients), onError);
+                break;
+            default:
+                notificationLists.get(eventId)
+                        .addOnSuccessListener(doc -> {
+                            if (!doc.exists()) { toast("Recipient list not found."); return; }
+
+                            String field = audience == Audience.INVITED
+                                    ? NotificationListStore.FIELD_INVITED
+                                    : NotificationListStore.FIELD_CANCELLED;
+                            dispatchCustom(eventId, eventName, message, castStringList(doc.get(field)));
+                        })
+                        .addOnFailureListener(onError);
+        }
+    }
 
-        db.collection("notificationList")
-                .whereEqualTo("eventId", eventId)
-                .limit(1)
-                .get()
-                .addOnSuccessListener(qs -> {
-                    if (qs.isEmpty()) { toast("Recipient list not found."); return; }
-                    var doc = qs.getDocuments().get(0);
-
-                    List<String> recipients;
-                    switch (audience) {
-                        case ALL:
-                            recipients = castStringList(doc.get("all"));
-                            break;
-                        case INVITED:
-                            recipients = castStringList(doc.get("invited"));
-                            break;
-                        case WAITING:
-                            recipients = castStringList(doc.get("waiting"));
-                            break;
-                        case CANCELLED:
-                            recipients = castStringList(doc.get("cancelled"));
-                            break;
-                        default:
-                            recipients = new ArrayList<>();
-                    }
-
-                    if (recipients == null || recipients.isEmpty()) { toast("No recipients found."); return; }
-
-                    var payload = new java.util.HashMap<String, Object>();
-                    payload.put("dateMade", Timestamp.now());
-                    payload.put("event", eventName);
-                    payload.put("eventId", eventId);
-                    payload.put("type", "custom");
-                    payload.put("from", organizerName);
-                    payload.put("message", message);
-                    payload.put("uID", recipients);
+    /**
+     * Creates the custom message for every recipient through the {@link NotificationDispatcher}.
+     *
+     * @param eventId event ID the notification is for
+     * @param eventName name of the event
+     * @param message the content of the message
+     * @param recipients the user ids to notify, may be null
+     */
+    private void dispatchCustom(String eventId, String eventName, String message, List<String> recipients) {
+        if (recipients == null || recipients.isEmpty()) { toast("No recipients found."); return; }
+
+        var payload = new java.util.HashMap<String, Object>();
+        payload.put("dateMade", Timestamp.now());
+        payload.put("event", eventName);
+        payload.put("eventId", eventId);
+        payload.put("type", "custom");
+        payload.put("from", organizerName);
+        payload.put("message", message);
+
+        showProgress(0, recipients.size());
+        dispatcher.dispatch(payload, recipients, this::showProgress,
+                sent -> {
+                    hideProgress();
+                    toast("Notification sent!");
+                },
+                e -> {
+                    hideProgress();
+                    toast("Failed to send notification: " + e.getMessage());
+                });
+    }
 
+    /**
+     * Shows how many recipients have been notified so far.
+     *
+     * @param sent number of recipients notified
+     * @param total number of recipients in total
+     */
+    private void showProgress(int sent, int total) {
+        if (!isAdded() || sendProgress == null) return;
+        sendProgress.setMax(Math.max(total, 1));
+        sendProgress.setProgress(sent);
+        sendProgress.setVisibility(View.VISIBLE);
+    }
 
-                    db.collection("notifications").add(payload)
-                            .addOnSuccessListener(ref -> toast("Notification sent!"))
-                            .addOnFailureListener(e -> toast("Failed to send notification: " + e.getMessage()));
-                })
-                .addOnFailureListener(e -> toast("Error: " + e.getMessage()));
+    /**
+     * Hides the send progress bar.
+     */
+    private void hideProgress() {
+        if (sendProgress != null) {
+            sendProgress.setVisibility(View.GONE);
+        }
     }
 
     /**
@@ -307,39 +361,22 @@ public class ONotiFrag extends Fragment {
     }
 
     /**
-     * This method preloads teh organizer's name from the "users" collection on Firestore.
+     * This method preloads teh organizer's name through the shared {@link ServiceLocator#getUserDirectory()} cache.
      */
     private void preloadOrganizerName() {
         var user = FirebaseAuth.getInstance().getCurrentUser();
         if (user == null) return;
 
-        FirebaseFirestore.getInstance()
-                .collection("users").document(user.getUid()).get()
-                .addOnSuccessListener(doc -> {
-                    if (doc.exists()) {
-                        String first = doc.getString("firstName");
-                        String last  = doc.getString("lastName");
-                        String full  = ((first != null ? first.trim() : "") + " " +
-                                (last  != null ? last.trim()  : "")).trim();
-
-                        // Optional other schemas:
-                        if (full.isEmpty()) {
-                            String name = doc.getString("name");        // if you store a single-name field
-                            if (name != null && !name.trim().isEmpty()) full = name.trim();
-                        }
-
-                        if (!full.isEmpty()) organizerName = full;
-                    }
-                    // last resort: FirebaseAuth displayName
-                    else if (user.getDisplayName() != null && !user.getDisplayName().isEmpty()) {
-                        organizerName = user.getDisplayName();
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    if (user.getDisplayName() != null && !user.getDisplayName().isEmpty()) {
-                        organizerName = user.getDisplayName();
-                    }
-                });
+        ServiceLocator.getUserDirectory().resolve(user.getUid(), profile -> {
+            String full = profile != null ? profile.getFullName() : "";
+            if (!full.isEmpty()) {
+                organizerName = full;
+            }
+            // last resort: FirebaseAuth displayName
+            else if (user.getDisplayName() != null && !user.getDisplayName().isEmpty()) {
+                organizerName = user.getDisplayName();
+            }
+        });
     }
 
     /**
@@ -353,13 +390,13 @@ public class ONotiFrag extends Fragment {
         repo.fetchEventById(eventId, new FirebaseEventRepository.SingleEventCallback() {
             @Override
             public void onEventFetched(UserEvent event) {
-                if (event.getWaitlist() == null || event.getWaitlist().isEmpty()) {
+                if (event.getWaitlistCount() <= 0) {
                     toast("No users in waitlist");
                     return;
                 }
 
                 int numToDraw = event.getEntrantsToDraw();
-                if (numToDraw <= 0) numToDraw = event.getWaitlist().size();
+                if (numToDraw <= 0) numToDraw = event.getWaitlistCount();
 
                 int finalNumToDraw = numToDraw;
 
@@ -383,7 +420,7 @@ public class ONotiFrag extends Fragment {
 
                 if (messageView != null) {
                     String msg = "Draw " + finalNumToDraw + " winners from "
-                            + event.getWaitlist().size() + " entrants?";
+                            + event.getWaitlistCount() + " entrants?";
                     messageView.setText(msg);
                 }
 
@@ -393,13 +430,26 @@ public class ONotiFrag extends Fragment {
 
                 if (btnRun != null) {
                     btnRun.setOnClickListener(v -> {
-                        repo.runLottery(eventId,
-                                event.getName(),
-                                event.getWaitlist(),
-                                finalNumToDraw,
-                                numWinners -> toast(numWinners + " winners selected and notified!"),
-                                e -> toast("Error: " + e.getMessage()));
                         dialog.dismiss();
+                        // The entrants are only read once the organizer confirms the draw.
+                        repo.getWaitlistEntrants(eventId,
+                                entrants -> {
+                                    showProgress(0, entrants.size());
+                                    repo.runLottery(eventId,
+                                            event.getName(),
+                                            entrants,
+                                            finalNumToDraw,
+                                            this::showProgress,
+                                            numWinners -> {
+                                                hideProgress();
+                                                toast(numWinners + " winners selected and notified!");
+                                            },
+                                            e -> {
+                                                hideProgress();
+                                                toast("Error: " + e.getMessage());
+                                            });
+                                },
+                                e -> toast("Error: " + e.getMessage()));
                     });
                 }
 
@@ -413,4 +463,3 @@ public class ONotiFrag extends Fragment {
         });
     }
 }
-
@@ -3,17 +3,27 @@ package com.example.myapplication.features.organizer.home;
 import androidx.annotation.Nullable;
 
 import com.example.myapplication.data.firebase.FirebaseEventRepository;
+import com.example.myapplication.data.repo.EventPage;
+import com.example.myapplication.data.repo.EventQuery;
+import com.example.myapplication.data.repo.EventRepository;
 import com.example.myapplication.features.user.UserEvent;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentSnapshot;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Controller for the organizer home screen.
+ *
+ * Events are read a page at a time. Firestore has no text search, so while a search query is
+ * active the remaining pages of the organizer's events are loaded one after another and the
+ * view searches all of them, not only the pages scrolled to so far. An organizer's own events
+ * in one window are few enough for that.
  */
 public class OHomeController {
+    private static final int PAGE_SIZE = 20;
+
     private final FirebaseEventRepository repository;
     private final FirebaseAuth auth;
     private final OHomeModel model;
@@ -21,6 +31,12 @@ public class OHomeController {
     private String searchQuery = "";
     @Nullable
     private String currentUserId;
+    @Nullable
+    private DocumentSnapshot cursor;
+    private boolean hasMore = true;
+    private boolean loading;
+    /** Incremented for every page request; responses to older requests are ignored. */
+    private int generation;
 
     /**
      * Constructs an OHomeController with the specified dependencies.
@@ -48,10 +64,10 @@ public class OHomeController {
     }
 
     /**
-     * Loads events owned by the signed-in organizer.
-     * Fetches all events from the repository and filters them to show only events
-     * where the current user is the organizer. Updates the view with the filtered
-     * results or shows an empty state if no events are found.
+     * Loads the first page of events owned by the signed-in organizer.
+     * Only events matching the active upcoming/past filter are requested, so the organizer's
+     * events are filtered by the backend rather than on the device. Updates the view with the
+     * results or shows an error if the fetch fails.
      */
     public void loadOrganizerEvents() {
         final String userId = resolveUserId();
@@ -61,27 +77,72 @@ public class OHomeController {
             }
             return;
         }
+        cursor = null;
+        hasMore = true;
+        fetchPage(userId, true);
+    }
+
+    /**
+     * Loads the next page of the organizer's events, if there is one.
+     */
+    public void loadMoreOrganizerEvents() {
+        final String userId = resolveUserId();
+        if (userId == null || cursor == null || !hasMore) {
+            return;
+        }
+        fetchPage(userId, false);
+    }
 
-        repository.getAllEvents(new FirebaseEventRepository.EventListCallback() {
+    /**
+     * Requests one page of the organizer's events and merges it into the model.
+     *
+     * A first page always starts a new request, so switching between upcoming and past
+     * events is never dropped; a next page is skipped while another request is in flight.
+     * Only the response to the latest request is applied.
+     *
+     * @param userId The signed-in organizer.
+     * @param firstPage True to replace the stored events, false to append to them.
+     */
+    private void fetchPage(String userId, boolean firstPage) {
+        if (loading && !firstPage) {
+            return;
+        }
+        loading = true;
+        final int request = ++generation;
+        EventQuery query = EventQuery.create()
+                .organizer(userId)
+                .window(model.getFilter() == OHomeModel.FilterType.PAST
+                        ? EventQuery.Window.PAST
+                        : EventQuery.Window.UPCOMING)
+                .excludeDisabled(false)
+                .pageSize(PAGE_SIZE);
+
+        repository.queryEvents(query, firstPage ? null : cursor, new EventRepository.EventPageCallback() {
             @Override
-            public void onEventsFetched(List<UserEvent> events) {
+            public void onPageFetched(EventPage page) {
+                if (request != generation) {
+                    return;
+                }
+                loading = false;
                 if (view == null) {
                     return;
                 }
-                List<UserEvent> mine = new ArrayList<>();
-                if (events != null) {
-                    for (UserEvent event : events) {
-                        if (event != null && userId.equals(event.getOrganizerID())) {
-                            mine.add(event);
-                        }
-                    }
+                cursor = page.getCursor();
+                hasMore = page.hasMore();
+                if (firstPage) {
+                    model.setEvents(page.getEvents());
+                } else {
+                    model.addEvents(page.getEvents());
                 }
-                model.setEvents(mine);
                 refreshView();
             }
 
             @Override
             public void onError(Exception e) {
+                if (request != generation) {
+                    return;
+                }
+                loading = false;
                 if (view != null) {
                     view.showError("Failed to fetch: " + e.getMessage());
                 }
@@ -91,7 +152,8 @@ public class OHomeController {
 
     /**
      * Updates the search query and reapplies filtering.
-     * Refreshes the view to display events matching the new search criteria.
+     * Refreshes the view to display events matching the new search criteria, and loads any
+     * pages not read yet so every event of the organizer is searched.
      *
      * @param query The new search query, or null to clear the search.
      */
@@ -118,7 +180,7 @@ public class OHomeController {
         if (view != null) {
             view.showInfo(filterLabel + " selected");
         }
-        refreshView();
+        loadOrganizerEvents();
     }
 
     private void refreshView() {
@@ -127,6 +189,9 @@ public class OHomeController {
         }
         List<UserEvent> events = model.getEvents();
         view.showEvents(events, searchQuery);
+        if (!searchQuery.trim().isEmpty() && hasMore && !loading) {
+            loadMoreOrganizerEvents();
+        }
     }
 
     /**
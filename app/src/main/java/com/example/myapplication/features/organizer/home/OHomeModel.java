@@ -2,13 +2,15 @@ package com.example.myapplication.features.organizer.home;
 
 import androidx.annotation.Nullable;
 
+import com.example.myapplication.core.IntervalIndex;
 import com.example.myapplication.features.user.UserEvent;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Model for organizer home screen event data.
+ * Events are kept in an {@link IntervalIndex} by time, so the upcoming and past lists are
+ * split with a binary search on the end times.
  */
 public class OHomeModel {
     
@@ -17,7 +19,7 @@ public class OHomeModel {
         PAST
     }
 
-    private final List<UserEvent> myEvents = new ArrayList<>();
+    private IntervalIndex<UserEvent> myEvents = IntervalIndex.of(null, UserEvent.TIME_BOUNDS);
     private FilterType activeFilter = FilterType.UPCOMING;
 
     /**
@@ -28,15 +30,20 @@ public class OHomeModel {
      * @param events The list of events to store, or null to clear all events.
      */
     public void setEvents(@Nullable List<UserEvent> events) {
-        myEvents.clear();
+        myEvents = IntervalIndex.of(events, UserEvent.TIME_BOUNDS);
+    }
+
+    /**
+     * Appends the provided events to the stored list, skipping nulls.
+     * Used when a further page of the organizer's events has been loaded.
+     *
+     * @param events The events to append, or null to leave the list unchanged.
+     */
+    public void addEvents(@Nullable List<UserEvent> events) {
         if (events == null) {
             return;
         }
-        for (UserEvent event : events) {
-            if (event != null) {
-                myEvents.add(event);
-            }
-        }
+        myEvents = myEvents.plus(events, UserEvent.TIME_BOUNDS);
     }
 
     /**
@@ -57,38 +64,16 @@ public class OHomeModel {
 
     /**
      * Returns a filtered list of the organizer's events based on the active filter.
+     * An event is upcoming until its end time, or its start time if it has no end.
      *
      * @return A new ArrayList containing events matching the current filter.
      */
     public List<UserEvent> getEvents() {
         long now = System.currentTimeMillis();
-        List<UserEvent> filtered = new ArrayList<>();
-        
-        for (UserEvent event : myEvents) {
-            if (matchesFilter(event, activeFilter, now)) {
-                filtered.add(event);
-            }
-        }
-        return filtered;
-    }
-
-    /**
-     * Checks if an event matches the specified filter type.
-     *
-     * @param event The event to check.
-     * @param filter The filter type to apply.
-     * @param now The current time in milliseconds since epoch.
-     * @return True if the event matches the filter, false otherwise.
-     */
-    private boolean matchesFilter(UserEvent event, FilterType filter, long now) {
-        long start = event.getStartTimeMillis();
-        long end = event.getEndTimeMillis();
-        long actualEnd = (end > 0) ? end : start;
-        
-        if (filter == FilterType.UPCOMING) {
-            return actualEnd >= now;
+        if (activeFilter == FilterType.UPCOMING) {
+            return myEvents.endingAtOrAfter(now);
         } else { // PAST
-            return actualEnd < now;
+            return myEvents.endingBefore(now);
         }
     }
-}
\ No newline at end of file
+}
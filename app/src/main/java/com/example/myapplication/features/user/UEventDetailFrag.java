@@ -7,15 +7,13 @@ import android.content.ContentResolver;
 import android.content.ContentValues;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
-import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.ColorDrawable;
-import android.graphics.drawable.Drawable;
 import android.location.Location;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.provider.MediaStore;
 import android.text.TextUtils;
 import android.view.LayoutInflater;
@@ -35,18 +33,29 @@ import androidx.navigation.Navigation;
 
 import com.bumptech.glide.Glide;
 import com.example.myapplication.R;
+import com.example.myapplication.core.CloudinaryUrls;
+import com.example.myapplication.core.Geofence;
+import com.example.myapplication.core.LocationFixCache;
+import com.example.myapplication.core.QrRenderer;
+import com.example.myapplication.core.WaitlistAdmission;
 import com.example.myapplication.data.firebase.FirebaseEventRepository;
 import com.example.myapplication.features.user.UserEvent;
 import com.google.android.material.button.MaterialButton;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.zxing.WriterException;
 
 import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
 import com.google.android.gms.location.LocationServices;
+import com.google.android.gms.location.Priority;
+import com.google.android.gms.tasks.Tasks;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Locale;
 
 /**
  * Displays event details for entrants, allows joining the waitlist,
@@ -65,6 +74,8 @@ public class UEventDetailFrag extends Fragment {
 
     // Whether geolocation is required for this event — set when binding event data
     private boolean geoRequired = false;
+    // The loaded event, whose venue and admission radius fence geo-verified joins
+    private UserEvent event;
 
     private FusedLocationProviderClient fusedLocationClient;
 
@@ -127,8 +138,8 @@ public class UEventDetailFrag extends Fragment {
             public void onEventFetched(UserEvent event) {
                 bindEventData(event);
 
-                // Geo requirement flag (if your UserEvent supports it)
-                geoRequired = event.isGeoRequired();   // <-- Adjust if getter name differs
+                UEventDetailFrag.this.event = event;
+                geoRequired = event.isGeoRequired();
             }
 
             @Override
@@ -195,39 +206,29 @@ public class UEventDetailFrag extends Fragment {
         descr.setText(event.getDescr());
         endTime.setText("Days Left: " + Math.max(daysLeft, 0));
 
-        waitingList.setText("Currently in Waitinglist: " +
-                (event.getWaitlist() != null ? event.getWaitlist().size() : 0));
+        waitingList.setText("Currently in Waitinglist: " + event.getWaitlistCount());
 
         ImageView imageView = requireView().findViewById(R.id.eventImage);
         ImageView qrImageView = requireView().findViewById(R.id.qrCodeImage);
 
-        if (event.getImageUrl() != null)
-            Glide.with(this).load(event.getImageUrl()).into(imageView);
+        if (event.getImageUrl() != null) {
+            int widthPx = CloudinaryUrls.widthPx(imageView,
+                    getResources().getConfiguration().screenWidthDp);
+            Glide.with(this).load(CloudinaryUrls.sized(event.getImageUrl(), widthPx)).into(imageView);
+        }
 
         if (qrImageView != null) {
-            if (event.getQrData() != null) {
-                Glide.with(this).load(event.getQrData()).into(qrImageView);
+            if (!TextUtils.isEmpty(event.getId())) {
+                showQrCode(qrImageView, event.getId());
 
                 /**
                  * Allows the user to save the QR code image by tapping on it.
-                 * The QR drawable inside the ImageView is converted into a Bitmap
-                 * and stored into the device's gallery.
+                 * The QR code is encoded again at print resolution and stored into the
+                 * device's gallery, off the main thread.
                  */
-                qrImageView.setOnClickListener(v -> {
-                    Bitmap bmp = getBitmapFromImageView(qrImageView);
-                    if (bmp == null) {
-                        Toast.makeText(requireContext(), "No QR to save.", Toast.LENGTH_SHORT).show();
-                        return;
-                    }
-
-                    Uri uri = saveBitmapToGallery(bmp, "event_" + eventId + "_qr");
-                    if (uri != null) {
-                        Toast.makeText(requireContext(), "QR saved to Photos.", Toast.LENGTH_SHORT).show();
-                    } else {
-                        Toast.makeText(requireContext(), "Failed to save QR.", Toast.LENGTH_SHORT).show();
-                    }
-                });
+                qrImageView.setOnClickListener(v -> saveQrToGallery(qrImageView, event.getId()));
             } else {
+                qrImageView.setImageDrawable(null);
                 qrImageView.setOnClickListener(null);
             }
         }
@@ -235,12 +236,14 @@ public class UEventDetailFrag extends Fragment {
         FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
         String uid = (user!=null) ? user.getUid() : null;
 
-        if( uid != null && event.getWaitlist() != null && event.getWaitlist().contains(uid)){
-            inWaitlist = true;
-            joinWaitlistBtn.setText("Leave Waitlist");
-        } else {
-            inWaitlist = false;
-            joinWaitlistBtn.setText("Join Waitlist");
+        inWaitlist = false;
+        joinWaitlistBtn.setText("Join Waitlist");
+        if (uid != null && event.getWaitlistCount() > 0) {
+            new FirebaseEventRepository().isOnWaitlist(event.getId(), uid, onList -> {
+                if (!isAdded() || joinWaitlistBtn == null) return;
+                inWaitlist = onList;
+                joinWaitlistBtn.setText(onList ? "Leave Waitlist" : "Join Waitlist");
+            }, e -> { });
         }
 
         RatingController ratingController = new RatingController();
@@ -305,7 +308,13 @@ public class UEventDetailFrag extends Fragment {
 
 
     /**
-     * @param uid
+     * Gets a location fix for a geo-verified join, checks it against the venue with
+     * {@link Geofence} and joins only if it is inside.
+     *
+     * A fix from {@link LocationFixCache} or the provider's last known location is used while
+     * it is fresh; otherwise a new fix is requested.
+     *
+     * @param uid the user joining
      */
     private void captureLocationAndJoin(String uid) {
 
@@ -317,12 +326,25 @@ public class UEventDetailFrag extends Fragment {
             return;
         }
 
+        LocationFixCache.Fix cached = LocationFixCache.get().getFresh(SystemClock.elapsedRealtime());
+        if (cached != null) {
+            joinIfInsideFence(repo, uid, cached);
+            return;
+        }
+
         fusedLocationClient.getLastLocation()
+                .onSuccessTask(last -> {
+                    if (last != null && toFix(last).isFresh(SystemClock.elapsedRealtime())) {
+                        return Tasks.forResult(last);
+                    }
+                    return fusedLocationClient.getCurrentLocation(Priority.PRIORITY_HIGH_ACCURACY, null);
+                })
                 .addOnSuccessListener(location -> {
+                    if (!isAdded()) return;
                     if (location != null) {
-                        joinWithLocation(repo, uid,
-                                location.getLatitude(),
-                                location.getLongitude());
+                        LocationFixCache.Fix fix = toFix(location);
+                        LocationFixCache.get().put(fix);
+                        joinIfInsideFence(repo, uid, fix);
                     } else {
                         Toast.makeText(
                                 getContext(),
@@ -337,6 +359,32 @@ public class UEventDetailFrag extends Fragment {
                                 Toast.LENGTH_LONG).show());
     }
 
+    /**
+     * Writes the join only if the fix is within the event's admission radius.
+     */
+    private void joinIfInsideFence(FirebaseEventRepository repo, String uid, LocationFixCache.Fix fix) {
+        Geofence fence = event == null
+                ? Geofence.evaluate(null, null, 0, fix.getLat(), fix.getLng(), fix.getAccuracyMeters())
+                : Geofence.evaluate(event.getVenueLat(), event.getVenueLng(),
+                        event.getAdmissionRadiusMeters(),
+                        fix.getLat(), fix.getLng(), fix.getAccuracyMeters());
+        if (!fence.isAllowed()) {
+            Toast.makeText(getContext(),
+                    String.format(Locale.getDefault(),
+                            "You must be within %d m of the venue to join (you are %.1f km away).",
+                            fence.getRadiusMeters(), fence.getDistanceMeters() / 1000),
+                    Toast.LENGTH_LONG).show();
+            return;
+        }
+        joinWithLocation(repo, uid, fix.getLat(), fix.getLng());
+    }
+
+    private static LocationFixCache.Fix toFix(Location location) {
+        return new LocationFixCache.Fix(location.getLatitude(), location.getLongitude(),
+                location.hasAccuracy() ? location.getAccuracy() : 0,
+                location.getElapsedRealtimeNanos() / 1_000_000);
+    }
+
 
     /**
      * Joins the waitlist with optional location data.
@@ -350,12 +398,22 @@ public class UEventDetailFrag extends Fragment {
                                   @Nullable Double lat,
                                   @Nullable Double lng) {
 
-        repo.joinWaitlist(eventId, uid, lat, lng, a -> {
+        OnSuccessListener<WaitlistAdmission> onJoined = admission -> {
+            if (!isAdded()) return;
+
+            if (!admission.isOnWaitlist()) {
+                Toast.makeText(getContext(),
+                        "Sorry, this waitlist is full (" + admission.getCapacity() + " entrants).",
+                        Toast.LENGTH_LONG).show();
+                return;
+            }
 
             repo.fetchEventById(eventId, new FirebaseEventRepository.SingleEventCallback() {
                 @Override
                 public void onEventFetched(UserEvent event) {
-                    showWaitlistInfoDialog(event.getEntrantsToDraw());
+                    if (!isAdded()) return;
+                    bindEventData(event);
+                    showWaitlistInfoDialog(event.getEntrantsToDraw(), admission.getPosition());
                 }
 
                 @Override
@@ -365,44 +423,65 @@ public class UEventDetailFrag extends Fragment {
                             Toast.LENGTH_SHORT).show();
                 }
             });
-
-            refreshEventDetail(eventId);
-
-        }, e -> Toast.makeText(getContext(),
+        };
+        OnFailureListener onFailed = e -> Toast.makeText(getContext(),
                 "Could not join waitlist.",
-                Toast.LENGTH_SHORT).show());
+                Toast.LENGTH_SHORT).show();
+
+        repo.joinWaitlist(eventId, uid, lat, lng, onJoined, onFailed);
     }
 
     /**
-     * Extracts a Bitmap from the drawable currently displayed in the specified ImageView.
-     * <p>
-     * If the drawable is already a BitmapDrawable, its bitmap is returned directly.
-     * If the drawable is a vector or another type of drawable, it is drawn onto a newly
-     * created Bitmap using a Canvas.
+     * Renders the event's QR code at the size of the ImageView, off the main thread unless it
+     * is already cached.
      *
-     * @param imageView The ImageView containing the QR code drawable.
-     * @return A Bitmap representation of the ImageView's drawable, or {@code null} if no drawable exists.
+     * @param qrImageView The ImageView that shows the QR code.
+     * @param id          The event id encoded in the QR code.
      */
-    @Nullable
-    private Bitmap getBitmapFromImageView(@NonNull ImageView imageView) {
-        Drawable drawable = imageView.getDrawable();
-        if (drawable == null) {
-            return null;
-        }
+    private void showQrCode(@NonNull ImageView qrImageView, @NonNull String id) {
+        int sizePx = qrImageView.getLayoutParams().width;
+        QrRenderer.get().render(id, sizePx, new QrRenderer.Callback() {
+            @Override
+            public void onRendered(@NonNull Bitmap bitmap) {
+                if (isAdded() && id.equals(eventId)) {
+                    qrImageView.setImageBitmap(bitmap);
+                }
+            }
 
-        if (drawable instanceof BitmapDrawable) {
-            return ((BitmapDrawable) drawable).getBitmap();
-        } else {
-            Bitmap bmp = Bitmap.createBitmap(
-                    imageView.getWidth(),
-                    imageView.getHeight(),
-                    Bitmap.Config.ARGB_8888
-            );
-            Canvas canvas = new Canvas(bmp);
-            drawable.setBounds(0, 0, canvas.getWidth(), canvas.getHeight());
-            drawable.draw(canvas);
-            return bmp;
-        }
+            @Override
+            public void onError(@NonNull Exception e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Encodes the QR code at print resolution and saves it to the gallery, both off the main
+     * thread, then reports the result.
+     *
+     * @param anchor A view of this screen used to return to the main thread.
+     * @param id     The event id encoded in the QR code.
+     */
+    private void saveQrToGallery(@NonNull View anchor, @NonNull String id) {
+        ContentResolver resolver = requireContext().getContentResolver();
+        QrRenderer.get().runInBackground(() -> {
+            Uri uri = null;
+            try {
+                Bitmap bmp = QrRenderer.encode(id, QrRenderer.PRINT_SIZE_PX);
+                uri = saveBitmapToGallery(resolver, bmp, "event_" + id + "_qr");
+                bmp.recycle();
+            } catch (WriterException e) {
+                e.printStackTrace();
+            }
+            boolean saved = uri != null;
+            anchor.post(() -> {
+                if (!isAdded()) {
+                    return;
+                }
+                Toast.makeText(requireContext(), saved ? "QR saved to Photos." : "Failed to save QR.",
+                        Toast.LENGTH_SHORT).show();
+            });
+        });
     }
 
     /**
@@ -410,13 +489,14 @@ public class UEventDetailFrag extends Fragment {
      * <p>
      * The image is saved as a PNG file with the provided base file name.
      *
+     * @param resolver The ContentResolver to insert the image with.
      * @param bitmap   The Bitmap to save.
      * @param fileName Desired base file name (without extension).
      * @return A {@link Uri} referencing the saved image, or {@code null} if saving failed.
      */
     @Nullable
-    private Uri saveBitmapToGallery(@NonNull Bitmap bitmap, @NonNull String fileName) {
-        ContentResolver resolver = requireContext().getContentResolver();
+    private static Uri saveBitmapToGallery(@NonNull ContentResolver resolver, @NonNull Bitmap bitmap,
+                                           @NonNull String fileName) {
 
         Uri imagesUri;
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
@@ -473,8 +553,9 @@ public class UEventDetailFrag extends Fragment {
      * specified event.
      *
      * @param entrantsToDraw the number of people to be drawn
+     * @param position the user's position on the waitlist, 0 if unknown
      */
-    private void showWaitlistInfoDialog(int entrantsToDraw) {
+    private void showWaitlistInfoDialog(int entrantsToDraw, int position) {
         Dialog dialog = new Dialog(requireContext());
         dialog.requestWindowFeature(Window.FEATURE_NO_TITLE);
         dialog.setContentView(R.layout.dialog_waitlist_info);
@@ -488,7 +569,11 @@ public class UEventDetailFrag extends Fragment {
         TextView infoText = dialog.findViewById(R.id.infoText);
         MaterialButton okButton = dialog.findViewById(R.id.okButton);
 
-        String message = "Thank you for joining the waitlist.\n" + entrantsToDraw + " entrants will be selected at random " + "from the total pool.";
+        String message = "Thank you for joining the waitlist.\n";
+        if (position > 0) {
+            message += "You are number " + position + " on the waitlist.\n";
+        }
+        message += entrantsToDraw + " entrants will be selected at random " + "from the total pool.";
 
         infoText.setText(message);
 
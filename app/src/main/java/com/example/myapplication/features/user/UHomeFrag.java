@@ -6,6 +6,7 @@ import android.os.Bundle;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.text.TextUtils;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
@@ -21,7 +22,11 @@ import androidx.fragment.app.Fragment;
 import androidx.navigation.fragment.NavHostFragment;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import com.bumptech.glide.Glide;
 import com.example.myapplication.R;
+import com.example.myapplication.core.ImageCacheStats;
+import com.example.myapplication.core.PagingScrollListener;
+import com.example.myapplication.core.SearchPipeline;
 import com.example.myapplication.data.firebase.FirebaseEventRepository;
 import com.example.myapplication.features.user.home.UHomeController;
 import com.example.myapplication.features.user.home.UHomeModel;
@@ -32,7 +37,6 @@ import com.google.firebase.auth.FirebaseAuth;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.List;
 import java.util.Locale;
 
@@ -45,8 +49,15 @@ import java.util.Locale;
  */
 public class UHomeFrag extends Fragment implements UHomeView {
 
+    private static final String TAG = "UHomeFrag";
+    private static final int LOAD_MORE_THRESHOLD = 6;
+    private static final int SPAN_COUNT = 2;
+    /** Rows of banners loaded ahead of the visible ones. */
+    private static final int PRELOAD_ROWS = 3;
+
     private UserEventAdapter adapter;
     private EditText searchInput;
+    private View loadMoreButton;
     private UHomeController controller;
     private final SimpleDateFormat availabilityDateFormat =
             new SimpleDateFormat("MMM d, yyyy", Locale.getDefault());
@@ -69,16 +80,18 @@ public class UHomeFrag extends Fragment implements UHomeView {
         searchInput = view.findViewById(R.id.etSearchEvents);
         ImageButton filterButton = view.findViewById(R.id.btnFilter);
         RecyclerView eventsList = view.findViewById(R.id.rvEvents);
+        loadMoreButton = view.findViewById(R.id.btnLoadMore);
 
         adapter = new UserEventAdapter();
         Context context = requireContext();
 
-        eventsList.setLayoutManager(new GridLayoutManager(context, 2));
+        eventsList.setLayoutManager(new GridLayoutManager(context, SPAN_COUNT));
         eventsList.setHasFixedSize(false);
         eventsList.setNestedScrollingEnabled(true);
         int spacing = getResources().getDimensionPixelSize(R.dimen.user_event_spacing);
-        eventsList.addItemDecoration(new GridSpacingItemDecoration(2, spacing));
+        eventsList.addItemDecoration(new GridSpacingItemDecoration(SPAN_COUNT, spacing));
         eventsList.setAdapter(adapter);
+        eventsList.addOnScrollListener(adapter.createPreloader(Glide.with(this), PRELOAD_ROWS * SPAN_COUNT));
         eventsList.setOnTouchListener((v, event) -> {
             v.getParent().requestDisallowInterceptTouchEvent(true);
             return false;
@@ -87,9 +100,11 @@ public class UHomeFrag extends Fragment implements UHomeView {
         UHomeModel model = new UHomeModel();
         FirebaseEventRepository repo = new FirebaseEventRepository();
         FirebaseAuth auth = FirebaseAuth.getInstance();
-        controller = new UHomeController(repo, auth, model, this);
+        controller = new UHomeController(repo, auth, model, this, SearchPipeline.Config.background());
 
         controller.loadEvents();
+        eventsList.addOnScrollListener(new PagingScrollListener(LOAD_MORE_THRESHOLD, controller::loadMoreEvents));
+        loadMoreButton.setOnClickListener(v -> controller.loadMoreEvents());
 
         adapter.setOnEventClickListener(event -> {
             Bundle bundle = new Bundle();
@@ -115,46 +130,12 @@ public class UHomeFrag extends Fragment implements UHomeView {
         filterButton.setOnClickListener(v -> showFilterMenu(v));
     }
 
+    /**
+     * Renders the events the controller filtered; all filtering happens in {@link UHomeModel}.
+     */
     @Override
     public void showEvents(List<UserEvent> events, @Nullable String searchQuery) {
-
-        if (events == null){
-            adapter.submit(new ArrayList<>());
-            return;
-        }
-
-        List<UserEvent> filtered = new ArrayList<>(events);
-
-        if(FirebaseAuth.getInstance().getCurrentUser() != null){
-            String currentUid = FirebaseAuth.getInstance().getCurrentUser().getUid();
-            filtered = filterEventsForDisplay(filtered, currentUid);
-        }
-
-        long currentTime = System.currentTimeMillis();
-        List<UserEvent> upcomingEvents = new ArrayList<>();
-        for(UserEvent event : filtered){
-            if(event!=null && isUpcomingEvent(event, currentTime)){
-                upcomingEvents.add(event);
-            }
-        }
-
-        filtered = upcomingEvents;
-
-        List<String> interests = controller.getSelectedInterests();
-        if(interests != null && !interests.isEmpty()){
-            filtered = filterEventsByInterests(filtered, interests);
-        }
-
-        Long start = controller.getAvailabilityStartMillis();
-        Long end = controller.getAvailabilityEndMillis();
-        if(start != null && end != null){
-            long filteredStart = startOfDay(start);
-            long filteredEnd = startOfDay(end);
-            filtered = filterEventsByAvailability(filtered, filteredStart, filteredEnd);
-        }
-
-        adapter.submit(filtered);
-        adapter.filter(searchQuery);
+        adapter.submit(events == null ? new ArrayList<>() : events);
     }
 
     @Override
@@ -165,11 +146,25 @@ public class UHomeFrag extends Fragment implements UHomeView {
         }
     }
 
+    @Override
+    public void showLoadMore(boolean visible) {
+        loadMoreButton.setVisibility(visible ? View.VISIBLE : View.GONE);
+    }
+
     @Override
     public void showError(String message) {
         Toast.makeText(requireContext(), message, Toast.LENGTH_SHORT).show();
     }
 
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        Log.d(TAG, "Image loads: " + ImageCacheStats.get());
+        if (controller != null) {
+            controller.detachView();
+        }
+    }
+
     /**
      * Placeholder filter menu that demonstrates how filtering options will surface.
      * @param anchor The view to anchor the popup menu to.
@@ -334,136 +329,6 @@ public class UHomeFrag extends Fragment implements UHomeView {
         return availabilityDateFormat.format(millis);
     }
 
-    /**
-     * Returns the start of the day (00:00:00.000) for the given timestamp.
-     * @param timeMillis The input timestamp in milliseconds.
-     * @return Timestamp at the start of the day.
-     */
-    private long startOfDay(long timeMillis) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(timeMillis);
-        calendar.set(Calendar.HOUR_OF_DAY, 0);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-        return calendar.getTimeInMillis();
-    }
-
-    /**
-     * Returns the end of the day (23:59:59.999) for the given timestamp.
-     * @param timeMillis The input timestamp in milliseconds.
-     * @return Timestamp at the end of the day.
-     */
-    private long endOfDay(long timeMillis) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(timeMillis);
-        calendar.set(Calendar.HOUR_OF_DAY, 23);
-        calendar.set(Calendar.MINUTE, 59);
-        calendar.set(Calendar.SECOND, 59);
-        calendar.set(Calendar.MILLISECOND, 999);
-        return calendar.getTimeInMillis();
-    }
-
-    /**
-     * Filters events based on the provided list of interests.
-     * @param events The list of events to filter.
-     * @param interests The list of interests to filter by.
-     * @return A list of events matching the interests.
-     */
-    static List<UserEvent> filterEventsByInterests(List<UserEvent> events, List<String> interests) {
-        List<UserEvent> filtered = new ArrayList<>();
-        if (events == null || events.isEmpty()) {
-            return filtered;
-        }
-        if (interests == null || interests.isEmpty()) {
-            filtered.addAll(events);
-            return filtered;
-        }
-        for (UserEvent event : events) {
-            if (event == null) {
-                continue;
-            }
-            String theme = event.getTheme();
-            if (TextUtils.isEmpty(theme)) {
-                continue;
-            }
-            for (String interest : interests) {
-                if (!TextUtils.isEmpty(interest) && theme.equalsIgnoreCase(interest)) {
-                    filtered.add(event);
-                    break;
-                }
-            }
-        }
-        return filtered;
-    }
-
-    /**
-     * This is a helper method that returns a boolean value based on whether the event
-     * draw date has passed or not
-     *
-     * @param event The event being checked
-     * @param currentMillis the current time
-     * @return boolean value if event draw has occurred
-     */
-    static boolean isUpcomingEvent(@NonNull UserEvent event, long currentMillis) {
-        long draw = event.getSelectionDateMillis();
-        return draw >= currentMillis;
-    }
-
-    /**
-     * Filters events based on availability within the specified time range.
-     * @param events The list of events to filter.
-     * @param startTime The start of the availability range in milliseconds.
-     * @param endTime The end of the availability range in milliseconds.
-     * @return A list of events available within the specified time range.
-     */
-    static List<UserEvent> filterEventsByAvailability(List<UserEvent> events, long startTime, long endTime) {
-        List<UserEvent> filtered = new ArrayList<>();
-        if (events == null || events.isEmpty()) {
-            return filtered;
-        }
-        long normalizedStart = Math.min(startTime, endTime);
-        long normalizedEnd = Math.max(startTime, endTime);
-        for (UserEvent event : events) {
-            if (event == null) {
-                continue;
-            }
-            long eventStart = event.getStartTimeMillis();
-            long eventEnd = event.getEndTimeMillis();
-            if (eventStart == 0 && eventEnd == 0) {
-                continue;
-            }
-            long actualEnd = eventEnd > 0 ? eventEnd : eventStart;
-            if (actualEnd >= normalizedStart && eventStart <= normalizedEnd) {
-                filtered.add(event);
-            }
-        }
-        return filtered;
-    }
-
-    /**
-     * Returns a new list that excludes events owned by the provided user ID.
-     * @param events The list of events to filter.
-     * @param currentUserId The user ID to exclude events for.
-     * @return A list of events not organized by the specified user.
-     */
-    static List<UserEvent> filterEventsForDisplay(List<UserEvent> events, String currentUserId) {
-        List<UserEvent> filtered = new ArrayList<>();
-        if (events == null || currentUserId == null) {
-            return filtered;
-        }
-        for (UserEvent event : events) {
-            if (event == null) {
-                continue;
-            }
-            String organizerId = event.getOrganizerID();
-            if (organizerId == null || !organizerId.equals(currentUserId)) {
-                filtered.add(event);
-            }
-        }
-        return filtered;
-    }
-
     /**
      * Simple spacing decorator that keeps the event cards evenly spaced in the grid.
      */
@@ -9,24 +9,44 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.myapplication.R;
+import com.example.myapplication.core.StableIds;
 import com.firebase.ui.firestore.FirestoreRecyclerAdapter;
 import com.firebase.ui.firestore.FirestoreRecyclerOptions;
 import com.google.android.material.button.MaterialButton;
 import com.google.firebase.firestore.DocumentSnapshot;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 /**
  * This class is an adapter that helps display the notifications.
+ *
+ * FirestoreUI already applies each snapshot as per-item changes; rows additionally
+ * have stable ids from their document ids, and toggling personal notifications only
+ * rebinds the visibility of the "custom" rows.
  */
 public class UNotiAdapter extends FirestoreRecyclerAdapter<UNotiItem, UNotiAdapter.UNotiViewHolder> {
 
     public interface OnOptionClickListener {
         void onOptionClick(DocumentSnapshot snapshot);
     }
+    /** Payload for a rebind that only shows or hides a row. */
+    static final Object PAYLOAD_VISIBILITY = "visibility";
+
     private boolean showPersonalNoti = true;
+    private final StableIds ids = new StableIds();
 
     public void setShowPersonalNoti(boolean show) {
+        if (this.showPersonalNoti == show) {
+            return;
+        }
         this.showPersonalNoti = show;
-        notifyDataSetChanged();
+        for (int i = 0; i < getItemCount(); i++) {
+            if (isCustom(getItem(i))) {
+                notifyItemChanged(i, PAYLOAD_VISIBILITY);
+            }
+        }
     }
 
     private final OnOptionClickListener optionListener;
@@ -39,6 +59,73 @@ public class UNotiAdapter extends FirestoreRecyclerAdapter<UNotiItem, UNotiAdapt
                         @NonNull OnOptionClickListener optionListener) {
         super(options);
         this.optionListener = optionListener;
+        setHasStableIds(true);
+    }
+
+    /**
+     * @param position the adapter position
+     * @return the stable id of the notification document at the position
+     */
+    @Override
+    public long getItemId(int position) {
+        return ids.idFor(getSnapshots().getSnapshot(position).getId());
+    }
+
+    /**
+     * Drops the ids of notifications that are no longer in the list.
+     */
+    @Override
+    public void onDataChanged() {
+        super.onDataChanged();
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < getSnapshots().size(); i++) {
+            keys.add(getSnapshots().getSnapshot(i).getId());
+        }
+        ids.retain(keys);
+    }
+
+    private static boolean isCustom(UNotiItem model) {
+        return "custom".equalsIgnoreCase(model.getType());
+    }
+
+    private boolean isShown(UNotiItem model) {
+        return showPersonalNoti || !isCustom(model);
+    }
+
+    /**
+     * Only collapses the row when every payload is {@link #PAYLOAD_VISIBILITY} and the row is
+     * being hidden. A row being shown again gets a full bind, since it may have been hidden
+     * when it was first bound and then has no content.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull UNotiViewHolder holder, int position, @NonNull List<Object> payloads) {
+        boolean visibilityOnly = !payloads.isEmpty();
+        for (Object payload : payloads) {
+            visibilityOnly &= payload == PAYLOAD_VISIBILITY;
+        }
+        UNotiItem model = getItem(position);
+        if (visibilityOnly && !isShown(model)) {
+            bindVisibility(holder, model);
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
+    }
+
+    /**
+     * Collapses the row when it is a hidden personal notification.
+     *
+     * @return true if the row is shown
+     */
+    private boolean bindVisibility(@NonNull UNotiViewHolder holder, @NonNull UNotiItem model) {
+        boolean shown = isShown(model);
+        holder.itemView.setVisibility(shown ? View.VISIBLE : View.GONE);
+        ViewGroup.LayoutParams params = holder.itemView.getLayoutParams();
+        if (params instanceof RecyclerView.LayoutParams) {
+            RecyclerView.LayoutParams lp = (RecyclerView.LayoutParams) params;
+            lp.height = shown ? ViewGroup.LayoutParams.WRAP_CONTENT : 0;
+            holder.itemView.setLayoutParams(lp);
+        }
+        return shown;
     }
 
 
@@ -51,24 +138,9 @@ public class UNotiAdapter extends FirestoreRecyclerAdapter<UNotiItem, UNotiAdapt
      */
     @Override
     protected void onBindViewHolder(@NonNull UNotiViewHolder holder, int position, @NonNull UNotiItem model) {
-        if (!showPersonalNoti && "custom".equalsIgnoreCase(model.getType())) {
-            // Hide and collapse this row
-            holder.itemView.setVisibility(View.GONE);
-            ViewGroup.LayoutParams params = holder.itemView.getLayoutParams();
-            if (params instanceof RecyclerView.LayoutParams) {
-                RecyclerView.LayoutParams lp = (RecyclerView.LayoutParams) params;
-                lp.height = 0;
-                holder.itemView.setLayoutParams(lp);
-            }
+        if (!bindVisibility(holder, model)) {
+            // Hidden rows are collapsed and need no content
             return;
-        } else {
-            holder.itemView.setVisibility(View.VISIBLE);
-            ViewGroup.LayoutParams params = holder.itemView.getLayoutParams();
-            if (params instanceof RecyclerView.LayoutParams) {
-                RecyclerView.LayoutParams lp = (RecyclerView.LayoutParams) params;
-                lp.height = ViewGroup.LayoutParams.WRAP_CONTENT;
-                holder.itemView.setLayoutParams(lp);
-            }
         }
 
         holder.fromText.setText(model.getFrom());
@@ -18,6 +18,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.myapplication.R;
 import com.example.myapplication.data.firebase.FirebaseEventRepository;
+import com.example.myapplication.data.firebase.NotificationListStore;
 import com.example.myapplication.features.user.UNotiAdapter;
 import com.example.myapplication.features.user.UNotiItem;
 import com.firebase.ui.firestore.FirestoreRecyclerOptions;
@@ -244,24 +245,19 @@ public class UNotiFrag extends Fragment {
                                        String uid) {
         String eventId = item.getEventId();
 
-        FirebaseFirestore.getInstance()
-                .collection("notificationList")
-                .whereEqualTo("eventId", eventId)
-                .limit(1)
-                .get()
-                .addOnSuccessListener(qs -> {
-                    if (!qs.isEmpty()) {
-                        DocumentSnapshot doc = qs.getDocuments().get(0);
-
+        new NotificationListStore()
+                .get(eventId)
+                .addOnSuccessListener(doc -> {
+                    if (doc.exists()) {
                         @SuppressWarnings("unchecked")
                         java.util.List<String> invited =
-                                (java.util.List<String>) doc.get("invited");
+                                (java.util.List<String>) doc.get(NotificationListStore.FIELD_INVITED);
                         @SuppressWarnings("unchecked")
                         java.util.List<String> finalUsers =
-                                (java.util.List<String>) doc.get("final");
+                                (java.util.List<String>) doc.get(NotificationListStore.FIELD_FINAL);
                         @SuppressWarnings("unchecked")
                         java.util.List<String> cancelled =
-                                (java.util.List<String>) doc.get("cancelled");
+                                (java.util.List<String>) doc.get(NotificationListStore.FIELD_CANCELLED);
 
                         boolean isInvited  = invited != null && invited.contains(uid);
                         boolean isFinal    = finalUsers != null && finalUsers.contains(uid);
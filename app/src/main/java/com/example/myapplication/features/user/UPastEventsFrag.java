@@ -14,11 +14,10 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.myapplication.R;
+import com.example.myapplication.data.firebase.MembershipIndex;
+import com.example.myapplication.data.model.Membership;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QuerySnapshot;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -27,13 +26,12 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Fragment that displays a list of past events for the currently logged-in user.
  * <p>
- * Past events are derived from entries in the {@code notificationList} collection
- * and event details from the {@code events} collection. Only events whose end
+ * Past events are read from the user's membership index at
+ * {@code users/{uid}/memberships}. Only events whose end
  * time has already passed are shown, sorted by most recent date first.
  */
 public class UPastEventsFrag extends Fragment {
@@ -50,9 +48,9 @@ public class UPastEventsFrag extends Fragment {
     private UPastEventsAdapter adapter;
 
     /**
-     * Firestore instance used for reading notification and event data.
+     * The current user's membership index, which past events are read from.
      */
-    private FirebaseFirestore db;
+    private MembershipIndex memberships;
 
     /**
      * The currently authenticated Firebase user, or {@code null} if not signed in.
@@ -122,7 +120,7 @@ public class UPastEventsFrag extends Fragment {
         adapter = new UPastEventsAdapter();
         recycler.setAdapter(adapter);
 
-        db = FirebaseFirestore.getInstance();
+        memberships = new MembershipIndex();
         currentUser = FirebaseAuth.getInstance().getCurrentUser();
 
         if (currentUser != null) {
@@ -137,118 +135,50 @@ public class UPastEventsFrag extends Fragment {
     }
 
     /**
-     * Initiates a Firestore query to load all past events for the current user.
+     * Loads all past events for the current user from their membership index.
      * <p>
-     * The query targets the {@code notificationList} collection and filters
-     * entries where the user's UID is present in the {@code all} array field.
-     * Results are forwarded to {@link #handlePastEventsResult(QuerySnapshot)}.
+     * The index is queried for entries whose event has already ended, most recent first.
+     * Each entry already holds the event's name, price and end date, so no event documents
+     * are read.
      */
     private void loadPastEvents() {
         pastEvents.clear();
         final String uid = currentUser.getUid();
 
-        db.collection("notificationList")
-                .whereArrayContains("all", uid)
-                .get()
-                .addOnSuccessListener(this::handlePastEventsResult);
-    }
-
-    /**
-     * Processes the notification list query result to determine the user's status
-     * for each event and then fetches detailed event information.
-     *
-     * @param notiSnapshot the query snapshot of notification list documents
-     */
-    private void handlePastEventsResult(QuerySnapshot notiSnapshot) {
-        final String uid = currentUser.getUid();
-        pastEvents.clear();
-
-        if (notiSnapshot == null || notiSnapshot.isEmpty()) {
-            adapter.setItems(pastEvents);
-            return;
-        }
-
-        AtomicInteger remaining = new AtomicInteger(notiSnapshot.size());
-
-        for (DocumentSnapshot notifDoc : notiSnapshot.getDocuments()) {
-
-            String eventId = notifDoc.getString("eventId");
-            if (eventId == null) {
-                if (remaining.decrementAndGet() == 0) {
-                    sortAndShow();
+        memberships.getPast(uid, new MembershipIndex.MembershipsCallback() {
+            @Override
+            public void onMembershipsFetched(List<Membership> entries) {
+                pastEvents.clear();
+                for (Membership entry : entries) {
+                    pastEvents.add(new UPastEventItem(
+                            entry.getEventId(),
+                            entry.getEventName() != null ? entry.getEventName() : "",
+                            entry.getPriceDisplay() != null ? entry.getPriceDisplay() : "",
+                            formatDate(entry.getEndTimeMillis()),
+                            statusLabel(entry.getStatus())
+                    ));
                 }
-                continue;
+                sortAndShow();
             }
 
-            @SuppressWarnings("unchecked")
-            List<String> finalUsers     = (List<String>) notifDoc.get("final");
-            @SuppressWarnings("unchecked")
-            List<String> invitedUsers   = (List<String>) notifDoc.get("invited");
-            @SuppressWarnings("unchecked")
-            List<String> cancelledUsers = (List<String>) notifDoc.get("cancelled");
-
-            String status;
-            if (finalUsers != null && finalUsers.contains(uid)) {
-                status = "Accepted";
-            } else if (invitedUsers != null && invitedUsers.contains(uid)) {
-                status = "Invited";
-            } else if (cancelledUsers != null && cancelledUsers.contains(uid)) {
-                status = "Declined";
-            } else {
-                status = "Not Selected";
+            @Override
+            public void onError(Exception e) {
+                adapter.setItems(pastEvents);
             }
-
-            fetchEventDetails(eventId, status, remaining);
-        }
+        });
     }
 
     /**
-     * Fetches detailed information for a single event and adds it to the list of past events
-     * if the event has already ended.
-     * <p>
-     * Once all outstanding event detail requests have completed (tracked via
-     * {@link AtomicInteger} {@code remaining}), triggers {@link #sortAndShow()}.
+     * Converts a membership status into the label shown in the list.
      *
-     * @param eventId   the ID of the event document to fetch
-     * @param status    the user's status for this event (e.g., Accepted, Invited)
-     * @param remaining counter of how many notification documents still need processing
+     * @param status one of the {@link Membership} status constants
+     * @return the label for the user's status
      */
-    private void fetchEventDetails(String eventId, String status, AtomicInteger remaining) {
-        db.collection("events")
-                .document(eventId)
-                .get()
-                .addOnSuccessListener(eventSnap -> {
-                    if (eventSnap.exists()) {
-                        String name = eventSnap.getString("name");
-                        String priceDisplay = eventSnap.getString("priceDisplay");
-                        Long endMillis = eventSnap.getLong("endTimeMillis");
-
-                        long now = System.currentTimeMillis();
-
-                        if (endMillis != null && endMillis <= now) {
-                            String dateStr = formatDate(endMillis);
-
-                            UPastEventItem item = new UPastEventItem(
-                                    eventId,
-                                    name != null ? name : "",
-                                    priceDisplay != null ? priceDisplay : "",
-                                    dateStr,
-                                    status
-                            );
-
-                            pastEvents.add(item);
-                        }
-                    }
-
-                    if (remaining.decrementAndGet() == 0) {
-                        sortAndShow();
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    if (remaining.decrementAndGet() == 0) {
-                        sortAndShow();
-                    }
-                });
+    private String statusLabel(String status) {
+        if (Membership.STATUS_ACCEPTED.equals(status)) return "Accepted";
+        if (Membership.STATUS_INVITED.equals(status)) return "Invited";
+        if (Membership.STATUS_DECLINED.equals(status)) return "Declined";
+        return "Not Selected";
     }
 
     /**
@@ -13,7 +13,8 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.myapplication.R;
-import com.example.myapplication.data.firebase.FirebaseEventRepository;
+import com.example.myapplication.data.firebase.MembershipIndex;
+import com.example.myapplication.data.model.Membership;
 import com.example.myapplication.data.model.Event;
 import com.google.firebase.auth.FirebaseAuth;
 
@@ -27,11 +28,11 @@ public class UWaitlistFrag extends Fragment implements UWaitlistAdapter.OnItemCl
 
     private RecyclerView recyclerView;
     private UWaitlistAdapter adapter;
-    private FirebaseEventRepository repo;
+    private MembershipIndex memberships;
     private String curentUid;
 
     /**
-     * Inflates the waitlist fragment layout, initializes the UI components, the Firebase repo, and
+     * Inflates the waitlist fragment layout, initializes the UI components, the membership index, and
      * load the user's waitlisted events
      *
      * @param inflater The LayoutInflater object that can be used to inflate
@@ -57,7 +58,7 @@ public class UWaitlistFrag extends Fragment implements UWaitlistAdapter.OnItemCl
         adapter = new UWaitlistAdapter(new ArrayList<>(), this);
         recyclerView.setAdapter(adapter);
 
-         repo = new FirebaseEventRepository();
+         memberships = new MembershipIndex();
          curentUid = FirebaseAuth.getInstance().getCurrentUser().getUid();
 
          loadWaitlistEvents();
@@ -66,35 +67,28 @@ public class UWaitlistFrag extends Fragment implements UWaitlistAdapter.OnItemCl
     }
 
     /**
-     * This method fetches all the events from Firestore and filters them to include only
-     * the following:
+     * This method fetches the events from Firestore that match the following:
      * - Events where the current user is in the waitlist for
      * - Events that have not had their draw date pass yet
      *
-     * The resulting list is then displayed in the RecyclerView by the adapter, if the fetch fails
-     * then an error toast gets shown
+     * The events come from the user's own membership index, which already holds the fields this
+     * list shows, so no event documents are read. Events whose draw date has passed are dropped.
+     * The resulting list is then displayed in the RecyclerView by the adapter, if the fetch
+     * fails then an error toast gets shown
      */
     private void loadWaitlistEvents(){
-        repo.getAllEvents(new FirebaseEventRepository.EventListCallback() {
+        memberships.getWaiting(curentUid, new MembershipIndex.MembershipsCallback() {
             @Override
-            public void onEventsFetched(List<UserEvent> events) {
-                List<UserEvent> waitlistEvents = new ArrayList<>();
-
-                for(UserEvent event : events){
-                    List<String> waitlist = event.getWaitlist();
-
-                    long drawDate = event.getSelectionDateMillis();
-                    long current = System.currentTimeMillis();
-
-                    if(drawDate < current){
-                        continue;
-                    }
-
-                    if(waitlist != null && waitlist.contains(curentUid)){
-                        waitlistEvents.add(event);
+            public void onMembershipsFetched(List<Membership> entries) {
+                long now = System.currentTimeMillis();
+                List<UserEvent> open = new ArrayList<>();
+                for (Membership entry : entries) {
+                    if (entry.getSelectionDateMillis() >= now) {
+                        open.add(toEvent(entry));
                     }
                 }
-                adapter.setItems(waitlistEvents);
+                open.sort((a, b) -> Long.compare(a.getSelectionDateMillis(), b.getSelectionDateMillis()));
+                adapter.setItems(open);
             }
 
             @Override
@@ -104,6 +98,23 @@ public class UWaitlistFrag extends Fragment implements UWaitlistAdapter.OnItemCl
         });
     }
 
+    /**
+     * Builds the event shown in the list from the summary stored in a membership entry.
+     * @param entry the membership entry
+     * @return an event holding the summary fields
+     */
+    private static UserEvent toEvent(Membership entry) {
+        UserEvent event = new UserEvent();
+        event.setId(entry.getEventId());
+        event.setName(entry.getEventName());
+        event.setLocation(entry.getLocation());
+        event.setImageUrl(entry.getImageUrl());
+        event.setStartTimeMillis(entry.getStartTimeMillis());
+        event.setEndTimeMillis(entry.getEndTimeMillis());
+        event.setSelectionDateMillis(entry.getSelectionDateMillis());
+        return event;
+    }
+
 
     /**
      * Handles clicks on an event in the list of events. Navigates the user to the event detail page
@@ -2,13 +2,35 @@ package com.example.myapplication.features.user;
 
 import androidx.annotation.ColorInt;
 
-import java.util.List;
+import com.example.myapplication.core.IntervalIndex;
+import com.example.myapplication.core.ThemeRegistry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * This class represents the UserEvents that get retrieved from Firestore
  * that users can join and create.
  */
 public class UserEvent {
+    /**
+     * Reads an event's time span for an {@link IntervalIndex}. Events without an end time
+     * end when they start.
+     */
+    public static final IntervalIndex.Bounds<UserEvent> TIME_BOUNDS = new IntervalIndex.Bounds<UserEvent>() {
+        @Override
+        public long start(UserEvent event) {
+            return event.getStartTimeMillis();
+        }
+
+        @Override
+        public long end(UserEvent event) {
+            long end = event.getEndTimeMillis();
+            return end > 0 ? end : event.getStartTimeMillis();
+        }
+    };
+
     private String id;
     private String organizerID;
     private  String name;
@@ -17,7 +39,7 @@ public class UserEvent {
     private  Double price;  // Changed from int to Double
     private  String descr;
     private  long endTimeMillis;
-    private  List<String> waitlist;
+    private int waitlistCount;
     private boolean geoRequired;
     private int capacity;
     private long startTimeMillis;
@@ -27,6 +49,13 @@ public class UserEvent {
     private String qrData;
     private String imageUrl;
     private String theme;
+    private int themeId = ThemeRegistry.UNKNOWN;
+    private Double venueLat;
+    private Double venueLng;
+    private int admissionRadiusMeters;
+
+    /** Editable field values when {@link #markUnchanged()} was last called, or null. */
+    private Map<String, Object> baseline;
 
     /**
      * This method is required for Firestore to construct the object
@@ -34,7 +63,7 @@ public class UserEvent {
     public UserEvent() {}
 
     UserEvent(String id, String organizerID, String name, String location, String instructor,
-              Double price, String descr, long endTimeMillis, @ColorInt int bannerColor, List<String> waitlist) {
+              Double price, String descr, long endTimeMillis, @ColorInt int bannerColor) {
         this.id = id;
         this.organizerID = organizerID;
         this.name = name;
@@ -43,7 +72,6 @@ public class UserEvent {
         this.price = price;
         this.descr = descr;
         this.endTimeMillis = endTimeMillis;
-        this.waitlist = waitlist;
     }
 
     public String getId() { return id; }
@@ -53,7 +81,6 @@ public class UserEvent {
     public String getInstructor() { return instructor; }
     public Double getPrice() { return price; }
     public String getDescr(){ return descr; }
-    public List<String> getWaitlist() { return waitlist; }
     public long getEndTimeMillis() { return endTimeMillis; }
 
     public void setId(String id) { this.id = id; }
@@ -64,7 +91,6 @@ public class UserEvent {
     public void setPrice(Double price) { this.price = price; }
     public void setDescr(String descr) { this.descr = descr; }
     public void setEndTimeMillis(long endTimeMillis) { this.endTimeMillis = endTimeMillis; }
-    public void setWaitlist(List<String> waitlist) { this.waitlist = waitlist; }
 
     public void setGeoRequired(boolean geoRequired){ this.geoRequired = geoRequired; }
     public boolean isGeoRequired() {
@@ -127,12 +153,74 @@ public class UserEvent {
         return imageUrl;
     }
 
+    /**
+     * Returns the number of entrants on the waitlist. The entrants themselves are stored as
+     * documents under events/{id}/entrants and are not loaded with the event.
+     * @return the maintained waitlist size
+     */
+    public int getWaitlistCount() {
+        return waitlistCount;
+    }
+
+    public void setWaitlistCount(int waitlistCount) {
+        this.waitlistCount = waitlistCount;
+    }
+
     public String getTheme() {
         return theme;
     }
 
+    /**
+     * Sets the theme name and the matching {@link ThemeRegistry} id.
+     */
     public void setTheme(String theme) {
         this.theme = theme;
+        this.themeId = ThemeRegistry.idOf(theme);
+    }
+
+    /**
+     * @return the {@link ThemeRegistry} id of the theme, or {@link ThemeRegistry#UNKNOWN}
+     */
+    public int getThemeId() {
+        return themeId;
+    }
+
+    public void setThemeId(int themeId) {
+        this.themeId = themeId;
+    }
+
+    /**
+     * @return the venue latitude, or null if the venue has not been located
+     */
+    public Double getVenueLat() {
+        return venueLat;
+    }
+
+    public void setVenueLat(Double venueLat) {
+        this.venueLat = venueLat;
+    }
+
+    /**
+     * @return the venue longitude, or null if the venue has not been located
+     */
+    public Double getVenueLng() {
+        return venueLng;
+    }
+
+    public void setVenueLng(Double venueLng) {
+        this.venueLng = venueLng;
+    }
+
+    /**
+     * @return how close to the venue, in metres, a geo-verified entrant must be to join, or
+     * zero for no limit
+     */
+    public int getAdmissionRadiusMeters() {
+        return admissionRadiusMeters;
+    }
+
+    public void setAdmissionRadiusMeters(int admissionRadiusMeters) {
+        this.admissionRadiusMeters = admissionRadiusMeters;
     }
 
     /**
@@ -145,4 +233,63 @@ public class UserEvent {
         }
         return String.format("$%.2f", price);
     }
+
+    /**
+     * The fields an organizer can edit, keyed by their Firestore names. The waitlist count,
+     * the entrants and the lottery results are maintained by their own transactions and are
+     * never part of an edit.
+     *
+     * @return a new map of the editable fields
+     */
+    public Map<String, Object> editableFields() {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("organizerID", organizerID);
+        fields.put("name", name);
+        fields.put("location", location);
+        fields.put("instructor", instructor);
+        fields.put("price", price);
+        fields.put("priceDisplay", getPriceDisplay());
+        fields.put("descr", descr);
+        fields.put("startTimeMillis", startTimeMillis);
+        fields.put("endTimeMillis", endTimeMillis);
+        fields.put("selectionDateMillis", selectionDateMillis);
+        fields.put("geoRequired", geoRequired);
+        fields.put("capacity", capacity);
+        fields.put("entrantsToDraw", entrantsToDraw);
+        fields.put("posterUrl", posterUrl);
+        fields.put("qrData", qrData);
+        fields.put("imageUrl", imageUrl);
+        fields.put("theme", theme);
+        fields.put("themeId", themeId);
+        fields.put("venueLat", venueLat);
+        fields.put("venueLng", venueLng);
+        fields.put("admissionRadiusMeters", admissionRadiusMeters);
+        return fields;
+    }
+
+    /**
+     * Records the current values as unchanged, for example right after the event was loaded
+     * or saved, so {@link #changedFields()} only reports later edits.
+     */
+    public void markUnchanged() {
+        baseline = editableFields();
+    }
+
+    /**
+     * @return the editable fields changed since {@link #markUnchanged()}, or every editable
+     * field if it was never called
+     */
+    public Map<String, Object> changedFields() {
+        Map<String, Object> fields = editableFields();
+        if (baseline == null) {
+            return fields;
+        }
+        Map<String, Object> changed = new HashMap<>();
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            if (!Objects.equals(field.getValue(), baseline.get(field.getKey()))) {
+                changed.put(field.getKey(), field.getValue());
+            }
+        }
+        return changed;
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.myapplication.features.user;
 
+import android.graphics.drawable.Drawable;
 import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -7,12 +8,28 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.util.ViewPreloadSizeProvider;
 import com.example.myapplication.R;
+import com.example.myapplication.core.CloudinaryUrls;
+import com.example.myapplication.core.ListChange;
+import com.example.myapplication.core.SearchIndex;
+import com.example.myapplication.core.StableIds;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -20,11 +37,53 @@ import java.util.concurrent.TimeUnit;
  *
  * Events are formatted and provide navigation functionality to a specified events
  * detail view.
+ *
+ * Every list update is diffed against the shown list on a background thread by an
+ * {@link AsyncListDiffer}, and rows have stable ids, so only the cards that actually changed
+ * are rebound. A change that leaves the event's image alone is bound with
+ * {@link #PAYLOAD_TEXT}, which updates the text without restarting the Glide load.
+ * Screens can add {@link #createPreloader} to load banners before their cards are bound.
+ *
+ * Names, locations and instructors are indexed in a {@link SearchIndex} the first time a
+ * query is filtered after a submit, so filtering on each keystroke does not lowercase every
+ * event again.
  */
 public class UserEventAdapter extends RecyclerView.Adapter<UserEventAdapter.EventViewHolder> {
 
+    /** Payload for a rebind that only touches the text of a card. */
+    static final Object PAYLOAD_TEXT = "text";
+
+    /** Expected banner width of a card in the two-column grid, used before it is laid out. */
+    private static final int BANNER_WIDTH_DP = 180;
+
+    static final DiffUtil.ItemCallback<UserEvent> DIFF = new DiffUtil.ItemCallback<UserEvent>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull UserEvent oldItem, @NonNull UserEvent newItem) {
+            return oldItem.getId() != null
+                    ? oldItem.getId().equals(newItem.getId())
+                    : oldItem == newItem;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull UserEvent oldItem, @NonNull UserEvent newItem) {
+            return sameText(oldItem, newItem) && sameImage(oldItem, newItem);
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull UserEvent oldItem, @NonNull UserEvent newItem) {
+            return sameImage(oldItem, newItem) ? PAYLOAD_TEXT : null;
+        }
+    };
+
     private final List<UserEvent> original = new ArrayList<>();
-    private final List<UserEvent> visible  = new ArrayList<>();
+    private final AsyncListDiffer<UserEvent> differ = new AsyncListDiffer<>(this, DIFF);
+    private final StableIds ids = new StableIds();
+    private final SearchIndex<UserEvent> search = new SearchIndex<>();
+    private boolean indexed;
+    private String query = "";
+    private ViewPreloadSizeProvider<UserEvent> preloadSizes;
+    private int bannerWidthPx;
 
     public interface OnEventClickListener {
         void onEventClick(UserEvent event);
@@ -32,6 +91,48 @@ public class UserEventAdapter extends RecyclerView.Adapter<UserEventAdapter.Even
 
     private OnEventClickListener listener;
 
+    public UserEventAdapter() {
+        setHasStableIds(true);
+        differ.addListListener((previous, current) -> {
+            Set<Object> keys = new HashSet<>();
+            for (UserEvent event : current) keys.add(key(event));
+            ids.retain(keys);
+        });
+    }
+
+    /**
+     * Creates a scroll listener that loads the banners of the next {@code maxPreload} cards
+     * before they are bound. Preloads use the same request and size as binding, so a card
+     * scrolled into view finds its banner in the memory cache.
+     *
+     * @param glide      the request manager of the screen showing the list
+     * @param maxPreload the number of cards to load ahead of the visible ones
+     * @return a listener to add to the RecyclerView
+     */
+    public RecyclerViewPreloader<UserEvent> createPreloader(RequestManager glide, int maxPreload) {
+        preloadSizes = new ViewPreloadSizeProvider<>();
+        ListPreloader.PreloadModelProvider<UserEvent> models =
+                new ListPreloader.PreloadModelProvider<UserEvent>() {
+            @NonNull
+            @Override
+            public List<UserEvent> getPreloadItems(int position) {
+                List<UserEvent> shown = differ.getCurrentList();
+                if (bannerWidthPx == 0 || position < 0 || position >= shown.size()
+                        || TextUtils.isEmpty(bannerUrl(shown.get(position)))) {
+                    return Collections.emptyList();
+                }
+                return Collections.singletonList(shown.get(position));
+            }
+
+            @Nullable
+            @Override
+            public RequestBuilder<?> getPreloadRequestBuilder(@NonNull UserEvent event) {
+                return bannerRequest(glide, bannerUrl(event), bannerWidthPx);
+            }
+        };
+        return new RecyclerViewPreloader<>(glide, models, preloadSizes, maxPreload);
+    }
+
     /**
      * @param listener
      */
@@ -46,42 +147,88 @@ public class UserEventAdapter extends RecyclerView.Adapter<UserEventAdapter.Even
      */
     public void submit(List<UserEvent> events) {
         original.clear();
-        visible.clear();
+        search.clear();
+        indexed = false;
         if (events != null) {
             original.addAll(events);
-            visible.addAll(events);
         }
-        notifyDataSetChanged();
+        query = "";
+        differ.submitList(new ArrayList<>(original));
+    }
+
+    /**
+     * Applies positional changes to the list last submitted. Only the affected
+     * rows are rebound; while a filter query is active the rows are filtered
+     * again.
+     *
+     * @param changes changes to the submitted list, in order
+     */
+    public void applyChanges(List<ListChange<UserEvent>> changes) {
+        for (ListChange<UserEvent> change : changes) {
+            if (indexed && change.getType() != ListChange.Type.INSERTED) {
+                search.remove(original.get(change.getPosition()));
+            }
+            change.applyTo(original);
+            if (indexed && change.getItem() != null) {
+                index(change.getItem());
+            }
+        }
+        filter(query);
     }
 
     /**
      * Filters the in-memory list using the provided query and updates the visible items.
      */
     public void filter(String query) {
-        visible.clear();
+        this.query = query == null ? "" : query;
+        List<UserEvent> visible = new ArrayList<>();
         if (TextUtils.isEmpty(query)) {
             visible.addAll(original);
         } else {
-            String lower = query.toLowerCase(Locale.getDefault());
+            if (!indexed) {
+                for (UserEvent event : original) {
+                    index(event);
+                }
+                indexed = true;
+            }
+            Set<UserEvent> hits = search.query(query);
             for (UserEvent event : original) {
-                String name  = safeLower(event.getName());
-                String loc   = safeLower(event.getLocation());
-                String instr = safeLower(event.getInstructor());
-
-                if (name.contains(lower) || loc.contains(lower) || instr.contains(lower)) {
+                if (hits.contains(event)) {
                     visible.add(event);
                 }
             }
         }
-        notifyDataSetChanged();
+        differ.submitList(visible);
+    }
+
+    private void index(UserEvent event) {
+        search.put(event, event.getName(), event.getLocation(), event.getInstructor());
+    }
+
+    private static boolean sameText(UserEvent a, UserEvent b) {
+        return Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getPrice(), b.getPrice())
+                && Objects.equals(a.getLocation(), b.getLocation())
+                && Objects.equals(a.getInstructor(), b.getInstructor())
+                && a.getSelectionDateMillis() == b.getSelectionDateMillis();
+    }
+
+    private static boolean sameImage(UserEvent a, UserEvent b) {
+        return Objects.equals(a.getImageUrl(), b.getImageUrl())
+                && Objects.equals(a.getPosterUrl(), b.getPosterUrl());
     }
 
     /**
-     * @param s
-     * @return
+     * @param position the position of the event
+     * @return the stable id of the event at the position
      */
-    private static String safeLower(String s) {
-        return s == null ? "" : s.toLowerCase(Locale.getDefault());
+    @Override
+    public long getItemId(int position) {
+        return ids.idFor(key(differ.getCurrentList().get(position)));
+    }
+
+    private static Object key(UserEvent event) {
+        return event.getId() != null ? event.getId() : event;
     }
 
     /**
@@ -95,7 +242,33 @@ public class UserEventAdapter extends RecyclerView.Adapter<UserEventAdapter.Even
     public EventViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_user_event, parent, false);
-        return new EventViewHolder(view);
+        EventViewHolder holder = new EventViewHolder(view);
+        if (preloadSizes != null && holder.bannerImage != null) {
+            preloadSizes.setView(holder.bannerImage);
+        }
+        return holder;
+    }
+
+    /**
+     * Binds only the text of a card when every payload is {@link #PAYLOAD_TEXT},
+     * otherwise binds the whole card.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull EventViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty() && allText(payloads)) {
+            bindText(differ.getCurrentList().get(position), holder);
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
+    private static boolean allText(List<Object> payloads) {
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_TEXT) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -107,8 +280,23 @@ public class UserEventAdapter extends RecyclerView.Adapter<UserEventAdapter.Even
      */
     @Override
     public void onBindViewHolder(@NonNull EventViewHolder holder, int position) {
-        UserEvent event = visible.get(position);
+        UserEvent event = differ.getCurrentList().get(position);
+
+        bindText(event, holder);
+        bindBannerImage(event, holder);
+
+        holder.itemView.setOnClickListener(x -> {
+            if (listener != null) {
+                int pos = holder.getBindingAdapterPosition();
+                List<UserEvent> shown = differ.getCurrentList();
+                if (pos != RecyclerView.NO_POSITION && pos < shown.size()) {
+                    listener.onEventClick(shown.get(pos));
+                }
+            }
+        });
+    }
 
+    private void bindText(UserEvent event, EventViewHolder holder) {
         holder.name.setText(event.getName());
         holder.price.setText(String.valueOf(event.getPrice()));
         holder.location.setText(event.getLocation() == null ? "" : event.getLocation());
@@ -118,16 +306,6 @@ public class UserEventAdapter extends RecyclerView.Adapter<UserEventAdapter.Even
                 ? "" : String.format(Locale.getDefault(), "With %s", instr));
 
         holder.timeRemaining.setText(formatTimeRemaining(event.getSelectionDateMillis()));
-        bindBannerImage(event, holder);
-
-        holder.itemView.setOnClickListener(x -> {
-            if (listener != null) {
-                int pos = holder.getBindingAdapterPosition();
-                if (pos != RecyclerView.NO_POSITION && pos < visible.size()) {
-                    listener.onEventClick(visible.get(pos));
-                }
-            }
-        });
     }
 
     /**
@@ -135,7 +313,7 @@ public class UserEventAdapter extends RecyclerView.Adapter<UserEventAdapter.Even
      */
     @Override
     public int getItemCount() {
-        return visible.size();
+        return differ.getCurrentList().size();
     }
 
     static class EventViewHolder extends RecyclerView.ViewHolder {
@@ -180,26 +358,41 @@ public class UserEventAdapter extends RecyclerView.Adapter<UserEventAdapter.Even
 
     /**
      * Loads the event poster/image into the banner view, falling back to a gradient background.
+     * A Cloudinary copy sized for the cell is loaded, with a tiny copy shown until it arrives.
      */
     private void bindBannerImage(UserEvent event, EventViewHolder holder) {
         if (holder.bannerImage == null) {
             return;
         }
 
-        String imageUrl = !TextUtils.isEmpty(event.getImageUrl())
-                ? event.getImageUrl()
-                : event.getPosterUrl();
+        String imageUrl = bannerUrl(event);
 
         if (!TextUtils.isEmpty(imageUrl)) {
             holder.bannerImage.setBackground(null);
-            Glide.with(holder.bannerImage.getContext())
-                    .load(imageUrl)
-                    .centerCrop()
-                    .into(holder.bannerImage);
+            bannerWidthPx = CloudinaryUrls.widthPx(holder.bannerImage, BANNER_WIDTH_DP);
+            RequestManager glide = Glide.with(holder.bannerImage.getContext());
+            RequestBuilder<Drawable> request = bannerRequest(glide, imageUrl, bannerWidthPx);
+            String thumbnailUrl = CloudinaryUrls.thumbnail(imageUrl);
+            // Only a rewritten URL is smaller; otherwise it would download the original twice
+            if (!imageUrl.equals(thumbnailUrl)) {
+                request = request.thumbnail(glide.load(thumbnailUrl).centerCrop());
+            }
+            request.into(holder.bannerImage);
         } else {
             Glide.with(holder.bannerImage.getContext()).clear(holder.bannerImage);
             holder.bannerImage.setImageDrawable(null);
             holder.bannerImage.setBackgroundResource(R.drawable.bg_login_gradient);
         }
     }
+
+    private static String bannerUrl(UserEvent event) {
+        return !TextUtils.isEmpty(event.getImageUrl()) ? event.getImageUrl() : event.getPosterUrl();
+    }
+
+    /**
+     * The banner request shared by binding and preloading, so both use one cache entry.
+     */
+    private static RequestBuilder<Drawable> bannerRequest(RequestManager glide, String imageUrl, int widthPx) {
+        return glide.load(CloudinaryUrls.sized(imageUrl, widthPx)).centerCrop();
+    }
 }
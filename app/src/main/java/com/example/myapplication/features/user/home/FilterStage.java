@@ -0,0 +1,69 @@
+package com.example.myapplication.features.user.home;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.myapplication.features.user.UserEvent;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One memoized step of the home screen's filter chain.
+ * <p>
+ * A stage remembers the list it was last given, by identity, and the key describing its
+ * filter settings. When both are unchanged it returns its previous output, the same list
+ * instance, so the stages after it are cache hits too. Changing one filter therefore only
+ * recomputes that stage and the ones after it.
+ */
+final class FilterStage {
+
+    /**
+     * Computes a stage's output from its input.
+     */
+    interface Filter {
+        @NonNull
+        List<UserEvent> apply(@NonNull List<UserEvent> input);
+    }
+
+    @Nullable
+    private List<UserEvent> lastInput;
+    @Nullable
+    private Object lastKey;
+    @Nullable
+    private List<UserEvent> lastOutput;
+    private int computeCount;
+
+    /**
+     * @param input  the previous stage's output
+     * @param key    the filter settings, compared with equals
+     * @param filter computes the output when the input or key changed
+     * @return the read-only output for the input and key
+     */
+    @NonNull
+    List<UserEvent> apply(@NonNull List<UserEvent> input, @Nullable Object key, @NonNull Filter filter) {
+        if (lastOutput != null && input == lastInput && Objects.equals(key, lastKey)) {
+            return lastOutput;
+        }
+        computeCount++;
+        lastInput = input;
+        lastKey = key;
+        lastOutput = Collections.unmodifiableList(filter.apply(input));
+        return lastOutput;
+    }
+
+    /**
+     * Forces the next {@link #apply} to recompute, for filters that depend on the time.
+     */
+    void invalidate() {
+        lastOutput = null;
+    }
+
+    /**
+     * @return how many times the stage has computed its output
+     */
+    int getComputeCount() {
+        return computeCount;
+    }
+}
@@ -1,19 +1,43 @@
 package com.example.myapplication.features.user.home;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.example.myapplication.core.SearchPipeline;
 import com.example.myapplication.data.firebase.FirebaseEventRepository;
+import com.example.myapplication.data.repo.EventPage;
+import com.example.myapplication.data.repo.EventQuery;
+import com.example.myapplication.data.repo.EventRepository;
 import com.example.myapplication.features.user.UserEvent;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentSnapshot;
 
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Controller for the user home screen. Coordinates data loading and filtering.
+ *
+ * Filtering runs through a {@link SearchPipeline}: typed queries are debounced, the model's
+ * filters and search run off the main thread, and only the result of the latest query or
+ * filter change reaches the view.
  */
 public class UHomeController {
+    private static final int PAGE_SIZE = 30;
+
+    /**
+     * Fewer visible events than this do not fill the screen, so the list cannot be scrolled
+     * to ask for more; the next page is then fetched straight away.
+     */
+    static final int MIN_VISIBLE_EVENTS = 12;
+
+    /**
+     * Pages fetched in a row on the controller's own account before it waits for the user, so
+     * a filter that matches almost nothing does not page in the whole collection.
+     */
+    static final int MAX_AUTO_PAGES = 3;
+
     private final FirebaseEventRepository repository;
     private final FirebaseAuth auth;
     private final UHomeModel model;
@@ -21,9 +45,20 @@ public class UHomeController {
     private String searchQuery = "";
     @Nullable
     private String currentUserId;
+    @Nullable
+    private DocumentSnapshot cursor;
+    private boolean hasMore = true;
+    private boolean loading;
+    /** Incremented for every page request; responses to older requests are ignored. */
+    private int generation;
+    /** Pages fetched since the user last asked for events, see {@link #MAX_AUTO_PAGES}. */
+    private int autoPages;
+    private final SearchPipeline<List<UserEvent>> pipeline;
+    private boolean notifyIfEmpty;
 
     /**
-     * Constructs a UHomeController with the specified dependencies.
+     * Constructs a UHomeController with the specified dependencies. Filtering runs inline
+     * on the calling thread.
      *
      * @param repository The Firebase repository for event data operations.
      * @param auth The Firebase authentication instance for user management.
@@ -34,23 +69,50 @@ public class UHomeController {
                            FirebaseAuth auth,
                            UHomeModel model,
                            UHomeView view) {
+        this(repository, auth, model, view, SearchPipeline.Config.inline());
+    }
+
+    /**
+     * Constructs a UHomeController with the specified dependencies.
+     *
+     * @param repository The Firebase repository for event data operations.
+     * @param auth The Firebase authentication instance for user management.
+     * @param model The model that holds event data and filter state for this screen.
+     * @param view The view interface for displaying user home screen content.
+     * @param searchConfig The threads and debounce used for filtering.
+     */
+    public UHomeController(FirebaseEventRepository repository,
+                           FirebaseAuth auth,
+                           UHomeModel model,
+                           UHomeView view,
+                           SearchPipeline.Config searchConfig) {
         this.repository = repository;
         this.auth = auth;
         this.model = model;
         this.view = view;
+        this.pipeline = new SearchPipeline<>(searchConfig, model::buildDisplayEvents, this::showFiltered);
     }
 
     /**
-     * Clears the attached view reference to avoid using a dead Fragment.
+     * Clears the attached view reference to avoid using a dead Fragment, and drops any
+     * filtering still in progress.
      */
     public void detachView() {
         view = null;
+        pipeline.cancel();
     }
 
     /**
-     * Initiates loading of all events and applies the current filters.
-     * Fetches events from the repository, filters them for display based on the current user,
-     * and updates the view with the filtered results.
+     * Loads the first page of events that are still open for registration and applies the
+     * current filters. Any previously loaded pages are replaced, and a page that is still
+     * being fetched is discarded when it arrives.
+     *
+     * Pages are read with {@link EventQuery.Window#REGISTRATION_OPEN}, events whose lottery
+     * draw has not passed. That is the set the home screen has always shown: before pages were
+     * read on the server, the whole collection was downloaded and every event whose
+     * "selectionDateMillis" had passed, including events without one (0), was dropped on the
+     * device, see {@link UHomeModel#isOpenEvent}. Querying the draw date instead of the end
+     * time only stops those events from being downloaded at all.
      */
     public void loadEvents() {
         final String userId = resolveUserId();
@@ -60,20 +122,77 @@ public class UHomeController {
             }
             return;
         }
+        cursor = null;
+        hasMore = true;
+        autoPages = 0;
+        fetchPage(userId, true);
+    }
+
+    /**
+     * Loads the next page of events after the last one that was loaded, if there is one.
+     * Does nothing while a page is already being fetched. Called when the user scrolls or asks
+     * for more, so the next short pages are fetched on their own again.
+     */
+    public void loadMoreEvents() {
+        autoPages = 0;
+        fetchNextPage();
+    }
+
+    private void fetchNextPage() {
+        final String userId = resolveUserId();
+        if (userId == null || cursor == null || !hasMore) {
+            return;
+        }
+        fetchPage(userId, false);
+    }
 
-        repository.getAllEvents(new FirebaseEventRepository.EventListCallback() {
+    /**
+     * Requests one page from the repository and merges it into the model.
+     *
+     * A first page always starts a new request; a next page is skipped while another request
+     * is in flight. Only the response to the latest request is applied.
+     *
+     * @param userId The signed-in user, whose own events are hidden.
+     * @param firstPage True to replace the stored events, false to append to them.
+     */
+    private void fetchPage(String userId, boolean firstPage) {
+        if (loading && !firstPage) {
+            return;
+        }
+        loading = true;
+        final int request = ++generation;
+        EventQuery query = EventQuery.create()
+                .window(EventQuery.Window.REGISTRATION_OPEN)
+                .themes(serverThemes(model.getSelectedInterests()))
+                .pageSize(PAGE_SIZE);
+
+        repository.queryEvents(query, firstPage ? null : cursor, new EventRepository.EventPageCallback() {
             @Override
-            public void onEventsFetched(List<UserEvent> events) {
+            public void onPageFetched(EventPage page) {
+                if (request != generation) {
+                    return;
+                }
+                loading = false;
                 if (view == null) {
                     return;
                 }
-                List<UserEvent> displayable = UHomeModel.filterEventsForDisplay(events, userId);
-                model.setEvents(displayable);
-                applyFiltersInternal(true);
+                cursor = page.getCursor();
+                hasMore = page.hasMore();
+                List<UserEvent> displayable = UHomeModel.filterEventsForDisplay(page.getEvents(), userId);
+                if (firstPage) {
+                    model.setEvents(displayable);
+                } else {
+                    model.addEvents(displayable);
+                }
+                applyFiltersInternal(firstPage);
             }
 
             @Override
             public void onError(Exception e) {
+                if (request != generation) {
+                    return;
+                }
+                loading = false;
                 if (view != null) {
                     view.showError("Failed to fetch: " + e.getMessage());
                 }
@@ -82,25 +201,32 @@ public class UHomeController {
     }
 
     /**
-     * Updates the stored search query and reapplies filters.
+     * Updates the stored search query and reapplies filters once typing pauses.
      * Refreshes the view to display events matching the new search criteria.
      *
      * @param query The new search query, or null to clear the search.
      */
     public void onSearchQueryChanged(@Nullable String query) {
         searchQuery = query == null ? "" : query;
-        applyFiltersInternal(false);
+        if (view != null) {
+            pipeline.submit(searchQuery);
+        }
     }
 
     /**
      * Updates the selected interests and reapplies filters.
-     * Refreshes the view to display only events matching the selected interests.
+     * Refreshes the view to display only events matching the selected interests, then reloads
+     * the pages with the interests filtered on the server, see {@link #serverThemes}.
      *
      * @param interests The list of interest tags to filter by.
      */
     public void updateInterests(List<String> interests) {
+        boolean changed = !model.getSelectedInterests().equals(interests);
         model.setSelectedInterests(interests);
         applyFiltersInternal(false);
+        if (changed) {
+            loadEvents();
+        }
     }
 
     /**
@@ -128,9 +254,13 @@ public class UHomeController {
      * Clears all active filters (interests and availability) and reapplies them.
      */
     public void clearAllFilters() {
+        boolean hadInterests = !model.getSelectedInterests().isEmpty();
         model.setSelectedInterests(new ArrayList<>());
         model.clearAvailability();
         applyFiltersInternal(false);
+        if (hadInterests) {
+            loadEvents();
+        }
     }
 
     /**
@@ -172,7 +302,8 @@ public class UHomeController {
     }
 
     /**
-     * Applies current filters to the event list and updates the view.
+     * Applies current filters to the event list without waiting, and updates the view
+     * when the result arrives.
      *
      * @param notifyIfEmpty Whether to show an empty state message if no events match the filters.
      */
@@ -180,12 +311,51 @@ public class UHomeController {
         if (view == null) {
             return;
         }
-        List<UserEvent> filtered = model.buildDisplayEvents();
+        this.notifyIfEmpty |= notifyIfEmpty;
+        pipeline.submitNow(searchQuery);
+    }
+
+    /**
+     * Shows the events that matched the latest filters and query.
+     *
+     * @param query The query the events were matched against.
+     * @param filtered The matching events.
+     */
+    private void showFiltered(@NonNull String query, @NonNull List<UserEvent> filtered) {
+        boolean notify = notifyIfEmpty;
+        notifyIfEmpty = false;
+        if (view == null) {
+            return;
+        }
         if (filtered.isEmpty()) {
-            view.showEmptyState(notifyIfEmpty ? "No events found" : null);
+            view.showEmptyState(notify ? "No events found" : null);
         } else {
-            view.showEvents(filtered, searchQuery);
+            view.showEvents(filtered, query);
+        }
+        // Pages whose events are all filtered out add nothing to scroll, so keep filling,
+        // but only for a few pages; after that the user asks for more.
+        boolean unscrollable = filtered.size() < MIN_VISIBLE_EVENTS && hasMore;
+        if (unscrollable && !loading && autoPages < MAX_AUTO_PAGES) {
+            autoPages++;
+            fetchNextPage();
+        }
+        view.showLoadMore(unscrollable && !loading);
+    }
+
+    /**
+     * The interests to send with the page query, so pages only hold events of the selected
+     * themes instead of being downloaded and mostly filtered out on the device. A selection
+     * larger than a single {@code whereIn} allows is left to the model alone.
+     *
+     * @param interests The selected interests.
+     * @return The themes for {@link EventQuery#themes}, or null to read every theme.
+     */
+    @Nullable
+    static List<String> serverThemes(List<String> interests) {
+        if (interests == null || interests.isEmpty() || interests.size() > EventQuery.MAX_THEMES) {
+            return null;
         }
+        return interests;
     }
 
     /**
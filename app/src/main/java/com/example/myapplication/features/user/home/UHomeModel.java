@@ -3,22 +3,68 @@ package com.example.myapplication.features.user.home;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.example.myapplication.core.IntervalIndex;
+import com.example.myapplication.core.SearchIndex;
+import com.example.myapplication.core.ThemeRegistry;
 import com.example.myapplication.features.user.UserEvent;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Model for the user home screen. Holds the event data and active filters.
+ *
+ * The model is updated on the main thread while {@link #buildDisplayEvents(String)} may run
+ * on a search thread. Lists are replaced rather than changed in place, so a search always
+ * works on one consistent copy.
+ *
+ * Display events come from a chain of memoized {@link FilterStage}s: open events, then
+ * interests, then availability, then the search query. Each stage is recomputed only when
+ * its input list or its own setting changed, so typing a query does not filter by interests
+ * and availability again, and changing the availability reuses the interest stage.
+ *
+ * Events are stored in an {@link IntervalIndex} over their start and end times, built once
+ * per page load, so the open and availability stages look up the events in range instead of
+ * comparing the times of every event.
+ *
+ * The events and their {@link SearchIndex} are published together in one immutable
+ * {@link Loaded} snapshot, so a search running on the background thread never sees a
+ * half-built index or an index for a different list.
  */
 public class UHomeModel {
-    private final List<UserEvent> events = new ArrayList<>();
-    private final List<String> selectedInterests = new ArrayList<>();
+    /**
+     * The stored events and the search index over them.
+     */
+    private static final class Loaded {
+        final IntervalIndex<UserEvent> events;
+        final SearchIndex<UserEvent> search;
+
+        Loaded(IntervalIndex<UserEvent> events, SearchIndex<UserEvent> search) {
+            this.events = events;
+            this.search = search;
+        }
+    }
+
+    private volatile Loaded loaded =
+            new Loaded(IntervalIndex.of(null, UserEvent.TIME_BOUNDS), new SearchIndex<>());
+    private volatile List<String> selectedInterests = Collections.emptyList();
+    private volatile ThemeRegistry.Selection interestSelection = ThemeRegistry.Selection.of(null);
     @Nullable
-    private Long availabilityStartMillis;
+    private volatile Long availabilityStartMillis;
     @Nullable
-    private Long availabilityEndMillis;
+    private volatile Long availabilityEndMillis;
+
+    final FilterStage openStage = new FilterStage();
+    final FilterStage interestStage = new FilterStage();
+    final FilterStage availabilityStage = new FilterStage();
+    final FilterStage queryStage = new FilterStage();
+    /** First time at which an event kept by the open stage stops being open. */
+    private long openStageExpiresAt;
 
     /**
      * Replaces the current event list with the provided collection.
@@ -27,15 +73,37 @@ public class UHomeModel {
      * @param newEvents The list of events to store, or null to clear all events.
      */
     public void setEvents(@Nullable List<UserEvent> newEvents) {
-        events.clear();
-        if (newEvents == null) {
+        IntervalIndex<UserEvent> stored = IntervalIndex.of(newEvents, UserEvent.TIME_BOUNDS);
+        SearchIndex<UserEvent> search = new SearchIndex<>();
+        for (UserEvent event : stored.items()) {
+            index(search, event);
+        }
+        loaded = new Loaded(stored, search);
+    }
+
+    /**
+     * Appends the provided events to the stored list, skipping nulls.
+     * Used when a further page of events has been loaded.
+     *
+     * @param moreEvents The events to append, or null to leave the list unchanged.
+     */
+    public void addEvents(@Nullable List<UserEvent> moreEvents) {
+        if (moreEvents == null) {
             return;
         }
-        for (UserEvent event : newEvents) {
-            if (event != null) {
-                events.add(event);
-            }
+        Loaded current = loaded;
+        IntervalIndex<UserEvent> stored = current.events.plus(moreEvents, UserEvent.TIME_BOUNDS);
+        List<UserEvent> added = stored.items();
+        // Appending only adds entries, one synchronized put at a time, so a search still using
+        // the previous snapshot finds all of its events; it ignores the new ones
+        for (int i = current.events.size(); i < added.size(); i++) {
+            index(current.search, added.get(i));
         }
+        loaded = new Loaded(stored, current.search);
+    }
+
+    private static void index(SearchIndex<UserEvent> search, UserEvent event) {
+        search.put(event, event.getName(), event.getLocation(), event.getInstructor());
     }
 
     /**
@@ -45,7 +113,7 @@ public class UHomeModel {
      * @return A new ArrayList containing all stored events.
      */
     public List<UserEvent> getEvents() {
-        return new ArrayList<>(events);
+        return new ArrayList<>(loaded.events.items());
     }
 
     /**
@@ -55,10 +123,11 @@ public class UHomeModel {
      * @param interests The list of interest tags to filter by, or null to clear all interests.
      */
     public void setSelectedInterests(@Nullable List<String> interests) {
-        selectedInterests.clear();
-        if (interests != null) {
-            selectedInterests.addAll(interests);
-        }
+        // Compiled first, so a search that reads the new list also reads its selection.
+        interestSelection = ThemeRegistry.Selection.of(interests);
+        selectedInterests = interests == null
+                ? Collections.emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(interests));
     }
 
     /**
@@ -114,28 +183,107 @@ public class UHomeModel {
 
     /**
      * Applies the currently configured filters to the stored events.
-     * Filters out past events, applies interest matching, and applies availability range filtering.
+     * Keeps events that are still open, then applies interest matching and availability
+     * range filtering.
      *
-     * @return A new list containing only events that match all active filters.
+     * @return A read-only list containing only events that match all active filters.
      */
     public List<UserEvent> buildDisplayEvents() {
+        return buildDisplayEvents(null);
+    }
+
+    /**
+     * Applies the configured filters and keeps only the events whose name, location or
+     * instructor match the search query. Safe to call off the main thread.
+     *
+     * @param query The search text; null or blank matches every event.
+     * @return A read-only list containing only events that match all active filters and the
+     * query.
+     */
+    @NonNull
+    public synchronized List<UserEvent> buildDisplayEvents(@Nullable String query) {
         long now = System.currentTimeMillis();
-        List<UserEvent> working = new ArrayList<>();
-        for (UserEvent event : events) {
-            if (event != null && isUpcomingEvent(event, now)) {
-                working.add(event);
+        if (now >= openStageExpiresAt) {
+            openStage.invalidate();
+        }
+        Loaded current = loaded;
+        IntervalIndex<UserEvent> index = current.events;
+        List<UserEvent> open = openStage.apply(index.items(), null,
+                input -> filterOpenEvents(index, now));
+
+        List<String> interests = selectedInterests;
+        ThemeRegistry.Selection selection = interestSelection;
+        List<UserEvent> byInterest = interestStage.apply(open, interests,
+                input -> interests.isEmpty() ? input : filterEventsByThemes(input, selection));
+
+        Long startMillis = availabilityStartMillis;
+        Long endMillis = availabilityEndMillis;
+        List<UserEvent> byAvailability = availabilityStage.apply(byInterest,
+                Arrays.asList(startMillis, endMillis), input -> {
+                    if (startMillis == null || endMillis == null) {
+                        return input;
+                    }
+                    return filterByAvailability(index, input, startMillis, endMillis);
+                });
+
+        List<String> tokens = SearchIndex.tokenize(query);
+        return queryStage.apply(byAvailability, tokens, input -> {
+            if (tokens.isEmpty()) {
+                return input;
+            }
+            Set<UserEvent> hits = current.search.query(query);
+            List<UserEvent> matched = new ArrayList<>();
+            for (UserEvent event : input) {
+                if (hits.contains(event)) {
+                    matched.add(event);
+                }
+            }
+            return matched;
+        });
+    }
+
+    /**
+     * Keeps the events that are still open at the given time and remembers when the first
+     * of them closes, so the stage is recomputed then. Only events that have not ended are
+     * checked for their draw date.
+     */
+    private List<UserEvent> filterOpenEvents(IntervalIndex<UserEvent> index, long now) {
+        List<UserEvent> open = new ArrayList<>();
+        long expiresAt = Long.MAX_VALUE;
+        for (UserEvent event : index.endingAtOrAfter(now)) {
+            if (isOpenEvent(event, now)) {
+                open.add(event);
+                expiresAt = Math.min(expiresAt, openUntil(event) + 1);
             }
         }
+        openStageExpiresAt = expiresAt;
+        return open;
+    }
+
+    /**
+     * Keeps the events of {@code input} that overlap the days of the availability range,
+     * looking the overlapping events up in the index.
+     */
+    private static List<UserEvent> filterByAvailability(IntervalIndex<UserEvent> index,
+                                                        List<UserEvent> input,
+                                                        long startMillis, long endMillis) {
+        Calendar calendar = Calendar.getInstance();
+        long from = startOfDay(calendar, Math.min(startMillis, endMillis));
+        long to = endOfDay(calendar, Math.max(startMillis, endMillis));
 
-        if (!selectedInterests.isEmpty()) {
-            working = filterEventsByInterests(working, selectedInterests);
+        HashSet<UserEvent> inRange = new HashSet<>();
+        for (UserEvent event : index.overlapping(from, to)) {
+            if (event.getStartTimeMillis() != 0 || event.getEndTimeMillis() != 0) {
+                inRange.add(event);
+            }
         }
-        if (availabilityStartMillis != null && availabilityEndMillis != null) {
-            long start = startOfDay(availabilityStartMillis);
-            long end = endOfDay(availabilityEndMillis);
-            working = filterEventsByAvailability(working, start, end);
+        List<UserEvent> filtered = new ArrayList<>();
+        for (UserEvent event : input) {
+            if (inRange.contains(event)) {
+                filtered.add(event);
+            }
         }
-        return working;
+        return filtered;
     }
 
     /**
@@ -179,6 +327,28 @@ public class UHomeModel {
         return actualEnd >= currentMillis;
     }
 
+    /**
+     * Returns whether an event is shown on the home screen: it has not finished and its
+     * lottery draw has not happened yet.
+     *
+     * @param event The event to check.
+     * @param currentMillis The current time in milliseconds since epoch.
+     * @return True if the event is upcoming and its draw date is in the future.
+     */
+    public static boolean isOpenEvent(@NonNull UserEvent event, long currentMillis) {
+        return openUntil(event) >= currentMillis;
+    }
+
+    /**
+     * @return the last millisecond at which the event is still open
+     */
+    private static long openUntil(@NonNull UserEvent event) {
+        long start = event.getStartTimeMillis();
+        long end = event.getEndTimeMillis();
+        long actualEnd = (end > 0) ? end : start;
+        return Math.min(actualEnd, event.getSelectionDateMillis());
+    }
+
     /**
      * Filters events by matching their theme with the provided interests.
      * Uses case-insensitive matching between event themes and interest tags.
@@ -189,27 +359,25 @@ public class UHomeModel {
      */
     public static List<UserEvent> filterEventsByInterests(@Nullable List<UserEvent> allEvents,
                                                           @Nullable List<String> interests) {
-        List<UserEvent> filtered = new ArrayList<>();
-        if (allEvents == null || allEvents.isEmpty()) {
-            return filtered;
-        }
         if (interests == null || interests.isEmpty()) {
-            filtered.addAll(allEvents);
+            return allEvents == null ? new ArrayList<>() : new ArrayList<>(allEvents);
+        }
+        return filterEventsByThemes(allEvents, ThemeRegistry.Selection.of(interests));
+    }
+
+    /**
+     * Keeps the events whose theme is in the selection. Catalogue themes are a single bit
+     * test on the event's theme id.
+     */
+    private static List<UserEvent> filterEventsByThemes(@Nullable List<UserEvent> allEvents,
+                                                        ThemeRegistry.Selection selection) {
+        List<UserEvent> filtered = new ArrayList<>();
+        if (allEvents == null) {
             return filtered;
         }
         for (UserEvent event : allEvents) {
-            if (event == null) {
-                continue;
-            }
-            String theme = event.getTheme();
-            if (theme == null || theme.isEmpty()) {
-                continue;
-            }
-            for (String interest : interests) {
-                if (interest != null && theme.equalsIgnoreCase(interest)) {
-                    filtered.add(event);
-                    break;
-                }
+            if (event != null && selection.matches(event.getThemeId(), event.getTheme())) {
+                filtered.add(event);
             }
         }
         return filtered;
@@ -253,11 +421,11 @@ public class UHomeModel {
     /**
      * Calculates the start of the day (00:00:00.000) for the given timestamp.
      *
+     * @param calendar A calendar to reuse for the calculation.
      * @param timeMillis A timestamp in milliseconds since epoch.
      * @return The timestamp of the start of that day in milliseconds since epoch.
      */
-    private static long startOfDay(long timeMillis) {
-        Calendar calendar = Calendar.getInstance();
+    private static long startOfDay(Calendar calendar, long timeMillis) {
         calendar.setTimeInMillis(timeMillis);
         calendar.set(Calendar.HOUR_OF_DAY, 0);
         calendar.set(Calendar.MINUTE, 0);
@@ -269,11 +437,11 @@ public class UHomeModel {
     /**
      * Calculates the end of the day (23:59:59.999) for the given timestamp.
      *
+     * @param calendar A calendar to reuse for the calculation.
      * @param timeMillis A timestamp in milliseconds since epoch.
      * @return The timestamp of the end of that day in milliseconds since epoch.
      */
-    private static long endOfDay(long timeMillis) {
-        Calendar calendar = Calendar.getInstance();
+    private static long endOfDay(Calendar calendar, long timeMillis) {
         calendar.setTimeInMillis(timeMillis);
         calendar.set(Calendar.HOUR_OF_DAY, 23);
         calendar.set(Calendar.MINUTE, 59);
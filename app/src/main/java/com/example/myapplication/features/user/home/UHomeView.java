@@ -34,4 +34,13 @@ public interface UHomeView {
      * @param message The error message to display.
      */
     void showError(String message);
-}
\ No newline at end of file
+
+    /**
+     * Shows or hides the control that loads the next page on request.
+     * Shown when the visible events do not fill the screen, so the list cannot be scrolled to
+     * load more, and the controller has stopped fetching pages on its own.
+     *
+     * @param visible True to show the control.
+     */
+    void showLoadMore(boolean visible);
+}
@@ -1,5 +1,6 @@
 package com.example.myapplication.features.user.profile;
 
+import com.example.myapplication.core.ServiceLocator;
 import com.google.firebase.auth.AuthCredential;
 import com.google.firebase.auth.EmailAuthProvider;
 import com.google.firebase.auth.FirebaseUser;
@@ -61,7 +62,11 @@ public class ProfileModel {
         com.google.firebase.firestore.WriteBatch batch = db.batch();
         batch.set(db.collection("users").document(uid), updates, SetOptions.merge());
         batch.commit()
-                .addOnSuccessListener(aVoid -> callback.onSuccess(null))
+                .addOnSuccessListener(aVoid -> {
+                    // Other screens re-read the edited name instead of showing the cached one
+                    ServiceLocator.getUserDirectory().invalidate(uid);
+                    callback.onSuccess(null);
+                })
                 .addOnFailureListener(callback::onFailure);
     }
 
@@ -0,0 +1,24 @@
+package com.example.myapplication;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * User ids shared by the unit tests.
+ */
+public final class TestUsers {
+
+    private TestUsers() {}
+
+    /**
+     * @param n the number of users
+     * @return the ids "user0" to "user{n-1}", in order
+     */
+    public static List<String> ids(int n) {
+        List<String> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            list.add("user" + i);
+        }
+        return list;
+    }
+}
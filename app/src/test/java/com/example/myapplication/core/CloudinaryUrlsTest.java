@@ -0,0 +1,45 @@
+package com.example.myapplication.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class CloudinaryUrlsTest {
+
+    private static final String POSTER =
+            "https://res.cloudinary.com/demo/image/upload/v1712345678/poster_abc.webp";
+
+    @Test
+    public void sized_insertsWidthFormatAndQualityAfterUpload() {
+        assertEquals("https://res.cloudinary.com/demo/image/upload/"
+                        + "w_480,c_limit,f_auto,q_auto/v1712345678/poster_abc.webp",
+                CloudinaryUrls.sized(POSTER, 473));
+    }
+
+    @Test
+    public void thumbnail_requestsTinyLowQualityCopy() {
+        assertEquals("https://res.cloudinary.com/demo/image/upload/"
+                        + "w_48,c_limit,f_auto,q_auto:low/v1712345678/poster_abc.webp",
+                CloudinaryUrls.thumbnail(POSTER));
+    }
+
+    @Test
+    public void bucket_roundsUpAndCapsAtPreparedSize() {
+        assertEquals(160, CloudinaryUrls.bucket(0));
+        assertEquals(160, CloudinaryUrls.bucket(160));
+        assertEquals(320, CloudinaryUrls.bucket(161));
+        assertEquals(ImagePreparer.MAX_DIMENSION, CloudinaryUrls.bucket(4000));
+    }
+
+    @Test
+    public void otherUrls_areUnchanged() {
+        assertNull(CloudinaryUrls.sized(null, 300));
+        String other = "https://example.com/image/upload/v1/a.jpg";
+        assertEquals(other, CloudinaryUrls.sized(other, 300));
+        String transformed = "https://res.cloudinary.com/demo/image/upload/w_100,c_fill/v1/a.jpg";
+        assertEquals(transformed, CloudinaryUrls.sized(transformed, 300));
+        String video = "https://res.cloudinary.com/demo/video/upload/v1/a.mp4";
+        assertEquals(video, CloudinaryUrls.thumbnail(video));
+    }
+}
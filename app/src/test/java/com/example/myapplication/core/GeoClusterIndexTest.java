@@ -0,0 +1,86 @@
+package com.example.myapplication.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+public class GeoClusterIndexTest {
+
+    // Edmonton and Calgary, about 280 km apart, and a point in Sydney.
+    private static final double[] LATS = {53.5461, 53.5462, 51.0447, -33.8688};
+    private static final double[] LNGS = {-113.4938, -113.4939, -114.0719, 151.2093};
+
+    @Test
+    public void lowZoom_mergesNearbyPointsAtTheirCentroid() {
+        GeoClusterIndex index = GeoClusterIndex.build(LATS, LNGS);
+
+        List<GeoClusterIndex.Cluster> world = index.clusters(0, -85, -180, 85, 180);
+        assertEquals(2, world.size());
+        assertEquals(4, total(world));
+
+        List<GeoClusterIndex.Cluster> alberta = index.clusters(3, 49, -120, 60, -110);
+        assertEquals(1, alberta.size());
+        assertEquals(3, alberta.get(0).getCount());
+        assertEquals((53.5461 * 2 + 51.0447) / 3, alberta.get(0).getLatitude(), 0.05);
+    }
+
+    @Test
+    public void highZoom_keepsDistantPointsApartAndSkipsOffscreenOnes() {
+        GeoClusterIndex index = GeoClusterIndex.build(LATS, LNGS);
+
+        List<GeoClusterIndex.Cluster> alberta = index.clusters(12, 49, -120, 60, -110);
+        assertEquals(2, alberta.size());
+        assertEquals(3, total(alberta));
+
+        List<GeoClusterIndex.Cluster> deep = index.clusters(30, 53.5, -113.5, 53.6, -113.4);
+        assertEquals(2, total(deep));
+    }
+
+    @Test
+    public void viewportAcrossAntimeridian_includesBothSides() {
+        GeoClusterIndex index = GeoClusterIndex.build(
+                new double[]{-17.7, -14.3}, new double[]{178.0, -170.7});
+
+        assertEquals(2, total(index.clusters(6, -20, 170, -10, -160)));
+        assertEquals(0, total(index.clusters(6, -20, -160, -10, 170)));
+    }
+
+    @Test
+    public void viewportQuery_matchesLinearScan() {
+        Random random = new Random(7);
+        int n = 2000;
+        double[] lats = new double[n];
+        double[] lngs = new double[n];
+        for (int i = 0; i < n; i++) {
+            lats[i] = 40 + random.nextDouble() * 20;
+            lngs[i] = -130 + random.nextDouble() * 30;
+        }
+        GeoClusterIndex index = GeoClusterIndex.build(lats, lngs);
+        assertEquals(n, index.size());
+
+        for (int zoom = 0; zoom <= GeoClusterIndex.MAX_ZOOM; zoom += 3) {
+            assertEquals(n, total(index.clusters(zoom, -85, -180, 85, 180)));
+            List<GeoClusterIndex.Cluster> part = index.clusters(zoom, 45, -120, 50, -110);
+            int inside = 0;
+            for (int i = 0; i < n; i++) {
+                if (lats[i] >= 45 && lats[i] <= 50 && lngs[i] >= -120 && lngs[i] <= -110) {
+                    inside++;
+                }
+            }
+            // Cells on the edge may hold points just outside the viewport.
+            assertTrue(total(part) >= inside);
+        }
+    }
+
+    private static int total(List<GeoClusterIndex.Cluster> clusters) {
+        int total = 0;
+        for (GeoClusterIndex.Cluster c : clusters) {
+            total += c.getCount();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.myapplication.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class GeoHashTest {
+
+    @Test
+    public void encode_matchesKnownHashes() {
+        assertEquals("ezs42", GeoHash.encode(42.6, -5.6, 5));
+        assertEquals("u4pruydqq", GeoHash.encode(57.64911, 10.40744, 9));
+        assertEquals(Arrays.asList("u", "u4", "u4p", "u4pr", "u4pru", "u4pruy"),
+                GeoHash.prefixes("u4pruydqq"));
+    }
+
+    @Test
+    public void cover_containsEveryPointInTheBox() {
+        Random random = new Random(11);
+        double[][] boxes = {
+                {53.40, -113.70, 53.70, -113.30},
+                {-0.01, -0.01, 0.01, 0.01},
+                {10, 170, 20, -170},
+                {-90, -180, 90, 180},
+        };
+        for (double[] box : boxes) {
+            List<String> cells = GeoHash.cover(box[0], box[1], box[2], box[3]);
+            assertTrue(cells.size() <= 2 * GeoHash.MAX_CELLS);
+            for (int i = 0; i < 500; i++) {
+                double lat = box[0] + random.nextDouble() * (box[2] - box[0]);
+                double width = box[1] <= box[3] ? box[3] - box[1] : box[3] + 360 - box[1];
+                double lng = box[1] + random.nextDouble() * width;
+                if (lng > 180) lng -= 360;
+                String hash = GeoHash.encode(lat, lng, GeoHash.PRECISION);
+                assertTrue(hash + " not covered by " + cells, coveredBy(hash, cells));
+            }
+        }
+    }
+
+    @Test
+    public void cover_ofCityBoxUsesFewFineCells() {
+        List<String> cells = GeoHash.cover(53.40, -113.70, 53.70, -113.30);
+        assertTrue(cells.size() <= GeoHash.MAX_CELLS);
+        assertEquals(4, cells.get(0).length());
+    }
+
+    @Test
+    public void cover_ofHugeBoxIsOneFullScan() {
+        assertEquals(Arrays.asList(GeoHash.WHOLE_WORLD), GeoHash.cover(-90, -180, 90, 180));
+        assertEquals(Arrays.asList(GeoHash.WHOLE_WORLD), GeoHash.cover(-60, 30, 60, -30));
+    }
+
+    @Test
+    public void center_decodesBackIntoTheCell() {
+        double[] center = GeoHash.center("u4pruydqq");
+        assertEquals(57.64911, center[0], 0.0001);
+        assertEquals(10.40744, center[1], 0.0001);
+        assertEquals("ezs42", GeoHash.encode(GeoHash.center("ezs42")[0], GeoHash.center("ezs42")[1], 5));
+    }
+
+    @Test
+    public void children_ofWholeWorldAreTheOneCharacterCells() {
+        List<String> cells = GeoHash.children(GeoHash.WHOLE_WORLD);
+        assertEquals(32, cells.size());
+        assertTrue(cells.contains("u"));
+        assertEquals("u4", GeoHash.children("u").get(4));
+    }
+
+    @Test
+    public void boundsAround_holdsTheCircle() {
+        double[] box = GeoHash.boundsAround(53.5461, -113.4938, 10_000);
+        assertTrue(GeoHash.distanceMeters(53.5461, -113.4938, box[2], -113.4938) >= 9_999);
+        assertTrue(GeoHash.distanceMeters(53.5461, -113.4938, 53.5461, box[3]) >= 9_999);
+
+        double[] dateLine = GeoHash.boundsAround(0, 179.99, 5_000);
+        assertTrue(dateLine[1] > dateLine[3]);
+        assertTrue(GeoHash.contains(dateLine[0], dateLine[1], dateLine[2], dateLine[3], 0, -179.99));
+        assertFalse(GeoHash.contains(dateLine[0], dateLine[1], dateLine[2], dateLine[3], 0, 0));
+    }
+
+    @Test
+    public void distanceMeters_edmontonToCalgary() {
+        assertEquals(281_000, GeoHash.distanceMeters(53.5461, -113.4938, 51.0447, -114.0719), 2_000);
+    }
+
+    private static boolean coveredBy(String hash, List<String> cells) {
+        for (String cell : cells) {
+            if (hash.startsWith(cell)) return true;
+        }
+        return false;
+    }
+}
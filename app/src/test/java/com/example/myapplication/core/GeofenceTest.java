@@ -0,0 +1,61 @@
+package com.example.myapplication.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class GeofenceTest {
+
+    // Edmonton city hall.
+    private static final double VENUE_LAT = 53.5444;
+    private static final double VENUE_LNG = -113.4909;
+
+    @Test
+    public void fixNearVenue_isInside() {
+        Geofence fence = Geofence.evaluate(VENUE_LAT, VENUE_LNG, 500, 53.5460, -113.4938, 10);
+        assertEquals(Geofence.Outcome.INSIDE, fence.getOutcome());
+        assertTrue(fence.isAllowed());
+        assertEquals(260, fence.getDistanceMeters(), 20);
+    }
+
+    @Test
+    public void fixAcrossTown_isOutside() {
+        Geofence fence = Geofence.evaluate(VENUE_LAT, VENUE_LNG, 500, 53.4690, -113.5180, 20);
+        assertEquals(Geofence.Outcome.OUTSIDE, fence.getOutcome());
+        assertFalse(fence.isAllowed());
+    }
+
+    @Test
+    public void accuracy_isCreditedUpToTheCap() {
+        // About 560 m from the venue.
+        double lat = VENUE_LAT + 0.005;
+        assertTrue(Geofence.evaluate(VENUE_LAT, VENUE_LNG, 500, lat, VENUE_LNG, 80).isAllowed());
+        assertFalse(Geofence.evaluate(VENUE_LAT, VENUE_LNG, 500, lat, VENUE_LNG, 0).isAllowed());
+        assertFalse(Geofence.evaluate(VENUE_LAT, VENUE_LNG, 400, lat, VENUE_LNG, 5000).isAllowed());
+    }
+
+    @Test
+    public void eventWithoutVenueOrRadius_isNotFenced() {
+        assertEquals(Geofence.Outcome.NOT_FENCED,
+                Geofence.evaluate(null, null, 500, 0, 0, 0).getOutcome());
+        assertEquals(Geofence.Outcome.NOT_FENCED,
+                Geofence.evaluate(VENUE_LAT, VENUE_LNG, 0, 0, 0, 0).getOutcome());
+        assertTrue(Geofence.evaluate(VENUE_LAT, VENUE_LNG, 0, 0, 0, 0).isAllowed());
+    }
+
+    @Test
+    public void locationFixCache_onlyReturnsFreshFixes() {
+        LocationFixCache cache = new LocationFixCache();
+        assertNull(cache.getFresh(1_000));
+
+        LocationFixCache.Fix fix = new LocationFixCache.Fix(VENUE_LAT, VENUE_LNG, 10, 1_000);
+        cache.put(fix);
+        cache.put(new LocationFixCache.Fix(0, 0, 10, 500));
+        assertSame(fix, cache.getFresh(1_000 + LocationFixCache.FRESHNESS_MILLIS - 1));
+        assertNull(cache.getFresh(1_000 + LocationFixCache.FRESHNESS_MILLIS));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.myapplication.core;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ImageCacheStatsTest {
+
+    @Test
+    public void hitRate_countsMemoryAndDiskAmongSuccessfulLoads() {
+        ImageCacheStats stats = new ImageCacheStats();
+        assertEquals(0, stats.getHitRate(), 0);
+
+        stats.recordMemoryHit();
+        stats.recordMemoryHit();
+        stats.recordDiskHit();
+        stats.recordRemoteLoad();
+        stats.recordFailure();
+
+        assertEquals(0.5, stats.getMemoryHitRate(), 1e-9);
+        assertEquals(0.75, stats.getHitRate(), 1e-9);
+        assertEquals("memory=2 disk=1 remote=1 failed=1 hitRate=75%", stats.toString());
+    }
+
+    @Test
+    public void reset_clearsCounters() {
+        ImageCacheStats stats = new ImageCacheStats();
+        stats.recordDiskHit();
+        stats.recordFailure();
+        stats.reset();
+
+        assertEquals(0, stats.getDiskHits());
+        assertEquals(0, stats.getFailures());
+        assertEquals(0, stats.getHitRate(), 0);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.myapplication.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ImagePreparerTest {
+
+    @Test
+    public void sampleSize_keepsLongerSideAtLeastTheMaximum() {
+        // 12 MP camera original.
+        assertEquals(2, ImagePreparer.sampleSize(4032, 3024, 1600));
+        assertEquals(4, ImagePreparer.sampleSize(8000, 6000, 1600));
+        assertEquals(1, ImagePreparer.sampleSize(3000, 2000, 1600));
+        assertEquals(1, ImagePreparer.sampleSize(800, 600, 1600));
+    }
+
+    @Test
+    public void targetSize_fitsLongerSideAndKeepsAspectRatio() {
+        assertArrayEquals(new int[]{1600, 1200}, ImagePreparer.targetSize(2016, 1512, 1600));
+        assertArrayEquals(new int[]{900, 1600}, ImagePreparer.targetSize(1512, 2688, 1600));
+        assertArrayEquals(new int[]{800, 600}, ImagePreparer.targetSize(800, 600, 1600));
+        assertArrayEquals(new int[]{1600, 1}, ImagePreparer.targetSize(10000, 2, 1600));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.myapplication.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class IntervalIndexTest {
+
+    private static final IntervalIndex.Bounds<long[]> BOUNDS = new IntervalIndex.Bounds<long[]>() {
+        @Override
+        public long start(long[] item) {
+            return item[0];
+        }
+
+        @Override
+        public long end(long[] item) {
+            return item[1];
+        }
+    };
+
+    private static long[] span(long start, long end) {
+        return new long[]{start, end};
+    }
+
+    @Test
+    public void overlapping_includesTouchingIntervalsAndKeepsGivenOrder() {
+        long[] late = span(20, 30);
+        long[] early = span(0, 10);
+        long[] middle = span(10, 20);
+        long[] after = span(31, 40);
+        IntervalIndex<long[]> index = IntervalIndex.of(Arrays.asList(late, early, middle, after), BOUNDS);
+
+        assertEquals(Arrays.asList(late, early, middle), index.overlapping(10, 20));
+        assertEquals(Collections.singletonList(after), index.overlapping(35, 100));
+        assertTrue(index.overlapping(41, 50).isEmpty());
+    }
+
+    @Test
+    public void overlapping_findsLongIntervalStartingBeforeShortOnes() {
+        long[] season = span(0, 1000);
+        List<long[]> items = new ArrayList<>();
+        items.add(season);
+        for (int i = 1; i < 50; i++) {
+            items.add(span(i, i + 1));
+        }
+        IntervalIndex<long[]> index = IntervalIndex.of(items, BOUNDS);
+
+        assertEquals(Collections.singletonList(season), index.overlapping(500, 600));
+    }
+
+    @Test
+    public void endingSplit_partitionsByEndTime() {
+        long[] past = span(0, 9);
+        long[] ongoing = span(5, 15);
+        long[] endsNow = span(8, 10);
+        long[] future = span(20, 30);
+        IntervalIndex<long[]> index =
+                IntervalIndex.of(Arrays.asList(future, past, endsNow, ongoing), BOUNDS);
+
+        assertEquals(Arrays.asList(future, endsNow, ongoing), index.endingAtOrAfter(10));
+        assertEquals(Collections.singletonList(past), index.endingBefore(10));
+    }
+
+    @Test
+    public void plus_appendsAndSkipsNulls() {
+        long[] first = span(0, 1);
+        long[] second = span(2, 3);
+        IntervalIndex<long[]> index = IntervalIndex.of(Arrays.asList(first, null), BOUNDS)
+                .plus(Arrays.asList(null, second), BOUNDS);
+
+        assertEquals(Arrays.asList(first, second), index.items());
+        assertEquals(Collections.singletonList(second), index.overlapping(2, 2));
+    }
+
+    @Test
+    public void overlapping_matchesLinearScan() {
+        Random random = new Random(7);
+        List<long[]> items = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            long start = random.nextInt(1000);
+            items.add(span(start, start + random.nextInt(100)));
+        }
+        IntervalIndex<long[]> index = IntervalIndex.of(items, BOUNDS);
+
+        for (int q = 0; q < 200; q++) {
+            long from = random.nextInt(1100) - 50;
+            long to = from + random.nextInt(200);
+            List<long[]> expected = new ArrayList<>();
+            for (long[] item : items) {
+                if (item[1] >= from && item[0] <= to) {
+                    expected.add(item);
+                }
+            }
+            assertEquals(expected, index.overlapping(from, to));
+        }
+    }
+}
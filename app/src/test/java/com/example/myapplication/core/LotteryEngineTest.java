@@ -0,0 +1,130 @@
+package com.example.myapplication.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.myapplication.TestUsers;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class LotteryEngineTest {
+
+    @Test
+    public void draw_splitsWaitlistIntoDisjointWinnersAndLosers() {
+        List<String> waitlist = TestUsers.ids(50);
+
+        LotteryEngine.Result result = new LotteryEngine(1L).draw(waitlist, 10);
+
+        assertEquals(10, result.getWinners().size());
+        assertEquals(40, result.getLosers().size());
+        Set<String> all = new HashSet<>(result.getWinners());
+        all.addAll(result.getLosers());
+        assertEquals(new HashSet<>(waitlist), all);
+        for (String winner : result.getWinners()) {
+            assertFalse(result.getLosers().contains(winner));
+        }
+    }
+
+    @Test
+    public void draw_keepsLosersInWaitlistOrder() {
+        List<String> waitlist = TestUsers.ids(20);
+
+        LotteryEngine.Result result = new LotteryEngine(7L).draw(waitlist, 5);
+
+        int last = -1;
+        for (String loser : result.getLosers()) {
+            int index = waitlist.indexOf(loser);
+            assertTrue(index > last);
+            last = index;
+        }
+    }
+
+    @Test
+    public void draw_selectsEveryoneWhenFewerEntrantsThanSlots() {
+        LotteryEngine.Result result = new LotteryEngine(3L).draw(TestUsers.ids(4), 10);
+
+        assertEquals(4, result.getWinners().size());
+        assertTrue(result.getLosers().isEmpty());
+    }
+
+    @Test
+    public void draw_ignoresNullAndDuplicateEntries() {
+        List<String> waitlist = Arrays.asList("a", null, "b", "a", "c");
+
+        LotteryEngine.Result result = new LotteryEngine(3L).draw(waitlist, 3);
+
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), new HashSet<>(result.getWinners()));
+        assertTrue(result.getLosers().isEmpty());
+    }
+
+    @Test
+    public void draw_handlesEmptyWaitlistAndZeroSlots() {
+        LotteryEngine engine = new LotteryEngine(3L);
+
+        assertTrue(engine.draw(new ArrayList<>(), 5).getWinners().isEmpty());
+        assertTrue(engine.draw(null, 5).getWinners().isEmpty());
+
+        LotteryEngine.Result none = engine.draw(TestUsers.ids(3), 0);
+        assertTrue(none.getWinners().isEmpty());
+        assertEquals(3, none.getLosers().size());
+    }
+
+    @Test
+    public void draw_isReproducibleForSameSeed() {
+        List<String> waitlist = TestUsers.ids(1000);
+
+        LotteryEngine.Result first = new LotteryEngine(42L).draw(waitlist, 100);
+        LotteryEngine.Result second = new LotteryEngine(42L).draw(waitlist, 100);
+
+        assertEquals(first.getWinners(), second.getWinners());
+        assertEquals(first.getLosers(), second.getLosers());
+    }
+
+    @Test
+    public void draw_selectsEachEntrantWithEqualProbability() {
+        int n = 10;
+        int k = 3;
+        int trials = 30000;
+        List<String> waitlist = TestUsers.ids(n);
+        LotteryEngine engine = new LotteryEngine(2024L);
+
+        Map<String, Integer> hits = new HashMap<>();
+        for (int t = 0; t < trials; t++) {
+            for (String winner : engine.draw(waitlist, k).getWinners()) {
+                hits.merge(winner, 1, Integer::sum);
+            }
+        }
+
+        // Each entrant should win k/n of the time; allow 5% relative deviation.
+        double expected = (double) trials * k / n;
+        for (String uid : waitlist) {
+            int count = hits.getOrDefault(uid, 0);
+            assertTrue(uid + " won " + count + " times, expected ~" + expected,
+                    Math.abs(count - expected) < expected * 0.05);
+        }
+    }
+
+    @Test
+    public void draw_handlesHundredThousandEntrantsQuickly() {
+        List<String> waitlist = TestUsers.ids(100_000);
+        LotteryEngine engine = new LotteryEngine(99L);
+        engine.draw(waitlist, 10_000); // warm up
+
+        long start = System.nanoTime();
+        LotteryEngine.Result result = engine.draw(waitlist, 10_000);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(10_000, result.getWinners().size());
+        assertEquals(90_000, result.getLosers().size());
+        assertTrue("Draw took " + elapsedMs + " ms", elapsedMs < 500);
+    }
+}
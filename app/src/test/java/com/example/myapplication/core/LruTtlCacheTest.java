@@ -0,0 +1,67 @@
+package com.example.myapplication.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LruTtlCacheTest {
+
+    private long now;
+    private LruTtlCache<String, String> cache;
+
+    @Before
+    public void setUp() {
+        now = 1_000L;
+        cache = new LruTtlCache<>(3, 100L, () -> now);
+    }
+
+    @Test
+    public void get_returnsStoredValueUntilTtlExpires() {
+        cache.put("a", "Alice");
+
+        now += 99;
+        assertEquals("Alice", cache.get("a"));
+
+        now += 1;
+        assertNull(cache.get("a"));
+        assertFalse(cache.contains("a"));
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsedEntryWhenFull() {
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.put("c", "C");
+
+        cache.get("a"); // "b" is now least recently used
+        cache.put("d", "D");
+
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+        assertTrue(cache.contains("d"));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void contains_distinguishesCachedNullFromMissing() {
+        cache.put("ghost", null);
+
+        assertTrue(cache.contains("ghost"));
+        assertNull(cache.get("ghost"));
+        assertFalse(cache.contains("nobody"));
+    }
+
+    @Test
+    public void remove_dropsEntry() {
+        cache.put("a", "A");
+
+        cache.remove("a");
+
+        assertFalse(cache.contains("a"));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.myapplication.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+public class SearchIndexTest {
+
+    private static Set<String> setOf(String... keys) {
+        return new HashSet<>(Arrays.asList(keys));
+    }
+
+    @Test
+    public void tokenize_lowercasesSplitsAndStripsAccents() {
+        assertEquals(Arrays.asList("cafe", "yoga", "101", "example", "com"),
+                SearchIndex.tokenize("Café YOGA-101 @example.com"));
+        assertTrue(SearchIndex.tokenize(null).isEmpty());
+        assertTrue(SearchIndex.tokenize(" -- ").isEmpty());
+    }
+
+    @Test
+    public void query_matchesTokenPrefixesAcrossFields() {
+        SearchIndex<String> index = new SearchIndex<>();
+        index.put("e1", "Yoga for beginners", "Calgary");
+        index.put("e2", "Other event", "Edmonton", "https://example.com/yoga-poster.png");
+        index.put("e3", "Swim lessons", null);
+
+        assertEquals(setOf("e1", "e2"), index.query("yoga"));
+        assertEquals(setOf("e1", "e2"), index.query("YO"));
+        assertEquals(setOf("e3"), index.query("les"));
+        assertTrue(index.query("oga").isEmpty());
+    }
+
+    @Test
+    public void query_requiresEveryToken() {
+        SearchIndex<String> index = new SearchIndex<>();
+        index.put("e1", "Yoga in Calgary");
+        index.put("e2", "Yoga in Edmonton");
+
+        assertEquals(setOf("e1"), index.query("yo cal"));
+        assertTrue(index.query("yoga banff").isEmpty());
+    }
+
+    @Test
+    public void query_withoutTokensReturnsEverything() {
+        SearchIndex<String> index = new SearchIndex<>();
+        index.put("e1", "Yoga");
+        index.put("e2", "Swim");
+
+        assertEquals(setOf("e1", "e2"), index.query("  "));
+    }
+
+    @Test
+    public void query_checksTokensLongerThanThePrefixLimit() {
+        SearchIndex<String> index = new SearchIndex<>();
+        index.put("a", "internationalization");
+        index.put("b", "internationally");
+
+        assertEquals(setOf("a", "b"), index.query("internationa"));
+        assertEquals(setOf("a"), index.query("internationaliz"));
+        assertEquals(setOf("b"), index.query("internationally"));
+    }
+
+    @Test
+    public void put_replacesEarlierTextAndRemoveForgetsEntry() {
+        SearchIndex<String> index = new SearchIndex<>();
+        index.put("e1", "Yoga");
+        index.put("e2", "Yoga nidra");
+
+        index.put("e1", "Swim");
+        assertEquals(setOf("e2"), index.query("yoga"));
+        assertEquals(setOf("e1"), index.query("swim"));
+
+        index.remove("e2");
+        assertTrue(index.query("yoga").isEmpty());
+        assertEquals(1, index.size());
+
+        index.put("e3", "Yoga again");
+        assertEquals(setOf("e3"), index.query("yoga"));
+    }
+
+    @Test
+    public void matches_checksSingleEntry() {
+        SearchIndex<String> index = new SearchIndex<>();
+        index.put("u1", "Alice Smith", "alice@example.com", "User");
+
+        assertTrue(index.matches("u1", "ali exa"));
+        assertFalse(index.matches("u1", "bob"));
+        assertFalse(index.matches("u2", "alice"));
+    }
+}
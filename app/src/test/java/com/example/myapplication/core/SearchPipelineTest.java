@@ -0,0 +1,173 @@
+package com.example.myapplication.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+
+public class SearchPipelineTest {
+
+    /**
+     * Main-thread stand-in whose delayed tasks run when the test advances time.
+     */
+    private static final class FakeMain implements SearchPipeline.Scheduler {
+        private static final class Delayed {
+            final Runnable task;
+            final long due;
+
+            Delayed(Runnable task, long due) {
+                this.task = task;
+                this.due = due;
+            }
+        }
+
+        private final List<Delayed> tasks = new ArrayList<>();
+        private long now;
+
+        @Override
+        public void postDelayed(Runnable task, long delayMillis) {
+            tasks.add(new Delayed(task, now + delayMillis));
+        }
+
+        @Override
+        public void remove(Runnable task) {
+            tasks.removeIf(d -> d.task == task);
+        }
+
+        void advance(long millis) {
+            now += millis;
+            boolean ran = true;
+            while (ran) {
+                ran = false;
+                for (Iterator<Delayed> it = tasks.iterator(); it.hasNext(); ) {
+                    Delayed d = it.next();
+                    if (d.due <= now) {
+                        it.remove();
+                        d.task.run();
+                        ran = true;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private FakeMain main;
+    private Queue<Runnable> background;
+    private List<String> searched;
+    private List<String> delivered;
+    private List<SearchPipeline.Timing> timings;
+    private SearchPipeline<String> pipeline;
+
+    @Before
+    public void setUp() {
+        main = new FakeMain();
+        background = new ArrayDeque<>();
+        searched = new ArrayList<>();
+        delivered = new ArrayList<>();
+        timings = new ArrayList<>();
+        SearchPipeline.Config config =
+                new SearchPipeline.Config(background::add, main, 250, timings::add);
+        pipeline = new SearchPipeline<>(config, query -> {
+            searched.add(query);
+            return "result:" + query;
+        }, (query, result) -> delivered.add(result));
+    }
+
+    private void runBackground() {
+        while (!background.isEmpty()) {
+            background.poll().run();
+        }
+    }
+
+    @Test
+    public void submit_debouncesBurstOfKeystrokes() {
+        pipeline.submit("y");
+        main.advance(100);
+        pipeline.submit("yo");
+        main.advance(100);
+        pipeline.submit("yoga");
+        main.advance(249);
+        assertTrue(background.isEmpty());
+
+        main.advance(1);
+        runBackground();
+        main.advance(0);
+
+        assertEquals(Collections.singletonList("yoga"), searched);
+        assertEquals(Collections.singletonList("result:yoga"), delivered);
+    }
+
+    @Test
+    public void newerQuery_skipsStaleSearchThatHasNotStarted() {
+        pipeline.submitNow("swim");
+        main.advance(0);
+        pipeline.submitNow("yoga");
+        main.advance(0);
+        runBackground();
+        main.advance(0);
+
+        assertEquals(Collections.singletonList("yoga"), searched);
+        assertEquals(Collections.singletonList("result:yoga"), delivered);
+    }
+
+    @Test
+    public void newerQuery_dropsResultOfSearchAlreadyRun() {
+        pipeline.submitNow("swim");
+        main.advance(0);
+        runBackground();
+        pipeline.submitNow("yoga");
+        main.advance(0);
+        runBackground();
+        main.advance(0);
+
+        assertEquals(Arrays.asList("swim", "yoga"), searched);
+        assertEquals(Collections.singletonList("result:yoga"), delivered);
+    }
+
+    @Test
+    public void cancel_deliversNothing() {
+        pipeline.submit("yoga");
+        main.advance(250);
+        runBackground();
+        pipeline.cancel();
+        main.advance(0);
+
+        assertTrue(delivered.isEmpty());
+    }
+
+    @Test
+    public void deliveredQuery_isTimed() {
+        pipeline.submit("yoga");
+        main.advance(250);
+        runBackground();
+        main.advance(0);
+
+        assertEquals(1, timings.size());
+        SearchPipeline.Timing timing = pipeline.getLastTiming();
+        assertNotNull(timing);
+        assertEquals("yoga", timing.getQuery());
+        assertTrue(timing.getTotalMillis() >= timing.getSearchMillis());
+    }
+
+    @Test
+    public void inline_deliversSynchronously() {
+        List<String> results = new ArrayList<>();
+        SearchPipeline<String> inline = new SearchPipeline<>(SearchPipeline.Config.inline(),
+                query -> query.toUpperCase(), (query, result) -> results.add(result));
+
+        inline.submit("yoga");
+
+        assertEquals(Collections.singletonList("YOGA"), results);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.myapplication.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class StableIdsTest {
+
+    @Test
+    public void idFor_isStableAndUniquePerKey() {
+        StableIds ids = new StableIds();
+        long a = ids.idFor("a");
+        long b = ids.idFor("b");
+
+        assertNotEquals(a, b);
+        assertEquals(a, ids.idFor("a"));
+    }
+
+    @Test
+    public void retain_keepsTheIdsOfListedKeys() {
+        StableIds ids = new StableIds();
+        long a = ids.idFor("a");
+        long b = ids.idFor("b");
+
+        ids.retain(Arrays.asList("a", "b"));
+
+        assertEquals(a, ids.idFor("a"));
+        assertEquals(b, ids.idFor("b"));
+    }
+
+    @Test
+    public void retain_dropsRemovedKeysWithoutReusingTheirIds() {
+        StableIds ids = new StableIds();
+        long a = ids.idFor("a");
+        long b = ids.idFor("b");
+
+        ids.retain(Collections.singletonList("b"));
+        long readded = ids.idFor("a");
+
+        assertNotEquals(a, readded);
+        assertNotEquals(b, readded);
+        assertEquals(b, ids.idFor("b"));
+    }
+}
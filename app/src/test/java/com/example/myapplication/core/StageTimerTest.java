@@ -0,0 +1,37 @@
+package com.example.myapplication.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+public class StageTimerTest {
+
+    @Test
+    public void record_keepsStagesInTheOrderTheyFinished() {
+        StageTimer timer = new StageTimer();
+        long posterStart = timer.mark();
+        long geocodeStart = timer.mark();
+
+        timer.record("geocode", geocodeStart);
+        timer.record("posterUpload", posterStart);
+
+        Map<String, Long> stages = timer.getStageMillis();
+        assertEquals(Arrays.asList("geocode", "posterUpload"), new ArrayList<>(stages.keySet()));
+        assertTrue(stages.get("geocode") >= 0);
+    }
+
+    @Test
+    public void toString_listsStagesAndTotal() {
+        StageTimer timer = new StageTimer();
+        timer.record("write", timer.mark());
+
+        String summary = timer.toString();
+
+        assertTrue(summary, summary.matches("write=\\d+ms total=\\d+ms"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.myapplication.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class ThemeRegistryTest {
+
+    @Test
+    public void idOf_ignoresCaseAndSurroundingSpaces() {
+        int id = ThemeRegistry.idOf("Sports & Fitness");
+
+        assertEquals(id, ThemeRegistry.idOf("  sports & FITNESS "));
+        assertEquals("Sports & Fitness", ThemeRegistry.nameOf(id));
+        assertEquals(ThemeRegistry.UNKNOWN, ThemeRegistry.idOf("Knitting"));
+        assertEquals(ThemeRegistry.UNKNOWN, ThemeRegistry.idOf(null));
+    }
+
+    @Test
+    public void selection_matchesCatalogueThemesById() {
+        int sports = ThemeRegistry.idOf("Sports & Fitness");
+        int food = ThemeRegistry.idOf("Food & Drink");
+        ThemeRegistry.Selection selection =
+                ThemeRegistry.Selection.of(Arrays.asList("sports & fitness", "Sports & Fitness"));
+
+        assertTrue(selection.matches(sports, null));
+        assertFalse(selection.matches(food, "Food & Drink"));
+        assertTrue(selection.isCatalogued());
+        assertEquals(Collections.singletonList(sports), selection.ids());
+    }
+
+    @Test
+    public void selection_matchesOtherThemesByName() {
+        ThemeRegistry.Selection selection =
+                ThemeRegistry.Selection.of(Arrays.asList("Knitting", null, " "));
+
+        assertTrue(selection.matches(ThemeRegistry.UNKNOWN, "knitting"));
+        assertFalse(selection.matches(ThemeRegistry.UNKNOWN, "Pottery"));
+        assertFalse(selection.matches(ThemeRegistry.UNKNOWN, null));
+        assertFalse(selection.isCatalogued());
+        assertFalse(selection.isEmpty());
+        assertTrue(ThemeRegistry.Selection.of(null).isEmpty());
+    }
+}
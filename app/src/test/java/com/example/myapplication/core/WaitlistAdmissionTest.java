@@ -0,0 +1,225 @@
+package com.example.myapplication.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.myapplication.TestUsers;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class WaitlistAdmissionTest {
+
+    private static final int CONCURRENT_JOINS = 1000;
+
+    /**
+     * In-memory stand-in for an event document and its entrant documents. Joins run like a
+     * Firestore transaction: they read the event's version and the user's entrant, decide, and
+     * the commit is rejected and retried if either changed in the meantime.
+     */
+    private static final class FakeWaitlistRepository {
+        private final int capacity;
+        private final Map<String, Integer> entrants = new HashMap<>();
+        private long version;
+        private long count;
+        private long nextPosition;
+
+        FakeWaitlistRepository(int capacity) {
+            this.capacity = capacity;
+        }
+
+        WaitlistAdmission join(String uid) {
+            while (true) {
+                long readVersion;
+                long readCount;
+                long readNext;
+                Integer readPosition;
+                synchronized (this) {
+                    readVersion = version;
+                    readCount = count;
+                    readNext = nextPosition;
+                    readPosition = entrants.get(uid);
+                }
+
+                WaitlistAdmission admission = WaitlistAdmission.decide(capacity, readCount, readNext, readPosition);
+                if (!admission.isAdmitted()) {
+                    return admission;
+                }
+
+                synchronized (this) {
+                    if (version == readVersion && !entrants.containsKey(uid)) {
+                        entrants.put(uid, admission.getPosition());
+                        count++;
+                        nextPosition = admission.getPosition() + 1;
+                        version++;
+                        return admission;
+                    }
+                }
+                Thread.yield();
+            }
+        }
+
+        synchronized void leave(String uid) {
+            if (entrants.remove(uid) != null) {
+                count--;
+                version++;
+            }
+        }
+
+        synchronized long count() {
+            return count;
+        }
+
+        synchronized Set<Integer> positions() {
+            return new HashSet<>(entrants.values());
+        }
+    }
+
+    private static List<WaitlistAdmission> joinConcurrently(FakeWaitlistRepository repo, List<String> uids)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<WaitlistAdmission>> futures = new ArrayList<>();
+        for (String uid : uids) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return repo.join(uid);
+            }));
+        }
+        start.countDown();
+
+        List<WaitlistAdmission> results = new ArrayList<>();
+        for (Future<WaitlistAdmission> future : futures) {
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+        return results;
+    }
+
+    @Test
+    public void decide_admitsAtNextPosition() {
+        WaitlistAdmission admission = WaitlistAdmission.decide(10, 3, 0, null);
+
+        assertEquals(WaitlistAdmission.Outcome.ADMITTED, admission.getOutcome());
+        assertTrue(admission.isAdmitted());
+        assertEquals(4, admission.getPosition());
+    }
+
+    @Test
+    public void decide_rejectsWhenAtCapacity() {
+        WaitlistAdmission admission = WaitlistAdmission.decide(10, 10, 11, null);
+
+        assertEquals(WaitlistAdmission.Outcome.FULL, admission.getOutcome());
+        assertFalse(admission.isOnWaitlist());
+        assertEquals(0, admission.getPosition());
+    }
+
+    @Test
+    public void decide_treatsZeroCapacityAsUnlimited() {
+        assertTrue(WaitlistAdmission.decide(0, 1_000_000, 0, null).isAdmitted());
+    }
+
+    @Test
+    public void decide_keepsExistingPlaceEvenWhenFull() {
+        WaitlistAdmission admission = WaitlistAdmission.decide(10, 10, 11, 7);
+
+        assertEquals(WaitlistAdmission.Outcome.ALREADY_JOINED, admission.getOutcome());
+        assertTrue(admission.isOnWaitlist());
+        assertFalse(admission.isAdmitted());
+        assertEquals(7, admission.getPosition());
+    }
+
+    @Test
+    public void decide_usesCounterAheadOfCount() {
+        // Five joined and two left: the next entrant is sixth, not fourth.
+        assertEquals(6, WaitlistAdmission.decide(10, 3, 6, null).getPosition());
+    }
+
+    @Test
+    public void joinAfterLeave_getsDistinctPosition() {
+        FakeWaitlistRepository repo = new FakeWaitlistRepository(10);
+        repo.join("a");
+        repo.join("b");
+        repo.join("c");
+        repo.leave("a");
+
+        WaitlistAdmission admission = repo.join("d");
+
+        assertEquals(4, admission.getPosition());
+        assertEquals(3, repo.count());
+        assertEquals(3, repo.positions().size());
+    }
+
+    @Test
+    public void concurrentJoins_neverExceedCapacityAndGetDistinctPositions() throws Exception {
+        FakeWaitlistRepository repo = new FakeWaitlistRepository(250);
+
+        List<WaitlistAdmission> results = joinConcurrently(repo, TestUsers.ids(CONCURRENT_JOINS));
+
+        Set<Integer> positions = new HashSet<>();
+        int full = 0;
+        for (WaitlistAdmission admission : results) {
+            if (admission.isAdmitted()) {
+                positions.add(admission.getPosition());
+            } else {
+                assertEquals(WaitlistAdmission.Outcome.FULL, admission.getOutcome());
+                full++;
+            }
+        }
+        assertEquals(250, repo.count());
+        assertEquals(250, positions.size());
+        assertTrue(positions.contains(1));
+        assertTrue(positions.contains(250));
+        assertEquals(CONCURRENT_JOINS - 250, full);
+    }
+
+    @Test
+    public void concurrentJoins_withoutCapacityAdmitEveryone() throws Exception {
+        FakeWaitlistRepository repo = new FakeWaitlistRepository(0);
+
+        List<WaitlistAdmission> results = joinConcurrently(repo, TestUsers.ids(CONCURRENT_JOINS));
+
+        Set<Integer> positions = new HashSet<>();
+        for (WaitlistAdmission admission : results) {
+            assertTrue(admission.isAdmitted());
+            positions.add(admission.getPosition());
+        }
+        assertEquals(CONCURRENT_JOINS, repo.count());
+        assertEquals(CONCURRENT_JOINS, positions.size());
+    }
+
+    @Test
+    public void concurrentJoins_bySameUserAdmitOnce() throws Exception {
+        FakeWaitlistRepository repo = new FakeWaitlistRepository(10);
+        List<String> uids = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_JOINS; i++) {
+            uids.add("scanner");
+        }
+
+        List<WaitlistAdmission> results = joinConcurrently(repo, uids);
+
+        int admitted = 0;
+        for (WaitlistAdmission admission : results) {
+            if (admission.isAdmitted()) {
+                admitted++;
+            } else {
+                assertEquals(WaitlistAdmission.Outcome.ALREADY_JOINED, admission.getOutcome());
+                assertEquals(1, admission.getPosition());
+            }
+        }
+        assertEquals(1, admitted);
+        assertEquals(1, repo.count());
+    }
+}
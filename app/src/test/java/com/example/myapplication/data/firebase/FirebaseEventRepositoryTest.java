@@ -0,0 +1,128 @@
+package com.example.myapplication.data.firebase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.myapplication.core.GeoHash;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FirebaseEventRepositoryTest {
+
+    @Test
+    public void eventWithoutLegacyField_needsNoMigration() {
+        Map<String, Object> data = new HashMap<>();
+        data.put(FirebaseEventRepository.WAITLIST_COUNT, 3L);
+        assertEquals(FirebaseEventRepository.LegacyWaitlist.NONE,
+                FirebaseEventRepository.legacyWaitlist(data));
+        assertEquals(FirebaseEventRepository.LegacyWaitlist.NONE,
+                FirebaseEventRepository.legacyWaitlist(null));
+    }
+
+    @Test
+    public void legacyArray_isMovedToEntrants() {
+        Map<String, Object> data = new HashMap<>();
+        data.put(FirebaseEventRepository.LEGACY_WAITLIST, Arrays.asList("a", "b"));
+        assertEquals(FirebaseEventRepository.LegacyWaitlist.ARRAY,
+                FirebaseEventRepository.legacyWaitlist(data));
+    }
+
+    @Test
+    public void nullLegacyField_isOnlyDeleted() {
+        // Older clients saved events with "waitlist": null; the field is present but no array.
+        Map<String, Object> data = new HashMap<>();
+        data.put(FirebaseEventRepository.LEGACY_WAITLIST, null);
+        assertEquals(FirebaseEventRepository.LegacyWaitlist.STALE,
+                FirebaseEventRepository.legacyWaitlist(data));
+
+        data.put(FirebaseEventRepository.LEGACY_WAITLIST, "not a list");
+        assertEquals(FirebaseEventRepository.LegacyWaitlist.STALE,
+                FirebaseEventRepository.legacyWaitlist(data));
+    }
+
+    @Test
+    public void waitingEntrants_leaveOutEveryoneDrawn() {
+        Map<String, Object> lists = new HashMap<>();
+        lists.put(NotificationListStore.FIELD_INVITED, Arrays.asList("b"));
+        lists.put(NotificationListStore.FIELD_FINAL, Arrays.asList("c"));
+        lists.put(NotificationListStore.FIELD_CANCELLED, Arrays.asList("d"));
+
+        assertEquals(Arrays.asList("a", "e"), FirebaseEventRepository.participants(
+                Arrays.asList("a", "b", "c", "d", "e"), null, lists, false));
+    }
+
+    @Test
+    public void allParticipants_includeLegacyArrayAndOutcomes_once() {
+        Map<String, Object> event = new HashMap<>();
+        event.put(FirebaseEventRepository.LEGACY_WAITLIST, Arrays.asList("a", "x"));
+        Map<String, Object> lists = new HashMap<>();
+        lists.put(NotificationListStore.FIELD_INVITED, Arrays.asList("b"));
+        lists.put(NotificationListStore.FIELD_CANCELLED, Arrays.asList("a", "y"));
+
+        assertEquals(Arrays.asList("a", "b", "x", "y"), FirebaseEventRepository.participants(
+                Arrays.asList("a", "b"), event, lists, true));
+    }
+
+    @Test
+    public void legacyArray_countsAsWaiting() {
+        Map<String, Object> event = new HashMap<>();
+        event.put(FirebaseEventRepository.LEGACY_WAITLIST, Arrays.asList("a"));
+
+        assertEquals(Arrays.asList("a"), FirebaseEventRepository.participants(
+                Collections.emptyList(), event, null, false));
+    }
+
+    @Test
+    public void userInLegacyArray_isOnWaitlist() {
+        Map<String, Object> data = new HashMap<>();
+        data.put(FirebaseEventRepository.LEGACY_WAITLIST, Arrays.asList("a", "b"));
+        assertTrue(FirebaseEventRepository.inLegacyWaitlist(data, "b"));
+        assertFalse(FirebaseEventRepository.inLegacyWaitlist(data, "c"));
+
+        data.put(FirebaseEventRepository.LEGACY_WAITLIST, null);
+        assertFalse(FirebaseEventRepository.inLegacyWaitlist(data, "b"));
+        assertFalse(FirebaseEventRepository.inLegacyWaitlist(null, "b"));
+    }
+
+    @Test
+    public void geohashFields_matchWhatAJoinStores() {
+        Map<String, Object> fields = FirebaseEventRepository.geohashFields(53.5461, -113.4938);
+        String geohash = GeoHash.encode(53.5461, -113.4938, GeoHash.PRECISION);
+        assertEquals(geohash, fields.get(FirebaseEventRepository.GEOHASH));
+        assertEquals(GeoHash.prefixes(geohash), fields.get(FirebaseEventRepository.GEOHASH_PREFIXES));
+    }
+
+    @Test
+    public void locationWithoutCoordinates_getsNoGeohash() {
+        assertNull(FirebaseEventRepository.geohashFields(null, -113.4938));
+        assertNull(FirebaseEventRepository.geohashFields("53.5", -113.4938));
+    }
+
+    @Test
+    public void eventWithoutThemeId_needsOne() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("theme", "Food & Drink");
+        assertTrue(FirebaseEventRepository.needsThemeId(data));
+
+        data.put("themeId", 2L);
+        assertFalse(FirebaseEventRepository.needsThemeId(data));
+        assertFalse(FirebaseEventRepository.needsThemeId(null));
+    }
+
+    @Test
+    public void draw_isReproducibleFromTheSeedWhateverTheReadOrder() {
+        List<String> read = Arrays.asList("u3", "u1", "u4", "u0", "u2");
+        List<String> reread = Arrays.asList("u0", "u1", "u2", "u3", "u4");
+
+        assertEquals(FirebaseEventRepository.draw(read, 2, 42L).getWinners(),
+                FirebaseEventRepository.draw(reread, 2, 42L).getWinners());
+    }
+}
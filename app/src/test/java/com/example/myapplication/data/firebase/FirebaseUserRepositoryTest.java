@@ -62,9 +62,13 @@ public class FirebaseUserRepositoryTest {
     }
 
     private void injectFirestore(Object target, FirebaseFirestore firestore) throws Exception {
-        Field field = target.getClass().getDeclaredField("firestore");
+        inject(target, "firestore", firestore);
+    }
+
+    private void inject(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
         field.setAccessible(true);
-        field.set(target, firestore);
+        field.set(target, value);
     }
 
     @Test
@@ -99,8 +103,10 @@ public class FirebaseUserRepositoryTest {
     }
 
     @Test
-    public void deleteUserDocument_success() {
+    public void deleteUserDocument_success() throws Exception {
         String uid = "test-uid";
+        UserDirectory directory = mock(UserDirectory.class);
+        inject(repository, "directory", directory);
         when(firestore.collection("users")).thenReturn(collectionReference);
         when(collectionReference.document(uid)).thenReturn(documentReference);
         
@@ -119,6 +125,7 @@ public class FirebaseUserRepositoryTest {
 
         assertTrue(completed.get());
         verify(documentReference).delete();
+        verify(directory).invalidate(uid);
     }
     
     @Test
@@ -0,0 +1,18 @@
+package com.example.myapplication.data.firebase;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class MembershipIndexTest {
+
+    @Test
+    public void onlySummaryFields_affectSummary() {
+        assertTrue(MembershipIndex.affectsSummary(Arrays.asList("capacity", "name")));
+        assertFalse(MembershipIndex.affectsSummary(Collections.singletonList("capacity")));
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.myapplication.data.firebase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.myapplication.TestUsers;
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class NotificationDispatcherTest {
+
+    /** One chunk write that has not completed yet. */
+    private static final class PendingWrite {
+        final List<String> recipients;
+        final OnSuccessListener<Void> onSuccess;
+        final OnFailureListener onFailure;
+
+        PendingWrite(List<String> recipients, OnSuccessListener<Void> onSuccess, OnFailureListener onFailure) {
+            this.recipients = new ArrayList<>(recipients);
+            this.onSuccess = onSuccess;
+            this.onFailure = onFailure;
+        }
+    }
+
+    private final List<PendingWrite> pending = new ArrayList<>();
+    private final List<Long> retryDelays = new ArrayList<>();
+    private final List<Integer> progress = new ArrayList<>();
+    private Integer delivered;
+    private Exception failure;
+    private int failures;
+
+    private NotificationDispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        dispatcher = new NotificationDispatcher(
+                (dispatchId, payload, recipients, onSuccess, onFailure) ->
+                        pending.add(new PendingWrite(recipients, onSuccess, onFailure)),
+                (task, delayMillis) -> {
+                    retryDelays.add(delayMillis);
+                    task.run();
+                },
+                () -> "dispatch1");
+    }
+
+    private void dispatch(List<String> recipients) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("type", "lottery_win");
+        dispatcher.dispatch(payload, recipients, (sent, total) -> progress.add(sent),
+                count -> delivered = count,
+                e -> {
+                    failure = e;
+                    failures++;
+                });
+    }
+
+    private void completeNext() {
+        pending.remove(0).onSuccess.onSuccess(null);
+    }
+
+    @Test
+    public void dispatch_splitsRecipientsIntoChunksOfAtMost500() {
+        dispatch(TestUsers.ids(1201));
+
+        while (!pending.isEmpty()) {
+            assertTrue(pending.get(0).recipients.size() <= NotificationDispatcher.MAX_BATCH_WRITES);
+            completeNext();
+        }
+
+        assertEquals(Integer.valueOf(1201), delivered);
+        assertEquals(List.of(500, 1000, 1201), progress);
+    }
+
+    @Test
+    public void dispatch_limitsBatchesInFlight() {
+        dispatch(TestUsers.ids(10 * NotificationDispatcher.MAX_BATCH_WRITES));
+
+        assertEquals(NotificationDispatcher.MAX_PARALLEL_BATCHES, pending.size());
+        completeNext();
+        assertEquals(NotificationDispatcher.MAX_PARALLEL_BATCHES, pending.size());
+    }
+
+    @Test
+    public void dispatch_writesEveryRecipientOnceAndSkipsDuplicates() {
+        List<String> recipients = TestUsers.ids(600);
+        recipients.add("user3");
+        recipients.add(null);
+
+        dispatch(recipients);
+
+        Set<String> written = new HashSet<>();
+        int writes = 0;
+        while (!pending.isEmpty()) {
+            written.addAll(pending.get(0).recipients);
+            writes += pending.get(0).recipients.size();
+            completeNext();
+        }
+        assertEquals(600, writes);
+        assertEquals(new HashSet<>(TestUsers.ids(600)), written);
+        assertEquals(Integer.valueOf(600), delivered);
+    }
+
+    @Test
+    public void dispatch_retriesFailedChunkWithBackoff() {
+        dispatch(TestUsers.ids(10));
+
+        pending.remove(0).onFailure.onFailure(new Exception("unavailable"));
+        pending.remove(0).onFailure.onFailure(new Exception("unavailable"));
+        completeNext();
+
+        assertEquals(List.of(500L, 1000L), retryDelays);
+        assertEquals(Integer.valueOf(10), delivered);
+        assertNull(failure);
+    }
+
+    @Test
+    public void dispatch_failsOnceAfterLastAttempt() {
+        dispatch(TestUsers.ids(2 * NotificationDispatcher.MAX_BATCH_WRITES));
+        PendingWrite other = pending.remove(1);
+
+        for (int i = 0; i < NotificationDispatcher.MAX_ATTEMPTS; i++) {
+            pending.remove(0).onFailure.onFailure(new Exception("denied"));
+        }
+        other.onFailure.onFailure(new Exception("denied"));
+
+        assertEquals(1, failures);
+        assertEquals("denied", failure.getMessage());
+        assertNull(delivered);
+    }
+
+    @Test
+    public void dispatch_reportsZeroForNoRecipients() {
+        dispatch(new ArrayList<>());
+
+        assertTrue(pending.isEmpty());
+        assertEquals(Integer.valueOf(0), delivered);
+    }
+}
@@ -5,6 +5,7 @@ import static org.mockito.Mockito.*;
 
 import androidx.annotation.NonNull;
 
+import com.example.myapplication.core.ListChange;
 import com.example.myapplication.features.user.UserEvent;
 import com.google.firebase.firestore.*;
 
@@ -185,6 +186,82 @@ public class AdminHomeControllerTest {
         org.junit.Assert.assertEquals(2, lastShown.size());
     }
 
+    private QueryDocumentSnapshot eventDoc(String id, String name) {
+        QueryDocumentSnapshot doc = mock(QueryDocumentSnapshot.class);
+        when(doc.getId()).thenReturn(id);
+        when(doc.toObject(UserEvent.class)).thenReturn(mock(UserEvent.class));
+        when(doc.getString("name")).thenReturn(name);
+        return doc;
+    }
+
+    private DocumentChange change(DocumentChange.Type type, QueryDocumentSnapshot doc,
+                                  int oldIndex, int newIndex) {
+        DocumentChange change = mock(DocumentChange.class);
+        when(change.getType()).thenReturn(type);
+        when(change.getDocument()).thenReturn(doc);
+        when(change.getOldIndex()).thenReturn(oldIndex);
+        when(change.getNewIndex()).thenReturn(newIndex);
+        return change;
+    }
+
+    @Test
+    public void laterSnapshot_convertsOnlyChangedDocuments_andPushesChangedRows() {
+        QueryDocumentSnapshot d1 = eventDoc("e1", "Yoga");
+        QueryDocumentSnapshot d2 = eventDoc("e2", "Swim");
+        QuerySnapshot first = mock(QuerySnapshot.class);
+        when(first.getDocuments()).thenReturn(Arrays.asList(d1, d2));
+
+        controller.start();
+        EventListener<QuerySnapshot> listener = listenerCaptor.getValue();
+        listener.onEvent(first, null);
+
+        QueryDocumentSnapshot d2Edited = eventDoc("e2", "Swim lessons");
+        QuerySnapshot second = mock(QuerySnapshot.class);
+        when(second.getDocumentChanges()).thenReturn(Collections.singletonList(
+                change(DocumentChange.Type.MODIFIED, d2Edited, 1, 1)));
+        listener.onEvent(second, null);
+
+        ArgumentCaptor<List<ListChange<UserEvent>>> changesCaptor = ArgumentCaptor.forClass(List.class);
+        verify(view).applyEventChanges(changesCaptor.capture());
+        List<ListChange<UserEvent>> changes = changesCaptor.getValue();
+        org.junit.Assert.assertEquals(1, changes.size());
+        org.junit.Assert.assertEquals(ListChange.Type.CHANGED, changes.get(0).getType());
+        org.junit.Assert.assertEquals(1, changes.get(0).getPosition());
+
+        verify(second, never()).getDocuments();
+        verify(d1, times(1)).toObject(UserEvent.class);
+        verify(view, times(1)).showEvents(any());
+    }
+
+    @Test
+    public void laterSnapshot_mapsAddsAndRemovesOntoFilteredRows() {
+        QueryDocumentSnapshot d1 = eventDoc("e1", "Yoga");
+        QueryDocumentSnapshot d2 = eventDoc("e2", "Swim");
+        QuerySnapshot first = mock(QuerySnapshot.class);
+        when(first.getDocuments()).thenReturn(Arrays.asList(d1, d2));
+
+        controller.start();
+        EventListener<QuerySnapshot> listener = listenerCaptor.getValue();
+        listener.onEvent(first, null);
+        controller.onSearchQueryChanged("yoga");
+
+        // "Swim" is filtered out, so removing it changes nothing on screen,
+        // while the new yoga event lands after the visible "Yoga" row.
+        QueryDocumentSnapshot d3 = eventDoc("e3", "Hot yoga");
+        QuerySnapshot second = mock(QuerySnapshot.class);
+        when(second.getDocumentChanges()).thenReturn(Arrays.asList(
+                change(DocumentChange.Type.REMOVED, d2, 1, -1),
+                change(DocumentChange.Type.ADDED, d3, -1, 1)));
+        listener.onEvent(second, null);
+
+        ArgumentCaptor<List<ListChange<UserEvent>>> changesCaptor = ArgumentCaptor.forClass(List.class);
+        verify(view).applyEventChanges(changesCaptor.capture());
+        List<ListChange<UserEvent>> changes = changesCaptor.getValue();
+        org.junit.Assert.assertEquals(1, changes.size());
+        org.junit.Assert.assertEquals(ListChange.Type.INSERTED, changes.get(0).getType());
+        org.junit.Assert.assertEquals(1, changes.get(0).getPosition());
+    }
+
     @Test
     public void firestoreError_showsErrorOnView() {
         controller.start();
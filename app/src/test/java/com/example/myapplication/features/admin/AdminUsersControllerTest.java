@@ -5,6 +5,8 @@ import static org.mockito.Mockito.*;
 
 import androidx.annotation.NonNull;
 
+import com.example.myapplication.core.ListChange;
+
 import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.gms.tasks.OnSuccessListener;
 import com.google.android.gms.tasks.Task;
@@ -153,6 +155,48 @@ public class AdminUsersControllerTest {
         org.junit.Assert.assertEquals("u1", lastShown.get(0).id);
     }
 
+    private QueryDocumentSnapshot userDoc(String id, String role, String first) {
+        QueryDocumentSnapshot doc = mock(QueryDocumentSnapshot.class);
+        when(doc.getId()).thenReturn(id);
+        when(doc.getString("role")).thenReturn(role);
+        when(doc.getString("firstName")).thenReturn(first);
+        return doc;
+    }
+
+    @Test
+    public void laterSnapshot_removesUserWhoBecameAdmin_withoutRemappingOthers() {
+        QueryDocumentSnapshot u1 = userDoc("u1", "User", "Alice");
+        QueryDocumentSnapshot u2 = userDoc("u2", "Organizer", "Bob");
+        QuerySnapshot first = mock(QuerySnapshot.class);
+        when(first.getDocuments()).thenReturn(Arrays.asList(u1, u2));
+
+        controller.start();
+        EventListener<QuerySnapshot> listener = listenerCaptor.getValue();
+        listener.onEvent(first, null);
+
+        QueryDocumentSnapshot u2Admin = userDoc("u2", "Admin", "Bob");
+        DocumentChange change = mock(DocumentChange.class);
+        when(change.getType()).thenReturn(DocumentChange.Type.MODIFIED);
+        when(change.getDocument()).thenReturn(u2Admin);
+        when(change.getOldIndex()).thenReturn(1);
+        when(change.getNewIndex()).thenReturn(1);
+        QuerySnapshot second = mock(QuerySnapshot.class);
+        when(second.getDocumentChanges()).thenReturn(Collections.singletonList(change));
+        listener.onEvent(second, null);
+
+        ArgumentCaptor<List<ListChange<AdminUserAdapter.UserRow>>> changesCaptor =
+                ArgumentCaptor.forClass(List.class);
+        verify(view).applyUserChanges(changesCaptor.capture());
+        List<ListChange<AdminUserAdapter.UserRow>> changes = changesCaptor.getValue();
+        org.junit.Assert.assertEquals(1, changes.size());
+        org.junit.Assert.assertEquals(ListChange.Type.REMOVED, changes.get(0).getType());
+        org.junit.Assert.assertEquals(1, changes.get(0).getPosition());
+
+        verify(second, never()).getDocuments();
+        verify(u1, times(1)).getString("role");
+        verify(view, times(1)).showUsers(any());
+    }
+
     @Test
     public void firestoreError_showsMessage() {
         controller.start();
@@ -0,0 +1,70 @@
+package com.example.myapplication.features.organizer.home;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.myapplication.data.firebase.FirebaseEventRepository;
+import com.example.myapplication.data.repo.EventPage;
+import com.example.myapplication.data.repo.EventQuery;
+import com.example.myapplication.data.repo.EventRepository;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+
+public class OHomeControllerTest {
+
+    private FirebaseEventRepository repository;
+    private OHomeController controller;
+    private ArgumentCaptor<EventRepository.EventPageCallback> callbackCaptor;
+
+    @Before
+    public void setUp() {
+        repository = mock(FirebaseEventRepository.class);
+        FirebaseAuth auth = mock(FirebaseAuth.class);
+        FirebaseUser user = mock(FirebaseUser.class);
+        when(auth.getCurrentUser()).thenReturn(user);
+        when(user.getUid()).thenReturn("organizer");
+
+        controller = new OHomeController(repository, auth, new OHomeModel(), mock(OHomeView.class));
+        callbackCaptor = ArgumentCaptor.forClass(EventRepository.EventPageCallback.class);
+    }
+
+    @Test
+    public void search_loadsTheRemainingPages() {
+        DocumentSnapshot cursor = mock(DocumentSnapshot.class);
+        controller.loadOrganizerEvents();
+        verify(repository).queryEvents(any(EventQuery.class), isNull(), callbackCaptor.capture());
+        callbackCaptor.getValue().onPageFetched(new EventPage(new ArrayList<>(), cursor, true));
+
+        controller.onSearchQueryChanged("gala");
+        verify(repository).queryEvents(any(EventQuery.class), eq(cursor), callbackCaptor.capture());
+
+        // Every further page is read while the query is active, until the last one.
+        callbackCaptor.getValue().onPageFetched(new EventPage(new ArrayList<>(), cursor, true));
+        verify(repository, times(2)).queryEvents(any(EventQuery.class), eq(cursor), callbackCaptor.capture());
+        callbackCaptor.getValue().onPageFetched(new EventPage(new ArrayList<>(), cursor, false));
+
+        verify(repository, times(2)).queryEvents(any(EventQuery.class), eq(cursor), any());
+    }
+
+    @Test
+    public void withoutSearch_pagesWaitForScrolling() {
+        DocumentSnapshot cursor = mock(DocumentSnapshot.class);
+        controller.loadOrganizerEvents();
+        verify(repository).queryEvents(any(EventQuery.class), isNull(), callbackCaptor.capture());
+        callbackCaptor.getValue().onPageFetched(new EventPage(new ArrayList<>(), cursor, true));
+
+        verify(repository, times(0)).queryEvents(any(EventQuery.class), eq(cursor), any());
+    }
+}
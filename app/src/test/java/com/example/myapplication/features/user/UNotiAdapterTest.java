@@ -0,0 +1,121 @@
+package com.example.myapplication.features.user;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+import android.os.Build;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.myapplication.R;
+import com.firebase.ui.firestore.FirestoreRecyclerOptions;
+import com.firebase.ui.firestore.ObservableSnapshotArray;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Collections;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.UPSIDE_DOWN_CAKE)
+public class UNotiAdapterTest {
+
+    /** One frame at 60 Hz. */
+    private static final long FRAME_BUDGET_NANOS = 16_000_000L;
+    /** Rows a fast fling can bring on screen in one frame. */
+    private static final int ROWS_PER_FRAME = 8;
+
+    private static final List<Object> FULL = Collections.emptyList();
+    private static final List<Object> VISIBILITY =
+            Collections.singletonList(UNotiAdapter.PAYLOAD_VISIBILITY);
+
+    private ObservableSnapshotArray<UNotiItem> snapshots;
+    private UNotiAdapter adapter;
+    private FrameLayout parent;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        snapshots = mock(ObservableSnapshotArray.class);
+        when(snapshots.isListening(any())).thenReturn(true);
+        adapter = new UNotiAdapter(new FirestoreRecyclerOptions.Builder<UNotiItem>()
+                .setSnapshotArray(snapshots)
+                .build());
+
+        Context context = new ContextThemeWrapper(
+                ApplicationProvider.getApplicationContext(), R.style.Theme_MyApplication);
+        parent = new FrameLayout(context);
+    }
+
+    private static UNotiItem custom(String message) {
+        UNotiItem item = mock(UNotiItem.class);
+        when(item.getType()).thenReturn("custom");
+        when(item.getFrom()).thenReturn("Organizer");
+        when(item.getMessage()).thenReturn(message);
+        when(item.getEvent()).thenReturn("Gala");
+        return item;
+    }
+
+    @Test
+    public void rowHiddenAtFirstBind_getsItsContentWhenShown() {
+        when(snapshots.size()).thenReturn(1);
+        when(snapshots.get(0)).thenReturn(custom("Doors open at six"));
+
+        adapter.setShowPersonalNoti(false);
+        UNotiAdapter.UNotiViewHolder holder = adapter.onCreateViewHolder(parent, 0);
+        adapter.onBindViewHolder(holder, 0, FULL);
+        assertEquals(View.GONE, holder.itemView.getVisibility());
+
+        adapter.setShowPersonalNoti(true);
+        adapter.onBindViewHolder(holder, 0, VISIBILITY);
+
+        assertEquals(View.VISIBLE, holder.itemView.getVisibility());
+        assertEquals("Doors open at six", holder.messageText.getText().toString());
+    }
+
+    @Test
+    public void hidingARow_onlyCollapsesIt() {
+        when(snapshots.size()).thenReturn(1);
+        when(snapshots.get(0)).thenReturn(custom("Doors open at six"));
+
+        UNotiAdapter.UNotiViewHolder holder = adapter.onCreateViewHolder(parent, 0);
+        adapter.onBindViewHolder(holder, 0, FULL);
+        adapter.setShowPersonalNoti(false);
+        adapter.onBindViewHolder(holder, 0, VISIBILITY);
+
+        assertEquals(View.GONE, holder.itemView.getVisibility());
+    }
+
+    @Test
+    public void bindingAFrameOfRows_fitsTheFrameBudget() {
+        int rows = 500;
+        when(snapshots.size()).thenReturn(rows);
+        for (int i = 0; i < rows; i++) {
+            when(snapshots.get(i)).thenReturn(custom("Message " + i));
+        }
+        UNotiAdapter.UNotiViewHolder holder = adapter.onCreateViewHolder(parent, 0);
+        for (int i = 0; i < 50; i++) {
+            adapter.onBindViewHolder(holder, i, FULL); // warm up
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < rows; i++) {
+            adapter.onBindViewHolder(holder, i, FULL);
+        }
+        long perFrame = (System.nanoTime() - start) / rows * ROWS_PER_FRAME;
+
+        assertTrue("binding " + ROWS_PER_FRAME + " rows took " + perFrame + "ns",
+                perFrame < FRAME_BUDGET_NANOS);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.myapplication.features.user;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+public class UserEventTest {
+
+    private UserEvent loadedEvent() {
+        UserEvent event = new UserEvent();
+        event.setName("Yoga");
+        event.setCapacity(20);
+        event.setPrice(10.0);
+        event.setWaitlistCount(150);
+        event.markUnchanged();
+        return event;
+    }
+
+    @Test
+    public void changedFields_reportsOnlyEditedFields() {
+        UserEvent event = loadedEvent();
+
+        event.setName("Yoga");
+        event.setCapacity(25);
+
+        Map<String, Object> changes = event.changedFields();
+        assertEquals(1, changes.size());
+        assertEquals(25, changes.get("capacity"));
+    }
+
+    @Test
+    public void changedFields_includesDerivedPriceDisplay() {
+        UserEvent event = loadedEvent();
+
+        event.setPrice(12.5);
+
+        Map<String, Object> changes = event.changedFields();
+        assertEquals(12.5, changes.get("price"));
+        assertEquals("$12.50", changes.get("priceDisplay"));
+    }
+
+    @Test
+    public void changedFields_neverIncludesWaitlistCount() {
+        UserEvent event = loadedEvent();
+
+        event.setWaitlistCount(0);
+
+        assertTrue(event.changedFields().isEmpty());
+        assertFalse(new UserEvent().changedFields().containsKey("waitlistCount"));
+    }
+
+    @Test
+    public void markUnchanged_startsANewComparison() {
+        UserEvent event = loadedEvent();
+        event.setCapacity(25);
+
+        event.markUnchanged();
+
+        assertTrue(event.changedFields().isEmpty());
+    }
+}
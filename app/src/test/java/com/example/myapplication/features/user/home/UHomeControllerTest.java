@@ -1,13 +1,25 @@
 package com.example.myapplication.features.user.home;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.example.myapplication.data.firebase.FirebaseEventRepository;
+import com.example.myapplication.data.repo.EventPage;
+import com.example.myapplication.data.repo.EventQuery;
+import com.example.myapplication.data.repo.EventRepository;
 import com.example.myapplication.features.user.UserEvent;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentSnapshot;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -59,18 +71,98 @@ public class UHomeControllerTest {
     @Test
     public void loadEvents_setsEventsAndRefreshesView() {
         List<UserEvent> fetchedEvents = Arrays.asList(new UserEvent(), new UserEvent());
-        ArgumentCaptor<FirebaseEventRepository.EventListCallback> callbackCaptor =
-                ArgumentCaptor.forClass(FirebaseEventRepository.EventListCallback.class);
+        ArgumentCaptor<EventRepository.EventPageCallback> callbackCaptor =
+                ArgumentCaptor.forClass(EventRepository.EventPageCallback.class);
 
         controller.loadEvents();
 
-        verify(mockRepository).getAllEvents(callbackCaptor.capture());
-        callbackCaptor.getValue().onEventsFetched(fetchedEvents);
+        verify(mockRepository).queryEvents(any(EventQuery.class), isNull(), callbackCaptor.capture());
+        callbackCaptor.getValue().onPageFetched(new EventPage(fetchedEvents, null, false));
 
         verify(mockModel).setEvents(UHomeModel.filterEventsForDisplay(fetchedEvents, "testUserId"));
         verify(mockView).showEvents(mockModel.buildDisplayEvents(), "");
     }
 
+    @Test
+    public void loadMoreEvents_doesNothingWhenLastPageWasFinal() {
+        ArgumentCaptor<EventRepository.EventPageCallback> callbackCaptor =
+                ArgumentCaptor.forClass(EventRepository.EventPageCallback.class);
+
+        controller.loadEvents();
+        verify(mockRepository).queryEvents(any(EventQuery.class), isNull(), callbackCaptor.capture());
+        callbackCaptor.getValue().onPageFetched(new EventPage(new ArrayList<>(), null, false));
+
+        controller.loadMoreEvents();
+
+        verify(mockRepository, times(1)).queryEvents(any(EventQuery.class), any(), any());
+    }
+
+    @Test
+    public void loadEvents_supersedesPendingLoadMore() {
+        List<UserEvent> screenful = new ArrayList<>();
+        for (int i = 0; i < UHomeController.MIN_VISIBLE_EVENTS; i++) {
+            screenful.add(new UserEvent());
+        }
+        when(mockModel.buildDisplayEvents(anyString())).thenReturn(screenful);
+        DocumentSnapshot cursor = mock(DocumentSnapshot.class);
+        ArgumentCaptor<EventRepository.EventPageCallback> callbackCaptor =
+                ArgumentCaptor.forClass(EventRepository.EventPageCallback.class);
+
+        controller.loadEvents();
+        verify(mockRepository).queryEvents(any(EventQuery.class), isNull(), callbackCaptor.capture());
+        callbackCaptor.getValue().onPageFetched(new EventPage(screenful, cursor, true));
+
+        controller.loadMoreEvents();
+        verify(mockRepository).queryEvents(any(EventQuery.class), eq(cursor), callbackCaptor.capture());
+        EventRepository.EventPageCallback staleMore = callbackCaptor.getValue();
+
+        // A refresh while the next page is in flight is not dropped...
+        controller.loadEvents();
+        verify(mockRepository, times(2)).queryEvents(any(EventQuery.class), isNull(), any());
+
+        // ...and the next page that arrives afterwards is ignored.
+        staleMore.onPageFetched(new EventPage(screenful, cursor, true));
+        verify(mockModel, never()).addEvents(any());
+    }
+
+    @Test
+    public void shortFilteredPage_fetchesNextPageWithoutScrolling() {
+        DocumentSnapshot cursor = mock(DocumentSnapshot.class);
+        ArgumentCaptor<EventRepository.EventPageCallback> callbackCaptor =
+                ArgumentCaptor.forClass(EventRepository.EventPageCallback.class);
+
+        controller.loadEvents();
+        verify(mockRepository).queryEvents(any(EventQuery.class), isNull(), callbackCaptor.capture());
+        // Every event on the page is filtered out, so nothing can be scrolled.
+        callbackCaptor.getValue().onPageFetched(new EventPage(new ArrayList<>(), cursor, true));
+
+        verify(mockRepository).queryEvents(any(EventQuery.class), eq(cursor), any());
+    }
+
+    @Test
+    public void shortFilteredPages_stopAfterAFewAndOfferLoadMore() {
+        DocumentSnapshot cursor = mock(DocumentSnapshot.class);
+        ArgumentCaptor<EventRepository.EventPageCallback> callbackCaptor =
+                ArgumentCaptor.forClass(EventRepository.EventPageCallback.class);
+
+        controller.loadEvents();
+        verify(mockRepository).queryEvents(any(EventQuery.class), isNull(), callbackCaptor.capture());
+        callbackCaptor.getValue().onPageFetched(new EventPage(new ArrayList<>(), cursor, true));
+        for (int i = 1; i <= UHomeController.MAX_AUTO_PAGES; i++) {
+            verify(mockRepository, times(i)).queryEvents(any(EventQuery.class), eq(cursor), callbackCaptor.capture());
+            callbackCaptor.getValue().onPageFetched(new EventPage(new ArrayList<>(), cursor, true));
+        }
+
+        verify(mockRepository, times(UHomeController.MAX_AUTO_PAGES))
+                .queryEvents(any(EventQuery.class), eq(cursor), any());
+        verify(mockView).showLoadMore(true);
+
+        // Asking for more fetches the next page again.
+        controller.loadMoreEvents();
+        verify(mockRepository, times(UHomeController.MAX_AUTO_PAGES + 1))
+                .queryEvents(any(EventQuery.class), eq(cursor), any());
+    }
+
     @Test
     public void onSearchQueryChanged_updatesSearchQueryAndRefreshesView() {
         String newQuery = "concert";
@@ -108,4 +200,27 @@ public class UHomeControllerTest {
         verify(mockModel).clearAvailability();
         verify(mockView).showEvents(mockModel.buildDisplayEvents(), "");
     }
+
+    @Test
+    public void selectedInterests_areFilteredOnTheServer() {
+        List<String> interests = Arrays.asList("Sports & Fitness", "Food & Drink");
+        when(mockModel.getSelectedInterests()).thenReturn(interests);
+        ArgumentCaptor<EventQuery> queryCaptor = ArgumentCaptor.forClass(EventQuery.class);
+
+        controller.loadEvents();
+
+        verify(mockRepository).queryEvents(queryCaptor.capture(), isNull(), any());
+        assertEquals(interests, queryCaptor.getValue().getThemes());
+    }
+
+    @Test
+    public void tooManyInterests_areLeftToTheModel() {
+        List<String> interests = new ArrayList<>();
+        for (int i = 0; i <= EventQuery.MAX_THEMES; i++) {
+            interests.add("Theme " + i);
+        }
+
+        assertNull(UHomeController.serverThemes(interests));
+        assertNull(UHomeController.serverThemes(Collections.emptyList()));
+    }
 }
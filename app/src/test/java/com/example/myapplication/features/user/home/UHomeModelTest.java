@@ -0,0 +1,146 @@
+package com.example.myapplication.features.user.home;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.example.myapplication.features.user.UserEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+
+public class UHomeModelTest {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    private UHomeModel model;
+    private long now;
+
+    @Before
+    public void setUp() {
+        model = new UHomeModel();
+        now = System.currentTimeMillis();
+    }
+
+    private UserEvent event(String name, String theme, long start, long end, long draw) {
+        UserEvent event = new UserEvent();
+        event.setName(name);
+        event.setTheme(theme);
+        event.setStartTimeMillis(start);
+        event.setEndTimeMillis(end);
+        event.setSelectionDateMillis(draw);
+        return event;
+    }
+
+    private static long atHour(long dayMillis, int hour) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(dayMillis);
+        calendar.set(Calendar.HOUR_OF_DAY, hour);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTimeInMillis();
+    }
+
+    @Test
+    public void buildDisplayEvents_hidesFinishedEventsAndEventsWhoseDrawPassed() {
+        UserEvent open = event("Open", "Sports", now + 5 * DAY, now + 6 * DAY, now + DAY);
+        UserEvent drawn = event("Drawn", "Sports", now + 5 * DAY, now + 6 * DAY, now - DAY);
+        UserEvent finished = event("Finished", "Sports", now - 3 * DAY, now - 2 * DAY, now - 4 * DAY);
+        model.setEvents(Arrays.asList(open, drawn, finished));
+
+        assertEquals(Collections.singletonList(open), model.buildDisplayEvents());
+    }
+
+    @Test
+    public void eventWithoutDrawDate_isNotShown() {
+        // The home screen always hid these: registration closes at the draw, and 0 is long past
+        UserEvent noDraw = event("No draw", "Sports", now + 5 * DAY, now + 6 * DAY, 0);
+        model.setEvents(Collections.singletonList(noDraw));
+
+        assertEquals(Collections.emptyList(), model.buildDisplayEvents());
+    }
+
+    @Test
+    public void availability_includesEventsStartingLaterOnTheLastDay() {
+        long lastDay = now + 10 * DAY;
+        UserEvent evening = event("Evening", "Music", atHour(lastDay, 18), atHour(lastDay, 20), now + DAY);
+        model.setEvents(Collections.singletonList(evening));
+
+        model.setAvailabilityRange(now + 9 * DAY, atHour(lastDay, 0));
+
+        assertEquals(Collections.singletonList(evening), model.buildDisplayEvents());
+    }
+
+    @Test
+    public void unchangedFilters_returnCachedResult() {
+        model.setEvents(Collections.singletonList(event("Yoga", "Sports", now + 5 * DAY, 0, now + DAY)));
+
+        List<UserEvent> first = model.buildDisplayEvents("yo");
+        List<UserEvent> second = model.buildDisplayEvents("YO");
+
+        assertSame(first, second);
+        assertEquals(1, model.queryStage.getComputeCount());
+    }
+
+    @Test
+    public void changingQuery_recomputesOnlyTheQueryStage() {
+        UserEvent yoga = event("Yoga", "Sports", now + 5 * DAY, 0, now + DAY);
+        UserEvent jazz = event("Jazz night", "Music", now + 5 * DAY, 0, now + DAY);
+        model.setEvents(Arrays.asList(yoga, jazz));
+        model.setSelectedInterests(Arrays.asList("Sports", "Music"));
+
+        model.buildDisplayEvents("");
+        List<UserEvent> result = model.buildDisplayEvents("jazz");
+
+        assertEquals(Collections.singletonList(jazz), result);
+        assertEquals(1, model.openStage.getComputeCount());
+        assertEquals(1, model.interestStage.getComputeCount());
+        assertEquals(1, model.availabilityStage.getComputeCount());
+        assertEquals(2, model.queryStage.getComputeCount());
+    }
+
+    @Test
+    public void changingInterests_reusesOpenStage() {
+        UserEvent yoga = event("Yoga", "Sports", now + 5 * DAY, 0, now + DAY);
+        UserEvent jazz = event("Jazz night", "Music", now + 5 * DAY, 0, now + DAY);
+        model.setEvents(Arrays.asList(yoga, jazz));
+
+        model.buildDisplayEvents();
+        model.setSelectedInterests(Collections.singletonList("music"));
+        List<UserEvent> result = model.buildDisplayEvents();
+
+        assertEquals(Collections.singletonList(jazz), result);
+        assertEquals(1, model.openStage.getComputeCount());
+        assertEquals(2, model.interestStage.getComputeCount());
+    }
+
+    @Test
+    public void interests_matchCatalogueThemesByIdAndOtherThemesByName() {
+        UserEvent run = event("Run club", "Sports & Fitness", now + 5 * DAY, 0, now + DAY);
+        UserEvent knit = event("Knit night", "Knitting", now + 5 * DAY, 0, now + DAY);
+        UserEvent food = event("Tasting", "Food & Drink", now + 5 * DAY, 0, now + DAY);
+        model.setEvents(Arrays.asList(run, knit, food));
+
+        model.setSelectedInterests(Arrays.asList("SPORTS & FITNESS", "knitting"));
+
+        assertEquals(Arrays.asList(run, knit), model.buildDisplayEvents());
+    }
+
+    @Test
+    public void newEvents_recomputeEveryStage() {
+        model.setEvents(Collections.singletonList(event("Yoga", "Sports", now + 5 * DAY, 0, now + DAY)));
+        model.buildDisplayEvents();
+
+        UserEvent swim = event("Swim", "Sports", now + 5 * DAY, 0, now + DAY);
+        model.addEvents(Collections.singletonList(swim));
+
+        assertEquals(2, model.buildDisplayEvents("").size());
+        assertEquals(Collections.singletonList(swim), model.buildDisplayEvents("swim"));
+        assertEquals(2, model.openStage.getComputeCount());
+    }
+}